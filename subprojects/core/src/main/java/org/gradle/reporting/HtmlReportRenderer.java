@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.Writer;
 import java.net.URL;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,7 +42,7 @@ public class HtmlReportRenderer {
             outputDirectory.mkdirs();
             DefaultHtmlReportContext context = new DefaultHtmlReportContext(outputDirectory);
             renderer.render(model, context);
-            for (Resource resource : context.resources.values()) {
+            for (Resource resource : context.getResources()) {
                 File destFile = new File(outputDirectory, resource.path);
                 if (!destFile.exists()) {
                     GFileUtils.copyURLToFile(resource.source, destFile);
@@ -93,7 +95,8 @@ public class HtmlReportRenderer {
             this.outputDirectory = outputDirectory;
         }
 
-        Resource addResource(URL source) {
+        // Pages may be rendered in parallel
+        synchronized Resource addResource(URL source) {
             String urlString = source.toString();
             Resource resource = resources.get(urlString);
             if (resource == null) {
@@ -113,6 +116,10 @@ public class HtmlReportRenderer {
             addResource(source);
         }
 
+        synchronized Collection<Resource> getResources() {
+            return new ArrayList<Resource>(resources.values());
+        }
+
         public <T> void renderHtmlPage(final String name, final T model, final ReportRenderer<T, HtmlPageBuilder<SimpleHtmlWriter>> renderer) {
             File outputFile = new File(outputDirectory, name);
             IoActions.writeTextFile(outputFile, "utf-8", new ErroringAction<Writer>() {
@@ -15,28 +15,36 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 
+import com.google.common.collect.Maps;
 import org.gradle.api.artifacts.ComponentMetadata;
 import org.gradle.api.artifacts.ComponentSelection;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ComponentSelectionInternal;
 import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal;
 import org.gradle.api.internal.artifacts.DefaultComponentSelection;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.SubVersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
 import org.gradle.internal.component.model.ComponentResolveMetadata;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.ComponentSelectionContext;
 import org.gradle.internal.rules.SpecRuleAction;
-import org.gradle.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 class DefaultVersionedComponentChooser implements VersionedComponentChooser {
     private final ComponentSelectionRulesProcessor rulesProcessor = new ComponentSelectionRulesProcessor();
     private final VersionComparator versionComparator;
     private final ComponentSelectionRulesInternal componentSelectionRules;
+    // The latest first order of each version listing seen so far, keyed by the versions in listing order.
+    // The order only depends on the versions, so listings of different modules or repositories share entries.
+    private final Map<List<String>, int[]> latestFirstOrderings = Maps.newConcurrentMap();
 
     DefaultVersionedComponentChooser(VersionComparator versionComparator, ComponentSelectionRulesInternal componentSelectionRules) {
         this.versionComparator = versionComparator;
@@ -67,8 +75,14 @@ class DefaultVersionedComponentChooser implements VersionedComponentChooser {
     public void selectNewestMatchingComponent(Collection<? extends ModuleComponentResolveState> versions, ComponentSelectionContext result, VersionSelector requestedVersionMatcher, VersionSelector rejectedVersionSelector) {
         Collection<SpecRuleAction<? super ComponentSelection>> rules = componentSelectionRules.getRules();
 
+        List<ModuleComponentResolveState> candidates = sortLatestFirst(versions);
+        int firstCandidate = firstPossibleMatch(candidates, requestedVersionMatcher);
+        for (int i = 0; i < firstCandidate; i++) {
+            result.notMatched(candidates.get(i).getId());
+        }
+
         // Loop over all listed versions, sorted by LATEST first
-        for (ModuleComponentResolveState candidate : sortLatestFirst(versions)) {
+        for (ModuleComponentResolveState candidate : candidates.subList(firstCandidate, candidates.size())) {
             MetadataProvider metadataProvider = createMetadataProvider(candidate);
 
             boolean versionMatches = versionMatches(requestedVersionMatcher, candidate, metadataProvider);
@@ -169,6 +183,65 @@ class DefaultVersionedComponentChooser implements VersionedComponentChooser {
     }
 
     private List<ModuleComponentResolveState> sortLatestFirst(Collection<? extends ModuleComponentResolveState> listing) {
-        return CollectionUtils.sort(listing, Collections.reverseOrder(versionComparator));
+        List<ModuleComponentResolveState> candidates = new ArrayList<ModuleComponentResolveState>(listing);
+        List<String> key = new ArrayList<String>(candidates.size());
+        for (ModuleComponentResolveState candidate : candidates) {
+            key.add(candidate.getVersion().getSource());
+        }
+        int[] order = latestFirstOrderings.get(key);
+        if (order == null) {
+            order = latestFirstOrder(candidates);
+            latestFirstOrderings.put(key, order);
+        }
+        List<ModuleComponentResolveState> sorted = new ArrayList<ModuleComponentResolveState>(order.length);
+        for (int index : order) {
+            sorted.add(candidates.get(index));
+        }
+        return sorted;
+    }
+
+    private int[] latestFirstOrder(final List<ModuleComponentResolveState> candidates) {
+        Integer[] indices = new Integer[candidates.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        // Stable, so versions that compare as equal keep their listing order
+        Arrays.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                return versionComparator.compare(candidates.get(right), candidates.get(left));
+            }
+        });
+        int[] order = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            order[i] = indices[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the index of the first candidate that may be accepted by the given selector. Candidates before this index
+     * are newer than any version the selector can accept, so a binary search can skip them without matching each one.
+     */
+    private int firstPossibleMatch(List<ModuleComponentResolveState> latestFirst, VersionSelector selector) {
+        if (!(selector instanceof SubVersionSelector)) {
+            return 0;
+        }
+        Version upperBound = ((SubVersionSelector) selector).getUpperBound();
+        if (upperBound == null) {
+            return 0;
+        }
+        Comparator<Version> comparator = versionComparator.asVersionComparator();
+        int low = 0;
+        int high = latestFirst.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(latestFirst.get(mid).getVersion(), upperBound) < 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
     }
 }
@@ -15,21 +15,34 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy;
 
+import javax.annotation.Nullable;
+
 /**
  * Version matcher for dynamic version selectors ending in '+'.
  */
 public class SubVersionSelector extends AbstractStringVersionSelector {
     private final String prefix;
+    private final Version upperBound;
 
     public SubVersionSelector(String selector) {
         super(selector);
         prefix = selector.substring(0, selector.length() - 1);
+        upperBound = upperBound(prefix);
     }
 
     public String getPrefix() {
         return prefix;
     }
 
+    /**
+     * Returns a version that is newer than every version accepted by this selector, or null when no such bound can be derived from the prefix.
+     * For example, every version accepted by '1.2.+' is older than '1.3', and every version accepted by '1.2+' is older than '2'.
+     */
+    @Nullable
+    public Version getUpperBound() {
+        return upperBound;
+    }
+
     public boolean isDynamic() {
         return true;
     }
@@ -45,4 +58,35 @@ public class SubVersionSelector extends AbstractStringVersionSelector {
     public boolean accept(String candidate) {
         return candidate.startsWith(prefix);
     }
+
+    @Nullable
+    private static Version upperBound(String prefix) {
+        // Only the parts followed by a separator are complete: '1.2' also matches '1.20'
+        int end = Math.max(prefix.lastIndexOf('.'), Math.max(prefix.lastIndexOf('-'), prefix.lastIndexOf('_')));
+        if (end <= 0) {
+            return null;
+        }
+        Version complete = VersionParser.INSTANCE.transform(prefix.substring(0, end));
+        String[] parts = complete.getParts();
+        Long[] numericParts = complete.getNumericParts();
+        if (parts.length == 0) {
+            return null;
+        }
+        StringBuilder bound = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (numericParts[i] == null || numericParts[i] == Long.MAX_VALUE) {
+                return null;
+            }
+            if (i > 0) {
+                bound.append('.');
+            }
+            // Keep the leading parts as written, as the comparator treats '01' and '1' as the same part
+            if (i < parts.length - 1) {
+                bound.append(parts[i]);
+            } else {
+                bound.append(numericParts[i] + 1);
+            }
+        }
+        return VersionParser.INSTANCE.transform(bound.toString());
+    }
     }
@@ -15,7 +15,8 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 
-import com.google.common.collect.Maps;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
@@ -23,15 +24,23 @@ import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
 public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultModuleMetadataCache.class);
+    // A rough estimate of the heap retained by the metadata of a single module, used to bound the number of entries kept in memory
+    private static final long ESTIMATED_ENTRY_SIZE = 20 * 1024;
+    private static final long MAX_ENTRIES = Long.getLong("org.gradle.internal.module.metadata.memory.cache.size", Runtime.getRuntime().maxMemory() / ESTIMATED_ENTRY_SIZE);
+
     protected final BuildCommencedTimeProvider timeProvider;
-    private Map<ModuleComponentAtRepositoryKey, CachedMetadata> inMemoryCache =  Maps.newConcurrentMap();
+    private final Cache<ModuleComponentAtRepositoryKey, CachedMetadata> inMemoryCache;
 
     public InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider) {
+        this(timeProvider, MAX_ENTRIES);
+    }
+
+    InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider, long maxEntries) {
         this.timeProvider = timeProvider;
+        // Soft values let the garbage collector reclaim entries before the heap runs out, they can always be loaded again
+        this.inMemoryCache = CacheBuilder.newBuilder().maximumSize(maxEntries).softValues().build();
     }
 
     public CachedMetadata getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId) {
@@ -40,7 +49,7 @@ public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     }
 
     protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
-        return inMemoryCache.get(key);
+        return inMemoryCache.getIfPresent(key);
     }
 
     public CachedMetadata cacheMissing(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
@@ -82,11 +82,11 @@ public class ModuleMetadataSerializer {
     }
 
     public MutableModuleComponentResolveMetadata read(Decoder decoder, ImmutableModuleIdentifierFactory moduleIdentifierFactory) throws IOException {
-        return new Reader(decoder, moduleIdentifierFactory, attributeContainerSerializer, componentSelectorSerializer, mavenMetadataFactory, ivyMetadataFactory).read();
+        return new Reader(new StringDeduplicatingDecoder(decoder), moduleIdentifierFactory, attributeContainerSerializer, componentSelectorSerializer, mavenMetadataFactory, ivyMetadataFactory).read();
     }
 
     public void write(Encoder encoder, ModuleComponentResolveMetadata metadata) throws IOException {
-        new Writer(encoder, attributeContainerSerializer, componentSelectorSerializer).write(metadata);
+        new Writer(new StringDeduplicatingEncoder(encoder), attributeContainerSerializer, componentSelectorSerializer).write(metadata);
     }
 
     private static class Writer {
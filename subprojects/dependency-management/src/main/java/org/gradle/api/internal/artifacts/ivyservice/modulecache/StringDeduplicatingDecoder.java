@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.internal.serialize.Decoder;
+
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.gradle.api.internal.artifacts.ivyservice.modulecache.StringDeduplicatingEncoder.FIRST_POOLED_STRING;
+import static org.gradle.api.internal.artifacts.ivyservice.modulecache.StringDeduplicatingEncoder.NEW_STRING;
+import static org.gradle.api.internal.artifacts.ivyservice.modulecache.StringDeduplicatingEncoder.NULL_STRING;
+
+/**
+ * Reads data written by a {@link StringDeduplicatingEncoder}, returning the same string instance for each occurrence of a pooled string.
+ */
+class StringDeduplicatingDecoder implements Decoder {
+    private final Decoder delegate;
+    private final List<String> pool = new ArrayList<String>();
+
+    StringDeduplicatingDecoder(Decoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String readString() throws EOFException, IOException {
+        String value = readNullableString();
+        if (value == null) {
+            throw new IOException("Unexpected null string.");
+        }
+        return value;
+    }
+
+    @Nullable
+    @Override
+    public String readNullableString() throws EOFException, IOException {
+        int index = delegate.readSmallInt();
+        if (index == NULL_STRING) {
+            return null;
+        }
+        if (index == NEW_STRING) {
+            String value = delegate.readString();
+            pool.add(value);
+            return value;
+        }
+        int poolIndex = index - FIRST_POOLED_STRING;
+        if (poolIndex >= pool.size()) {
+            throw new IOException("Unexpected string pool index " + poolIndex + ", pool contains " + pool.size() + " strings.");
+        }
+        return pool.get(poolIndex);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return delegate.getInputStream();
+    }
+
+    @Override
+    public long readLong() throws EOFException, IOException {
+        return delegate.readLong();
+    }
+
+    @Override
+    public long readSmallLong() throws EOFException, IOException {
+        return delegate.readSmallLong();
+    }
+
+    @Override
+    public int readInt() throws EOFException, IOException {
+        return delegate.readInt();
+    }
+
+    @Override
+    public int readSmallInt() throws EOFException, IOException {
+        return delegate.readSmallInt();
+    }
+
+    @Override
+    public boolean readBoolean() throws EOFException, IOException {
+        return delegate.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws EOFException, IOException {
+        return delegate.readByte();
+    }
+
+    @Override
+    public void readBytes(byte[] buffer) throws EOFException, IOException {
+        delegate.readBytes(buffer);
+    }
+
+    @Override
+    public void readBytes(byte[] buffer, int offset, int count) throws EOFException, IOException {
+        delegate.readBytes(buffer, offset, count);
+    }
+
+    @Override
+    public byte[] readBinary() throws EOFException, IOException {
+        return delegate.readBinary();
+    }
+
+    @Override
+    public void skipBytes(long count) throws EOFException, IOException {
+        delegate.skipBytes(count);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.internal.serialize.Encoder;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An {@link Encoder} that writes each distinct string only once, and refers to it by its index in the string pool after that.
+ * The pool is written inline, so the data can still be read in a single pass by a {@link StringDeduplicatingDecoder}.
+ *
+ * <p>Module metadata repeats the same group, module and version strings many times, so this considerably reduces both the size
+ * of the serialized form and the number of strings created when reading it back.
+ */
+class StringDeduplicatingEncoder implements Encoder {
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int FIRST_POOLED_STRING = 2;
+
+    private final Encoder delegate;
+    private final Map<String, Integer> pool = new HashMap<String, Integer>();
+
+    StringDeduplicatingEncoder(Encoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot encode a null string.");
+        }
+        writeNullableString(value);
+    }
+
+    @Override
+    public void writeNullableString(@Nullable CharSequence value) throws IOException {
+        if (value == null) {
+            delegate.writeSmallInt(NULL_STRING);
+            return;
+        }
+        String string = value.toString();
+        Integer index = pool.get(string);
+        if (index != null) {
+            delegate.writeSmallInt(FIRST_POOLED_STRING + index);
+        } else {
+            pool.put(string, pool.size());
+            delegate.writeSmallInt(NEW_STRING);
+            delegate.writeString(string);
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return delegate.getOutputStream();
+    }
+
+    @Override
+    public void writeByte(byte value) throws IOException {
+        delegate.writeByte(value);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes) throws IOException {
+        delegate.writeBytes(bytes);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int offset, int count) throws IOException {
+        delegate.writeBytes(bytes, offset, count);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes) throws IOException {
+        delegate.writeBinary(bytes);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes, int offset, int count) throws IOException {
+        delegate.writeBinary(bytes, offset, count);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        delegate.writeLong(value);
+    }
+
+    @Override
+    public void writeSmallLong(long value) throws IOException {
+        delegate.writeSmallLong(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        delegate.writeInt(value);
+    }
+
+    @Override
+    public void writeSmallInt(int value) throws IOException {
+        delegate.writeSmallInt(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        delegate.writeBoolean(value);
+    }
+}
@@ -17,6 +17,8 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
 
 import org.gradle.cache.internal.BinaryStore;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.io.ByteBufferInputStream;
+import org.gradle.internal.io.MemoryMappedFiles;
 import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
@@ -26,17 +28,25 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 class DefaultBinaryStore implements BinaryStore, Closeable {
+    private final boolean memoryMapped;
     private File file;
     private KryoBackedEncoder encoder;
     private int offset = -1;
 
     public DefaultBinaryStore(File file) {
+        this(file, MemoryMappedFiles.isSupported());
+    }
+
+    DefaultBinaryStore(File file, boolean memoryMapped) {
         this.file = file;
+        this.memoryMapped = memoryMapped;
     }
 
     public void write(WriteAction write) {
@@ -71,8 +81,15 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
 
     public BinaryData done() {
         try {
+            int length = 0;
             if (encoder != null) {
                 encoder.flush();
+                if (offset != -1) {
+                    length = encoder.getWritePosition() - offset;
+                }
+            }
+            if (memoryMapped) {
+                return new MemoryMappedBinaryData(file, offset, length, diagnose());
             }
             return new SimpleBinaryData(file, offset, diagnose());
         } finally {
@@ -147,4 +164,61 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             return sourceDescription;
         }
     }
+
+    /**
+     * Maps the region of the store written for this data into memory while the data is being read. The mapping is
+     * dropped when the data is closed, so that it does not outlive the store's file.
+     */
+    private static class MemoryMappedBinaryData implements BinaryStore.BinaryData {
+        private final int offset;
+        private final int length;
+        private final File inputFile;
+        private final String sourceDescription;
+
+        private ByteBuffer mapped;
+        private Decoder decoder;
+
+        public MemoryMappedBinaryData(File inputFile, int offset, int length, String sourceDescription) {
+            this.inputFile = inputFile;
+            this.offset = offset;
+            this.length = length;
+            this.sourceDescription = sourceDescription;
+        }
+
+        public <T> T read(BinaryStore.ReadAction<T> readAction) {
+            try {
+                if (decoder == null) {
+                    decoder = new KryoBackedDecoder(new ByteBufferInputStream(region()));
+                }
+                return readAction.read(decoder);
+            } catch (Exception e) {
+                throw new RuntimeException("Problems reading data from " + sourceDescription, e);
+            }
+        }
+
+        private synchronized ByteBuffer region() throws IOException {
+            if (mapped == null) {
+                if (length == 0) {
+                    mapped = ByteBuffer.allocate(0);
+                } else {
+                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
+                    try {
+                        mapped = MemoryMappedFiles.map(randomAccess.getChannel(), offset, length);
+                    } finally {
+                        randomAccess.close();
+                    }
+                }
+            }
+            return mapped.duplicate();
+        }
+
+        public synchronized void close() {
+            decoder = null;
+            mapped = null;
+        }
+
+        public String toString() {
+            return sourceDescription;
+        }
+    }
 }
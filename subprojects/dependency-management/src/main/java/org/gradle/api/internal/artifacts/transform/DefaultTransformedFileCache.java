@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.transform;
 
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.Action;
+import org.gradle.api.Describable;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
@@ -35,6 +36,10 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
 import org.gradle.internal.resource.local.FileStore;
 import org.gradle.internal.resource.local.FileStoreAddActionException;
@@ -59,9 +64,11 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
     private final ProducerGuard<CacheKey> producing = ProducerGuard.adaptive();
     private final Map<CacheKey, List<File>> resultHashToResult = new ConcurrentHashMap<CacheKey, List<File>>();
     private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public DefaultTransformedFileCache(ArtifactCacheMetadata artifactCacheMetadata, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter) {
+    public DefaultTransformedFileCache(ArtifactCacheMetadata artifactCacheMetadata, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter, BuildOperationExecutor buildOperationExecutor) {
         this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.buildOperationExecutor = buildOperationExecutor;
         File transformsStoreDirectory = artifactCacheMetadata.getTransformsStoreDirectory();
         File filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
         fileStore = new DefaultPathKeyFileStore(filesOutputDirectory);
@@ -94,7 +101,22 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
 
     @Override
     public boolean contains(File absoluteFile, HashCode inputsHash) {
-        return resultHashToResult.containsKey(getCacheKey(absoluteFile, inputsHash));
+        final CacheKey cacheKey = getCacheKey(absoluteFile, inputsHash);
+        if (resultHashToResult.containsKey(cacheKey)) {
+            return true;
+        }
+        // Results produced by a previous build or another daemon are kept in the persistent cache, so they do not need to be scheduled again
+        List<File> files = cache.withFileLock(new Factory<List<File>>() {
+            @Override
+            public List<File> create() {
+                return loadPersistedResult(cacheKey.getPersistentCacheKey());
+            }
+        });
+        if (files == null) {
+            return false;
+        }
+        resultHashToResult.put(cacheKey, files);
+        return true;
     }
 
     @Override
@@ -123,27 +145,29 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
                     @Override
                     public List<File> create() {
                         HashCode persistentCacheKey = cacheKey.getPersistentCacheKey();
-                        List<File> files = indexedCache.get(persistentCacheKey);
+                        List<File> files = loadPersistedResult(persistentCacheKey);
                         if (files != null) {
-                            boolean allExist = true;
-                            for (File file : files) {
-                                if (!file.exists()) {
-                                    allExist = false;
-                                    break;
+                            return files;
+                        }
+
+                        final String key = inputFile.getName() + "/" + persistentCacheKey;
+                        final TransformAction action = new TransformAction(transformer, inputFile);
+                        buildOperationExecutor.run(new RunnableBuildOperation() {
+                            @Override
+                            public void run(BuildOperationContext context) {
+                                try {
+                                    fileStore.add(key, action);
+                                } catch (FileStoreAddActionException e) {
+                                    throw UncheckedException.throwAsUncheckedException(e.getCause());
                                 }
                             }
-                            if (allExist) {
-                                return files;
-                            }
-                        }
 
-                        String key = inputFile.getName() + "/" + persistentCacheKey;
-                        TransformAction action = new TransformAction(transformer, inputFile);
-                        try {
-                            fileStore.add(key, action);
-                        } catch (FileStoreAddActionException e) {
-                            throw UncheckedException.throwAsUncheckedException(e.getCause());
-                        }
+                            @Override
+                            public BuildOperationDescriptor.Builder description() {
+                                String displayName = "Execute " + describe(transformer) + " on " + inputFile.getName();
+                                return BuildOperationDescriptor.displayName(displayName).progressDisplayName(displayName);
+                            }
+                        });
 
                         indexedCache.put(persistentCacheKey, action.result);
                         return action.result;
@@ -156,6 +180,27 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         });
     }
 
+    /**
+     * Returns the result stored in the persistent cache for the given key, or {@code null} when there is none or some of its files have been removed.
+     * Must be called while holding the file lock of the cache.
+     */
+    private List<File> loadPersistedResult(HashCode persistentCacheKey) {
+        List<File> files = indexedCache.get(persistentCacheKey);
+        if (files == null) {
+            return null;
+        }
+        for (File file : files) {
+            if (!file.exists()) {
+                return null;
+            }
+        }
+        return files;
+    }
+
+    private static String describe(BiFunction<List<File>, File, File> transformer) {
+        return transformer instanceof Describable ? ((Describable) transformer).getDisplayName() : "transform";
+    }
+
     private CacheKey getCacheKey(File inputFile, HashCode inputsHash) {
         Snapshot inputFileSnapshot = fileSystemSnapshotter.snapshotAll(inputFile);
         return new CacheKey(inputFileSnapshot, inputsHash);
@@ -27,6 +27,8 @@ import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.HashingOutputStream;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ExternalResourceReadResult;
@@ -40,6 +42,8 @@ import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.gradle.util.GFileUtils;
 import org.slf4j.Logger;
@@ -244,12 +248,24 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             if (destination.getParentFile() != null) {
                 GFileUtils.mkdirs(destination.getParentFile());
             }
-            FileOutputStream outputStream = new FileOutputStream(destination);
+            Timer timer = Time.startTimer();
+            long bytes;
+            HashValue expectedSha1 = metaData.getSha1();
+            HashingOutputStream outputStream = new HashingOutputStream(Hashing.sha1(), new FileOutputStream(destination));
             try {
-                IOUtils.copyLarge(inputStream, outputStream);
+                bytes = IOUtils.copyLarge(inputStream, outputStream);
             } finally {
                 outputStream.close();
             }
+            // Verify the content while it is streamed, rather than re-reading the downloaded file
+            if (expectedSha1 != null) {
+                HashValue actualSha1 = new HashValue(outputStream.hash().toByteArray());
+                if (!actualSha1.equals(expectedSha1)) {
+                    destination.delete();
+                    throw new IOException(String.format("Checksum mismatch for %s: expected SHA1 %s but was %s.", source, expectedSha1.asHexString(), actualSha1.asHexString()));
+                }
+            }
+            LOGGER.debug("Downloaded {} ({} bytes) in {}.", source, bytes, timer.getElapsed());
             return null;
         }
     }
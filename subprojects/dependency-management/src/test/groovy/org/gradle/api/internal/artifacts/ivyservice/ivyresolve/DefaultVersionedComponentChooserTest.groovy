@@ -128,6 +128,48 @@ class DefaultVersionedComponentChooserTest extends Specification {
 
     }
 
+    def "skips versions newer than any match of a sub version selector"() {
+        given:
+        def a = component('1.9')
+        def b = component('1.10')
+        def c = component('2.0')
+        def d = component('2.0-rc-1')
+        def e = component('10.1')
+        def selectedComponentResult = Mock(ComponentSelectionContext)
+
+        when:
+        chooser.selectNewestMatchingComponent([a, e, d, b, c], selectedComponentResult, versionSelectorScheme.parseSelector("1.+"), null)
+
+        then:
+        _ * componentSelectionRules.rules >> []
+        1 * selectedComponentResult.notMatched(e.id)
+        1 * selectedComponentResult.notMatched(c.id)
+        1 * selectedComponentResult.notMatched(d.id)
+        1 * selectedComponentResult.matches(b.id)
+        0 * _
+    }
+
+    def "orders a version listing seen before in the same way"() {
+        given:
+        def a = component('1.2')
+        def b = component('1.3')
+        def c = component('2.0')
+        def first = Mock(ComponentSelectionContext)
+        def second = Mock(ComponentSelectionContext)
+
+        when:
+        chooser.selectNewestMatchingComponent([c, a, b], first, versionSelectorScheme.parseSelector("+"), null)
+        chooser.selectNewestMatchingComponent([component('2.0'), component('1.2'), component('1.3')], second, versionSelectorScheme.parseSelector("1.2"), null)
+
+        then:
+        _ * componentSelectionRules.rules >> []
+        1 * first.matches(c.id)
+        1 * second.notMatched(c.id)
+        1 * second.notMatched(b.id)
+        1 * second.matches(a.id)
+        0 * _
+    }
+
     def "chooses newest matching version requiring metadata"() {
         given:
         def a = component('1.2')
@@ -67,6 +67,24 @@ class SubVersionSelectorTest extends AbstractStringVersionSelectorTest {
         "2.5"           | false
     }
 
+    def "derives a version newer than any accepted version from the complete parts of the prefix"() {
+        expect:
+        def upperBound = new SubVersionSelector(selector).upperBound
+        (upperBound == null ? null : upperBound.source) == expected
+
+        where:
+        selector   | expected
+        "1.+"      | "2"
+        "1.2+"     | "2"
+        "1.2.+"    | "1.3"
+        "1.2-+"    | "1.3"
+        "01.9.+"   | "01.10"
+        "+"        | null
+        "1+"       | null
+        "1.rc.+"   | null
+        "1.2rc.+"  | null
+    }
+
     @Override
     VersionSelector getSelector(String selector) {
         return new SubVersionSelector(selector)
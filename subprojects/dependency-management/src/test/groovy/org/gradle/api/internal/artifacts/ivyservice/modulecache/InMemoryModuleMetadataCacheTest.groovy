@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+class InMemoryModuleMetadataCacheTest extends Specification {
+    def repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+    }
+    def a = DefaultModuleComponentIdentifier.newId("org", "a", "1.0")
+    def b = DefaultModuleComponentIdentifier.newId("org", "b", "1.0")
+    def c = DefaultModuleComponentIdentifier.newId("org", "c", "1.0")
+    def cache = new InMemoryModuleMetadataCache(Stub(BuildCommencedTimeProvider), 2)
+
+    def "keeps cached metadata"() {
+        when:
+        def cached = cache.cacheMissing(repository, a)
+
+        then:
+        cache.getCachedModuleDescriptor(repository, a).is(cached)
+        cache.getCachedModuleDescriptor(repository, b) == null
+    }
+
+    def "evicts the least recently used metadata once the maximum number of entries is exceeded"() {
+        when:
+        cache.cacheMissing(repository, a)
+        cache.cacheMissing(repository, b)
+        cache.getCachedModuleDescriptor(repository, a)
+        cache.cacheMissing(repository, c)
+
+        then:
+        cache.getCachedModuleDescriptor(repository, a) != null
+        cache.getCachedModuleDescriptor(repository, b) == null
+        cache.getCachedModuleDescriptor(repository, c) != null
+    }
+}
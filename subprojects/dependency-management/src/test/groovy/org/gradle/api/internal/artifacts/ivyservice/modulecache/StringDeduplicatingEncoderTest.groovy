@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import spock.lang.Specification
+
+class StringDeduplicatingEncoderTest extends Specification {
+
+    def "can write and re-read strings mixed with other values"() {
+        when:
+        def decoder = decoder(encode { encoder ->
+            encoder.writeString("org.test")
+            encoder.writeNullableString(null)
+            encoder.writeSmallInt(12)
+            encoder.writeString("org.test")
+            encoder.writeNullableString("module")
+            encoder.writeBoolean(true)
+            encoder.writeString("module")
+        })
+
+        then:
+        decoder.readString() == "org.test"
+        decoder.readNullableString() == null
+        decoder.readSmallInt() == 12
+        decoder.readString() == "org.test"
+        decoder.readNullableString() == "module"
+        decoder.readBoolean()
+        decoder.readString() == "module"
+    }
+
+    def "reuses the same instance for repeated strings"() {
+        when:
+        def decoder = decoder(encode { encoder ->
+            encoder.writeString("org.test")
+            encoder.writeString("org.test")
+        })
+
+        then:
+        decoder.readString().is(decoder.readString())
+    }
+
+    def "writes repeated strings only once"() {
+        def value = "org.gradle.some.long.group"
+
+        when:
+        def once = encode { encoder -> encoder.writeString(value) }
+        def repeated = encode { encoder -> 10.times { encoder.writeString(value) } }
+
+        then:
+        repeated.length < once.length + 10 * 2
+    }
+
+    def "cannot write a null string"() {
+        when:
+        encode { encoder -> encoder.writeString(null) }
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static byte[] encode(Closure action) {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        action.call(new StringDeduplicatingEncoder(encoder))
+        encoder.flush()
+        return bytes.toByteArray()
+    }
+
+    private static StringDeduplicatingDecoder decoder(byte[] bytes) {
+        return new StringDeduplicatingDecoder(new KryoBackedDecoder(new ByteArrayInputStream(bytes)))
+    }
+}
@@ -70,6 +70,32 @@ class DefaultBinaryStoreTest extends Specification {
 
     }
 
+    def "data can be re-read after it was closed"() {
+        def store = new DefaultBinaryStore(temp.file("foo.bin"), memoryMapped)
+
+        when:
+        store.write({ it.writeString("ignored") } as BinaryStore.WriteAction)
+        store.done()
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        store.write({ it.writeString("x"); it.writeSmallLong(12) } as BinaryStore.WriteAction)
+        def data = store.done()
+
+        then:
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read({ [it.readString(), it.readSmallLong()] } as BinaryStore.ReadAction) == ["x", 12L]
+        data.close()
+
+        then:
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.close()
+
+        cleanup:
+        store.close()
+
+        where:
+        memoryMapped << [true, false]
+    }
+
     class SomeException extends RuntimeException {}
 
     def "write action exception is propagated to the client"() {
@@ -24,6 +24,7 @@ import org.gradle.cache.internal.CacheScopeMapping
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.caching.internal.BuildCacheHasher
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.util.BiFunction
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -40,13 +41,14 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
     def cacheRepo = new DefaultCacheRepository(scopeMapping, new InMemoryCacheFactory())
     def decorator = Stub(InMemoryCacheDecoratorFactory)
     def snapshotter = Mock(FileSystemSnapshotter)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
     TransformedFileCache cache
 
     def setup() {
         scopeMapping.getBaseDirectory(_, _, _) >> tmpDir.testDirectory
         scopeMapping.getRootDirectory(_) >> tmpDir.testDirectory
         artifactCacheMetaData.transformsStoreDirectory >> tmpDir.file("output")
-        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, buildOperationExecutor)
     }
 
     def "reuses result for given inputs and transform"() {
@@ -332,7 +334,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
         when:
-        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, buildOperationExecutor)
         result.first().delete()
         def result2 = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
@@ -345,6 +347,61 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         0 * transform._
     }
 
+    def "contains result produced by a previous build"() {
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+        def hash = HashCode.fromInt(123)
+        _ * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(456))
+
+        given:
+        1 * transform.apply(inputFile, _) >>  { File file, File dir -> def r = new File(dir, "a.1"); r.text = "result"; [r] }
+        def result = cache.getResult(inputFile, hash, transform)
+
+        when:
+        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, buildOperationExecutor)
+
+        then:
+        cache.contains(inputFile, hash)
+        cache.getResult(inputFile, hash, transform) == result
+
+        and:
+        0 * transform._
+    }
+
+    def "does not contain result produced by a previous build when output has been removed"() {
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+        def hash = HashCode.fromInt(123)
+        _ * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(456))
+
+        given:
+        1 * transform.apply(inputFile, _) >>  { File file, File dir -> def r = new File(dir, "a.1"); r.text = "result"; [r] }
+        def result = cache.getResult(inputFile, hash, transform)
+
+        when:
+        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, buildOperationExecutor)
+        result.first().delete()
+
+        then:
+        !cache.contains(inputFile, hash)
+    }
+
+    def "runs transform in a build operation"() {
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+
+        when:
+        cache.getResult(inputFile, HashCode.fromInt(123), transform)
+        cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        buildOperationExecutor.operations*.displayName == ["Execute transform on a"]
+
+        and:
+        _ * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile, _) >>  { File file, File dir -> [file] }
+    }
+
     def snapshot(HashCode hashCode) {
         FileCollectionSnapshot snapshot = Stub(FileCollectionSnapshot)
         snapshot.appendToHasher(_) >> { BuildCacheHasher hasher -> hasher.putHash(hashCode) }
@@ -20,6 +20,7 @@ import org.gradle.api.Transformer
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultExternalResourceCachePolicy
 import org.gradle.api.internal.file.TemporaryFileProvider
+import org.gradle.api.resources.ResourceException
 import org.gradle.cache.internal.ProducerGuard
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.ExternalResource
@@ -127,6 +128,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
             a.execute(new ByteArrayInputStream(), metaData)
         }
+        _ * metaData.sha1 >> null
 
         and:
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
@@ -138,6 +140,33 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
+    def "fails when downloaded content does not match the checksum provided by the server"() {
+        def location = new ExternalResourceName("thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def remoteResource = Mock(ExternalResource)
+        def metaData = Mock(ExternalResourceMetaData)
+
+        when:
+        cache.getResource(location, null, fileStore, localCandidates)
+
+        then:
+        def e = thrown(ResourceException)
+        e.cause.message.startsWith("Checksum mismatch for thing")
+
+        and:
+        1 * index.lookup("thing") >> null
+        1 * localCandidates.isNone() >> true
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location) >> remoteResource
+        _ * remoteResource.name >> "remoteResource"
+        1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
+            a.execute(new ByteArrayInputStream("content".bytes), metaData)
+        }
+        _ * metaData.sha1 >> HashUtil.sha1("other content".bytes)
+        0 * _._
+    }
+
     def "reuses cached resource if it has not expired"() {
         def location = new ExternalResourceName("scheme:thing")
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing.jacoco.plugins
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.internal.jacoco.NativeJacoco
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.testing.jacoco.plugins.fixtures.JavaProjectUnderTest
+import org.gradle.util.GradleVersion
+
+class NativeJacocoIntegrationTest extends AbstractIntegrationSpec {
+
+    private final JavaProjectUnderTest javaProjectUnderTest = new JavaProjectUnderTest(testDirectory)
+    private final TestFile reportsDir = file("build/reports/jacoco")
+
+    def setup() {
+        javaProjectUnderTest.writeBuildScript().writeSourceFiles().writeIntegrationTestSourceFiles()
+        file("src/main/java/org/gradle/Class2.java") << """
+            package org.gradle;
+
+            public class Class2 {
+                public int covered(int arg) {
+                    return arg > 0 ? arg : -arg;
+                }
+
+                public int notCovered() {
+                    return 2;
+                }
+            }
+        """
+        file("src/test/java/org/gradle/Class2Test.java") << """
+            package org.gradle;
+
+            import org.junit.Test;
+
+            public class Class2Test {
+                @Test
+                public void someTest() {
+                    new Class2().covered(1);
+                }
+            }
+        """
+
+        buildFile << """
+            jacocoTestReport {
+                reports {
+                    xml.enabled = true
+                    csv.enabled = true
+                }
+            }
+
+            task jacocoMerge(type: JacocoMerge) {
+                executionData test, integrationTest
+            }
+
+            task jacocoMergedReport(type: JacocoReport) {
+                executionData jacocoMerge.destinationFile
+                dependsOn jacocoMerge
+                sourceSets sourceSets.main
+                reports {
+                    xml.enabled = true
+                    csv.enabled = true
+                }
+            }
+        """
+    }
+
+    def "native merge and report produce the same reports as the Ant tasks"() {
+        given:
+        succeeds "test", "integrationTest", "jacocoTestReport", "jacocoMergedReport"
+        def antReports = reports()
+
+        when:
+        runNative()
+
+        then:
+        executedAndNotSkipped ":jacocoTestReport", ":jacocoMerge", ":jacocoMergedReport"
+        def nativeReports = reports()
+        nativeReports.keySet() == antReports.keySet()
+        nativeReports.keySet().containsAll(["test/html/index.html", "test/jacocoTestReport.xml", "test/jacocoTestReport.csv",
+                                            "jacocoMergedReport/html/index.html", "jacocoMergedReport/jacocoMergedReport.xml", "jacocoMergedReport/jacocoMergedReport.csv"])
+        nativeReports.each { path, text ->
+            assert text == antReports[path]: "${path} differs from the report of the Ant tasks"
+        }
+    }
+
+    def "native report loads the Jacoco version configured for the project in the worker"() {
+        given:
+        buildFile << """
+            jacoco {
+                toolVersion = '0.8.0'
+            }
+        """
+        succeeds "test", "integrationTest", "jacocoTestReport", "jacocoMergedReport"
+        def antReports = reports()
+
+        when:
+        runNative()
+
+        then:
+        def htmlReport = new JacocoReportFixture(reportsDir.file("test/html"))
+        htmlReport.assertVersion("0.8.0")
+        reports() == antReports
+    }
+
+    def "class analysis cache hit yields the same coverage"() {
+        given:
+        succeeds "test", "integrationTest"
+        runNative()
+        def firstReports = reports()
+        def cacheDir = file(".gradle/${GradleVersion.current().version}/jacocoClassAnalysis")
+        def cacheEntries = cacheDir.allDescendants()
+
+        when:
+        runNative()
+
+        then:
+        executedAndNotSkipped ":jacocoTestReport", ":jacocoMergedReport"
+        !cacheEntries.empty
+        cacheDir.allDescendants() == cacheEntries
+        reports() == firstReports
+    }
+
+    private void runNative() {
+        executer.withArgument("-D${NativeJacoco.ENABLED_PROPERTY_NAME}=true")
+        succeeds "jacocoTestReport", "jacocoMerge", "jacocoMergedReport", "--rerun-tasks", "-x", "test", "-x", "integrationTest"
+    }
+
+    private Map<String, String> reports() {
+        Map<String, String> reports = [:]
+        reportsDir.eachFileRecurse { File file ->
+            if (file.isFile() && !file.path.contains("jacoco-resources")) {
+                reports[reportsDir.toURI().relativize(file.toURI()).path] = file.text
+            }
+        }
+        return reports
+    }
+}
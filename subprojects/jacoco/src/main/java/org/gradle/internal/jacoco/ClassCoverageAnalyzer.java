@@ -0,0 +1,261 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import com.google.common.collect.Lists;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyzes class files and archives concurrently against the given execution data.
+ *
+ * <p>The coverage of a class depends only on the content of its class file, on the execution data recorded for classes of the same name,
+ * and on the Jacoco version. When given a cache directory, the coverage of each class file is kept there under a hash of these, so that other report tasks,
+ * for example an aggregate report, or later builds can reuse it.</p>
+ */
+class ClassCoverageAnalyzer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassCoverageAnalyzer.class);
+    private static final String CACHE_FILE_EXTENSION = ".bin";
+    private static final long TOUCH_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    private final ExecutionDataStore executionData;
+    private final Map<String, List<ExecutionData>> executionDataByName;
+    private final File cacheDir;
+
+    ClassCoverageAnalyzer(ExecutionDataStore executionData, @Nullable File cacheDir) {
+        this.executionData = executionData;
+        this.cacheDir = cacheDir;
+        this.executionDataByName = new HashMap<String, List<ExecutionData>>();
+        for (ExecutionData data : executionData.getContents()) {
+            List<ExecutionData> forName = executionDataByName.get(data.getName());
+            if (forName == null) {
+                forName = new ArrayList<ExecutionData>(1);
+                executionDataByName.put(data.getName(), forName);
+            }
+            forName.add(data);
+        }
+    }
+
+    /**
+     * Analyzes the class files and archives in the given files and directories, and visits the coverage of each class in the order of the given files.
+     */
+    void analyze(List<File> classDirs, int parallelism, ICoverageVisitor visitor) throws IOException {
+        List<ClassFile> classFiles = new ArrayList<ClassFile>();
+        for (File classDir : classDirs) {
+            collect(classDir, classFiles);
+        }
+        List<Callable<List<IClassCoverage>>> tasks = new ArrayList<Callable<List<IClassCoverage>>>();
+        for (final List<ClassFile> batch : NativeJacoco.batches(classFiles, parallelism)) {
+            tasks.add(new Callable<List<IClassCoverage>>() {
+                @Override
+                public List<IClassCoverage> call() throws IOException {
+                    List<IClassCoverage> result = new ArrayList<IClassCoverage>();
+                    for (ClassFile classFile : batch) {
+                        result.addAll(analyze(classFile));
+                    }
+                    return result;
+                }
+            });
+        }
+        for (List<IClassCoverage> result : NativeJacoco.runConcurrently(tasks, parallelism)) {
+            for (IClassCoverage coverage : result) {
+                visitor.visitCoverage(coverage);
+            }
+        }
+    }
+
+    private static void collect(File classDir, final List<ClassFile> classFiles) throws IOException {
+        if (classDir.isFile()) {
+            classFiles.add(new ClassFile(classDir, null));
+            return;
+        }
+        if (!classDir.isDirectory()) {
+            return;
+        }
+        final Path root = classDir.toPath();
+        final List<ClassFile> found = new ArrayList<ClassFile>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    found.add(new ClassFile(file.toFile(), classNameOf(root.relativize(file).toString())));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(found, new Comparator<ClassFile>() {
+            @Override
+            public int compare(ClassFile o1, ClassFile o2) {
+                return o1.file.compareTo(o2.file);
+            }
+        });
+        classFiles.addAll(found);
+    }
+
+    @Nullable
+    private static String classNameOf(String relativePath) {
+        if (!relativePath.endsWith(".class")) {
+            return null;
+        }
+        return relativePath.substring(0, relativePath.length() - ".class".length()).replace(File.separatorChar, '/');
+    }
+
+    private Collection<IClassCoverage> analyze(ClassFile classFile) throws IOException {
+        byte[] content = Files.readAllBytes(classFile.file.toPath());
+        if (cacheDir == null || classFile.className == null || !isClassFile(content)) {
+            return analyze(classFile.file, content);
+        }
+
+        File cacheFile = new File(cacheDir, cacheKey(classFile.className, content) + CACHE_FILE_EXTENSION);
+        if (cacheFile.isFile()) {
+            try {
+                List<IClassCoverage> cached = read(cacheFile);
+                touch(cacheFile);
+                return cached;
+            } catch (IOException e) {
+                LOGGER.debug("Could not read cached coverage of {} from {}.", classFile.file, cacheFile, e);
+            }
+        }
+
+        Collection<IClassCoverage> coverage = analyze(classFile.file, content);
+        // Only the execution data of the expected class name is part of the key
+        if (coverage.isEmpty() || coverage.size() == 1 && coverage.iterator().next().getName().equals(classFile.className)) {
+            write(coverage, cacheFile);
+        }
+        return coverage;
+    }
+
+    private Collection<IClassCoverage> analyze(File file, byte[] content) throws IOException {
+        CoverageBuilder builder = new CoverageBuilder();
+        new Analyzer(executionData, builder).analyzeAll(new ByteArrayInputStream(content), file.getPath());
+        return builder.getClasses();
+    }
+
+    private String cacheKey(String className, byte[] content) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(JaCoCo.VERSION);
+        hasher.putBytes(content);
+        List<ExecutionData> forName = executionDataByName.get(className);
+        if (forName != null) {
+            for (ExecutionData data : sortedById(forName)) {
+                hasher.putLong(data.getId());
+                boolean[] probes = data.getProbes();
+                hasher.putInt(probes.length);
+                for (boolean probe : probes) {
+                    hasher.putBoolean(probe);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static List<ExecutionData> sortedById(List<ExecutionData> executionData) {
+        if (executionData.size() == 1) {
+            return executionData;
+        }
+        List<ExecutionData> sorted = Lists.newArrayList(executionData);
+        Collections.sort(sorted, new Comparator<ExecutionData>() {
+            @Override
+            public int compare(ExecutionData o1, ExecutionData o2) {
+                return Long.compare(o1.getId(), o2.getId());
+            }
+        });
+        return sorted;
+    }
+
+    private static boolean isClassFile(byte[] content) {
+        return content.length >= 4 && (content[0] & 0xFF) == 0xCA && (content[1] & 0xFF) == 0xFE && (content[2] & 0xFF) == 0xBA && (content[3] & 0xFF) == 0xBE;
+    }
+
+    private static List<IClassCoverage> read(File cacheFile) throws IOException {
+        InputStream inputStream = new FileInputStream(cacheFile);
+        try {
+            return ClassCoverageSerializer.read(new KryoBackedDecoder(inputStream));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static void write(Collection<IClassCoverage> coverage, File cacheFile) throws IOException {
+        // Write to a temporary file first, so that concurrent readers never see a partial entry
+        File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + "." + UUID.randomUUID() + ".tmp");
+        OutputStream outputStream = new FileOutputStream(tempFile);
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+            ClassCoverageSerializer.write(encoder, coverage);
+            encoder.flush();
+        } finally {
+            outputStream.close();
+        }
+        if (!tempFile.renameTo(cacheFile) && !tempFile.delete()) {
+            LOGGER.debug("Could not delete {}.", tempFile);
+        }
+    }
+
+    private static void touch(File cacheFile) {
+        // Entries are removed when they have not been used for a while, see NativeJacoco
+        long now = System.currentTimeMillis();
+        if (now - cacheFile.lastModified() > TOUCH_INTERVAL) {
+            cacheFile.setLastModified(now);
+        }
+    }
+
+    private static class ClassFile {
+        private final File file;
+        private final String className;
+
+        ClassFile(File file, @Nullable String className) {
+            this.file = file;
+            this.className = className;
+        }
+    }
+}
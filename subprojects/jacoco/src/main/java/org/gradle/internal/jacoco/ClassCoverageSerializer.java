@@ -0,0 +1,435 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes and reads the coverage of classes, so that the analysis of a class can be reused.
+ *
+ * <p>The classes read back only implement the Jacoco API interfaces, rather than using the internal classes of whichever Jacoco version does the analysis.</p>
+ */
+class ClassCoverageSerializer {
+    private static final ICoverageNode.CounterEntity[] COUNTER_ENTITIES = {
+        ICoverageNode.CounterEntity.INSTRUCTION,
+        ICoverageNode.CounterEntity.BRANCH,
+        ICoverageNode.CounterEntity.LINE,
+        ICoverageNode.CounterEntity.COMPLEXITY,
+        ICoverageNode.CounterEntity.METHOD,
+        ICoverageNode.CounterEntity.CLASS
+    };
+    private static final Counter EMPTY_COUNTER = new Counter(0, 0);
+    private static final Line EMPTY_LINE = new Line(EMPTY_COUNTER, EMPTY_COUNTER);
+
+    private ClassCoverageSerializer() {
+    }
+
+    static void write(Encoder encoder, Collection<IClassCoverage> classes) throws IOException {
+        encoder.writeSmallInt(classes.size());
+        for (IClassCoverage coverage : classes) {
+            encoder.writeString(coverage.getName());
+            encoder.writeLong(coverage.getId());
+            encoder.writeBoolean(coverage.isNoMatch());
+            encoder.writeNullableString(coverage.getSignature());
+            encoder.writeNullableString(coverage.getSuperName());
+            encoder.writeNullableString(coverage.getSourceFileName());
+            String[] interfaceNames = coverage.getInterfaceNames();
+            encoder.writeSmallInt(interfaceNames == null ? 0 : interfaceNames.length);
+            if (interfaceNames != null) {
+                for (String interfaceName : interfaceNames) {
+                    encoder.writeString(interfaceName);
+                }
+            }
+            writeNode(encoder, coverage);
+            encoder.writeSmallInt(coverage.getMethods().size());
+            for (IMethodCoverage method : coverage.getMethods()) {
+                encoder.writeString(method.getName());
+                encoder.writeString(method.getDesc());
+                encoder.writeNullableString(method.getSignature());
+                writeNode(encoder, method);
+            }
+        }
+    }
+
+    static List<IClassCoverage> read(Decoder decoder) throws IOException {
+        int classCount = decoder.readSmallInt();
+        List<IClassCoverage> classes = new ArrayList<IClassCoverage>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            String name = decoder.readString();
+            long id = decoder.readLong();
+            boolean noMatch = decoder.readBoolean();
+            String signature = decoder.readNullableString();
+            String superName = decoder.readNullableString();
+            String sourceFileName = decoder.readNullableString();
+            String[] interfaceNames = new String[decoder.readSmallInt()];
+            for (int j = 0; j < interfaceNames.length; j++) {
+                interfaceNames[j] = decoder.readString();
+            }
+            Node node = readNode(decoder);
+            int methodCount = decoder.readSmallInt();
+            List<IMethodCoverage> methods = new ArrayList<IMethodCoverage>(methodCount);
+            for (int j = 0; j < methodCount; j++) {
+                String methodName = decoder.readString();
+                String desc = decoder.readString();
+                String methodSignature = decoder.readNullableString();
+                methods.add(new MethodCoverage(methodName, readNode(decoder), desc, methodSignature));
+            }
+            classes.add(new ClassCoverage(name, node, id, noMatch, signature, superName, sourceFileName, interfaceNames, methods));
+        }
+        return classes;
+    }
+
+    private static void writeNode(Encoder encoder, ISourceNode node) throws IOException {
+        for (ICoverageNode.CounterEntity entity : COUNTER_ENTITIES) {
+            writeCounter(encoder, node.getCounter(entity));
+        }
+        int firstLine = node.getFirstLine();
+        encoder.writeInt(firstLine);
+        if (firstLine == ISourceNode.UNKNOWN_LINE) {
+            return;
+        }
+        int lastLine = node.getLastLine();
+        encoder.writeSmallInt(lastLine - firstLine);
+        for (int line = firstLine; line <= lastLine; line++) {
+            ILine coverage = node.getLine(line);
+            writeCounter(encoder, coverage.getInstructionCounter());
+            writeCounter(encoder, coverage.getBranchCounter());
+        }
+    }
+
+    private static Node readNode(Decoder decoder) throws IOException {
+        Counter[] counters = new Counter[COUNTER_ENTITIES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = readCounter(decoder);
+        }
+        int firstLine = decoder.readInt();
+        if (firstLine == ISourceNode.UNKNOWN_LINE) {
+            return new Node(counters, firstLine, new Line[0]);
+        }
+        Line[] lines = new Line[decoder.readSmallInt() + 1];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new Line(readCounter(decoder), readCounter(decoder));
+        }
+        return new Node(counters, firstLine, lines);
+    }
+
+    private static void writeCounter(Encoder encoder, ICounter counter) throws IOException {
+        encoder.writeSmallInt(counter.getMissedCount());
+        encoder.writeSmallInt(counter.getCoveredCount());
+    }
+
+    private static Counter readCounter(Decoder decoder) throws IOException {
+        int missed = decoder.readSmallInt();
+        int covered = decoder.readSmallInt();
+        return missed == 0 && covered == 0 ? EMPTY_COUNTER : new Counter(missed, covered);
+    }
+
+    private static class Counter implements ICounter {
+        private final int missed;
+        private final int covered;
+
+        Counter(int missed, int covered) {
+            this.missed = missed;
+            this.covered = covered;
+        }
+
+        @Override
+        public double getValue(CounterValue value) {
+            switch (value) {
+                case TOTALCOUNT:
+                    return getTotalCount();
+                case MISSEDCOUNT:
+                    return missed;
+                case COVEREDCOUNT:
+                    return covered;
+                case MISSEDRATIO:
+                    return getMissedRatio();
+                case COVEREDRATIO:
+                    return getCoveredRatio();
+                default:
+                    throw new IllegalArgumentException("Unsupported counter value: " + value);
+            }
+        }
+
+        @Override
+        public int getTotalCount() {
+            return missed + covered;
+        }
+
+        @Override
+        public int getCoveredCount() {
+            return covered;
+        }
+
+        @Override
+        public int getMissedCount() {
+            return missed;
+        }
+
+        @Override
+        public double getCoveredRatio() {
+            return (double) covered / getTotalCount();
+        }
+
+        @Override
+        public double getMissedRatio() {
+            return (double) missed / getTotalCount();
+        }
+
+        @Override
+        public int getStatus() {
+            int status = covered > 0 ? FULLY_COVERED : EMPTY;
+            if (missed > 0) {
+                status |= NOT_COVERED;
+            }
+            return status;
+        }
+    }
+
+    private static class Line implements ILine {
+        private final Counter instructions;
+        private final Counter branches;
+
+        Line(Counter instructions, Counter branches) {
+            this.instructions = instructions;
+            this.branches = branches;
+        }
+
+        @Override
+        public ICounter getInstructionCounter() {
+            return instructions;
+        }
+
+        @Override
+        public ICounter getBranchCounter() {
+            return branches;
+        }
+
+        @Override
+        public int getStatus() {
+            return instructions.getStatus() | branches.getStatus();
+        }
+    }
+
+    /**
+     * The counters and lines of a class or method.
+     */
+    private static class Node {
+        private final Counter[] counters;
+        private final int firstLine;
+        private final Line[] lines;
+
+        Node(Counter[] counters, int firstLine, Line[] lines) {
+            this.counters = counters;
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    private abstract static class SourceNode implements ISourceNode {
+        private final String name;
+        private final Node node;
+
+        SourceNode(String name, Node node) {
+            this.name = name;
+            this.node = node;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ICounter getInstructionCounter() {
+            return getCounter(CounterEntity.INSTRUCTION);
+        }
+
+        @Override
+        public ICounter getBranchCounter() {
+            return getCounter(CounterEntity.BRANCH);
+        }
+
+        @Override
+        public ICounter getLineCounter() {
+            return getCounter(CounterEntity.LINE);
+        }
+
+        @Override
+        public ICounter getComplexityCounter() {
+            return getCounter(CounterEntity.COMPLEXITY);
+        }
+
+        @Override
+        public ICounter getMethodCounter() {
+            return getCounter(CounterEntity.METHOD);
+        }
+
+        @Override
+        public ICounter getClassCounter() {
+            return getCounter(CounterEntity.CLASS);
+        }
+
+        @Override
+        public ICounter getCounter(CounterEntity entity) {
+            for (int i = 0; i < COUNTER_ENTITIES.length; i++) {
+                if (COUNTER_ENTITIES[i] == entity) {
+                    return node.counters[i];
+                }
+            }
+            return EMPTY_COUNTER;
+        }
+
+        // Declared by the Jacoco versions that support it
+        public boolean containsCode() {
+            return getInstructionCounter().getTotalCount() != 0;
+        }
+
+        @Override
+        public ICoverageNode getPlainCopy() {
+            CoverageNodeImpl copy = new CoverageNodeImpl(getElementType(), name);
+            copy.increment(this);
+            return copy;
+        }
+
+        @Override
+        public int getFirstLine() {
+            return node.firstLine;
+        }
+
+        @Override
+        public int getLastLine() {
+            return node.lines.length == 0 ? UNKNOWN_LINE : node.firstLine + node.lines.length - 1;
+        }
+
+        @Override
+        public ILine getLine(int nr) {
+            int index = nr - node.firstLine;
+            if (node.lines.length == 0 || index < 0 || index >= node.lines.length) {
+                return EMPTY_LINE;
+            }
+            return node.lines[index];
+        }
+    }
+
+    private static class MethodCoverage extends SourceNode implements IMethodCoverage {
+        private final String desc;
+        private final String signature;
+
+        MethodCoverage(String name, Node node, String desc, String signature) {
+            super(name, node);
+            this.desc = desc;
+            this.signature = signature;
+        }
+
+        @Override
+        public ElementType getElementType() {
+            return ElementType.METHOD;
+        }
+
+        @Override
+        public String getDesc() {
+            return desc;
+        }
+
+        @Override
+        public String getSignature() {
+            return signature;
+        }
+    }
+
+    private static class ClassCoverage extends SourceNode implements IClassCoverage {
+        private final long id;
+        private final boolean noMatch;
+        private final String signature;
+        private final String superName;
+        private final String sourceFileName;
+        private final String[] interfaceNames;
+        private final Collection<IMethodCoverage> methods;
+
+        ClassCoverage(String name, Node node, long id, boolean noMatch, String signature, String superName, String sourceFileName, String[] interfaceNames,
+                      Collection<IMethodCoverage> methods) {
+            super(name, node);
+            this.id = id;
+            this.noMatch = noMatch;
+            this.signature = signature;
+            this.superName = superName;
+            this.sourceFileName = sourceFileName;
+            this.interfaceNames = interfaceNames;
+            this.methods = methods;
+        }
+
+        @Override
+        public ElementType getElementType() {
+            return ElementType.CLASS;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public boolean isNoMatch() {
+            return noMatch;
+        }
+
+        @Override
+        public String getSignature() {
+            return signature;
+        }
+
+        @Override
+        public String getSuperName() {
+            return superName;
+        }
+
+        @Override
+        public String[] getInterfaceNames() {
+            return interfaceNames;
+        }
+
+        @Override
+        public String getPackageName() {
+            int pos = getName().lastIndexOf('/');
+            return pos == -1 ? "" : getName().substring(0, pos);
+        }
+
+        @Override
+        public String getSourceFileName() {
+            return sourceFileName;
+        }
+
+        @Override
+        public Collection<IMethodCoverage> getMethods() {
+            return methods;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.report.DirectorySourceFileLocator;
+import org.jacoco.report.FileMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.MultiReportVisitor;
+import org.jacoco.report.MultiSourceFileLocator;
+import org.jacoco.report.csv.CSVFormatter;
+import org.jacoco.report.html.HTMLFormatter;
+import org.jacoco.report.xml.XMLFormatter;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the same HTML, XML and CSV reports as the Jacoco Ant report task for a single group of classes.
+ */
+class CoverageReportGenerator {
+    // The default of the Ant task
+    private static final int TAB_WIDTH = 4;
+
+    private final String projectName;
+    private final int parallelism;
+    private final File cacheDir;
+
+    CoverageReportGenerator(String projectName, int parallelism, @Nullable File cacheDir) {
+        this.projectName = projectName;
+        this.parallelism = parallelism;
+        this.cacheDir = cacheDir;
+    }
+
+    void generate(List<File> executionDataFiles, List<File> classDirs, List<File> sourceDirs,
+                  @Nullable File htmlDestination, @Nullable File xmlDestination, @Nullable File csvDestination) throws IOException {
+        ExecutionDataFiles executionData = ExecutionDataFiles.load(executionDataFiles, parallelism);
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        new ClassCoverageAnalyzer(executionData.getExecutionData(), cacheDir).analyze(classDirs, parallelism, coverageBuilder);
+
+        List<IReportVisitor> visitors = new ArrayList<IReportVisitor>();
+        if (htmlDestination != null) {
+            mkdirs(htmlDestination);
+            visitors.add(new HTMLFormatter().createVisitor(new FileMultiReportOutput(htmlDestination)));
+        }
+        if (xmlDestination != null) {
+            visitors.add(new XMLFormatter().createVisitor(createOutputStream(xmlDestination)));
+        }
+        if (csvDestination != null) {
+            visitors.add(new CSVFormatter().createVisitor(createOutputStream(csvDestination)));
+        }
+
+        MultiSourceFileLocator sourceLocator = new MultiSourceFileLocator(TAB_WIDTH);
+        for (File sourceDir : sourceDirs) {
+            if (sourceDir.isDirectory()) {
+                sourceLocator.add(new DirectorySourceFileLocator(sourceDir, null, TAB_WIDTH));
+            }
+        }
+
+        // The formatters close their output streams at the end
+        IReportVisitor visitor = new MultiReportVisitor(visitors);
+        visitor.visitInfo(executionData.getSessionInfos().getInfos(), executionData.getExecutionData().getContents());
+        visitor.visitBundle(coverageBuilder.getBundle(projectName), sourceLocator);
+        visitor.visitEnd();
+    }
+
+    private static OutputStream createOutputStream(File destination) throws IOException {
+        File parentDir = destination.getParentFile();
+        if (parentDir != null) {
+            mkdirs(parentDir);
+        }
+        return new BufferedOutputStream(new FileOutputStream(destination));
+    }
+
+    private static void mkdirs(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(String.format("Could not create directory '%s'.", dir));
+        }
+    }
+}
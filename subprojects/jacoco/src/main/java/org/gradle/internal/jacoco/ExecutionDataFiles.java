@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * The execution data and sessions read from a set of execution data files.
+ */
+class ExecutionDataFiles {
+    private final ExecutionDataStore executionData = new ExecutionDataStore();
+    private final SessionInfoStore sessionInfos = new SessionInfoStore();
+
+    /**
+     * Reads the given files concurrently. Each thread streams its files into its own stores, which are merged at the end, so memory use depends on
+     * the number of classes rather than on the number of files. Files that do not exist are ignored.
+     */
+    static ExecutionDataFiles load(List<File> files, int parallelism) {
+        List<Callable<ExecutionDataFiles>> tasks = new ArrayList<Callable<ExecutionDataFiles>>();
+        for (final List<File> batch : NativeJacoco.batches(existing(files), parallelism)) {
+            tasks.add(new Callable<ExecutionDataFiles>() {
+                @Override
+                public ExecutionDataFiles call() throws IOException {
+                    ExecutionDataFiles result = new ExecutionDataFiles();
+                    for (File file : batch) {
+                        result.read(file);
+                    }
+                    return result;
+                }
+            });
+        }
+        ExecutionDataFiles merged = new ExecutionDataFiles();
+        for (ExecutionDataFiles result : NativeJacoco.runConcurrently(tasks, parallelism)) {
+            result.executionData.accept(merged.executionData);
+            result.sessionInfos.accept(merged.sessionInfos);
+        }
+        return merged;
+    }
+
+    private static List<File> existing(List<File> files) {
+        List<File> existing = new ArrayList<File>(files.size());
+        for (File file : files) {
+            if (file.isFile()) {
+                existing.add(file);
+            }
+        }
+        return existing;
+    }
+
+    private void read(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            ExecutionDataReader reader = new ExecutionDataReader(inputStream);
+            reader.setExecutionDataVisitor(executionData);
+            reader.setSessionInfoVisitor(sessionInfos);
+            reader.read();
+        } catch (IOException e) {
+            throw new IOException(String.format("Could not read execution data file '%s'.", file), e);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    ExecutionDataStore getExecutionData() {
+        return executionData;
+    }
+
+    SessionInfoStore getSessionInfos() {
+        return sessionInfos;
+    }
+
+    void writeTo(File destinationFile) throws IOException {
+        File parentDir = destinationFile.getParentFile();
+        if (parentDir != null && !parentDir.isDirectory() && !parentDir.mkdirs()) {
+            throw new IOException(String.format("Could not create directory '%s'.", parentDir));
+        }
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(destinationFile));
+        try {
+            ExecutionDataWriter writer = new ExecutionDataWriter(outputStream);
+            sessionInfos.accept(writer);
+            executionData.accept(writer);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.reporting.SingleFileReport;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.cache.internal.FixedAgeOldestCacheCleanup;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.testing.jacoco.tasks.JacocoReportsContainer;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerConfiguration;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Merges execution data and generates reports using the Jacoco core API directly, rather than the Jacoco Ant tasks.
+ *
+ * <p>The work runs in a worker with the Jacoco classpath. Execution data files are read concurrently, class files are analyzed concurrently
+ * and the analysis of each class is kept in a cache shared by all report tasks of the build, keyed by the content of the class and its execution data.</p>
+ */
+public class NativeJacoco {
+    public static final String ENABLED_PROPERTY_NAME = "org.gradle.internal.jacoco.native";
+
+    private final WorkerExecutor workerExecutor;
+    private final Gradle gradle;
+    private final int parallelism;
+
+    public NativeJacoco(WorkerExecutor workerExecutor, Gradle gradle) {
+        this.workerExecutor = workerExecutor;
+        this.gradle = gradle;
+        this.parallelism = gradle.getStartParameter().getMaxWorkerCount();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY_NAME);
+    }
+
+    public void merge(FileCollection classpath, FileCollection executionData, File destinationFile) {
+        MergeSpec spec = new MergeSpec(Lists.newArrayList(executionData.getFiles()), destinationFile, parallelism);
+        submit(MergeAction.class, "Merge execution data into " + destinationFile.getName(), classpath, spec);
+    }
+
+    public void report(FileCollection classpath, String projectName, FileCollection allClassesDirs, FileCollection allSourcesDirs, FileCollection executionData,
+                       JacocoReportsContainer reports) {
+        ServiceRegistry services = ((GradleInternal) gradle).getServices();
+        PersistentCache cache = services.get(CacheRepository.class)
+            .cache(gradle, "jacocoClassAnalysis")
+            .withDisplayName("Jacoco class analysis cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Entries are written atomically
+            .withCleanup(services.get(CleanupActionFactory.class).create(new FixedAgeOldestCacheCleanup(7L)))
+            .open();
+        try {
+            ReportSpec spec = new ReportSpec(
+                projectName,
+                Lists.newArrayList(allClassesDirs.getFiles()),
+                Lists.newArrayList(allSourcesDirs.getFiles()),
+                Lists.newArrayList(executionData.getFiles()),
+                reports.getHtml().isEnabled() ? reports.getHtml().getDestination() : null,
+                destinationOf(reports.getXml()),
+                destinationOf(reports.getCsv()),
+                cache.getBaseDir(),
+                parallelism);
+            submit(ReportAction.class, "Generate Jacoco report for " + projectName, classpath, spec);
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Nullable
+    private static File destinationOf(SingleFileReport report) {
+        return report.isEnabled() ? report.getDestination() : null;
+    }
+
+    private void submit(Class<? extends Runnable> actionClass, final String displayName, final FileCollection classpath, final Serializable spec) {
+        workerExecutor.submit(actionClass, new Action<WorkerConfiguration>() {
+            @Override
+            public void execute(WorkerConfiguration config) {
+                config.setIsolationMode(IsolationMode.CLASSLOADER);
+                config.setDisplayName(displayName);
+                config.classpath(classpath);
+                config.setParams(spec);
+            }
+        });
+        workerExecutor.await();
+    }
+
+    /**
+     * Runs the given tasks on at most the given number of threads, and returns their results in order.
+     */
+    static <T> List<T> runConcurrently(Collection<? extends Callable<T>> tasks, int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<T>> futures = executor.invokeAll(tasks);
+            List<T> results = new ArrayList<T>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the given items into about {@code 4 * parallelism} batches, so that threads that finish early can pick up more work.
+     */
+    static <T> List<List<T>> batches(List<T> items, int parallelism) {
+        int batchSize = Math.max(1, (items.size() + 4 * parallelism - 1) / (4 * parallelism));
+        return Lists.partition(items, batchSize);
+    }
+
+    private static class MergeSpec implements Serializable {
+        private final List<File> executionData;
+        private final File destinationFile;
+        private final int parallelism;
+
+        MergeSpec(List<File> executionData, File destinationFile, int parallelism) {
+            this.executionData = executionData;
+            this.destinationFile = destinationFile;
+            this.parallelism = parallelism;
+        }
+    }
+
+    private static class ReportSpec implements Serializable {
+        private final String projectName;
+        private final List<File> classDirs;
+        private final List<File> sourceDirs;
+        private final List<File> executionData;
+        private final File htmlDestination;
+        private final File xmlDestination;
+        private final File csvDestination;
+        private final File cacheDir;
+        private final int parallelism;
+
+        ReportSpec(String projectName, List<File> classDirs, List<File> sourceDirs, List<File> executionData, @Nullable File htmlDestination, @Nullable File xmlDestination,
+                   @Nullable File csvDestination, File cacheDir, int parallelism) {
+            this.projectName = projectName;
+            this.classDirs = classDirs;
+            this.sourceDirs = sourceDirs;
+            this.executionData = executionData;
+            this.htmlDestination = htmlDestination;
+            this.xmlDestination = xmlDestination;
+            this.csvDestination = csvDestination;
+            this.cacheDir = cacheDir;
+            this.parallelism = parallelism;
+        }
+    }
+
+    // The actions only refer to the Jacoco API through other classes, so that they can be loaded outside of the worker
+
+    private static class MergeAction implements Runnable {
+        private final MergeSpec spec;
+
+        @Inject
+        public MergeAction(MergeSpec spec) {
+            this.spec = spec;
+        }
+
+        @Override
+        public void run() {
+            try {
+                ExecutionDataFiles.load(spec.executionData, spec.parallelism).writeTo(spec.destinationFile);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class ReportAction implements Runnable {
+        private final ReportSpec spec;
+
+        @Inject
+        public ReportAction(ReportSpec spec) {
+            this.spec = spec;
+        }
+
+        @Override
+        public void run() {
+            try {
+                new CoverageReportGenerator(spec.projectName, spec.parallelism, spec.cacheDir)
+                    .generate(spec.executionData, spec.classDirs, spec.sourceDirs, spec.htmlDestination, spec.xmlDestination, spec.csvDestination);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -31,7 +31,9 @@ import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.internal.jacoco.AntJacocoMerge;
+import org.gradle.internal.jacoco.NativeJacoco;
 import org.gradle.testing.jacoco.plugins.JacocoTaskExtension;
+import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -86,9 +88,23 @@ public class JacocoMerge extends JacocoBase {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Injects a {@link WorkerExecutor} instance.
+     *
+     * @since 4.8
+     */
+    @Inject
+    protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void merge() {
-        new AntJacocoMerge(getAntBuilder()).execute(getJacocoClasspath(), getExecutionData(), getDestinationFile());
+        if (NativeJacoco.isEnabled()) {
+            new NativeJacoco(getWorkerExecutor(), getProject().getGradle()).merge(getJacocoClasspath(), getExecutionData(), getDestinationFile());
+        } else {
+            new AntJacocoMerge(getAntBuilder()).execute(getJacocoClasspath(), getExecutionData(), getDestinationFile());
+        }
     }
 
     /**
@@ -26,7 +26,10 @@ import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.internal.jacoco.AntJacocoReport;
 import org.gradle.internal.jacoco.JacocoReportsContainerImpl;
+import org.gradle.internal.jacoco.NativeJacoco;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
 import java.io.File;
 
 /**
@@ -66,6 +69,16 @@ public class JacocoReport extends JacocoReportBase implements Reporting<JacocoRe
         return reports;
     }
 
+    /**
+     * Injects a {@link WorkerExecutor} instance.
+     *
+     * @since 4.8
+     */
+    @Inject
+    protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void generate() {
         final Spec<File> fileExistsSpec = new Spec<File>() {
@@ -75,13 +88,24 @@ public class JacocoReport extends JacocoReportBase implements Reporting<JacocoRe
             }
         };
 
-        new AntJacocoReport(getAntBuilder()).execute(
-            getJacocoClasspath(),
-            getProject().getName(),
-            getAllClassDirs().filter(fileExistsSpec),
-            getAllSourceDirs().filter(fileExistsSpec),
-            getExecutionData(),
-            getReports()
-        );
+        if (NativeJacoco.isEnabled()) {
+            new NativeJacoco(getWorkerExecutor(), getProject().getGradle()).report(
+                getJacocoClasspath(),
+                getProject().getName(),
+                getAllClassDirs().filter(fileExistsSpec),
+                getAllSourceDirs().filter(fileExistsSpec),
+                getExecutionData(),
+                getReports()
+            );
+        } else {
+            new AntJacocoReport(getAntBuilder()).execute(
+                getJacocoClasspath(),
+                getProject().getName(),
+                getAllClassDirs().filter(fileExistsSpec),
+                getAllSourceDirs().filter(fileExistsSpec),
+                getExecutionData(),
+                getReports()
+            );
+        }
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.jacoco.core.analysis.Analyzer
+import org.jacoco.core.analysis.CoverageBuilder
+import org.jacoco.core.analysis.ICounter
+import org.jacoco.core.analysis.ICoverageNode
+import org.jacoco.core.data.ExecutionDataStore
+import spock.lang.Specification
+
+class ClassCoverageSerializerTest extends Specification {
+    def "reads back the coverage of analyzed classes"() {
+        def builder = new CoverageBuilder()
+        def bytes = ExecutionDataFiles.getResourceAsStream("ExecutionDataFiles.class").bytes
+        new Analyzer(new ExecutionDataStore(), builder).analyzeClass(bytes, "ExecutionDataFiles.class")
+        def original = builder.classes
+
+        when:
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        ClassCoverageSerializer.write(encoder, original)
+        encoder.flush()
+        def copies = ClassCoverageSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray())))
+
+        then:
+        copies.size() == 1
+        def copy = copies[0]
+        def expected = original.iterator().next()
+        copy.name == expected.name
+        copy.id == expected.id
+        copy.sourceFileName == expected.sourceFileName
+        copy.interfaceNames as List == expected.interfaceNames as List
+        sameNode(copy, expected)
+        copy.methods*.name == expected.methods*.name
+        copy.methods*.desc == expected.methods*.desc
+        [copy.methods, expected.methods].transpose().every { m -> sameNode(m[0], m[1]) }
+    }
+
+    def "reads back an empty analysis"() {
+        when:
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        ClassCoverageSerializer.write(encoder, [])
+        encoder.flush()
+
+        then:
+        ClassCoverageSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray()))).empty
+    }
+
+    private static boolean sameNode(def copy, def expected) {
+        assert copy.firstLine == expected.firstLine
+        assert copy.lastLine == expected.lastLine
+        ICoverageNode.CounterEntity.values().each { entity ->
+            assert sameCounter(copy.getCounter(entity), expected.getCounter(entity))
+        }
+        (expected.firstLine..expected.lastLine).each { line ->
+            assert sameCounter(copy.getLine(line).instructionCounter, expected.getLine(line).instructionCounter)
+            assert sameCounter(copy.getLine(line).branchCounter, expected.getLine(line).branchCounter)
+            assert copy.getLine(line).status == expected.getLine(line).status
+        }
+        return true
+    }
+
+    private static boolean sameCounter(ICounter copy, ICounter expected) {
+        copy.missedCount == expected.missedCount && copy.coveredCount == expected.coveredCount
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.jacoco.core.data.ExecutionData
+import org.jacoco.core.data.ExecutionDataWriter
+import org.jacoco.core.data.SessionInfo
+import org.junit.Rule
+import spock.lang.Specification
+
+class ExecutionDataFilesTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "merges probes and sessions of all files"() {
+        def first = writeExecutionData("first.exec", "first", [new ExecutionData(1L, "a/A", [true, false, false] as boolean[])])
+        def second = writeExecutionData("second.exec", "second", [
+            new ExecutionData(1L, "a/A", [false, false, true] as boolean[]),
+            new ExecutionData(2L, "b/B", [true] as boolean[])
+        ])
+
+        when:
+        def files = ExecutionDataFiles.load([first, second, tmpDir.file("missing.exec")], 2)
+
+        then:
+        files.executionData.contents*.name.sort() == ["a/A", "b/B"]
+        files.executionData.get(1L).probes == [true, false, true] as boolean[]
+        files.sessionInfos.infos*.id.sort() == ["first", "second"]
+    }
+
+    def "writes merged data that can be read back"() {
+        def source = writeExecutionData("source.exec", "session", [new ExecutionData(1L, "a/A", [true, false] as boolean[])])
+        def destination = tmpDir.file("merged/jacoco.exec")
+
+        when:
+        ExecutionDataFiles.load([source], 1).writeTo(destination)
+        def reloaded = ExecutionDataFiles.load([destination], 1)
+
+        then:
+        reloaded.executionData.get(1L).probes == [true, false] as boolean[]
+        reloaded.sessionInfos.infos*.id == ["session"]
+    }
+
+    def "reports the file that cannot be read"() {
+        def broken = tmpDir.file("broken.exec").createFile()
+        broken.bytes = [1, 2, 3] as byte[]
+
+        when:
+        ExecutionDataFiles.load([broken], 1)
+
+        then:
+        def e = thrown(Exception)
+        e.message.contains(broken.toString())
+    }
+
+    private File writeExecutionData(String fileName, String sessionId, List<ExecutionData> data) {
+        def file = tmpDir.file(fileName)
+        file.withOutputStream { outputStream ->
+            def writer = new ExecutionDataWriter(outputStream)
+            writer.visitSessionInfo(new SessionInfo(sessionId, 0L, 1L))
+            data.each { writer.visitClassExecution(it) }
+        }
+        return file
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.groovy
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+
+class IncrementalGroovyCompileIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        executer.requireOwnGradleUserHomeDir()
+        outputs = new CompilationOutputsFixture(file("build/classes"))
+
+        buildFile << """
+            apply plugin: 'groovy'
+
+            dependencies {
+                compile localGroovy()
+            }
+
+            compileGroovy.options.incremental = true
+        """
+    }
+
+    private File source(String extension, String... classBodies) {
+        File out
+        for (String body : classBodies) {
+            def className = (body =~ /(?s).*?class (\w+) .*/)[0][1]
+            assert className: "unable to find class name"
+            def f = file("src/main/groovy/${className}.${extension}")
+            f.createFile()
+            f.text = body
+            out = f
+        }
+        out
+    }
+
+    private File groovy(String... classBodies) {
+        source("groovy", classBodies)
+    }
+
+    private File java(String... classBodies) {
+        source("java", classBodies)
+    }
+
+    def "recompiles only the changed class when it has no dependents"() {
+        groovy "class A {}", "class B {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        groovy "class A { /* change */ }"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'A'
+    }
+
+    def "recompiles the dependents of a changed class"() {
+        groovy "class A {}", "class B extends A {}", "class C { A a }", "class D {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        groovy "class A { String foo() { 'foo' } }"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'A', 'B', 'C'
+    }
+
+    def "recompiles Java dependents of a changed Groovy class"() {
+        groovy "class A {}", "class B {}"
+        java "class J { A a; }"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        groovy "class A { String foo() { 'foo' } }"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'A', 'J'
+    }
+
+    def "removes the classes of a deleted source and recompiles the remaining sources"() {
+        def a = groovy "class A { def run() { [1, 2].each { println it } } }"
+        groovy "class B {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        assert a.delete()
+        run "compileGroovy", "--info"
+
+        then:
+        outputs.deletedClasses 'A', 'A$_run_closure1'
+        outputs.recompiledClasses 'B'
+        output.contains("Full recompilation is required because class 'A' does not match the name of any source file")
+    }
+
+    def "detects deletion of a base class that leads to compilation failure"() {
+        def a = groovy "class A {}"
+        groovy "class B extends A {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        assert a.delete()
+
+        then:
+        fails "compileGroovy"
+        outputs.noneRecompiled()
+        outputs.deletedClasses 'A', 'B'
+    }
+}
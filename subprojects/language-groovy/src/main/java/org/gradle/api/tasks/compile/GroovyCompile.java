@@ -23,6 +23,7 @@ import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
@@ -33,6 +34,7 @@ import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.GroovyCompilerFactory;
 import org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -43,6 +45,7 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.jvm.toolchain.JavaToolChain;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.GFileUtils;
@@ -51,7 +54,6 @@ import org.gradle.workers.internal.WorkerDaemonFactory;
 
 import javax.inject.Inject;
 import java.io.File;
-import java.util.List;
 
 /**
  * Compiles Groovy source files, and optionally, Java source files.
@@ -69,12 +71,37 @@ public class GroovyCompile extends AbstractCompile {
         CompilerForkUtils.doNotCacheIfForkingViaExecutable(compileOptions, getOutputs());
     }
 
-    @Override
     @TaskAction
+    protected void compile(IncrementalTaskInputs inputs) {
+        if (!compileOptions.isIncremental()) {
+            compile();
+            return;
+        }
+
+        checkGroovyClasspathIsNonEmpty();
+        DefaultGroovyJavaJointCompileSpec spec = createSpec();
+        Compiler<GroovyJavaJointCompileSpec> compiler = getCompiler(spec);
+        if (compiler instanceof CleaningGroovyCompiler) {
+            compiler = getIncrementalCompilerFactory().makeIncremental(
+                (CleaningGroovyCompiler) compiler,
+                getPath(),
+                (IncrementalTaskInputsInternal) inputs,
+                source,
+                getEffectiveAnnotationProcessorClasspath()
+            );
+        }
+        performCompilation(spec, compiler);
+    }
+
+    @Override
     protected void compile() {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = createSpec();
-        WorkResult result = getCompiler(spec).execute(spec);
+        performCompilation(spec, getCompiler(spec));
+    }
+
+    private void performCompilation(GroovyJavaJointCompileSpec spec, Compiler<GroovyJavaJointCompileSpec> compiler) {
+        WorkResult result = compiler.execute(spec);
         setDidWork(result.getDidWork());
     }
 
@@ -100,7 +127,7 @@ public class GroovyCompile extends AbstractCompile {
         spec.setCompileClasspath(ImmutableList.copyOf(getClasspath()));
         spec.setSourceCompatibility(getSourceCompatibility());
         spec.setTargetCompatibility(getTargetCompatibility());
-        spec.setAnnotationProcessorPath(calculateAnnotationProcessorClasspath());
+        spec.setAnnotationProcessorPath(Lists.newArrayList(getEffectiveAnnotationProcessorClasspath()));
         spec.setGroovyClasspath(Lists.newArrayList(getGroovyClasspath()));
         spec.setCompileOptions(compileOptions);
         spec.setGroovyCompileOptions(groovyCompileOptions);
@@ -112,10 +139,9 @@ public class GroovyCompile extends AbstractCompile {
         return spec;
     }
 
-    private List<File> calculateAnnotationProcessorClasspath() {
+    private FileCollection getEffectiveAnnotationProcessorClasspath() {
         AnnotationProcessorPathFactory annotationProcessorPathFactory = getServices().get(AnnotationProcessorPathFactory.class);
-        FileCollection processorClasspath = annotationProcessorPathFactory.getEffectiveAnnotationProcessorClasspath(compileOptions, getClasspath());
-        return Lists.newArrayList(processorClasspath);
+        return annotationProcessorPathFactory.getEffectiveAnnotationProcessorClasspath(compileOptions, getClasspath());
     }
 
     private void checkGroovyClasspathIsNonEmpty() {
@@ -207,6 +233,17 @@ public class GroovyCompile extends AbstractCompile {
         this.compiler = compiler;
     }
 
+    /**
+     * Used when {@link CompileOptions#isIncremental()} is set, to only recompile the classes affected by the changed sources and classpath.
+     *
+     * @since 4.8
+     */
+    @Incubating
+    @Inject
+    protected IncrementalCompilerFactory getIncrementalCompilerFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected JavaToolChainFactory getJavaToolChainFactory() {
         throw new UnsupportedOperationException();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import com.google.common.collect.ImmutableMap;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Finds the dependents of a class in a generated class set analysis, shaped like a large module:
+ * most classes have a few dependents, and a handful of widely used types are a dependency of most classes.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@State(Scope.Benchmark)
+public class ClassSetAnalysisBenchmark {
+
+    @Param({"2000", "20000"})
+    int classCount;
+
+    private ClassSetAnalysisData data;
+    private byte[] serialized;
+    private String widelyUsedClass;
+    private String leafClass;
+
+    @Setup(Level.Trial)
+    public void createAnalysis() throws Exception {
+        Random random = new Random(42);
+        ImmutableMap.Builder<String, DependentsSet> dependents = ImmutableMap.builder();
+        for (int i = 0; i < classCount; i++) {
+            Set<String> dependentClasses = new LinkedHashSet<String>();
+            // The first few classes are used everywhere, the others by classes that come after them
+            int count = i < 10 ? classCount / 2 : random.nextInt(5);
+            for (int j = 0; j < count; j++) {
+                int dependent = i < 10 ? random.nextInt(classCount) : i + 1 + random.nextInt(Math.max(1, classCount - i - 1));
+                if (dependent < classCount) {
+                    dependentClasses.add(className(dependent));
+                }
+            }
+            dependents.put(className(i), DependentsSet.dependents(dependentClasses));
+        }
+        data = new ClassSetAnalysisData(Collections.<String, String>emptyMap(), dependents.build(), Collections.<String, IntSet>emptyMap(), Collections.<String, Set<String>>emptyMap(), DependentsSet.empty(), DependentsSet.empty(), null);
+        widelyUsedClass = className(0);
+        leafClass = className(classCount - 1);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outputStream);
+        new ClassSetAnalysisData.Serializer().write(encoder, data);
+        encoder.flush();
+        serialized = outputStream.toByteArray();
+    }
+
+    private static String className(int i) {
+        return "org.gradle.sample.p" + (i % 100) + ".Class" + i;
+    }
+
+    @Benchmark
+    public DependentsSet dependentsOfWidelyUsedClass() {
+        return new ClassSetAnalysis(data).getRelevantDependents(widelyUsedClass, IntSets.EMPTY_SET);
+    }
+
+    @Benchmark
+    public DependentsSet dependentsOfLeafClass() {
+        return new ClassSetAnalysis(data).getRelevantDependents(leafClass, IntSets.EMPTY_SET);
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData read() throws Exception {
+        return new ClassSetAnalysisData.Serializer().read(new InputStreamBackedDecoder(new ByteArrayInputStream(serialized)));
+    }
+}
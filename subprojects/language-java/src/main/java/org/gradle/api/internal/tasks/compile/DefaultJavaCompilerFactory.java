@@ -26,18 +26,27 @@ import org.gradle.workers.internal.WorkerDaemonFactory;
 import javax.tools.JavaCompiler;
 
 public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
+    /**
+     * When set, compilations that ask to be forked share the compiler of the build process rather than using compiler daemons.
+     */
+    public static final String COMPILER_POOL_PROPERTY_NAME = "org.gradle.internal.java.compile.pool";
+
     private final WorkerDirectoryProvider workingDirProvider;
     private final WorkerDaemonFactory workerDaemonFactory;
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
     private final FileResolver fileResolver;
     private final ExecHandleFactory execHandleFactory;
+    private final StandardFileManagerCache fileManagerCache;
+    private final boolean useCompilerPool;
 
-    public DefaultJavaCompilerFactory(WorkerDirectoryProvider workingDirProvider, WorkerDaemonFactory workerDaemonFactory, Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, FileResolver fileResolver, ExecHandleFactory execHandleFactory) {
+    public DefaultJavaCompilerFactory(WorkerDirectoryProvider workingDirProvider, WorkerDaemonFactory workerDaemonFactory, Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, FileResolver fileResolver, ExecHandleFactory execHandleFactory, StandardFileManagerCache fileManagerCache) {
         this.workingDirProvider = workingDirProvider;
         this.workerDaemonFactory = workerDaemonFactory;
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
         this.fileResolver = fileResolver;
         this.execHandleFactory = execHandleFactory;
+        this.fileManagerCache = fileManagerCache;
+        this.useCompilerPool = Boolean.getBoolean(COMPILER_POOL_PROPERTY_NAME);
     }
 
     @Override
@@ -60,9 +69,13 @@ public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
             return new CommandLineJavaCompiler(execHandleFactory);
         }
 
-        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory);
+        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory, fileManagerCache);
         if (ForkingJavaCompileSpec.class.isAssignableFrom(type) && !jointCompilation) {
-            return new DaemonJavaCompiler(workingDirProvider.getIdleWorkingDirectory(), compiler, workerDaemonFactory, fileResolver);
+            Compiler<JavaCompileSpec> daemonCompiler = new DaemonJavaCompiler(workingDirProvider.getIdleWorkingDirectory(), compiler, workerDaemonFactory, fileResolver);
+            if (useCompilerPool) {
+                return new PooledJavaCompiler(compiler, daemonCompiler);
+            }
+            return daemonCompiler;
         }
 
         return compiler;
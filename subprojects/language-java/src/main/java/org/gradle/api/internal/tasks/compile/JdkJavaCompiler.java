@@ -24,6 +24,7 @@ import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -36,29 +37,49 @@ import java.util.Set;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    // Not available when this compiler is sent to a compiler daemon
+    private final transient StandardFileManagerCache fileManagerCache;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, null);
+    }
+
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, @Nullable StandardFileManagerCache fileManagerCache) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.fileManagerCache = fileManagerCache;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JdkJavaCompilerResult result = new JdkJavaCompilerResult();
-        JavaCompiler.CompilationTask task = createCompileTask(spec, result);
-        boolean success = task.call();
-        if (!success) {
-            throw new CompilationFailedException();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        // Only reuse file managers on Java 8, where setting a location to null restores its default.
+        // Later versions also have module locations, which are not reset between compilations.
+        StandardFileManagerCache.CachedFileManager cachedFileManager = null;
+        if (fileManagerCache != null && !JavaVersion.current().isJava9Compatible()) {
+            cachedFileManager = fileManagerCache.acquire(compiler, charset, spec.getCompileClasspath(), options);
+        }
+        try {
+            StandardJavaFileManager standardFileManager = cachedFileManager != null ? cachedFileManager.getFileManager() : compiler.getStandardFileManager(null, null, charset);
+            JdkJavaCompilerResult result = new JdkJavaCompilerResult();
+            JavaCompiler.CompilationTask task = createCompileTask(spec, options, result, compiler, standardFileManager);
+            boolean success = task.call();
+            if (!success) {
+                throw new CompilationFailedException();
+            }
+            return result;
+        } finally {
+            if (cachedFileManager != null) {
+                fileManagerCache.release(cachedFileManager);
+            }
         }
-        return result;
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JdkJavaCompilerResult result) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JdkJavaCompilerResult result, JavaCompiler compiler, StandardJavaFileManager standardFileManager) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.compile.ForkOptions;
+import org.gradle.language.base.internal.compile.Compiler;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs compilations that ask to be forked in the build process instead, as long as they do not need a separate JVM.
+ *
+ * <p>All such compilations share the already warmed up compiler and the pooled file managers of the build process,
+ * and run concurrently with each other up to the number of worker leases. Each compilation still gets its own compiler context.
+ * Compilations whose fork options specify heap settings or JVM arguments, and compilations that run annotation processors,
+ * which could leak memory or threads into the long-lived build process, are still forked.
+ */
+public class PooledJavaCompiler implements Compiler<JavaCompileSpec> {
+    private static final Logger LOGGER = Logging.getLogger(PooledJavaCompiler.class);
+
+    private final Compiler<JavaCompileSpec> inProcessCompiler;
+    private final Compiler<JavaCompileSpec> daemonCompiler;
+
+    public PooledJavaCompiler(Compiler<JavaCompileSpec> inProcessCompiler, Compiler<JavaCompileSpec> daemonCompiler) {
+        this.inProcessCompiler = inProcessCompiler;
+        this.daemonCompiler = daemonCompiler;
+    }
+
+    public Compiler<JavaCompileSpec> getInProcessCompiler() {
+        return inProcessCompiler;
+    }
+
+    public Compiler<JavaCompileSpec> getDaemonCompiler() {
+        return daemonCompiler;
+    }
+
+    @Override
+    public WorkResult execute(JavaCompileSpec spec) {
+        String reason = requiresFork(spec);
+        if (reason != null) {
+            LOGGER.info("Compiling in a compiler daemon as {}.", reason);
+            return daemonCompiler.execute(spec);
+        }
+        return inProcessCompiler.execute(spec);
+    }
+
+    @Nullable
+    private static String requiresFork(JavaCompileSpec spec) {
+        ForkOptions forkOptions = spec.getCompileOptions().getForkOptions();
+        if (forkOptions.getJvmArgs() != null && !forkOptions.getJvmArgs().isEmpty()) {
+            return "the fork options specify JVM arguments " + forkOptions.getJvmArgs();
+        }
+        if (forkOptions.getMemoryInitialSize() != null || forkOptions.getMemoryMaximumSize() != null) {
+            return "the fork options specify heap settings";
+        }
+        if (spec.getAnnotationProcessorPath() != null && !spec.getAnnotationProcessorPath().isEmpty()) {
+            return "the compilation uses annotation processors";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.initialization.RootBuildLifecycleListener;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the file managers of finished in-process compilations, so that the next compilation can reuse the jar indexes they
+ * have built instead of opening and indexing every classpath jar again.
+ *
+ * <p>A file manager is used by a single compilation at a time. It is only reused if every jar read by its previous compilation
+ * still has the same content hash. Idle file managers keep the jars they have read open, so they are discarded at the end of
+ * each build, as well as when the memory manager asks to free memory.</p>
+ *
+ * <p>A file manager keeps the options that select the platform classes, such as {@code -bootclasspath}, across compilations,
+ * and computes the platform class path from them again once its locations have been reset. It is therefore only reused by
+ * compilations that pass the same platform options.</p>
+ */
+@ThreadSafe
+public class StandardFileManagerCache implements MemoryHolder, RootBuildLifecycleListener, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StandardFileManagerCache.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = Runtime.getRuntime().availableProcessors();
+    private static final StandardLocation[] RESET_LOCATIONS = {
+        StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH, StandardLocation.ANNOTATION_PROCESSOR_PATH,
+        StandardLocation.PLATFORM_CLASS_PATH, StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT
+    };
+    private static final Set<String> PLATFORM_OPTIONS_WITH_VALUE = ImmutableSet.of(
+        "-bootclasspath", "--boot-class-path", "-extdirs", "--extension-directories", "-endorseddirs", "--endorsed-directories"
+    );
+    private static final List<String> PLATFORM_OPTION_PREFIXES = ImmutableList.of(
+        "-Xbootclasspath:", "-Xbootclasspath/p:", "-Xbootclasspath/a:", "--boot-class-path=", "--extension-directories=",
+        "--endorsed-directories=", "-Djava.ext.dirs=", "-Djava.endorsed.dirs="
+    );
+
+    private final FileHasher fileHasher;
+    private final MemoryManager memoryManager;
+    private final LinkedList<CachedFileManager> idle = new LinkedList<CachedFileManager>();
+
+    public StandardFileManagerCache(FileHasher fileHasher, MemoryManager memoryManager) {
+        this.fileHasher = fileHasher;
+        this.memoryManager = memoryManager;
+        memoryManager.addMemoryHolder(this);
+    }
+
+    /**
+     * Returns a file manager for exclusive use by a single compilation, which must be handed back using {@link #release(CachedFileManager)}.
+     */
+    public CachedFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, Iterable<File> classpath, List<String> compilerOptions) {
+        List<String> platformOptions = platformOptions(compilerOptions);
+        CachedFileManager fileManager = takeIdle(compiler, charset, platformOptions);
+        if (fileManager != null && !fileManager.isUpToDate()) {
+            LOGGER.debug("Discarding Java file manager as some of the jars it has read have changed.");
+            fileManager.close();
+            fileManager = null;
+        }
+        if (fileManager == null) {
+            fileManager = new CachedFileManager(compiler, charset, platformOptions, compiler.getStandardFileManager(null, null, charset));
+        } else {
+            fileManager.resetLocations();
+            fileManager.jars.clear();
+        }
+        for (File file : classpath) {
+            if (file.isFile()) {
+                fileManager.jars.put(file, fileHasher.hash(file));
+            }
+        }
+        return fileManager;
+    }
+
+    public void release(CachedFileManager fileManager) {
+        synchronized (idle) {
+            if (idle.size() < MAX_IDLE_FILE_MANAGERS) {
+                idle.addFirst(fileManager);
+                return;
+            }
+        }
+        fileManager.close();
+    }
+
+    /**
+     * Returns the options, with their values, that select the classes of the platform to compile against.
+     */
+    static List<String> platformOptions(List<String> compilerOptions) {
+        List<String> platformOptions = new ArrayList<String>();
+        Iterator<String> iterator = compilerOptions.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (PLATFORM_OPTIONS_WITH_VALUE.contains(option)) {
+                platformOptions.add(option);
+                if (iterator.hasNext()) {
+                    platformOptions.add(iterator.next());
+                }
+                continue;
+            }
+            for (String prefix : PLATFORM_OPTION_PREFIXES) {
+                if (option.startsWith(prefix)) {
+                    platformOptions.add(option);
+                    break;
+                }
+            }
+        }
+        return platformOptions;
+    }
+
+    @Nullable
+    private CachedFileManager takeIdle(JavaCompiler compiler, @Nullable Charset charset, List<String> platformOptions) {
+        synchronized (idle) {
+            Iterator<CachedFileManager> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                CachedFileManager candidate = iterator.next();
+                if (candidate.compiler == compiler && Objects.equal(charset, candidate.charset) && candidate.platformOptions.equals(platformOptions)) {
+                    iterator.remove();
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Discards idle file managers, least recently used first. The memory held by a file manager is not known,
+     * so the size of the jars it has read is used as an estimate.
+     */
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<CachedFileManager> released = new ArrayList<CachedFileManager>();
+        long releasedBytes = 0;
+        synchronized (idle) {
+            while (releasedBytes < memoryAmountBytes && !idle.isEmpty()) {
+                CachedFileManager fileManager = idle.removeLast();
+                releasedBytes += fileManager.getEstimatedSize();
+                released.add(fileManager);
+            }
+        }
+        for (CachedFileManager fileManager : released) {
+            fileManager.close();
+        }
+        return releasedBytes;
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        releaseIdle();
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        releaseIdle();
+    }
+
+    private void releaseIdle() {
+        List<CachedFileManager> released;
+        synchronized (idle) {
+            released = new ArrayList<CachedFileManager>(idle);
+            idle.clear();
+        }
+        for (CachedFileManager fileManager : released) {
+            fileManager.close();
+        }
+    }
+
+    public final class CachedFileManager {
+        private final JavaCompiler compiler;
+        private final Charset charset;
+        private final List<String> platformOptions;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, HashCode> jars = Maps.newHashMap();
+
+        private CachedFileManager(JavaCompiler compiler, @Nullable Charset charset, List<String> platformOptions, StandardJavaFileManager fileManager) {
+            this.compiler = compiler;
+            this.charset = charset;
+            this.platformOptions = platformOptions;
+            this.fileManager = fileManager;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        private boolean isUpToDate() {
+            for (Map.Entry<File, HashCode> entry : jars.entrySet()) {
+                File jar = entry.getKey();
+                if (!jar.isFile() || !entry.getValue().equals(fileHasher.hash(jar))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long getEstimatedSize() {
+            long size = 0;
+            for (File jar : jars.keySet()) {
+                size += jar.length();
+            }
+            return size;
+        }
+
+        /**
+         * Locations are set from the compiler options of each compilation, so forget the ones of the previous compilation.
+         */
+        private void resetLocations() {
+            for (StandardLocation location : RESET_LOCATIONS) {
+                try {
+                    fileManager.setLocation(location, null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close Java file manager.", e);
+            }
+        }
+    }
+}
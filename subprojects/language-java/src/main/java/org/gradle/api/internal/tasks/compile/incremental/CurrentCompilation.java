@@ -42,6 +42,14 @@ public class CurrentCompilation {
         return jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getCompileClasspath());
     }
 
+    public Iterable<File> getSources() {
+        return spec.getSource();
+    }
+
+    public File getDestinationDir() {
+        return spec.getDestinationDir();
+    }
+
     public Collection<File> getAnnotationProcessorPath() {
         return spec.getAnnotationProcessorPath();
     }
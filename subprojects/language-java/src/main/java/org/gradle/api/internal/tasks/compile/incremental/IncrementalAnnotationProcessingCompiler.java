@@ -33,18 +33,18 @@ import java.util.Set;
 /**
  * Sets up incremental annotation processing before delegating to the actual Java compiler.
  */
-class IncrementalAnnotationProcessingCompiler implements Compiler<JavaCompileSpec> {
+class IncrementalAnnotationProcessingCompiler<T extends JavaCompileSpec> implements Compiler<T> {
 
-    private final Compiler<JavaCompileSpec> delegate;
+    private final Compiler<T> delegate;
     private final AnnotationProcessorDetector annotationProcessorDetector;
 
-    IncrementalAnnotationProcessingCompiler(Compiler<JavaCompileSpec> delegate, AnnotationProcessorDetector annotationProcessorDetector) {
+    IncrementalAnnotationProcessingCompiler(Compiler<T> delegate, AnnotationProcessorDetector annotationProcessorDetector) {
         this.delegate = delegate;
         this.annotationProcessorDetector = annotationProcessorDetector;
     }
 
     @Override
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         Set<AnnotationProcessorDeclaration> annotationProcessors = getEffectiveAnnotationProcessors(spec);
         spec.setEffectiveAnnotationProcessors(annotationProcessors);
         return delegate.execute(spec);
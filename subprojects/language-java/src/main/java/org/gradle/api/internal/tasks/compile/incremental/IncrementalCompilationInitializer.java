@@ -92,6 +92,7 @@ class IncrementalCompilationInitializer {
 
             sourceToCompile.include(path.concat(".java"));
             sourceToCompile.include(path.concat("$*.java"));
+            sourceToCompile.include(path.concat(".groovy"));
         }
     }
 }
@@ -18,7 +18,7 @@ package org.gradle.api.internal.tasks.compile.incremental;
 
 import com.google.common.collect.Lists;
 import org.gradle.api.file.FileCollection;
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
@@ -39,12 +39,12 @@ import java.util.Map;
 /**
  * Decorates a non-incremental Java compiler (like javac) so that it can be invoked incrementally.
  */
-public class IncrementalCompilerDecorator {
+public class IncrementalCompilerDecorator<T extends JavaCompileSpec> {
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilerDecorator.class);
     private final JarClasspathSnapshotMaker jarClasspathSnapshotMaker;
     private final CompileCaches compileCaches;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final String displayName;
     private final RecompilationSpecProvider staleClassDetecter;
     private final ClassSetAnalysisUpdater classSetAnalysisUpdater;
@@ -54,7 +54,7 @@ public class IncrementalCompilerDecorator {
     private final IncrementalCompilationInitializer compilationInitializer;
 
     public IncrementalCompilerDecorator(JarClasspathSnapshotMaker jarClasspathSnapshotMaker, CompileCaches compileCaches,
-                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, String displayName,
+                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompilerSupport<T> cleaningCompiler, String displayName,
                                         RecompilationSpecProvider staleClassDetecter, ClassSetAnalysisUpdater classSetAnalysisUpdater,
                                         CompilationSourceDirs sourceDirs, FileCollection annotationProcessorPath, AnnotationProcessorDetector annotationProcessorDetector) {
         this.jarClasspathSnapshotMaker = jarClasspathSnapshotMaker;
@@ -69,13 +69,13 @@ public class IncrementalCompilerDecorator {
         this.annotationProcessorDetector = annotationProcessorDetector;
     }
 
-    public Compiler<JavaCompileSpec> prepareCompiler(IncrementalTaskInputs inputs) {
-        Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs);
-        IncrementalResultStoringDecorator compilationFinalizer = new IncrementalResultStoringDecorator(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater, compileCaches.getAnnotationProcessorPathStore());
-        return new IncrementalAnnotationProcessingCompiler(compilationFinalizer, annotationProcessorDetector);
+    public Compiler<T> prepareCompiler(IncrementalTaskInputs inputs) {
+        Compiler<T> compiler = getCompiler(inputs, sourceDirs);
+        IncrementalResultStoringDecorator<T> compilationFinalizer = new IncrementalResultStoringDecorator<T>(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater, compileCaches.getAnnotationProcessorPathStore());
+        return new IncrementalAnnotationProcessingCompiler<T>(compilationFinalizer, annotationProcessorDetector);
     }
 
-    private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
+    private Compiler<T> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
         if (!inputs.isIncremental()) {
             LOG.info("{} - is not incremental (e.g. outputs have changed, no previous execution, etc.).", displayName);
             return cleaningCompiler;
@@ -95,7 +95,7 @@ public class IncrementalCompilerDecorator {
             return cleaningCompiler;
         }
         PreviousCompilation previousCompilation = new PreviousCompilation(new ClassSetAnalysis(data), compileCaches.getLocalJarClasspathSnapshotStore(), compileCaches.getJarSnapshotCache(), compileCaches.getAnnotationProcessorPathStore());
-        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
+        return new SelectiveCompiler<T>(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
     }
 
     private List<AnnotationProcessorDeclaration> getNonIncrementalProcessors() {
@@ -25,14 +25,14 @@ import org.gradle.language.base.internal.compile.Compiler;
 /**
  * Stores the incremental class dependency analysis after compilation has finished.
  */
-class IncrementalResultStoringDecorator implements Compiler<JavaCompileSpec> {
+class IncrementalResultStoringDecorator<T extends JavaCompileSpec> implements Compiler<T> {
 
-    private final Compiler<JavaCompileSpec> delegate;
+    private final Compiler<T> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
     private final AnnotationProcessorPathStore annotationProcessorPathStore;
 
-    public IncrementalResultStoringDecorator(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer, ClassSetAnalysisUpdater updater, AnnotationProcessorPathStore annotationProcessorPathStore) {
+    public IncrementalResultStoringDecorator(Compiler<T> delegate, JarClasspathSnapshotWriter writer, ClassSetAnalysisUpdater updater, AnnotationProcessorPathStore annotationProcessorPathStore) {
         this.delegate = delegate;
         this.writer = writer;
         this.updater = updater;
@@ -40,7 +40,7 @@ class IncrementalResultStoringDecorator implements Compiler<JavaCompileSpec> {
     }
 
     @Override
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         WorkResult out = delegate.execute(spec);
         updater.updateAnalysis(spec, out);
         writer.storeJarSnapshots(spec.getCompileClasspath());
@@ -43,7 +43,7 @@ class InputChangeAction implements Action<InputFileDetails> {
 
         annotationProcessorChangeProcessor.processChange(input, spec);
 
-        if (hasExtension(input.getFile(), ".java")) {
+        if (hasExtension(input.getFile(), ".java") || hasExtension(input.getFile(), ".groovy")) {
             javaChangeProcessor.processChange(input, spec);
         } else if (hasExtension(input.getFile(), ".class")) {
             classChangeProcessor.processChange(input, spec);
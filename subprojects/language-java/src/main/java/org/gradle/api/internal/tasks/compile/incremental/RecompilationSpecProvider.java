@@ -27,10 +27,13 @@ import org.gradle.internal.file.FileType;
 import org.gradle.internal.util.Alignment;
 
 import java.io.File;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.gradle.internal.FileUtils.hasExtension;
+
 public class RecompilationSpecProvider {
 
     private final SourceToNameConverter sourceToNameConverter;
@@ -45,6 +48,7 @@ public class RecompilationSpecProvider {
         RecompilationSpec spec = new RecompilationSpec();
         processJarClasspathChanges(current, previous, spec);
         processOtherChanges(current, previous, spec);
+        processGroovySources(current, previous, spec);
         spec.getClassesToProcess().addAll(previous.getAggregatedTypes().getDependentClasses());
         return spec;
     }
@@ -90,5 +94,34 @@ public class RecompilationSpecProvider {
         current.visitChanges(action);
     }
 
+    /**
+     * A Groovy source file may declare any number of top level classes with unrelated names, so a class that
+     * cannot be mapped back to a source file of the same name may have come from any of them. Recompile everything
+     * in that case, as we cannot tell which classes go stale when a Groovy source changes.
+     */
+    private void processGroovySources(CurrentCompilation current, PreviousCompilation previous, RecompilationSpec spec) {
+        if (spec.isFullRebuildNeeded() || !hasGroovySources(current)) {
+            return;
+        }
+        Set<String> sourceClassNames = new HashSet<String>();
+        for (File source : current.getSources()) {
+            sourceClassNames.add(sourceToNameConverter.getClassName(source));
+        }
+        for (String className : previous.getClassNamesIn(current.getDestinationDir())) {
+            if (className.indexOf('$') < 0 && !sourceClassNames.contains(className)) {
+                spec.setFullRebuildCause("class '" + className + "' does not match the name of any source file", null);
+                return;
+            }
+        }
+    }
+
+    private static boolean hasGroovySources(CurrentCompilation current) {
+        for (File source : current.getSources()) {
+            if (hasExtension(source, ".groovy")) {
+                return true;
+            }
+        }
+        return false;
+    }
 
 }
@@ -37,6 +37,7 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.serialize.BaseSerializerFactory;
 import org.gradle.internal.serialize.HashCodeSerializer;
@@ -51,12 +52,19 @@ import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closeable {
     private final ClassAnalysisCache classAnalysisCache;
     private final JarSnapshotCache jarSnapshotCache;
+    private final PersistentCache globalCache;
     private final PersistentCache cache;
     private final PersistentIndexedCache<String, JarClasspathSnapshotData> taskJarCache;
     private final PersistentIndexedCache<String, ClassSetAnalysisData> taskCompileCache;
     private final PersistentIndexedCache<String, List<File>> taskProcessorPathCache;
 
     public DefaultGeneralCompileCaches(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        // Class and jar analysis is keyed by content hash, so it can be shared by all builds on this machine
+        globalCache = cacheRepository
+            .cache("javaCompile")
+            .withDisplayName("Java compile analysis cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
         cache = cacheRepository
             .cache(gradle, "javaCompile")
             .withDisplayName("Java compile cache")
@@ -64,11 +72,11 @@ public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closea
             .open();
         PersistentIndexedCacheParameters<HashCode, ClassAnalysis> classCacheParameters = new PersistentIndexedCacheParameters<HashCode, ClassAnalysis>("classAnalysis", new HashCodeSerializer(), new ClassAnalysisSerializer())
             .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(400000, true));
-        this.classAnalysisCache = new DefaultClassAnalysisCache(cache.createCache(classCacheParameters));
+        this.classAnalysisCache = new DefaultClassAnalysisCache(globalCache.createCache(classCacheParameters));
 
         PersistentIndexedCacheParameters<HashCode, JarSnapshotData> jarCacheParameters = new PersistentIndexedCacheParameters<HashCode, JarSnapshotData>("jarAnalysis", new HashCodeSerializer(), new JarSnapshotDataSerializer())
             .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(20000, true));
-        this.jarSnapshotCache = new DefaultJarSnapshotCache(cache.createCache(jarCacheParameters));
+        this.jarSnapshotCache = new DefaultJarSnapshotCache(globalCache.createCache(jarCacheParameters));
 
         PersistentIndexedCacheParameters<String, JarClasspathSnapshotData> taskJarCacheParameters = new PersistentIndexedCacheParameters<String, JarClasspathSnapshotData>("taskJars", String.class, new JarClasspathSnapshotDataSerializer())
             .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(2000, false));
@@ -84,7 +92,7 @@ public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closea
 
     @Override
     public void close() {
-        cache.close();
+        CompositeStoppable.stoppable(cache, globalCache).stop();
     }
 
     @Override
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An int based view of the dependents in a {@link ClassSetAnalysisData}, used to walk the dependency graph.
+ *
+ * <p>Every known class gets an id. The dependents of all classes are stored in a single array, where the dependents of the class with id {@code i}
+ * are found between {@code dependentsStart[i]} and {@code dependentsStart[i + 1]}. Sets of classes are represented as {@link BitSet}s of class ids,
+ * so that finding the transitive dependents of a class neither hashes class names nor allocates an object per visited class.</p>
+ */
+class ClassDependentsIndex {
+    private static final int[] NO_CLASSES = new int[0];
+
+    private final String[] classNames;
+    private final Map<String, Integer> classIds;
+    private final int[] dependentsStart;
+    private final int[] dependents;
+    private final BitSet dependencyToAll;
+    private final BitSet nestedClasses;
+    private final int[] dependentsOnAll;
+
+    private ClassDependentsIndex(String[] classNames, Map<String, Integer> classIds, int[] dependentsStart, int[] dependents, BitSet dependencyToAll, int[] dependentsOnAll) {
+        this.classNames = classNames;
+        this.classIds = classIds;
+        this.dependentsStart = dependentsStart;
+        this.dependents = dependents;
+        this.dependencyToAll = dependencyToAll;
+        this.dependentsOnAll = dependentsOnAll;
+        this.nestedClasses = new BitSet(classNames.length);
+        for (int i = 0; i < classNames.length; i++) {
+            if (classNames[i].contains("$")) {
+                nestedClasses.set(i);
+            }
+        }
+    }
+
+    static ClassDependentsIndex of(Map<String, DependentsSet> dependents, DependentsSet dependentsOnAll) {
+        Builder builder = new Builder();
+        for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+            int classId = builder.classId(entry.getKey());
+            DependentsSet dependentsSet = entry.getValue();
+            if (dependentsSet.isDependencyToAll()) {
+                builder.dependencyToAll(classId);
+            } else {
+                builder.dependents(classId, builder.classIds(dependentsSet.getDependentClasses()));
+            }
+        }
+        builder.dependentsOnAll(builder.classIds(dependentsOnAll.getDependentClasses()));
+        return builder.build();
+    }
+
+    /**
+     * Adds the transitive dependents of the given class to the result, not including the class itself.
+     * Dependents that are a dependency to all are included but not followed. Nested classes are followed but not included.
+     */
+    void collectTransitiveDependents(String className, BitSet result) {
+        Integer classId = classIds.get(className);
+        BitSet visited = new BitSet(classNames.length);
+        BitSet found = new BitSet(classNames.length);
+        int[] stack = new int[classNames.length];
+        int size = 0;
+        if (classId != null) {
+            size = push(dependentsStart[classId], dependentsStart[classId + 1], dependents, stack, size, visited);
+        }
+        size = push(0, dependentsOnAll.length, dependentsOnAll, stack, size, visited);
+        while (size > 0) {
+            int current = stack[--size];
+            if (!nestedClasses.get(current)) {
+                found.set(current);
+            }
+            if (!dependencyToAll.get(current)) {
+                size = push(dependentsStart[current], dependentsStart[current + 1], dependents, stack, size, visited);
+            }
+        }
+        if (classId != null) {
+            found.clear(classId);
+        }
+        result.or(found);
+    }
+
+    private static int push(int start, int end, int[] classIds, int[] stack, int size, BitSet visited) {
+        for (int i = start; i < end; i++) {
+            int classId = classIds[i];
+            if (!visited.get(classId)) {
+                visited.set(classId);
+                stack[size++] = classId;
+            }
+        }
+        return size;
+    }
+
+    Set<String> getClassNames(BitSet classIds) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (int i = classIds.nextSetBit(0); i >= 0; i = classIds.nextSetBit(i + 1)) {
+            builder.add(classNames[i]);
+        }
+        return builder.build();
+    }
+
+    static class Builder {
+        private final List<String> classNames = new ArrayList<String>();
+        private final Map<String, Integer> classIds = new HashMap<String, Integer>();
+        private final Map<Integer, int[]> dependents = new HashMap<Integer, int[]>();
+        private final BitSet dependencyToAll = new BitSet();
+        private int[] dependentsOnAll = NO_CLASSES;
+
+        int classId(String className) {
+            Integer classId = classIds.get(className);
+            if (classId == null) {
+                classId = classNames.size();
+                classNames.add(className);
+                classIds.put(className, classId);
+            }
+            return classId;
+        }
+
+        int[] classIds(Set<String> classNames) {
+            int[] result = new int[classNames.size()];
+            int i = 0;
+            for (String className : classNames) {
+                result[i++] = classId(className);
+            }
+            return result;
+        }
+
+        void dependents(int classId, int[] dependentIds) {
+            dependents.put(classId, dependentIds);
+        }
+
+        void dependencyToAll(int classId) {
+            dependencyToAll.set(classId);
+        }
+
+        void dependentsOnAll(int[] dependentIds) {
+            dependentsOnAll = dependentIds;
+        }
+
+        ClassDependentsIndex build() {
+            int classCount = classNames.size();
+            int[] dependentsStart = new int[classCount + 1];
+            for (int i = 0; i < classCount; i++) {
+                int[] dependentIds = dependents.get(i);
+                dependentsStart[i + 1] = dependentsStart[i] + (dependentIds == null ? 0 : dependentIds.length);
+            }
+            int[] allDependents = new int[dependentsStart[classCount]];
+            for (Map.Entry<Integer, int[]> entry : dependents.entrySet()) {
+                int[] dependentIds = entry.getValue();
+                System.arraycopy(dependentIds, 0, allDependents, dependentsStart[entry.getKey()], dependentIds.length);
+            }
+            return new ClassDependentsIndex(classNames.toArray(new String[0]), classIds, dependentsStart, allDependents, dependencyToAll, dependentsOnAll);
+        }
+    }
+}
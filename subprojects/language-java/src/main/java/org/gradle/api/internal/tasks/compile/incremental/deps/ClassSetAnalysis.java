@@ -16,12 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
-import java.util.HashSet;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.util.BitSet;
 
 public class ClassSetAnalysis {
 
@@ -32,40 +30,20 @@ public class ClassSetAnalysis {
     }
 
     public DependentsSet getRelevantDependents(Iterable<String> classes, IntSet constants) {
-        Set<String> result = null;
+        BitSet result = new BitSet();
         for (String cls : classes) {
-            DependentsSet d = getRelevantDependents(cls, constants);
-            if (d.isDependencyToAll()) {
-                return d;
+            DependentsSet dependencyToAll = collectRelevantDependents(cls, constants, result);
+            if (dependencyToAll != null) {
+                return dependencyToAll;
             }
-            Set<String> dependentClasses = d.getDependentClasses();
-            if (dependentClasses.isEmpty()) {
-                continue;
-            }
-            if (result == null) {
-                result = Sets.newLinkedHashSet();
-            }
-            result.addAll(dependentClasses);
         }
-        return result == null ? DependentsSet.empty() : DependentsSet.dependents(result);
+        return toDependentsSet(result);
     }
 
     public DependentsSet getRelevantDependents(String className, IntSet constants) {
-        DependentsSet deps = data.getDependents(className);
-        if (deps.isDependencyToAll()) {
-            return deps;
-        }
-        if (!constants.isEmpty()) {
-            return DependentsSet.dependencyToAll();
-        }
-        DependentsSet dependentsOnAll = data.getDependentsOnAll();
-        if (deps.getDependentClasses().isEmpty() && dependentsOnAll.getDependentClasses().isEmpty()) {
-            return deps;
-        }
-        Set<String> result = new HashSet<String>();
-        recurseDependents(new HashSet<String>(), result, Iterables.concat(deps.getDependentClasses(), dependentsOnAll.getDependentClasses()));
-        result.remove(className);
-        return DependentsSet.dependents(result);
+        BitSet result = new BitSet();
+        DependentsSet dependencyToAll = collectRelevantDependents(className, constants, result);
+        return dependencyToAll != null ? dependencyToAll : toDependentsSet(result);
     }
 
     public DependentsSet getAggregatedTypes() {
@@ -76,23 +54,33 @@ public class ClassSetAnalysis {
         return data.getDependents(className).isDependencyToAll();
     }
 
-    private void recurseDependents(Set<String> visited, Set<String> result, Iterable<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (!visited.add(d)) {
-                continue;
-            }
-            if (!isNestedClass(d)) {
-                result.add(d);
-            }
-            DependentsSet currentDependents = data.getDependents(d);
-            if (!currentDependents.isDependencyToAll()) {
-                recurseDependents(visited, result, currentDependents.getDependentClasses());
-            }
+    /**
+     * Adds the ids of the relevant dependents of the given class to the result.
+     *
+     * @return the dependents set to use when a change to the class affects all classes, null otherwise
+     */
+    @Nullable
+    private DependentsSet collectRelevantDependents(String className, IntSet constants, BitSet result) {
+        DependentsSet deps = data.getDependents(className);
+        if (deps.isDependencyToAll()) {
+            return deps;
         }
+        if (!constants.isEmpty()) {
+            return DependentsSet.dependencyToAll();
+        }
+        DependentsSet dependentsOnAll = data.getDependentsOnAll();
+        if (deps.getDependentClasses().isEmpty() && dependentsOnAll.getDependentClasses().isEmpty()) {
+            return null;
+        }
+        data.getIndex().collectTransitiveDependents(className, result);
+        return null;
     }
 
-    private boolean isNestedClass(String d) {
-        return d.contains("$");
+    private DependentsSet toDependentsSet(BitSet classIds) {
+        if (classIds.isEmpty()) {
+            return DependentsSet.empty();
+        }
+        return DependentsSet.dependents(data.getIndex().getClassNames(classIds));
     }
 
     public ClassSetAnalysisData getData() {
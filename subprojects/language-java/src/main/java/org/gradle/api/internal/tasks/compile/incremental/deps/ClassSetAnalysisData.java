@@ -25,9 +25,11 @@ import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.IntSetSerializer;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -39,8 +41,14 @@ public class ClassSetAnalysisData {
     private final DependentsSet aggregatedTypes;
     final DependentsSet dependentsOnAll;
     final String fullRebuildCause;
+    private ClassDependentsIndex index;
 
     public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, IntSet> classesToConstants, Map<String, Set<String>> classesToChildren, DependentsSet aggregatedTypes, DependentsSet dependentsOnAll, String fullRebuildCause) {
+        this(filePathToClassName, dependents, classesToConstants, classesToChildren, aggregatedTypes, dependentsOnAll, fullRebuildCause, null);
+    }
+
+    private ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, IntSet> classesToConstants, Map<String, Set<String>> classesToChildren, DependentsSet aggregatedTypes, DependentsSet dependentsOnAll, String fullRebuildCause, ClassDependentsIndex index) {
+        this.index = index;
         this.filePathToClassName = filePathToClassName;
         this.dependents = dependents;
         this.classesToConstants = classesToConstants;
@@ -54,6 +62,17 @@ public class ClassSetAnalysisData {
         return filePathToClassName.get(filePath);
     }
 
+    public Set<String> getClassNamesIn(File baseDir) {
+        String prefix = baseDir.getAbsolutePath() + File.separator;
+        Set<String> classNames = new HashSet<String>();
+        for (Map.Entry<String, String> entry : filePathToClassName.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                classNames.add(entry.getValue());
+            }
+        }
+        return classNames;
+    }
+
     public DependentsSet getDependents(String className) {
         if (fullRebuildCause != null) {
             return DependentsSet.dependencyToAll(fullRebuildCause);
@@ -83,33 +102,57 @@ public class ClassSetAnalysisData {
         return children == null ? Collections.<String>emptySet() : children;
     }
 
+    synchronized ClassDependentsIndex getIndex() {
+        if (index == null) {
+            index = ClassDependentsIndex.of(dependents, dependentsOnAll);
+        }
+        return index;
+    }
+
+    /**
+     * Writes a table of all class names first, and then refers to classes by their position in this table.
+     * The dependents index is built while reading, using the same ids.
+     */
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            // Class names are de-duplicated when encoded
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
-
             int count = decoder.readSmallInt();
+            String[] classNames = new String[count];
+            ClassDependentsIndex.Builder indexBuilder = new ClassDependentsIndex.Builder();
+            for (int i = 0; i < count; i++) {
+                classNames[i] = decoder.readString();
+                indexBuilder.classId(classNames[i]);
+            }
+
+            count = decoder.readSmallInt();
             ImmutableMap.Builder<String, String> filePathToClassNameBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
                 String filePath = decoder.readString();
-                String className = readClassName(decoder, classNameMap);
+                String className = classNames[decoder.readSmallInt()];
                 filePathToClassNameBuilder.put(filePath, className);
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
-                dependentsBuilder.put(className, dependents);
+                int classId = decoder.readSmallInt();
+                DependentsSet dependents;
+                if (decoder.readBoolean()) {
+                    dependents = DependentsSet.dependencyToAll(decoder.readNullableString());
+                    indexBuilder.dependencyToAll(classId);
+                } else {
+                    int[] dependentIds = readClassIds(decoder);
+                    dependents = DependentsSet.dependents(toClassNames(dependentIds, classNames));
+                    indexBuilder.dependents(classId, dependentIds);
+                }
+                dependentsBuilder.put(classNames[classId], dependents);
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, IntSet> classesToConstantsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
+                String className = classNames[decoder.readSmallInt()];
                 IntSet constants = IntSetSerializer.INSTANCE.read(decoder);
                 classesToConstantsBuilder.put(className, constants);
             }
@@ -117,112 +160,118 @@ public class ClassSetAnalysisData {
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, Set<String>> classNameToChildren = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String parent = readClassName(decoder, classNameMap);
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
-                }
-                classNameToChildren.put(parent, namesBuilder.build());
+                String parent = classNames[decoder.readSmallInt()];
+                classNameToChildren.put(parent, toClassNames(readClassIds(decoder), classNames));
             }
 
-            DependentsSet aggregatedTypes = readDependentsSet(decoder, classNameMap);
+            DependentsSet aggregatedTypes = DependentsSet.dependents(toClassNames(readClassIds(decoder), classNames));
 
-            DependentsSet dependentsOnAll = readDependentsSet(decoder, classNameMap);
+            int[] dependentsOnAllIds = readClassIds(decoder);
+            DependentsSet dependentsOnAll = DependentsSet.dependents(toClassNames(dependentsOnAllIds, classNames));
+            indexBuilder.dependentsOnAll(dependentsOnAllIds);
 
             String fullRebuildCause = decoder.readNullableString();
 
-            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), classNameToChildren.build(), aggregatedTypes, dependentsOnAll, fullRebuildCause);
+            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), classNameToChildren.build(), aggregatedTypes, dependentsOnAll, fullRebuildCause, indexBuilder.build());
         }
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            // Deduplicate class names when encoding.
-            // This would be more efficient with a better data structure in ClassSetAnalysisData
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
+            Map<String, Integer> classIds = collectClassIds(value);
+            encoder.writeSmallInt(classIds.size());
+            for (String className : classIds.keySet()) {
+                encoder.writeString(className);
+            }
 
             encoder.writeSmallInt(value.filePathToClassName.size());
             for (Map.Entry<String, String> entry : value.filePathToClassName.entrySet()) {
                 encoder.writeString(entry.getKey());
-                writeClassName(entry.getValue(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getValue()));
             }
 
             encoder.writeSmallInt(value.dependents.size());
             for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
+                DependentsSet dependentsSet = entry.getValue();
+                encoder.writeBoolean(dependentsSet.isDependencyToAll());
+                if (dependentsSet.isDependencyToAll()) {
+                    encoder.writeNullableString(dependentsSet.getDescription());
+                } else {
+                    writeClassIds(dependentsSet.getDependentClasses(), classIds, encoder);
+                }
             }
 
             encoder.writeSmallInt(value.classesToConstants.size());
             for (Map.Entry<String, IntSet> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
                 IntSetSerializer.INSTANCE.write(encoder, entry.getValue());
             }
 
             encoder.writeSmallInt(value.classesToChildren.size());
             for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
+                writeClassIds(entry.getValue(), classIds, encoder);
             }
 
-            writeDependentSet(value.aggregatedTypes, classNameMap, encoder);
+            writeClassIds(value.aggregatedTypes.getDependentClasses(), classIds, encoder);
 
-            writeDependentSet(value.dependentsOnAll, classNameMap, encoder);
+            writeClassIds(value.dependentsOnAll.getDependentClasses(), classIds, encoder);
 
             encoder.writeNullableString(value.fullRebuildCause);
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            byte b = decoder.readByte();
-            if (b == 1) {
-                return DependentsSet.dependencyToAll(decoder.readNullableString());
+        private static Map<String, Integer> collectClassIds(ClassSetAnalysisData value) {
+            Map<String, Integer> classIds = new LinkedHashMap<String, Integer>();
+            addClassIds(value.filePathToClassName.values(), classIds);
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                addClassId(entry.getKey(), classIds);
+                if (!entry.getValue().isDependencyToAll()) {
+                    addClassIds(entry.getValue().getDependentClasses(), classIds);
+                }
             }
-            int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
-            for (int i = 0; i < count; i++) {
-                builder.add(readClassName(decoder, classNameMap));
+            addClassIds(value.classesToConstants.keySet(), classIds);
+            for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
+                addClassId(entry.getKey(), classIds);
+                addClassIds(entry.getValue(), classIds);
             }
-            return DependentsSet.dependents(builder.build());
+            addClassIds(value.aggregatedTypes.getDependentClasses(), classIds);
+            addClassIds(value.dependentsOnAll.getDependentClasses(), classIds);
+            return classIds;
         }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
-            if (dependentsSet.isDependencyToAll()) {
-                encoder.writeByte((byte) 1);
-                encoder.writeNullableString(dependentsSet.getDescription());
-            } else {
-                encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getDependentClasses().size());
-                for (String className : dependentsSet.getDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+        private static void addClassIds(Iterable<String> classNames, Map<String, Integer> classIds) {
+            for (String className : classNames) {
+                addClassId(className, classIds);
             }
         }
 
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = decoder.readString();
-                classNameMap.put(id, className);
-                return className;
+        private static void addClassId(String className, Map<String, Integer> classIds) {
+            if (!classIds.containsKey(className)) {
+                classIds.put(className, classIds.size());
             }
-            return classNameMap.get(id);
         }
 
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
-                encoder.writeSmallInt(id);
+        private static void writeClassIds(Set<String> classNames, Map<String, Integer> classIds, Encoder encoder) throws IOException {
+            encoder.writeSmallInt(classNames.size());
+            for (String className : classNames) {
+                encoder.writeSmallInt(classIds.get(className));
+            }
+        }
+
+        private static int[] readClassIds(Decoder decoder) throws IOException {
+            int[] classIds = new int[decoder.readSmallInt()];
+            for (int i = 0; i < classIds.length; i++) {
+                classIds[i] = decoder.readSmallInt();
+            }
+            return classIds;
+        }
+
+        private static Set<String> toClassNames(int[] classIds, String[] classNames) {
+            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+            for (int classId : classIds) {
+                builder.add(classNames[classId]);
             }
+            return builder.build();
         }
     }
 }
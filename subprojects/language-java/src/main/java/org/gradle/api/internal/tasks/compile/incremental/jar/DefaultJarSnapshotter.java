@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import com.google.common.collect.Maps;
 import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
@@ -29,7 +30,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 
-class DefaultJarSnapshotter {
+/**
+ * Snapshots the classes of a jar or of any other tree of class files.
+ */
+public class DefaultJarSnapshotter {
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
 
@@ -39,10 +43,14 @@ class DefaultJarSnapshotter {
     }
 
     public JarSnapshot createSnapshot(HashCode hash, JarArchive jarArchive) {
+        return createSnapshot(hash, jarArchive.contents);
+    }
+
+    public JarSnapshot createSnapshot(HashCode hash, FileTree classes) {
         final Map<String, HashCode> hashes = Maps.newHashMap();
         final ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
 
-        jarArchive.contents.visit(new FileVisitor() {
+        classes.visit(new FileVisitor() {
             public void visitDir(FileVisitDetails dirDetails) {
             }
 
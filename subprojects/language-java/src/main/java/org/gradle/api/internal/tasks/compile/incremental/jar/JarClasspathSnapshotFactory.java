@@ -16,41 +16,90 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, BuildOperationExecutor buildOperationExecutor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        final List<JarArchive> existingJars = Lists.newArrayList();
+        for (JarArchive jar : jarArchives) {
+            if (jar.file.exists()) {
+                existingJars.add(jar);
+            }
+        }
+
+        // Jars are snapshotted in parallel, but the results are collected in classpath order
+        final JarSnapshot[] snapshots = new JarSnapshot[existingJars.size()];
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                for (int i = 0; i < snapshots.length; i++) {
+                    buildOperationQueue.add(new SnapshotJarOperation(existingJars.get(i), snapshots, i));
+                }
+            }
+        });
+
         LinkedHashMap<File, JarSnapshot> jarSnapshots = Maps.newLinkedHashMap();
         LinkedHashMap<File, HashCode> jarHashes = Maps.newLinkedHashMap();
         Set<String> allClasses = Sets.newHashSet();
         Set<String> duplicateClasses = Sets.newHashSet();
 
-        for (JarArchive jar : jarArchives) {
-            if (jar.file.exists()) {
-                JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
-                jarSnapshots.put(jar.file, snapshot);
-                jarHashes.put(jar.file, snapshot.getHash());
-                for (String c : snapshot.getClasses()) {
-                    if (!allClasses.add(c)) {
-                        duplicateClasses.add(c);
-                    }
+        for (int i = 0; i < snapshots.length; i++) {
+            File jarFile = existingJars.get(i).file;
+            JarSnapshot snapshot = snapshots[i];
+            jarSnapshots.put(jarFile, snapshot);
+            jarHashes.put(jarFile, snapshot.getHash());
+            for (String c : snapshot.getClasses()) {
+                if (!allClasses.add(c)) {
+                    duplicateClasses.add(c);
                 }
             }
         }
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private class SnapshotJarOperation implements RunnableBuildOperation {
+        private final JarArchive jar;
+        private final JarSnapshot[] snapshots;
+        private final int index;
+
+        SnapshotJarOperation(JarArchive jar, JarSnapshot[] snapshots, int index) {
+            this.jar = jar;
+            this.snapshots = snapshots;
+            this.index = index;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            snapshots[index] = jarSnapshotter.createSnapshot(jar);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Snapshot classpath jar " + jar.file.getName());
+        }
+    }
 }
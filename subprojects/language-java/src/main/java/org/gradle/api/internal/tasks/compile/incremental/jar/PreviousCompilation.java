@@ -51,6 +51,10 @@ public class PreviousCompilation {
         return analysis.getData().getClassNameForFile(path);
     }
 
+    public Set<String> getClassNamesIn(File baseDir) {
+        return analysis.getData().getClassNamesIn(baseDir);
+    }
+
     public JarSnapshot getJarSnapshot(File file) {
         if (jarSnapshots == null) {
             JarClasspathSnapshotData data = classpathSnapshotStore.get();
@@ -18,14 +18,18 @@ package org.gradle.api.internal.tasks.compile
 import org.gradle.api.internal.file.FileResolver
 import org.gradle.internal.Factory
 import org.gradle.process.internal.ExecHandleFactory
+import org.gradle.util.SetSystemProperties
 import org.gradle.workers.internal.WorkerDaemonFactory
+import org.junit.Rule
 import spock.lang.Specification
 
 import javax.tools.JavaCompiler
 
 class DefaultJavaCompilerFactoryTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
     Factory<JavaCompiler> javaCompilerFinder = Mock()
-    def factory = new DefaultJavaCompilerFactory({new File("daemon-work-dir")}, Mock(WorkerDaemonFactory), javaCompilerFinder, Mock(FileResolver), Mock(ExecHandleFactory))
+    def factory = new DefaultJavaCompilerFactory({new File("daemon-work-dir")}, Mock(WorkerDaemonFactory), javaCompilerFinder, Mock(FileResolver), Mock(ExecHandleFactory), Mock(StandardFileManagerCache))
 
     def "creates in-process compiler when JavaCompileSpec is provided"() {
         expect:
@@ -61,6 +65,19 @@ class DefaultJavaCompilerFactoryTest extends Specification {
         compiler.delegate.delegate instanceof JdkJavaCompiler
     }
 
+    def "creates pooled compiler when ForkingJavaCompileSpec and compiler pool is enabled"() {
+        given:
+        System.setProperty(DefaultJavaCompilerFactory.COMPILER_POOL_PROPERTY_NAME, "true")
+        def factory = new DefaultJavaCompilerFactory({new File("daemon-work-dir")}, Mock(WorkerDaemonFactory), javaCompilerFinder, Mock(FileResolver), Mock(ExecHandleFactory), Mock(StandardFileManagerCache))
+
+        expect:
+        def compiler = factory.create(TestForkingJavaCompileSpec)
+        compiler instanceof NormalizingJavaCompiler
+        compiler.delegate instanceof PooledJavaCompiler
+        compiler.delegate.inProcessCompiler instanceof JdkJavaCompiler
+        compiler.delegate.daemonCompiler instanceof DaemonJavaCompiler
+    }
+
     def "creates in-process compiler when ForkingJavaCompileSpec is provided and joint compilation"() {
         expect:
         def compiler = factory.createForJointCompilation(TestForkingJavaCompileSpec)
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.tasks.WorkResult
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+class PooledJavaCompilerTest extends Specification {
+    def inProcessCompiler = Mock(Compiler)
+    def daemonCompiler = Mock(Compiler)
+    def compiler = new PooledJavaCompiler(inProcessCompiler, daemonCompiler)
+    def spec = new DefaultJavaCompileSpec()
+    def result = Mock(WorkResult)
+
+    def setup() {
+        spec.compileOptions = new CompileOptions(TestUtil.objectFactory())
+        spec.compileOptions.fork = true
+    }
+
+    def "compiles in process when the compilation does not need a separate JVM"() {
+        given:
+        spec.annotationProcessorPath = []
+
+        when:
+        def workResult = compiler.execute(spec)
+
+        then:
+        workResult == result
+        1 * inProcessCompiler.execute(spec) >> result
+        0 * daemonCompiler._
+    }
+
+    def "compiles in a compiler daemon when fork options specify heap settings"() {
+        given:
+        spec.compileOptions.forkOptions."$property" = "2g"
+
+        when:
+        def workResult = compiler.execute(spec)
+
+        then:
+        workResult == result
+        1 * daemonCompiler.execute(spec) >> result
+        0 * inProcessCompiler._
+
+        where:
+        property << ["memoryMaximumSize", "memoryInitialSize"]
+    }
+
+    def "compiles in a compiler daemon when the compilation uses annotation processors"() {
+        given:
+        spec.annotationProcessorPath = [new File("processor.jar")]
+
+        when:
+        def workResult = compiler.execute(spec)
+
+        then:
+        workResult == result
+        1 * daemonCompiler.execute(spec) >> result
+        0 * inProcessCompiler._
+    }
+
+    def "compiles in a compiler daemon when fork options specify JVM arguments"() {
+        given:
+        spec.compileOptions.forkOptions.jvmArgs = ["-Dfoo=bar"]
+
+        when:
+        def workResult = compiler.execute(spec)
+
+        then:
+        workResult == result
+        1 * daemonCompiler.execute(spec) >> result
+        0 * inProcessCompiler._
+    }
+}
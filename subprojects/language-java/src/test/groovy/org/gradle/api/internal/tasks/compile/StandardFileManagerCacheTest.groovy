@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import java.nio.charset.Charset
+
+class StandardFileManagerCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def fileHasher = Mock(FileHasher)
+    def memoryManager = Mock(MemoryManager)
+    def compiler = Mock(JavaCompiler)
+    def jar = tmpDir.file("lib.jar").createFile()
+    def classesDir = tmpDir.file("classes").createDir()
+    def cache
+
+    def setup() {
+        _ * fileHasher.hash(jar) >> HashCode.fromInt(1)
+        cache = new StandardFileManagerCache(fileHasher, memoryManager)
+    }
+
+    def "reuses a released file manager when the jars it has read are unchanged"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [jar, classesDir], [])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, [jar], [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.fileManager == fileManager
+        _ * fileManager.setLocation(_, null)
+        0 * fileManager.close()
+    }
+
+    def "does not share a file manager between concurrent compilations"() {
+        when:
+        def first = cache.acquire(compiler, null, [jar], [])
+        def second = cache.acquire(compiler, null, [jar], [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+        first.fileManager != second.fileManager
+    }
+
+    def "does not reuse a file manager for another encoding"() {
+        when:
+        cache.release(cache.acquire(compiler, null, [jar], []))
+        cache.acquire(compiler, Charset.forName("UTF-8"), [jar], [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, Charset.forName("UTF-8")) >> Mock(StandardJavaFileManager)
+    }
+
+    def "does not reuse a file manager for other platform options"() {
+        when:
+        cache.release(cache.acquire(compiler, null, [jar], ["-bootclasspath", "old.jar", "-g"]))
+        def second = cache.acquire(compiler, null, [jar], ["-bootclasspath", "new.jar", "-g"])
+        cache.release(second)
+        def third = cache.acquire(compiler, null, [jar], ["-bootclasspath", "new.jar", "-nowarn"])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+        third.fileManager == second.fileManager
+    }
+
+    def "extracts the options that select the platform classes"() {
+        expect:
+        StandardFileManagerCache.platformOptions(options) == platformOptions
+
+        where:
+        options                                                                      | platformOptions
+        ["-g", "-source", "1.7", "-classpath", "lib.jar"]                            | []
+        ["-bootclasspath", "rt.jar", "-extdirs", "ext", "-endorseddirs", "endorsed"] | ["-bootclasspath", "rt.jar", "-extdirs", "ext", "-endorseddirs", "endorsed"]
+        ["-Xbootclasspath/p:patch.jar", "-g", "-Xbootclasspath/a:extra.jar"]        | ["-Xbootclasspath/p:patch.jar", "-Xbootclasspath/a:extra.jar"]
+        ["-Djava.ext.dirs=ext", "-nowarn"]                                           | ["-Djava.ext.dirs=ext"]
+    }
+
+    def "discards a file manager when a jar it has read has changed"() {
+        def changedJar = tmpDir.file("changed.jar").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, [changedJar], []))
+        def second = cache.acquire(compiler, null, [jar], [])
+
+        then:
+        2 * fileHasher.hash(changedJar) >>> [HashCode.fromInt(1), HashCode.fromInt(2)]
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        1 * fileManager.close()
+        second.fileManager == newFileManager
+    }
+
+    def "closes idle file managers when asked to release memory"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        jar.bytes = new byte[100]
+
+        when:
+        cache.release(cache.acquire(compiler, null, [jar], []))
+        def released = cache.attemptToRelease(10)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+        released == 100
+    }
+
+    def "closes idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, [jar], []))
+        cache.stop()
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+        1 * memoryManager.removeMemoryHolder(cache)
+    }
+
+    def "closes idle file managers at the end of the build"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, [jar], []))
+        cache.beforeComplete()
+        cache.acquire(compiler, null, [jar], [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        1 * fileManager.close()
+        0 * memoryManager.removeMemoryHolder(cache)
+    }
+
+    def "only checks the jars read by the previous compilation"() {
+        def oldJar = tmpDir.file("old.jar").createFile()
+        _ * fileHasher.hash(oldJar) >> HashCode.fromInt(3)
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, [oldJar], []))
+        cache.release(cache.acquire(compiler, null, [jar], []))
+        oldJar.delete()
+        def third = cache.acquire(compiler, null, [jar], [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        0 * fileManager.close()
+        third.fileManager == fileManager
+    }
+}
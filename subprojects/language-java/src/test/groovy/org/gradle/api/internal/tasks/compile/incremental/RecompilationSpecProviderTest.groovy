@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class RecompilationSpecProviderTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def srcDirs = Stub(CompilationSourceDirs) {
+        getSourceRoots() >> [temp.file("src")]
+    }
+    def destinationDir = temp.file("classes")
+    def current = Stub(CurrentCompilation) {
+        getClasspathSnapshot() >> Stub(JarClasspathSnapshot) {
+            getJars() >> ([] as Set)
+        }
+        getDestinationDir() >> destinationDir
+    }
+    def previous = Stub(PreviousCompilation) {
+        getJarSnapshots() >> [:]
+        getAggregatedTypes() >> DependentsSet.empty()
+    }
+    @Subject provider = new RecompilationSpecProvider(new SourceToNameConverter(srcDirs), Stub(FileOperations))
+
+    def "does not require full rebuild when every class matches a source file"() {
+        current.getSources() >> [temp.file("src/org/FooSpec.groovy"), temp.file("src/org/Bar.java")]
+        previous.getClassNamesIn(destinationDir) >> (["org.FooSpec", "org.FooSpec\$_closure1", "org.Bar"] as Set)
+
+        expect:
+        !provider.provideRecompilationSpec(current, previous).fullRebuildNeeded
+    }
+
+    def "requires full rebuild when a class does not match any groovy source file"() {
+        current.getSources() >> [temp.file("src/org/FooSpec.groovy")]
+        previous.getClassNamesIn(destinationDir) >> (["org.FooSpec", "org.Helper"] as Set)
+
+        when:
+        def spec = provider.provideRecompilationSpec(current, previous)
+
+        then:
+        spec.fullRebuildNeeded
+        spec.fullRebuildCause == "class 'org.Helper' does not match the name of any source file"
+    }
+
+    def "ignores unmatched classes when there are no groovy sources"() {
+        current.getSources() >> [temp.file("src/org/Foo.java")]
+        previous.getClassNamesIn(destinationDir) >> (["org.Foo", "org.Helper"] as Set)
+
+        expect:
+        !provider.provideRecompilationSpec(current, previous).fullRebuildNeeded
+    }
+}
@@ -40,4 +40,10 @@ class SourceToNameConverterTest extends Specification {
         when: converter.getClassName(temp.file("src/main/unknown/Xxx.java"))
         then: thrown(IllegalArgumentException)
     }
+
+    def "knows groovy source class relative path"() {
+        expect:
+        converter.getClassName(temp.file("src/main/java/FooSpec.groovy")) == "FooSpec"
+        converter.getClassName(temp.file("src/main/java2/org/bar/BarSpec.groovy")) == "org.bar.BarSpec"
+    }
 }
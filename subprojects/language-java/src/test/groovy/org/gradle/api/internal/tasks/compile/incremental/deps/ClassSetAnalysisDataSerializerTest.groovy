@@ -64,4 +64,24 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
         read.fullRebuildCause == "Because"
     }
+
+    def "finds the same dependents after reading"() {
+        def data = new ClassSetAnalysisData(
+            [:],
+            ["A": dependents("B", 'A$1'), 'A$1': dependents("C"), "B": dependents("D"), "C": dependents(), "D": dependencyToAll(), "E": dependents("A")],
+            [:], [:], dependents(), dependents("F"), null
+        )
+        def os = new ByteArrayOutputStream()
+        def e = new OutputStreamBackedEncoder(os)
+
+        when:
+        serializer.write(e, data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        ["A", "B", "C", "E", "Unknown"].each {
+            assert new ClassSetAnalysis(read).getRelevantDependents(it, IntSets.EMPTY_SET).dependentClasses == new ClassSetAnalysis(data).getRelevantDependents(it, IntSets.EMPTY_SET).dependentClasses
+        }
+        new ClassSetAnalysis(read).getRelevantDependents("E", IntSets.EMPTY_SET).dependentClasses == ["A", "B", "C", "D", "F"] as Set
+    }
 }
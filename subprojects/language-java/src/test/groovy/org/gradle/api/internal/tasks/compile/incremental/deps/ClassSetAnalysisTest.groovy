@@ -158,6 +158,16 @@ class ClassSetAnalysisTest extends Specification {
         deps.dependentClasses == ["E", "B", "C"] as Set
     }
 
+    def "keeps an input class that is a dependent of another input class"() {
+        def a = analysis([
+            "A": dependents("B"), "B": dependents("C"), "C": dependents(),
+        ])
+        def deps = a.getRelevantDependents(["A", "B"], IntSets.EMPTY_SET)
+
+        expect:
+        deps.dependentClasses == ["B", "C"] as Set
+    }
+
     def "some classes may depend on any change"() {
         def a = analysis([
             "A": dependents("B"), "B": empty(), "DependsOnAny" : dependents("C")
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Extracts the include directives of a set of headers, either by filtering every line of the headers through a {@link PreprocessingReader}
+ * or by reading only the directive lines through a {@link DirectiveLineReader}.
+ *
+ * <p>Parses the headers below the directory given by the {@code headers} parameter, for example {@code -Pheaders=/usr/include}.
+ * When no directory is given, parses generated headers shaped like the headers of a large library.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+
+    @Param({""})
+    String headers;
+
+    private final RegexBackedCSourceParser parser = new RegexBackedCSourceParser();
+    private File generatedHeaders;
+    private List<File> files;
+
+    @Setup(Level.Trial)
+    public void findHeaders() throws IOException {
+        File headersDir;
+        if (headers.isEmpty()) {
+            generatedHeaders = File.createTempFile("headers", "");
+            FileUtils.forceDelete(generatedHeaders);
+            generateHeaders(generatedHeaders);
+            headersDir = generatedHeaders;
+        } else {
+            headersDir = new File(headers);
+        }
+        files = new ArrayList<File>();
+        Collection<File> headerFiles = FileUtils.listFiles(headersDir, new String[]{"h", "hpp", "hxx", "inl"}, true);
+        files.addAll(headerFiles);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHeaders() throws IOException {
+        if (generatedHeaders != null) {
+            FileUtils.deleteDirectory(generatedHeaders);
+        }
+    }
+
+    @Benchmark
+    public void preprocessingReader(Blackhole blackhole) throws IOException {
+        for (File file : files) {
+            Reader reader = new FileReader(file);
+            try {
+                blackhole.consume(parser.parseSource(reader));
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public void directiveLineReader(Blackhole blackhole) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        for (File file : files) {
+            blackhole.consume(parser.parseSource(new DirectiveLineReader(DirectiveLineReader.readContent(file), charset)));
+        }
+    }
+
+    private static void generateHeaders(File dir) throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            File header = new File(dir, "module" + (i % 20) + "/header" + i + ".h");
+            FileUtils.forceMkdir(header.getParentFile());
+            Writer writer = new BufferedWriter(new FileWriter(header));
+            try {
+                writer.write("/*\n * Copyright notice\n * spanning a few lines\n */\n");
+                writer.write("#ifndef HEADER_" + i + "_H\n#define HEADER_" + i + "_H\n\n");
+                for (int j = 0; j < 5; j++) {
+                    writer.write("#include \"module" + random.nextInt(20) + "/header" + random.nextInt(500) + ".h\"\n");
+                }
+                writer.write("#include <stdint.h>\n#define EXPORT_" + i + "(x) x\n\n");
+                int declarations = 50 + random.nextInt(500);
+                for (int j = 0; j < declarations; j++) {
+                    writer.write("/** Returns the value of field " + j + ". */\n");
+                    writer.write("EXPORT_" + i + "(int32_t) header" + i + "_function" + j + "(const char* name, int32_t value); // \"quoted\"\n");
+                }
+                writer.write("\n#endif\n");
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
@@ -71,7 +71,10 @@ public class CollectingMacroLookup implements MacroLookup {
         }
     }
 
-    private void collectAll() {
+    /**
+     * Collects the macros of all appended sources. Once collected, reading from this lookup no longer modifies it.
+     */
+    void collectAll() {
         while (!uncollected.isEmpty()) {
             MacroSource source = uncollected.remove(0);
             source.collectInto(this);
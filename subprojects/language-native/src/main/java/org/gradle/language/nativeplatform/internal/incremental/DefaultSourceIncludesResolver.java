@@ -32,12 +32,12 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
@@ -47,7 +47,7 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     public DefaultSourceIncludesResolver(List<File> includePaths, FileSystemSnapshotter fileSystemSnapshotter) {
         this.includePaths = includePaths;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
-        this.includeRoots = new HashMap<File, Map<String, IncludeFileImpl>>();
+        this.includeRoots = new ConcurrentHashMap<File, Map<String, IncludeFileImpl>>();
     }
 
     @Override
@@ -261,13 +261,13 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         for (File searchDir : searchPath) {
             Map<String, IncludeFileImpl> searchedIncludes = includeRoots.get(searchDir);
             if (searchedIncludes == null) {
-                searchedIncludes = new HashMap<String, IncludeFileImpl>();
+                searchedIncludes = new ConcurrentHashMap<String, IncludeFileImpl>();
                 includeRoots.put(searchDir, searchedIncludes);
             }
-            if (searchedIncludes.containsKey(include)) {
-                IncludeFileImpl includeFile = searchedIncludes.get(include);
-                if (includeFile.snapshot.getType() == FileType.RegularFile) {
-                    dependencies.resolved(includeFile);
+            IncludeFileImpl searchedInclude = searchedIncludes.get(include);
+            if (searchedInclude != null) {
+                if (searchedInclude.snapshot.getType() == FileType.RegularFile) {
+                    dependencies.resolved(searchedInclude);
                     return;
                 }
                 continue;
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.internal.tasks.execution.TaskOutputChangesListener;
+import org.gradle.internal.event.ListenerManager;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The include graphs of header files that have been walked by the incremental native compile tasks of a build, so that tasks that
+ * include the same headers with the same include path do not need to walk them again.
+ *
+ * <p>Only holds graphs that do not depend on the location of the header in the include graph of a source file, that is graphs that
+ * do not contain macro includes nor include cycles. Like the file system snapshots that the graphs are built from, all graphs are
+ * discarded whenever some task changes its outputs.
+ */
+@ThreadSafe
+public class IncludeGraphCache implements TaskOutputChangesListener {
+    /**
+     * A cache that does not hold anything.
+     */
+    public static final Graphs NO_GRAPHS = new Graphs() {
+        @Nullable
+        @Override
+        public IncludeGraph get(File headerFile) {
+            return null;
+        }
+
+        @Override
+        public void put(File headerFile, IncludeGraph graph) {
+        }
+    };
+
+    private final ConcurrentMap<IncludeContext, DefaultGraphs> graphs = new ConcurrentHashMap<IncludeContext, DefaultGraphs>();
+
+    public IncludeGraphCache(ListenerManager listenerManager) {
+        listenerManager.addListener(this);
+    }
+
+    @Override
+    public void beforeTaskOutputChanged() {
+        graphs.clear();
+    }
+
+    /**
+     * Returns the graphs of headers included using the given include path.
+     */
+    public Graphs forIncludePath(List<File> includePath, boolean importAware) {
+        IncludeContext context = new IncludeContext(ImmutableList.copyOf(includePath), importAware);
+        DefaultGraphs contextGraphs = graphs.get(context);
+        if (contextGraphs == null) {
+            contextGraphs = new DefaultGraphs();
+            DefaultGraphs existing = graphs.putIfAbsent(context, contextGraphs);
+            if (existing != null) {
+                contextGraphs = existing;
+            }
+        }
+        return contextGraphs;
+    }
+
+    /**
+     * The include graph of a header file. Must not be modified once it has been added to the cache.
+     */
+    public interface IncludeGraph {
+    }
+
+    public interface Graphs {
+        @Nullable
+        IncludeGraph get(File headerFile);
+
+        void put(File headerFile, IncludeGraph graph);
+    }
+
+    private static class DefaultGraphs implements Graphs {
+        private final ConcurrentMap<File, IncludeGraph> graphs = new ConcurrentHashMap<File, IncludeGraph>();
+
+        @Nullable
+        @Override
+        public IncludeGraph get(File headerFile) {
+            return graphs.get(headerFile);
+        }
+
+        @Override
+        public void put(File headerFile, IncludeGraph graph) {
+            graphs.putIfAbsent(headerFile, graph);
+        }
+    }
+
+    private static class IncludeContext {
+        private final List<File> includePath;
+        private final boolean importAware;
+        private final int hashCode;
+
+        IncludeContext(List<File> includePath, boolean importAware) {
+            this.includePath = includePath;
+            this.importAware = importAware;
+            this.hashCode = Objects.hashCode(includePath, importAware);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            IncludeContext other = (IncludeContext) obj;
+            return importAware == other.importAware && includePath.equals(other.includePath);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
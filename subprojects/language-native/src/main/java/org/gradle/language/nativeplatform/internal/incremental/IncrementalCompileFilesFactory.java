@@ -46,12 +46,21 @@ public class IncrementalCompileFilesFactory {
     private final SourceIncludesParser sourceIncludesParser;
     private final SourceIncludesResolver sourceIncludesResolver;
     private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final IncludeGraphCache.Graphs sharedGraphs;
     private final boolean ignoreUnresolvedHeadersInDependencies;
 
     public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter) {
+        this(sourceIncludesParser, sourceIncludesResolver, fileSystemSnapshotter, IncludeGraphCache.NO_GRAPHS);
+    }
+
+    /**
+     * @param sharedGraphs The include graphs shared with other tasks that use the same include path. Must be safe to use from multiple threads.
+     */
+    public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter, IncludeGraphCache.Graphs sharedGraphs) {
         this.sourceIncludesParser = sourceIncludesParser;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.sharedGraphs = sharedGraphs;
         this.ignoreUnresolvedHeadersInDependencies = Boolean.getBoolean(IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME);
     }
 
@@ -66,7 +75,6 @@ public class IncrementalCompileFilesFactory {
         private final Set<File> existingHeaders = Sets.newHashSet();
         private final Map<File, IncludeDirectives> includeDirectivesMap = new HashMap<File, IncludeDirectives>();
         private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
-        int traversalCount;
         private boolean hasUnresolvedHeaders;
 
         DefaultIncementalCompileSourceProcessor(CompilationState previousCompileState) {
@@ -99,7 +107,7 @@ public class IncrementalCompileFilesFactory {
             CollectingMacroLookup visibleMacros = new CollectingMacroLookup();
             FileVisitResult result = visitFile(sourceFile, fileSnapshot, visibleMacros, new HashSet<HashCode>(), true);
             ArrayList<IncludeFileState> includedFiles = new ArrayList<IncludeFileState>();
-            result.collectFilesInto(++traversalCount, includedFiles);
+            result.collectFilesInto(Sets.<FileVisitResult>newIdentityHashSet(), includedFiles);
             SourceFileState newState = new SourceFileState(fileSnapshot.getContent().getContentMd5(), ImmutableSet.copyOf(includedFiles));
             current.setState(sourceFile, newState);
             includeDirectivesMap.put(sourceFile, result.includeDirectives);
@@ -119,6 +127,25 @@ public class IncrementalCompileFilesFactory {
             }
 
             HashCode newHash = fileSnapshot.getContent().getContentMd5();
+            if (!isSourceFile) {
+                FileVisitResult sharedResults = (FileVisitResult) sharedGraphs.get(file);
+                if (sharedResults != null && sharedResults.fileState.getHash().equals(newHash)) {
+                    // A header that some other task has already walked using the same include path
+                    if (fileDetails == null) {
+                        fileDetails = new FileDetails(sharedResults.fileState, sharedResults.includeDirectives);
+                        visitedFiles.put(file, fileDetails);
+                    }
+                    fileDetails.results = sharedResults;
+                    List<IncludeFileState> includedFiles = new ArrayList<IncludeFileState>();
+                    sharedResults.collectFilesInto(Sets.<FileVisitResult>newIdentityHashSet(), includedFiles);
+                    for (IncludeFileState includedFile : includedFiles) {
+                        existingHeaders.add(includedFile.getIncludeFile());
+                    }
+                    visibleMacros.append(sharedResults);
+                    return sharedResults;
+                }
+            }
+
             if (!visited.add(newHash)) {
                 // A cycle, treat as resolved here
                 return new FileVisitResult(file);
@@ -135,6 +162,7 @@ public class IncrementalCompileFilesFactory {
 
             List<FileVisitResult> included = new ArrayList<FileVisitResult>(fileDetails.directives.getAll().size());
             IncludeFileResolutionResult result = IncludeFileResolutionResult.NoMacroIncludes;
+            boolean independentOfIncludeLocation = true;
             for (Include include : fileDetails.directives.getAll()) {
                 if (include.getType() == IncludeType.MACRO && result == IncludeFileResolutionResult.NoMacroIncludes) {
                     result = IncludeFileResolutionResult.HasMacroIncludes;
@@ -155,13 +183,19 @@ public class IncrementalCompileFilesFactory {
                     }
                     includeVisitResult.collectDependencies(includedFileDirectives);
                     included.add(includeVisitResult);
+                    independentOfIncludeLocation &= includeVisitResult.independentOfIncludeLocation;
                 }
             }
 
-            FileVisitResult visitResult = new FileVisitResult(file, result, fileDetails.state, fileDetails.directives, included, includedFileDirectives);
+            FileVisitResult visitResult = new FileVisitResult(file, result, fileDetails.state, fileDetails.directives, included, includedFileDirectives, independentOfIncludeLocation);
             if (result == IncludeFileResolutionResult.NoMacroIncludes) {
                 // No macro includes were seen in the include graph of this file, so the result can be reused if this file is seen again
                 fileDetails.results = visitResult;
+                if (!isSourceFile && independentOfIncludeLocation) {
+                    // No include cycles either, so the result can also be reused by other tasks. Collect the macros now, as the graph is not modified once shared
+                    includedFileDirectives.collectAll();
+                    sharedGraphs.put(file, visitResult);
+                }
             }
             return visitResult;
         }
@@ -202,22 +236,24 @@ public class IncrementalCompileFilesFactory {
     /**
      * Details of a file included in a specific location in the file include graph.
      */
-    private static class FileVisitResult implements CollectingMacroLookup.MacroSource {
+    private static class FileVisitResult implements CollectingMacroLookup.MacroSource, IncludeGraphCache.IncludeGraph {
         private final File file;
         private final IncludeFileResolutionResult result;
         private final IncludeFileState fileState;
         private final IncludeDirectives includeDirectives;
         private final List<FileVisitResult> included;
         private final CollectingMacroLookup includeFileDirectives;
-        int traversalCount;
+        // False when this graph contains an include cycle, which is cut at a different file depending on where this file is included from
+        private final boolean independentOfIncludeLocation;
 
-        FileVisitResult(File file, IncludeFileResolutionResult result, IncludeFileState fileState, IncludeDirectives includeDirectives, List<FileVisitResult> included, CollectingMacroLookup dependentIncludeDirectives) {
+        FileVisitResult(File file, IncludeFileResolutionResult result, IncludeFileState fileState, IncludeDirectives includeDirectives, List<FileVisitResult> included, CollectingMacroLookup dependentIncludeDirectives, boolean independentOfIncludeLocation) {
             this.file = file;
             this.result = result;
             this.fileState = fileState;
             this.includeDirectives = includeDirectives;
             this.included = included;
             this.includeFileDirectives = dependentIncludeDirectives;
+            this.independentOfIncludeLocation = independentOfIncludeLocation;
         }
 
         FileVisitResult(File file) {
@@ -227,6 +263,7 @@ public class IncrementalCompileFilesFactory {
             includeDirectives = null;
             included = Collections.emptyList();
             includeFileDirectives = null;
+            independentOfIncludeLocation = false;
         }
 
         void collectDependencies(CollectingMacroLookup directives) {
@@ -235,18 +272,17 @@ public class IncrementalCompileFilesFactory {
             }
         }
 
-        void collectFilesInto(int traversal, List<IncludeFileState> files) {
-            if (traversalCount == traversal) {
+        void collectFilesInto(Set<FileVisitResult> seen, List<IncludeFileState> files) {
+            if (!seen.add(this)) {
                 // Already seen during this traversal, skip
                 return;
             }
 
             // Collect files
-            traversalCount = traversal;
             if (fileState != null) {
                 files.add(fileState);
                 for (FileVisitResult include : included) {
-                    include.collectFilesInto(traversal, files);
+                    include.collectFilesInto(seen, files);
                 }
             }
         }
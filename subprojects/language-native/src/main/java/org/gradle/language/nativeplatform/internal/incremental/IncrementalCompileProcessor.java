@@ -15,16 +15,31 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
 import org.gradle.cache.PersistentStateCache;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class IncrementalCompileProcessor {
+    // Walking the include graph of fewer source files than this in parallel is not worth the overhead
+    private static final int MIN_SOURCE_FILES_PER_BATCH = 20;
+
     private final PersistentStateCache<CompilationState> previousCompileStateCache;
     private final IncrementalCompileFilesFactory incrementalCompileFilesFactory;
     private final BuildOperationExecutor buildOperationExecutor;
@@ -40,11 +55,11 @@ public class IncrementalCompileProcessor {
             @Override
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
-                IncementalCompileSourceProcessor processor = incrementalCompileFilesFactory.filesFor(previousCompileState);
-                for (File sourceFile : sourceFiles) {
-                    processor.processSource(sourceFile);
+                int batchCount = Math.min(Runtime.getRuntime().availableProcessors(), sourceFiles.size() / MIN_SOURCE_FILES_PER_BATCH);
+                if (batchCount <= 1) {
+                    return processSourceFiles(previousCompileState, sourceFiles);
                 }
-                return processor.getResult();
+                return processSourceFilesInParallel(previousCompileState, sourceFiles, batchCount);
             }
 
             @Override
@@ -69,4 +84,63 @@ public class IncrementalCompileProcessor {
         });
     }
 
+    private IncrementalCompilation processSourceFiles(CompilationState previousCompileState, Collection<File> sourceFiles) {
+        IncementalCompileSourceProcessor processor = incrementalCompileFilesFactory.filesFor(previousCompileState);
+        for (File sourceFile : sourceFiles) {
+            processor.processSource(sourceFile);
+        }
+        return processor.getResult();
+    }
+
+    /**
+     * Walks the include graphs of contiguous batches of the source files in parallel, and combines the results in source file order.
+     * Headers shared between batches are only walked once when they can be reused through the shared include graph.
+     */
+    private IncrementalCompilation processSourceFilesInParallel(final CompilationState previousCompileState, Collection<File> sourceFiles, int batchCount) {
+        final List<List<File>> batches = Lists.partition(new ArrayList<File>(sourceFiles), (sourceFiles.size() + batchCount - 1) / batchCount);
+        final IncrementalCompilation[] results = new IncrementalCompilation[batches.size()];
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                for (int i = 0; i < batches.size(); i++) {
+                    final int batch = i;
+                    queue.add(new RunnableBuildOperation() {
+                        @Override
+                        public void run(BuildOperationContext context) {
+                            results[batch] = processSourceFiles(previousCompileState, batches.get(batch));
+                        }
+
+                        @Override
+                        public BuildOperationDescriptor.Builder description() {
+                            return BuildOperationDescriptor.displayName("Processing source files (batch " + (batch + 1) + " of " + batches.size() + ")");
+                        }
+                    });
+                }
+            }
+        });
+
+        ImmutableMap.Builder<File, SourceFileState> finalStates = ImmutableMap.builder();
+        List<File> recompile = new ArrayList<File>();
+        Set<File> existingHeaders = new HashSet<File>();
+        Map<File, IncludeDirectives> sourceFileIncludeDirectives = new HashMap<File, IncludeDirectives>();
+        boolean unresolvedHeaders = false;
+        for (IncrementalCompilation result : results) {
+            finalStates.putAll(result.getFinalState().getFileStates());
+            recompile.addAll(result.getRecompile());
+            existingHeaders.addAll(result.getExistingHeaders());
+            sourceFileIncludeDirectives.putAll(result.getSourceFileIncludeDirectives());
+            unresolvedHeaders |= result.isUnresolvedHeaders();
+        }
+        CompilationState finalState = new CompilationState(finalStates.build());
+
+        List<File> removed = new ArrayList<File>();
+        if (previousCompileState != null) {
+            for (File previousSource : previousCompileState.getSourceInputs()) {
+                if (!finalState.getSourceInputs().contains(previousSource)) {
+                    removed.add(previousSource);
+                }
+            }
+        }
+        return new DefaultIncrementalCompilation(finalState, recompile, removed, existingHeaders, unresolvedHeaders, sourceFileIncludeDirectives);
+    }
 }
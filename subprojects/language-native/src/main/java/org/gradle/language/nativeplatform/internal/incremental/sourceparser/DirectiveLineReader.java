@@ -0,0 +1,280 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.internal.io.MemoryMappedFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the lines of a source file that may contain a preprocessor directive, directly from the bytes of the file.
+ *
+ * <p>Applies the same filtering as {@link PreprocessingReader}: comments are replaced by a single space and line continuations are removed.
+ * Lines that cannot start with a {@code #} after this filtering are skipped without copying or decoding any of their content, so that only
+ * the few directive lines of a file are ever turned into characters.
+ *
+ * <p>Only works for charsets that encode ASCII characters as single bytes and never use bytes in the ASCII range as part of a multi-byte sequence.
+ */
+public class DirectiveLineReader {
+    // Mapping a file is more expensive than reading it for small files
+    private static final int MEMORY_MAPPING_THRESHOLD = 64 * 1024;
+
+    private final ByteBuffer content;
+    private final Charset charset;
+    private final int limit;
+    private int pos;
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    /**
+     * Whether or not the reader is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    public DirectiveLineReader(ByteBuffer content, Charset charset) {
+        this.content = content;
+        this.charset = charset;
+        this.pos = content.position();
+        this.limit = content.limit();
+    }
+
+    /**
+     * Can the content of files using the given charset be read by this reader?
+     */
+    public static boolean canRead(Charset charset) {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+    }
+
+    /**
+     * Returns the content of the given file, memory mapped when the file is large enough.
+     */
+    public static ByteBuffer readContent(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File %s is too large.", file));
+            }
+            if (MemoryMappedFiles.isSupported() && size >= MEMORY_MAPPING_THRESHOLD) {
+                return MemoryMappedFiles.map(channel, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Collects the next line from the filtered content that may contain a directive into the given buffer. Does not include the line separators.
+     * Skips all lines whose first character that is not whitespace is not {@code #}.
+     *
+     * @return true if another line is available, false when the end of the content is reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (pos < limit) {
+            int lineStart = pos;
+            boolean lineStartsInString = inString;
+            boolean lineStartsQuoted = quoted;
+            if (skipLineUnlessDirective()) {
+                // Read the line again from its start, this time collecting the characters
+                pos = lineStart;
+                inString = lineStartsInString;
+                quoted = lineStartsQuoted;
+                collectLine();
+                decodeLine(buffer);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads up to the end of the current line, unless the line may contain a directive.
+     *
+     * @return true when the line may contain a directive, leaving the position somewhere in the line.
+     */
+    private boolean skipLineUnlessDirective() {
+        boolean leading = true;
+        int ch;
+        while ((ch = read()) >= 0) {
+            if (ch == '\n') {
+                return false;
+            }
+            if (ch == '\r') {
+                skipNewLineAfterCarriageReturn();
+                return false;
+            }
+            if (leading && !isLeadingWhitespace(ch)) {
+                if (ch == '#' || ch >= 0x80) {
+                    // Possibly a directive, or some non-ASCII character that may be whitespace
+                    return true;
+                }
+                leading = false;
+            }
+        }
+        return false;
+    }
+
+    private void collectLine() {
+        lineLength = 0;
+        int ch;
+        while ((ch = read()) >= 0) {
+            if (ch == '\n') {
+                return;
+            }
+            if (ch == '\r') {
+                skipNewLineAfterCarriageReturn();
+                return;
+            }
+            if (lineLength == line.length) {
+                byte[] newLine = new byte[line.length * 2];
+                System.arraycopy(line, 0, newLine, 0, lineLength);
+                line = newLine;
+            }
+            line[lineLength++] = (byte) ch;
+        }
+    }
+
+    private void decodeLine(StringBuilder buffer) {
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] < 0) {
+                buffer.append(charset.decode(ByteBuffer.wrap(line, 0, lineLength)));
+                return;
+            }
+        }
+        for (int i = 0; i < lineLength; i++) {
+            buffer.append((char) line[i]);
+        }
+    }
+
+    private void skipNewLineAfterCarriageReturn() {
+        int next = next();
+        if (next != '\n') {
+            pushBack(next);
+        }
+    }
+
+    /**
+     * The ASCII characters that {@link Character#isWhitespace(char)} accepts, plus the null character.
+     */
+    private static boolean isLeadingWhitespace(int ch) {
+        return ch == ' ' || ch == '\t' || ch == 0x0B || ch == '\f' || (ch >= 0x1C && ch <= 0x1F) || ch == 0;
+    }
+
+    /**
+     * Returns the next byte of the filtered content, see {@link PreprocessingReader}.
+     */
+    private int read() {
+        while (true) {
+            int ch = next();
+
+            if (ch == '\\' && discardNewLine()) {
+                continue;
+            }
+
+            if (ch == '"' && !quoted) {
+                inString = !inString;
+                quoted = false;
+            } else if (ch == '\\') {
+                quoted = !quoted;
+            } else {
+                quoted = false;
+                if (!inString && ch == '/') {
+                    ch = next();
+                    if (ch == '/') {
+                        while (ch != '\n' && ch != -1 && ch != '\r') {
+                            ch = next();
+                        }
+                    } else if (ch == '*') {
+                        while (ch != -1) {
+                            ch = next();
+                            if (ch == '*') {
+                                ch = next();
+                                while (ch == '*') {
+                                    ch = next();
+                                }
+
+                                if (ch == '/') {
+                                    ch = ' ';
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        pushBack(ch);
+                        ch = '/';
+                    }
+                }
+            }
+
+            return ch;
+        }
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded from stream
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded from stream
+            }
+            pushBack(followingChar);
+            pushBack(nextChar);
+            return false;
+        } else {
+            pushBack(nextChar);
+            return false;
+        }
+    }
+
+    private int next() {
+        if (pos < limit) {
+            return content.get(pos++) & 0xFF;
+        }
+        return -1;
+    }
+
+    /**
+     * Steps back over the given byte, which must be the last byte returned by {@link #next()}.
+     */
+    private void pushBack(int ch) {
+        if (ch != -1) {
+            pos--;
+        }
+    }
+}
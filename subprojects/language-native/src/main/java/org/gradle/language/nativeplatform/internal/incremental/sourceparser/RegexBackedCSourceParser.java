@@ -34,6 +34,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -49,6 +50,10 @@ public class RegexBackedCSourceParser implements CSourceParser {
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
         try {
+            Charset charset = Charset.defaultCharset();
+            if (DirectiveLineReader.canRead(charset)) {
+                return parseSource(new DirectiveLineReader(DirectiveLineReader.readContent(sourceFile), charset));
+            }
             Reader fileReader = new FileReader(sourceFile);
             try {
                 return parseSource(fileReader);
@@ -72,22 +77,44 @@ public class RegexBackedCSourceParser implements CSourceParser {
             if (!lineReader.readNextLine(buffer.value)) {
                 break;
             }
-            buffer.consumeWhitespace();
-            if (!buffer.consume('#')) {
-                continue;
-            }
-            buffer.consumeWhitespace();
-            if (buffer.consume("define")) {
-                parseDefineDirectiveBody(buffer, macros, macroFunctions);
-            } else if (buffer.consume("include")) {
-                parseIncludeOrImportDirectiveBody(buffer, false, includes);
-            } else if (buffer.consume("import")) {
-                parseIncludeOrImportDirectiveBody(buffer, true, includes);
+            parseDirective(buffer, includes, macros, macroFunctions);
+        }
+        return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
+    }
+
+    protected IncludeDirectives parseSource(DirectiveLineReader lineReader) {
+        Set<Include> includes = Sets.newLinkedHashSet();
+        List<Macro> macros = Lists.newArrayList();
+        List<MacroFunction> macroFunctions = Lists.newArrayList();
+        Buffer buffer = new Buffer();
+        while (true) {
+            buffer.reset();
+            if (!lineReader.readNextDirectiveLine(buffer.value)) {
+                break;
             }
+            parseDirective(buffer, includes, macros, macroFunctions);
         }
         return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
     }
 
+    /**
+     * Parses a line that may contain a directive. Consumes all input.
+     */
+    private void parseDirective(Buffer buffer, Collection<Include> includes, Collection<Macro> macros, Collection<MacroFunction> macroFunctions) {
+        buffer.consumeWhitespace();
+        if (!buffer.consume('#')) {
+            return;
+        }
+        buffer.consumeWhitespace();
+        if (buffer.consume("define")) {
+            parseDefineDirectiveBody(buffer, macros, macroFunctions);
+        } else if (buffer.consume("include")) {
+            parseIncludeOrImportDirectiveBody(buffer, false, includes);
+        } else if (buffer.consume("import")) {
+            parseIncludeOrImportDirectiveBody(buffer, true, includes);
+        }
+    }
+
     /**
      * Parses an #include/#import directive body. Consumes all input.
      */
@@ -18,6 +18,7 @@ package org.gradle.language.nativeplatform.internal.incremental
 import com.google.common.collect.ImmutableList
 import org.gradle.api.internal.changedetection.state.TestFileSnapshotter
 import org.gradle.cache.PersistentStateCache
+import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.language.nativeplatform.internal.IncludeDirectives
 import org.gradle.language.nativeplatform.internal.IncludeType
@@ -386,6 +387,65 @@ class IncrementalCompileProcessorTest extends Specification {
         result.unresolvedHeaders
     }
 
+    def "reuses include graphs of headers walked by another task using the same include path"() {
+        given:
+        def graphs = new IncludeGraphCache(Stub(ListenerManager)).forIncludePath([], false)
+        def otherTaskProcessor = new IncrementalCompileProcessor(new DummyPersistentStateCache(), new IncrementalCompileFilesFactory(includesParser, dependencyResolver, fileSystemSnapshotter, graphs), new TestBuildOperationExecutor())
+        def processor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyResolver, fileSystemSnapshotter, graphs), new TestBuildOperationExecutor())
+        graph.keySet().each { TestFile sourceFile ->
+            resolve(sourceFile)
+        }
+
+        when:
+        otherTaskProcessor.processSourceFiles([source1])
+
+        then:
+        1 * includesParser.parseIncludes(source1) >> includes(graph[source1])
+        1 * includesParser.parseIncludes(dep1) >> includes(graph[dep1])
+        1 * includesParser.parseIncludes(dep2) >> includes(graph[dep2])
+        1 * includesParser.parseIncludes(dep3) >> includes(graph[dep3])
+        0 * includesParser._
+
+        when:
+        def result = processor.processSourceFiles([source1, source2])
+
+        then:
+        1 * includesParser.parseIncludes(source1) >> includes(graph[source1])
+        1 * includesParser.parseIncludes(source2) >> includes(graph[source2])
+        1 * includesParser.parseIncludes(dep4) >> includes(graph[dep4])
+        0 * includesParser._
+
+        and:
+        result.recompile == [source1, source2]
+        result.existingHeaders == [dep1, dep2, dep3, dep4] as Set
+        result.finalState.getState(source1).resolvedIncludes*.includeFile == [source1, dep1, dep3, dep2]
+        result.finalState.getState(source2).resolvedIncludes*.includeFile == [source2, dep3, dep4]
+    }
+
+    def "processes many source files in batches"() {
+        given:
+        def sources = (1..100).collect { sourceFile("many" + it) }
+        sources.each { TestFile sourceFile ->
+            graph[sourceFile] = [dep1, dep4]
+            parse(sourceFile)
+            resolve(sourceFile)
+        }
+        graph.keySet().each { TestFile sourceFile ->
+            parse(sourceFile)
+            resolve(sourceFile)
+        }
+
+        when:
+        def result = incrementalCompileProcessor.processSourceFiles(sources)
+
+        then:
+        result.recompile == sources
+        result.removed == []
+        result.finalState.sourceInputs == sources as Set
+        result.existingHeaders == [dep1, dep3, dep4] as Set
+        result.finalState.getState(sources.last()).resolvedIncludes*.includeFile == [sources.last(), dep1, dep3, dep4]
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with (state) {
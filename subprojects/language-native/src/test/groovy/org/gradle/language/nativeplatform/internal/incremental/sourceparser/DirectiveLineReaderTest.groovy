@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.charset.Charset
+
+class DirectiveLineReaderTest extends Specification {
+    static final Charset UTF_8 = Charset.forName("UTF-8")
+    def parser = new RegexBackedCSourceParser()
+
+    @Unroll
+    def "reads same directive lines as preprocessing reader for #description"() {
+        expect:
+        directiveLines(text) == referenceDirectiveLines(text)
+        parser.parseSource(new DirectiveLineReader(ByteBuffer.wrap(text.getBytes(UTF_8)), UTF_8)) == parser.parseSource(new StringReader(text))
+
+        where:
+        description                          | text
+        "empty content"                      | ""
+        "no directives"                      | "int a;\nint b;\n"
+        "include"                            | "#include \"a.h\"\n"
+        "no trailing new line"               | "#include <a.h>"
+        "leading whitespace"                 | " \t #  include \"a.h\"\r\n"
+        "windows line endings"               | "int a;\r\n#include \"a.h\"\r\n#define A \"b.h\"\r\n"
+        "mac line endings"                   | "int a;\r#include \"a.h\"\r#define A \"b.h\"\r"
+        "line continuation"                  | "#def\\\nine A \\\r\n \"b.h\"\n"
+        "line continuation before directive" | "int a; \\\n#include \"a.h\"\n"
+        "block comment before directive"     | "/* comment */#include \"a.h\"\n"
+        "multi-line block comment"           | "/* comment\n more */ #include \"a.h\"\n/** a **/#include /* b */ <b.h>\n"
+        "unterminated block comment"         | "#include \"a.h\" /* comment\n#include \"b.h\"\n"
+        "line comment"                       | "// #include \"a.h\"\n#include \"b.h\" // comment\n"
+        "line comment continuation"          | "// comment \\\n#include \"a.h\"\n"
+        "directive in string"                | "char* s = \"\n#include \\\"a.h\\\"\n\";\n#include \"b.h\"\n"
+        "quote character literal"            | "char c = '\"';\n#include \"a.h\"\n"
+        "null character"                     | "\u0000#include \"a.h\"\n"
+        "non-ASCII whitespace"               | "\u2003#include \"a.h\"\n"
+        "non-ASCII path"                     | "#include \"été.h\"\n"
+        "non-ASCII line"                     | "é\n#include \"a.h\"\n"
+        "macro function"                     | "#define A(X, Y) X ## Y\n#include A(a, b)\n"
+    }
+
+    def "reads same directive lines as preprocessing reader for random content"() {
+        def random = new Random(1234)
+        def fragments = ["#", "include", "define", "import", " ", "\t", "\n", "\r", "\r\n", "\\", "\\\n", "\\\r\n", "/", "*", "/*", "*/", "//", "\"", "'\"'", "<", ">", "(", ")", ",", "##", "a", "a.h", "é", "\u2003", "\u0000"]
+
+        expect:
+        10000.times {
+            def builder = new StringBuilder()
+            random.nextInt(40).times {
+                builder.append(fragments[random.nextInt(fragments.size())])
+            }
+            def text = builder.toString()
+            assert directiveLines(text) == referenceDirectiveLines(text)
+            assert parser.parseSource(new DirectiveLineReader(ByteBuffer.wrap(text.getBytes(UTF_8)), UTF_8)) == parser.parseSource(new StringReader(text))
+        }
+    }
+
+    def "can read ASCII compatible charsets"() {
+        expect:
+        DirectiveLineReader.canRead(Charset.forName(name)) == supported
+
+        where:
+        name         | supported
+        "UTF-8"      | true
+        "US-ASCII"   | true
+        "ISO-8859-1" | true
+        "UTF-16"     | false
+    }
+
+    List<String> directiveLines(String text) {
+        def reader = new DirectiveLineReader(ByteBuffer.wrap(text.getBytes(UTF_8)), UTF_8)
+        def lines = []
+        def buffer = new StringBuilder()
+        while (reader.readNextDirectiveLine(buffer)) {
+            lines << buffer.toString()
+            buffer.setLength(0)
+        }
+        return lines.findAll { isDirective(it) }
+    }
+
+    List<String> referenceDirectiveLines(String text) {
+        def reader = new PreprocessingReader(new StringReader(text))
+        def lines = []
+        def buffer = new StringBuilder()
+        while (reader.readNextLine(buffer)) {
+            lines << buffer.toString()
+            buffer.setLength(0)
+        }
+        return lines.findAll { isDirective(it) }
+    }
+
+    static boolean isDirective(String line) {
+        int pos = 0
+        while (pos < line.length() && (Character.isWhitespace(line.charAt(pos)) || line.charAt(pos) == 0 as char)) {
+            pos++
+        }
+        return pos < line.length() && line.charAt(pos) == '#' as char
+    }
+}
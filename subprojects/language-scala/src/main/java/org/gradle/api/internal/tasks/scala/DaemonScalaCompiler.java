@@ -48,17 +48,24 @@ import java.io.File;
 import java.util.Arrays;
 
 public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends AbstractDaemonCompiler<T> {
+    /**
+     * The number of deserialized analysis files each compiler daemon keeps in memory between compilations.
+     */
+    public static final String ANALYSIS_CACHE_LIMIT_PROPERTY_NAME = "org.gradle.internal.scala.analysis.cache.limit";
+    private static final int DEFAULT_ANALYSIS_CACHE_LIMIT = 20;
     private static final Iterable<String> SHARED_PACKAGES =
             Arrays.asList("scala", "com.typesafe.zinc", "xsbti", "com.sun.tools.javac", "sbt");
     private final Iterable<File> zincClasspath;
     private final FileResolver fileResolver;
     private final File daemonWorkingDir;
+    private final int analysisCacheLimit;
 
     public DaemonScalaCompiler(File daemonWorkingDir, Compiler<T> delegate, WorkerDaemonFactory workerDaemonFactory, Iterable<File> zincClasspath, FileResolver fileResolver) {
         super(delegate, workerDaemonFactory);
         this.zincClasspath = zincClasspath;
         this.fileResolver = fileResolver;
         this.daemonWorkingDir = daemonWorkingDir;
+        this.analysisCacheLimit = Integer.getInteger(ANALYSIS_CACHE_LIMIT_PROPERTY_NAME, DEFAULT_ANALYSIS_CACHE_LIMIT);
     }
 
     @Override
@@ -68,12 +75,15 @@ public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends Ab
         JavaForkOptions javaForkOptions = new BaseForkOptionsConverter(fileResolver).transform(mergeForkOptions(javaOptions, scalaOptions));
         File invocationWorkingDir = javaForkOptions.getWorkingDir();
         javaForkOptions.setWorkingDir(daemonWorkingDir);
+        // Zinc reads this when its classes are loaded, and keeps the analysis files it has read in a cache of that size
+        javaForkOptions.systemProperty(ZincScalaCompilerUtil.ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY, analysisCacheLimit);
 
+        // Keep the compiler daemon, and the compilers and analysis it has loaded, across builds
         DaemonForkOptions daemonForkOptions = new DaemonForkOptionsBuilder(fileResolver)
             .javaForkOptions(javaForkOptions)
             .classpath(zincClasspath)
             .sharedPackages(SHARED_PACKAGES)
-            .keepAliveMode(KeepAliveMode.SESSION)
+            .keepAliveMode(KeepAliveMode.DAEMON)
             .build();
 
         return new InvocationContext(invocationWorkingDir, daemonForkOptions);
@@ -16,7 +16,11 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.typesafe.zinc.Compiler;
 import com.typesafe.zinc.SbtJars;
 import com.typesafe.zinc.ScalaLocation;
@@ -29,6 +33,7 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.internal.Factory;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -42,11 +47,34 @@ import xsbti.compile.JavaCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class ZincScalaCompilerFactory {
     private static final Logger LOGGER = Logging.getLogger(ZincScalaCompilerFactory.class);
+    private static final int MAX_CACHED_COMPILERS = 5;
+
+    // Compilers that this daemon has already set up, so that later compilations skip locking the Zinc cache and resolving the setup
+    private static final Cache<List<Object>, Compiler> COMPILERS = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_COMPILERS).build();
+
+    static Compiler getCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, final File gradleUserHome) {
+        List<Object> key = ImmutableList.<Object>of(ImmutableList.copyOf(scalaClasspath), ImmutableList.copyOf(zincClasspath), gradleUserHome);
+        try {
+            return COMPILERS.get(key, new Callable<Compiler>() {
+                @Override
+                public Compiler call() {
+                    return createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
 
     static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File gradleUserHome) {
         File zincCacheHomeDir = new File(System.getProperty(ZincScalaCompilerUtil.ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY, gradleUserHome.getAbsolutePath()));
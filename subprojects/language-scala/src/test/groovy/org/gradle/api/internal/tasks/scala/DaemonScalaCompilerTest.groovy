@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.api.internal.file.FileResolver
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.api.tasks.compile.ForkOptions
+import org.gradle.api.tasks.scala.ScalaForkOptions
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.language.scala.tasks.BaseScalaCompileOptions
+import org.gradle.util.SetSystemProperties
+import org.gradle.workers.internal.KeepAliveMode
+import org.gradle.workers.internal.WorkerDaemonFactory
+import org.junit.Rule
+import spock.lang.Specification
+
+class DaemonScalaCompilerTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+
+    def workingDirectory = Mock(File)
+    def delegate = Mock(Compiler)
+    def workerDaemonFactory = Mock(WorkerDaemonFactory)
+    def fileResolver = Mock(FileResolver)
+    def zincClasspath = [Mock(File), Mock(File)]
+    def spec = Stub(ScalaJavaJointCompileSpec) {
+        getCompileOptions() >> Stub(CompileOptions) {
+            getForkOptions() >> new ForkOptions()
+        }
+        getScalaCompileOptions() >> Stub(BaseScalaCompileOptions) {
+            getForkOptions() >> new ScalaForkOptions()
+        }
+    }
+
+    def "keeps compiler daemon alive across builds"() {
+        given:
+        def compiler = new DaemonScalaCompiler(workingDirectory, delegate, workerDaemonFactory, zincClasspath, fileResolver)
+
+        when:
+        def context = compiler.toInvocationContext(spec)
+
+        then:
+        context.daemonForkOptions.keepAliveMode == KeepAliveMode.DAEMON
+        context.daemonForkOptions.classpath == zincClasspath
+    }
+
+    def "sizes the Zinc analysis cache of the compiler daemon"() {
+        given:
+        System.setProperty(DaemonScalaCompiler.ANALYSIS_CACHE_LIMIT_PROPERTY_NAME, "42")
+        def compiler = new DaemonScalaCompiler(workingDirectory, delegate, workerDaemonFactory, zincClasspath, fileResolver)
+
+        when:
+        def context = compiler.toInvocationContext(spec)
+
+        then:
+        context.daemonForkOptions.javaForkOptions.systemProperties[ZincScalaCompilerUtil.ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY] == 42
+    }
+}
@@ -37,6 +37,9 @@ public interface BinaryStore {
     }
 
     interface BinaryData extends Closeable {
+        /**
+         * Reads the next value, continuing where the previous read of this data stopped.
+         */
         <T> T read(ReadAction<T> readAction);
     }
 }
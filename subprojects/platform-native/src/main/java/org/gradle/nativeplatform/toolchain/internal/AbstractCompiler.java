@@ -49,16 +49,22 @@ public abstract class AbstractCompiler<T extends BinaryToolSpec> implements Comp
     @Override
     public WorkResult execute(final T spec) {
         List<String> commonArguments = getArguments(spec);
-        final Action<BuildOperationQueue<CommandLineToolInvocation>> invocationAction = newInvocationAction(spec, commonArguments);
+        Action<BuildOperationQueue<CommandLineToolInvocation>> invocationAction = newInvocationAction(spec, commonArguments);
+        runInvocations(invocationAction);
 
+        return WorkResults.didWork(true);
+    }
+
+    /**
+     * Runs the tool invocations queued by the given action and waits for them to complete.
+     */
+    protected void runInvocations(final Action<BuildOperationQueue<CommandLineToolInvocation>> invocationAction) {
         workerLeaseService.withoutProjectLock(new Runnable() {
             @Override
             public void run() {
                 buildOperationExecutor.runAll(commandLineToolInvocationWorker, invocationAction);
             }
         });
-
-        return WorkResults.didWork(true);
     }
 
     // TODO(daniel): Should support in a better way multi file invocation.
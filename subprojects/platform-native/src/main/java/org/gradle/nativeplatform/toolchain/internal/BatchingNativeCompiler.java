@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.io.FilenameUtils;
+import org.gradle.api.Action;
+import org.gradle.api.Transformer;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.work.WorkerLeaseService;
+import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compiler that can pass several source files to a single compiler process, when enabled and supported for a spec.
+ */
+public abstract class BatchingNativeCompiler<T extends NativeCompileSpec> extends NativeCompiler<T> {
+    /**
+     * The maximum number of source files to pass to a single compiler process, for the compilers that can compile several source files at once.
+     * Each source file is compiled by its own process by default.
+     */
+    public static final String BATCH_SIZE_PROPERTY_NAME = "org.gradle.internal.native.compile.batch.size";
+
+    private final int batchSize;
+
+    public BatchingNativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineToolInvocationWorker, CommandLineToolContext invocationContext, ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
+        super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, argsTransformer, specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
+        this.batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY_NAME, 1);
+    }
+
+    @Override
+    protected void compile(T spec) {
+        if (batchSize > 1 && canCompileInBatches(spec)) {
+            executeInBatches(spec);
+        } else {
+            super.compile(spec);
+        }
+    }
+
+    private void executeInBatches(final T spec) {
+        final List<String> genericArgs = getArguments(spec);
+        final File objectDir = spec.getObjectFileDir();
+        final List<SourceBatch> batches = createBatches(spec);
+
+        runInvocations(new Action<BuildOperationQueue<CommandLineToolInvocation>>() {
+            @Override
+            public void execute(BuildOperationQueue<CommandLineToolInvocation> buildQueue) {
+                buildQueue.setLogLocation(spec.getOperationLogger().getLogLocation());
+                for (SourceBatch batch : batches) {
+                    if (batch.sourceFiles.size() == 1) {
+                        buildQueue.add(createPerFileInvocation(genericArgs, batch.sourceFiles.get(0), objectDir, spec));
+                    } else {
+                        buildQueue.add(createBatchInvocation(genericArgs, batch, spec));
+                    }
+                }
+            }
+        });
+
+        // The compiler writes the object files of a batch into a single directory, so move them to where the naming scheme expects them
+        for (SourceBatch batch : batches) {
+            if (batch.sourceFiles.size() > 1) {
+                for (File sourceFile : batch.sourceFiles) {
+                    File batchObjectFile = new File(batch.outputDir, FilenameUtils.removeExtension(sourceFile.getName()) + getBatchObjectFileExtension());
+                    File objectFile = getOutputFileDir(sourceFile, objectDir, getObjectFileExtension());
+                    GFileUtils.deleteQuietly(objectFile);
+                    GFileUtils.moveFile(batchObjectFile, objectFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups the source files into batches that can be passed to a single compiler process. The source files of a batch use the same
+     * pre-compiled header arguments and have distinct base names, as the compiler names each object file after its source file.
+     */
+    private List<SourceBatch> createBatches(T spec) {
+        File batchesDir = new File(spec.getTempDir(), "batches");
+        GFileUtils.deleteDirectory(batchesDir);
+
+        List<SourceBatch> batches = Lists.newArrayList();
+        Map<List<String>, SourceBatch> openBatches = Maps.newHashMap();
+        for (File sourceFile : spec.getSourceFiles()) {
+            List<String> pchArgs = maybeGetPCHArgs(spec, sourceFile);
+            String baseName = FilenameUtils.removeExtension(sourceFile.getName()).toLowerCase(Locale.ROOT);
+            SourceBatch batch = openBatches.get(pchArgs);
+            if (batch == null || batch.sourceFiles.size() >= batchSize || !batch.baseNames.add(baseName)) {
+                batch = new SourceBatch(new File(batchesDir, String.valueOf(batches.size())), pchArgs);
+                batch.baseNames.add(baseName);
+                batches.add(batch);
+                openBatches.put(pchArgs, batch);
+            }
+            batch.sourceFiles.add(sourceFile);
+        }
+        return batches;
+    }
+
+    private CommandLineToolInvocation createBatchInvocation(List<String> genericArgs, SourceBatch batch, T spec) {
+        List<String> sourceArgs = Lists.newArrayList();
+        List<String> sourceNames = Lists.newArrayList();
+        for (File sourceFile : batch.sourceFiles) {
+            sourceArgs.addAll(getSourceArgs(sourceFile));
+            sourceNames.add(sourceFile.getName());
+        }
+        List<String> outputArgs = getBatchOutputArgs(spec, batch.outputDir);
+        String description = "compiling ".concat(Joiner.on(", ").join(sourceNames));
+        return newInvocation(description, batch.outputDir, buildPerFileArgs(genericArgs, sourceArgs, outputArgs, batch.pchArgs), spec.getOperationLogger());
+    }
+
+    /**
+     * Returns true when the compiler can compile several source files of the given spec with a single process.
+     */
+    protected boolean canCompileInBatches(T spec) {
+        return false;
+    }
+
+    /**
+     * Returns the arguments that make the compiler write the object files for a batch of source files into the given directory.
+     * The compiler process runs in that directory.
+     */
+    protected abstract List<String> getBatchOutputArgs(T spec, File outputDir);
+
+    /**
+     * Returns the extension of the object files the compiler writes for a batch of source files.
+     */
+    protected abstract String getBatchObjectFileExtension();
+
+    private static class SourceBatch {
+        private final File outputDir;
+        private final List<String> pchArgs;
+        private final List<File> sourceFiles = Lists.newArrayList();
+        private final Set<String> baseNames = Sets.newHashSet();
+
+        SourceBatch(File outputDir, List<String> pchArgs) {
+            this.outputDir = outputDir;
+            this.pchArgs = pchArgs;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.nativeplatform.toolchain.internal;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Limits the number of command line tool processes that run concurrently, based on the free physical memory of the machine.
+ *
+ * <p>A new process is only started when the last reported free memory, minus the memory reserved for the OS and the expected
+ * usage of the processes started since that report that may still run, leaves room for one more process. At least one process is always allowed
+ * to run, so a build never stalls. When no OS memory status is available, processes are not throttled.</p>
+ */
+@ThreadSafe
+public class CommandLineToolInvocationThrottle implements OsMemoryStatusListener {
+    /**
+     * The expected peak memory usage of a single tool process, in the same notation as {@code -Xmx}.
+     */
+    public static final String INVOCATION_MEMORY_PROPERTY_NAME = "org.gradle.internal.native.invocation.memory";
+    private static final long DEFAULT_INVOCATION_MEMORY = 512L * 1024 * 1024; // 512M
+    private static final double MIN_FREE_MEMORY_PERCENTAGE = 0.1D; // 10%
+    private static final long MIN_FREE_MEMORY_BYTES = 384L * 1024 * 1024; // 384M
+    private static final Logger LOGGER = Logging.getLogger(CommandLineToolInvocationThrottle.class);
+
+    private final MemoryManager memoryManager;
+    private final long invocationMemory;
+    private final Object lock = new Object();
+    private OsMemoryStatus currentStatus;
+    private int running;
+    private int startedSinceStatus;
+
+    public CommandLineToolInvocationThrottle(MemoryManager memoryManager) {
+        this.memoryManager = memoryManager;
+        long configured = MemoryAmount.parseNotation(System.getProperty(INVOCATION_MEMORY_PROPERTY_NAME));
+        this.invocationMemory = configured > 0 ? configured : DEFAULT_INVOCATION_MEMORY;
+        memoryManager.addListener(this);
+    }
+
+    /**
+     * Returns a worker that waits for enough free memory before running each invocation of the given worker.
+     */
+    public CommandLineToolInvocationWorker throttle(CommandLineToolInvocationWorker worker) {
+        return new ThrottledWorker(worker);
+    }
+
+    @Override
+    public void onOsMemoryStatus(OsMemoryStatus osMemoryStatus) {
+        synchronized (lock) {
+            currentStatus = osMemoryStatus;
+            startedSinceStatus = 0;
+            lock.notifyAll();
+        }
+    }
+
+    void acquire() {
+        synchronized (lock) {
+            if (canStart()) {
+                start();
+                return;
+            }
+        }
+
+        // Give memory holders, such as idle worker daemons, a chance to release memory before waiting
+        memoryManager.requestFreeMemory(invocationMemory);
+
+        synchronized (lock) {
+            if (!canStart()) {
+                LOGGER.info("Waiting for free memory before starting another command line tool process ({} running).", running);
+            }
+            while (!canStart()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            start();
+        }
+    }
+
+    void release() {
+        synchronized (lock) {
+            running--;
+            lock.notifyAll();
+        }
+    }
+
+    private boolean canStart() {
+        if (running == 0 || currentStatus == null) {
+            return true;
+        }
+        long totalMemory = currentStatus.getTotalPhysicalMemory();
+        long reserved = Math.max(MIN_FREE_MEMORY_BYTES, (long) (totalMemory * MIN_FREE_MEMORY_PERCENTAGE));
+        // Processes that have already exited since the report do not use memory any more, but it is not known which ones they were
+        long startedAndRunning = Math.min(startedSinceStatus, running);
+        long available = currentStatus.getFreePhysicalMemory() - reserved - startedAndRunning * invocationMemory;
+        return available >= invocationMemory;
+    }
+
+    private void start() {
+        running++;
+        startedSinceStatus++;
+    }
+
+    private class ThrottledWorker implements CommandLineToolInvocationWorker {
+        private final CommandLineToolInvocationWorker delegate;
+
+        ThrottledWorker(CommandLineToolInvocationWorker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return delegate.getDisplayName();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+
+        @Override
+        public void execute(CommandLineToolInvocation invocation, BuildOperationContext context) {
+            acquire();
+            try {
+                delegate.execute(invocation, context);
+            } finally {
+                release();
+            }
+        }
+    }
+}
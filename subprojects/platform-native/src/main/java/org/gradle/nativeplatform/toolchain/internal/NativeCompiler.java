@@ -58,11 +58,22 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
     public WorkResult execute(final T spec) {
         final T transformedSpec = specTransformer.transform(spec);
 
-        super.execute(spec);
+        compile(spec);
 
         return WorkResults.didWork(!transformedSpec.getSourceFiles().isEmpty());
     }
 
+    /**
+     * Compiles the source files of the given spec, each source file with its own compiler process.
+     */
+    protected void compile(T spec) {
+        super.execute(spec);
+    }
+
+    protected String getObjectFileExtension() {
+        return objectFileExtension;
+    }
+
     // TODO(daniel): Should support in a better way multi file invocation.
     protected Action<BuildOperationQueue<CommandLineToolInvocation>> newInvocationAction(final T spec, final List<String> genericArgs) {
         final File objectDir = spec.getObjectFileDir();
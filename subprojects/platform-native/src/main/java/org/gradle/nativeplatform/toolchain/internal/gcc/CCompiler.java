@@ -30,6 +30,11 @@ class CCompiler extends GccCompatibleNativeCompiler<CCompileSpec> {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, new CCompileArgsTransformer(), Transformers.<CCompileSpec>noOpTransformer(), objectFileExtension, useCommandFile, workerLeaseService);
     }
 
+    @Override
+    protected boolean canCompileInBatches(CCompileSpec spec) {
+        return true;
+    }
+
     private static class CCompileArgsTransformer extends GccCompilerArgsTransformer<CCompileSpec> {
         @Override
         protected String getLanguage() {
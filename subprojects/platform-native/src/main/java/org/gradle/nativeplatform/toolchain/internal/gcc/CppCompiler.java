@@ -30,6 +30,11 @@ class CppCompiler extends GccCompatibleNativeCompiler<CppCompileSpec>  {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, new CppCompileArgsTransformer(), Transformers.<CppCompileSpec>noOpTransformer(), objectFileExtension, useCommandFile, workerLeaseService);
     }
 
+    @Override
+    protected boolean canCompileInBatches(CppCompileSpec spec) {
+        return true;
+    }
+
     private static class CppCompileArgsTransformer extends GccCompilerArgsTransformer<CppCompileSpec> {
         @Override
         protected String getLanguage() {
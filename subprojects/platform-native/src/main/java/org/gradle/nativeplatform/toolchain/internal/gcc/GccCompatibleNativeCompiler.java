@@ -21,18 +21,19 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
 import org.gradle.nativeplatform.toolchain.internal.ArgsTransformer;
+import org.gradle.nativeplatform.toolchain.internal.BatchingNativeCompiler;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationWorker;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
-import org.gradle.nativeplatform.toolchain.internal.NativeCompiler;
 import org.gradle.nativeplatform.toolchain.internal.OptionsFileArgsWriter;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends NativeCompiler<T> {
+class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends BatchingNativeCompiler<T> {
 
     GccCompatibleNativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineTool, CommandLineToolContext invocationContext, final ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineTool, invocationContext, argsTransformer, specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
@@ -43,6 +44,17 @@ class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends NativeCom
         return Arrays.asList("-o", outputFile.getAbsolutePath());
     }
 
+    @Override
+    protected List<String> getBatchOutputArgs(T spec, File outputDir) {
+        // Without -o, GCC writes the object file for each source file into the working directory
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected String getBatchObjectFileExtension() {
+        return ".o";
+    }
+
     @Override
     protected void addOptionsFileArgs(List<String> args, File tempDir) {
         OptionsFileArgsWriter writer = new GccOptionsFileArgsWriter(tempDir);
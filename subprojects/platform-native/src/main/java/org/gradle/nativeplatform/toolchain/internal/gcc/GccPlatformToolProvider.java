@@ -30,6 +30,7 @@ import org.gradle.nativeplatform.platform.internal.NativePlatformInternal;
 import org.gradle.nativeplatform.platform.internal.OperatingSystemInternal;
 import org.gradle.nativeplatform.toolchain.internal.AbstractPlatformToolProvider;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext;
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationThrottle;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationWorker;
 import org.gradle.nativeplatform.toolchain.internal.DefaultCommandLineToolInvocationWorker;
 import org.gradle.nativeplatform.toolchain.internal.DefaultMutableCommandLineToolContext;
@@ -82,10 +83,11 @@ class GccPlatformToolProvider extends AbstractPlatformToolProvider {
     private final CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory;
     private final boolean useCommandFile;
     private final WorkerLeaseService workerLeaseService;
+    private final CommandLineToolInvocationThrottle invocationThrottle;
     private final CompilerMetaDataProvider<GccMetadata> metadataProvider;
     private final SystemLibraryDiscovery standardLibraryDiscovery;
 
-    GccPlatformToolProvider(NativePlatformInternal targetPlatform, BuildOperationExecutor buildOperationExecutor, OperatingSystemInternal targetOperatingSystem, ToolSearchPath toolSearchPath, ToolRegistry toolRegistry, ExecActionFactory execActionFactory, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, boolean useCommandFile, WorkerLeaseService workerLeaseService, CompilerMetaDataProvider<GccMetadata> metadataProvider, SystemLibraryDiscovery standardLibraryDiscovery) {
+    GccPlatformToolProvider(NativePlatformInternal targetPlatform, BuildOperationExecutor buildOperationExecutor, OperatingSystemInternal targetOperatingSystem, ToolSearchPath toolSearchPath, ToolRegistry toolRegistry, ExecActionFactory execActionFactory, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, boolean useCommandFile, WorkerLeaseService workerLeaseService, CommandLineToolInvocationThrottle invocationThrottle, CompilerMetaDataProvider<GccMetadata> metadataProvider, SystemLibraryDiscovery standardLibraryDiscovery) {
         super(buildOperationExecutor, targetOperatingSystem);
         this.targetPlatform = targetPlatform;
         this.toolRegistry = toolRegistry;
@@ -94,6 +96,7 @@ class GccPlatformToolProvider extends AbstractPlatformToolProvider {
         this.useCommandFile = useCommandFile;
         this.execActionFactory = execActionFactory;
         this.workerLeaseService = workerLeaseService;
+        this.invocationThrottle = invocationThrottle;
         this.metadataProvider = metadataProvider;
         this.standardLibraryDiscovery = standardLibraryDiscovery;
     }
@@ -211,7 +214,7 @@ class GccPlatformToolProvider extends AbstractPlatformToolProvider {
     private CommandLineToolInvocationWorker commandLineTool(GccCommandLineToolConfigurationInternal tool) {
         ToolType key = tool.getToolType();
         String exeName = tool.getExecutable();
-        return new DefaultCommandLineToolInvocationWorker(key.getToolName(), toolSearchPath.locate(key, exeName).getTool(), execActionFactory);
+        return invocationThrottle.throttle(new DefaultCommandLineToolInvocationWorker(key.getToolName(), toolSearchPath.locate(key, exeName).getTool(), execActionFactory));
     }
 
     private CommandLineToolContext context(GccCommandLineToolConfigurationInternal toolConfiguration) {
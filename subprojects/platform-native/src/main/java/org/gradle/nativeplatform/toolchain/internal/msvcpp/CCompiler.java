@@ -30,6 +30,12 @@ class CCompiler extends VisualCppNativeCompiler<CCompileSpec> {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, new CCompilerArgsTransformer(), specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
     }
 
+    @Override
+    protected boolean canCompileInBatches(CCompileSpec spec) {
+        // Each object file needs its own program database
+        return !spec.isDebuggable();
+    }
+
     private static class CCompilerArgsTransformer extends VisualCppCompilerArgsTransformer<CCompileSpec> {
         @Override
         protected String getLanguageOption() {
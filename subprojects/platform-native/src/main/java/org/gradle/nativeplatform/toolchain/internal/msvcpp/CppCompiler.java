@@ -30,6 +30,12 @@ class CppCompiler extends VisualCppNativeCompiler<CppCompileSpec> {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, new CppCompilerArgsTransformer(), specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
     }
 
+    @Override
+    protected boolean canCompileInBatches(CppCompileSpec spec) {
+        // Each object file needs its own program database
+        return !spec.isDebuggable();
+    }
+
     private static class CppCompilerArgsTransformer extends VisualCppCompilerArgsTransformer<CppCompileSpec> {
         @Override
         protected String getLanguageOption() {
@@ -21,17 +21,18 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
 import org.gradle.nativeplatform.toolchain.internal.ArgsTransformer;
+import org.gradle.nativeplatform.toolchain.internal.BatchingNativeCompiler;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationWorker;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
-import org.gradle.nativeplatform.toolchain.internal.NativeCompiler;
 import org.gradle.nativeplatform.toolchain.internal.OptionsFileArgsWriter;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-class VisualCppNativeCompiler<T extends NativeCompileSpec> extends NativeCompiler<T> {
+class VisualCppNativeCompiler<T extends NativeCompileSpec> extends BatchingNativeCompiler<T> {
 
     VisualCppNativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineToolInvocationWorker, CommandLineToolContext invocationContext, ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
         super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineToolInvocationWorker, invocationContext, argsTransformer, specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
@@ -48,6 +49,17 @@ class VisualCppNativeCompiler<T extends NativeCompileSpec> extends NativeCompile
         return args;
     }
 
+    @Override
+    protected List<String> getBatchOutputArgs(T spec, File outputDir) {
+        // A trailing separator makes MSVC write the object file for each source file into the directory
+        return Collections.singletonList("/Fo" + outputDir.getAbsolutePath() + File.separator);
+    }
+
+    @Override
+    protected String getBatchObjectFileExtension() {
+        return ".obj";
+    }
+
     @Override
     protected void addOptionsFileArgs(List<String> args, File tempDir) {
         OptionsFileArgsWriter writer = new VisualCppOptionsFileArgsWriter(tempDir);
@@ -24,6 +24,7 @@ import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
 import org.gradle.nativeplatform.platform.internal.NativePlatformInternal;
 import org.gradle.nativeplatform.toolchain.VisualCppPlatformToolChain;
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationThrottle;
 import org.gradle.nativeplatform.toolchain.internal.EmptySystemLibraries;
 import org.gradle.nativeplatform.toolchain.internal.ExtendableToolChain;
 import org.gradle.nativeplatform.toolchain.internal.NativeLanguage;
@@ -56,6 +57,7 @@ public class VisualCppToolChain extends ExtendableToolChain<VisualCppPlatformToo
     private final Instantiator instantiator;
     private final CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory;
     private final WorkerLeaseService workerLeaseService;
+    private final CommandLineToolInvocationThrottle invocationThrottle;
 
     private File installDir;
     private File ucrtDir;
@@ -67,7 +69,7 @@ public class VisualCppToolChain extends ExtendableToolChain<VisualCppPlatformToo
     private ToolChainAvailability availability;
 
     public VisualCppToolChain(String name, BuildOperationExecutor buildOperationExecutor, OperatingSystem operatingSystem, FileResolver fileResolver, ExecActionFactory execActionFactory,
-                              CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, VisualStudioLocator visualStudioLocator, WindowsSdkLocator windowsSdkLocator, UcrtLocator ucrtLocator, Instantiator instantiator, WorkerLeaseService workerLeaseService) {
+                              CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, VisualStudioLocator visualStudioLocator, WindowsSdkLocator windowsSdkLocator, UcrtLocator ucrtLocator, Instantiator instantiator, WorkerLeaseService workerLeaseService, CommandLineToolInvocationThrottle invocationThrottle) {
         super(name, buildOperationExecutor, operatingSystem, fileResolver);
         this.name = name;
         this.operatingSystem = operatingSystem;
@@ -78,6 +80,7 @@ public class VisualCppToolChain extends ExtendableToolChain<VisualCppPlatformToo
         this.ucrtLocator = ucrtLocator;
         this.instantiator = instantiator;
         this.workerLeaseService = workerLeaseService;
+        this.invocationThrottle = invocationThrottle;
     }
 
     @Override
@@ -130,7 +133,7 @@ public class VisualCppToolChain extends ExtendableToolChain<VisualCppPlatformToo
         DefaultVisualCppPlatformToolChain configurableToolChain = instantiator.newInstance(DefaultVisualCppPlatformToolChain.class, targetPlatform, instantiator);
         configureActions.execute(configurableToolChain);
 
-        return new VisualCppPlatformToolProvider(buildOperationExecutor, targetPlatform.getOperatingSystem(), configurableToolChain.tools, visualStudio, platformVisualCpp, platformSdk, cRuntime, execActionFactory, compilerOutputFileNamingSchemeFactory, workerLeaseService);
+        return new VisualCppPlatformToolProvider(buildOperationExecutor, targetPlatform.getOperatingSystem(), configurableToolChain.tools, visualStudio, platformVisualCpp, platformSdk, cRuntime, execActionFactory, compilerOutputFileNamingSchemeFactory, workerLeaseService, invocationThrottle);
     }
 
     @Override
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.nativeplatform.toolchain.internal
+
+import org.gradle.internal.operations.BuildOperationContext
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryStatusSnapshot
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class CommandLineToolInvocationThrottleTest extends Specification {
+    static final long MB = 1024 * 1024
+
+    def memoryManager = Mock(MemoryManager)
+    def delegate = Mock(CommandLineToolInvocationWorker)
+
+    def "registers for memory status updates"() {
+        when:
+        new CommandLineToolInvocationThrottle(memoryManager)
+
+        then:
+        1 * memoryManager.addListener(_ as CommandLineToolInvocationThrottle)
+    }
+
+    def "runs invocations through the decorated worker"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        def invocation = Stub(CommandLineToolInvocation)
+        def context = Stub(BuildOperationContext)
+        delegate.displayName >> "tool"
+
+        when:
+        def worker = throttle.throttle(delegate)
+        worker.execute(invocation, context)
+
+        then:
+        worker.displayName == "tool"
+        1 * delegate.execute(invocation, context)
+    }
+
+    def "does not limit invocations when no memory status is available"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+
+        expect:
+        startsWithoutWaiting(throttle)
+        startsWithoutWaiting(throttle)
+        startsWithoutWaiting(throttle)
+    }
+
+    def "allows concurrent invocations while there is enough free memory"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 4 * 1024 * MB))
+
+        expect:
+        // 4G free, minus 1.6G reserved, leaves room for 4 invocations of 512M
+        4.times { assert startsWithoutWaiting(throttle) }
+        !startsWithoutWaiting(throttle)
+    }
+
+    def "invocations that finished since the last memory status do not limit new invocations"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 4 * 1024 * MB))
+        throttle.acquire()
+
+        expect:
+        10.times {
+            assert startsWithoutWaiting(throttle)
+            throttle.release()
+        }
+    }
+
+    def "always allows a single invocation"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 100 * MB))
+
+        expect:
+        startsWithoutWaiting(throttle)
+        !startsWithoutWaiting(throttle)
+    }
+
+    def "waiting invocation starts when a running invocation finishes"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 100 * MB))
+        throttle.acquire()
+        def started = new CountDownLatch(1)
+
+        when:
+        def thread = Thread.start {
+            throttle.acquire()
+            started.countDown()
+        }
+
+        then:
+        !started.await(100, TimeUnit.MILLISECONDS)
+
+        when:
+        throttle.release()
+
+        then:
+        started.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        thread?.join()
+    }
+
+    def "waiting invocation starts when more memory becomes free"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 100 * MB))
+        throttle.acquire()
+        def started = new CountDownLatch(1)
+
+        when:
+        def thread = Thread.start {
+            throttle.acquire()
+            started.countDown()
+        }
+
+        then:
+        !started.await(100, TimeUnit.MILLISECONDS)
+
+        when:
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 8 * 1024 * MB))
+
+        then:
+        started.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        thread?.join()
+    }
+
+    def "asks memory holders to release memory before waiting"() {
+        def throttle = new CommandLineToolInvocationThrottle(memoryManager)
+        throttle.onOsMemoryStatus(new OsMemoryStatusSnapshot(16 * 1024 * MB, 100 * MB))
+        throttle.acquire()
+        def requested = new CountDownLatch(1)
+
+        when:
+        def thread = Thread.start {
+            throttle.acquire()
+        }
+        requested.await(5, TimeUnit.SECONDS)
+        throttle.release()
+        thread.join()
+
+        then:
+        1 * memoryManager.requestFreeMemory(512 * MB) >> { requested.countDown() }
+    }
+
+    private static boolean startsWithoutWaiting(CommandLineToolInvocationThrottle throttle) {
+        def started = new CountDownLatch(1)
+        // Left waiting when the invocation cannot start
+        Thread.startDaemon {
+            throttle.acquire()
+            started.countDown()
+        }
+        return started.await(100, TimeUnit.MILLISECONDS)
+    }
+}
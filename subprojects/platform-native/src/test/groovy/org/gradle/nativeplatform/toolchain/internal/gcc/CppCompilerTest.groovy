@@ -16,11 +16,19 @@
 
 package org.gradle.nativeplatform.toolchain.internal.gcc
 
+import org.gradle.internal.concurrent.GradleThread
+import org.gradle.internal.operations.logging.BuildOperationLogger
+import org.gradle.nativeplatform.toolchain.internal.BatchingNativeCompiler
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocation
+import org.gradle.nativeplatform.toolchain.internal.DefaultMutableCommandLineToolContext
 import org.gradle.nativeplatform.toolchain.internal.NativeCompiler
 import org.gradle.nativeplatform.toolchain.internal.compilespec.CppCompileSpec
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 
 class CppCompilerTest extends GccCompatibleNativeCompilerTest {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
 
     @Override
     protected NativeCompiler getCompiler(CommandLineToolContext invocationContext, String objectFileExtension, boolean useCommandFile) {
@@ -36,4 +44,60 @@ class CppCompilerTest extends GccCompatibleNativeCompilerTest {
     protected List<String> getCompilerSpecificArguments(File includeDir, File systemIncludeDir) {
         [ '-x', 'c++' ] + super.getCompilerSpecificArguments(includeDir, systemIncludeDir)
     }
+
+    def "compiles source files in batches when enabled"() {
+        given:
+        GradleThread.setManaged()
+        System.setProperty(BatchingNativeCompiler.BATCH_SIZE_PROPERTY_NAME, "8")
+
+        def compiler = getCompiler(new DefaultMutableCommandLineToolContext(), ".o", false)
+        def testDir = tmpDirProvider.testDirectory
+        def objectFileDir = testDir.file("output/objects")
+        def first = testDir.file("src/a/one.cpp")
+        def second = testDir.file("src/a/two.cpp")
+        def sameName = testDir.file("src/b/one.cpp")
+        def invocations = Collections.synchronizedList([])
+
+        def compileSpec = Stub(CppCompileSpec) {
+            getTempDir() >> testDir.file("tmp")
+            getObjectFileDir() >> objectFileDir
+            getSourceFiles() >> [first, second, sameName]
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+            getPrefixHeaderFile() >> null
+            getPreCompiledHeaderObjectFile() >> null
+        }
+
+        when:
+        compiler.execute(compileSpec)
+
+        then:
+        2 * commandLineTool.execute(_, _) >> { CommandLineToolInvocation invocation, context ->
+            invocations << invocation
+            if (!invocation.args.contains("-o")) {
+                // Simulate GCC writing the object files into the working directory
+                invocation.workDirectory.mkdirs()
+                new File(invocation.workDirectory, "one.o").text = "one"
+                new File(invocation.workDirectory, "two.o").text = "two"
+            }
+        }
+
+        and:
+        def batch = invocations.find { !it.args.contains("-o") }
+        batch.workDirectory == testDir.file("tmp/batches/0")
+        batch.args.toList().containsAll([first.absolutePath, second.absolutePath])
+        !batch.args.contains(sameName.absolutePath)
+
+        and:
+        def single = invocations.find { it.args.contains("-o") }
+        single.args.contains(sameName.absolutePath)
+
+        and:
+        compiler.getOutputFileDir(first, objectFileDir, ".o").text == "one"
+        compiler.getOutputFileDir(second, objectFileDir, ".o").text == "two"
+        !testDir.file("tmp/batches/0/one.o").exists()
+
+        cleanup:
+        GradleThread.setUnmanaged()
+    }
 }
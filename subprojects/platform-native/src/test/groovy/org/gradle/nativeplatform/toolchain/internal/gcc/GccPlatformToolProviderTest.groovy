@@ -21,6 +21,7 @@ import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory
 import org.gradle.nativeplatform.platform.internal.NativePlatformInternal
 import org.gradle.nativeplatform.platform.internal.OperatingSystemInternal
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationThrottle
 import org.gradle.nativeplatform.toolchain.internal.SystemLibraries
 import org.gradle.nativeplatform.toolchain.internal.ToolType
 import org.gradle.nativeplatform.toolchain.internal.gcc.metadata.GccMetadata
@@ -33,6 +34,7 @@ import org.gradle.nativeplatform.toolchain.internal.tools.ToolSearchPath
 import org.gradle.platform.base.internal.toolchain.ComponentFound
 import org.gradle.platform.base.internal.toolchain.SearchResult
 import org.gradle.process.internal.ExecActionFactory
+import org.gradle.process.internal.health.memory.MemoryManager
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -45,10 +47,11 @@ class GccPlatformToolProviderTest extends Specification {
     def execActionFactory = Mock(ExecActionFactory)
     def namingSchemeFactory = Mock(CompilerOutputFileNamingSchemeFactory)
     def workerLeaseService = Mock(WorkerLeaseService)
+    def invocationThrottle = new CommandLineToolInvocationThrottle(Stub(MemoryManager))
     def metaDataProvider = Mock(CompilerMetaDataProvider)
     def systemLibraryDiscovery = Mock(SystemLibraryDiscovery)
     def targetPlatform = Mock(NativePlatformInternal)
-    def platformToolProvider = new GccPlatformToolProvider(targetPlatform, buildOperationExecuter, operatingSystem, toolSearchPath, toolRegistry, execActionFactory, namingSchemeFactory, true, workerLeaseService, metaDataProvider, systemLibraryDiscovery)
+    def platformToolProvider = new GccPlatformToolProvider(targetPlatform, buildOperationExecuter, operatingSystem, toolSearchPath, toolRegistry, execActionFactory, namingSchemeFactory, true, workerLeaseService, invocationThrottle, metaDataProvider, systemLibraryDiscovery)
 
     @Unroll
     def "arguments #args are passed to metadata provider for #toolType.toolName"() {
@@ -21,9 +21,11 @@ import org.gradle.internal.os.OperatingSystem
 import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory
 import org.gradle.nativeplatform.platform.internal.OperatingSystemInternal
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationThrottle
 import org.gradle.nativeplatform.toolchain.internal.SystemLibraries
 import org.gradle.nativeplatform.toolchain.internal.ToolType
 import org.gradle.process.internal.ExecActionFactory
+import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.util.VersionNumber
 import spock.lang.Specification
 
@@ -33,7 +35,7 @@ class VisualCppPlatformToolProviderTest extends Specification {
     def windowsSdk = Mock(WindowsSdk)
     def ucrt = Mock(SystemLibraries)
     def visualStudioInstall = Mock(VisualStudioInstall)
-    def toolProvider = new VisualCppPlatformToolProvider(Mock(BuildOperationExecutor), operatingSystem, [:], visualStudioInstall, visualCpp, windowsSdk, ucrt, Mock(ExecActionFactory), Mock(CompilerOutputFileNamingSchemeFactory), Mock(WorkerLeaseService))
+    def toolProvider = new VisualCppPlatformToolProvider(Mock(BuildOperationExecutor), operatingSystem, [:], visualStudioInstall, visualCpp, windowsSdk, ucrt, Mock(ExecActionFactory), Mock(CompilerOutputFileNamingSchemeFactory), Mock(WorkerLeaseService), new CommandLineToolInvocationThrottle(Stub(MemoryManager)))
 
     def "windows shared link file names end with lib"() {
         given:
@@ -37,9 +37,15 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
     );
 
     private SslContextFactory sslContextFactory;
+    private final HttpDownloads downloads;
 
     public HttpConnectorFactory(SslContextFactory sslContextFactory) {
+        this(sslContextFactory, new HttpDownloads());
+    }
+
+    public HttpConnectorFactory(SslContextFactory sslContextFactory, HttpDownloads downloads) {
         this.sslContextFactory = sslContextFactory;
+        this.downloads = downloads;
     }
 
     @Override
@@ -59,7 +65,7 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
             .withSslContextFactory(sslContextFactory)
             .build()
         );
-        HttpResourceAccessor accessor = new HttpResourceAccessor(http);
+        HttpResourceAccessor accessor = new HttpResourceAccessor(http, downloads);
         HttpResourceLister lister = new HttpResourceLister(accessor);
         HttpResourceUploader uploader = new HttpResourceUploader(http);
         return new DefaultExternalResourceConnector(accessor, lister, uploader);
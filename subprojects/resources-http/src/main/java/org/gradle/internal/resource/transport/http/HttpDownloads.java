@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.gradle.internal.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of HTTP downloads that run at the same time across all repositories, and records the throughput of the
+ * downloads per repository.
+ *
+ * <p>A thread that already runs a download does not wait for a second permit, so that reading one resource while another one is
+ * still open cannot dead lock.</p>
+ */
+public class HttpDownloads {
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = "org.gradle.internal.http.maxConcurrentDownloads";
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpDownloads.class);
+
+    private final Semaphore permits;
+    private final ThreadLocal<int[]> downloadsOfThread = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+    private final ConcurrentMap<String, RepositoryStatistics> statistics = new ConcurrentHashMap<String, RepositoryStatistics>();
+
+    public HttpDownloads() {
+        this(Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PROPERTY, 16));
+    }
+
+    HttpDownloads(int maxConcurrentDownloads) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrentDownloads), true);
+    }
+
+    /**
+     * Waits until the download of the given resource may start. The returned download must be finished once the content has been read.
+     */
+    public Download start(URI source) {
+        int[] downloads = downloadsOfThread.get();
+        boolean acquired = false;
+        if (downloads[0] == 0) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            acquired = true;
+        }
+        downloads[0]++;
+        return new Download(source, acquired, downloads);
+    }
+
+    /**
+     * Logs the number of bytes downloaded from each repository, and the average rate per download, and starts recording again.
+     */
+    public void logStatistics() {
+        Map<String, RepositoryStatistics> sorted = new TreeMap<String, RepositoryStatistics>(statistics);
+        statistics.clear();
+        for (Map.Entry<String, RepositoryStatistics> entry : sorted.entrySet()) {
+            RepositoryStatistics repository = entry.getValue();
+            LOGGER.info("Downloaded {} bytes from {} in {} requests, {} KB/s per download.",
+                repository.bytes.get(), entry.getKey(), repository.downloads.get(), repository.getKilobytesPerSecond());
+        }
+    }
+
+    Map<String, RepositoryStatistics> getStatistics() {
+        return statistics;
+    }
+
+    private RepositoryStatistics statisticsFor(URI source) {
+        String repository = source.getScheme() + "://" + source.getRawAuthority();
+        RepositoryStatistics repositoryStatistics = statistics.get(repository);
+        if (repositoryStatistics == null) {
+            statistics.putIfAbsent(repository, new RepositoryStatistics());
+            repositoryStatistics = statistics.get(repository);
+        }
+        return repositoryStatistics;
+    }
+
+    public class Download {
+        private final URI source;
+        private final boolean acquired;
+        private final int[] downloadsOfThread;
+        private final long startNanos = System.nanoTime();
+        private boolean finished;
+
+        private Download(URI source, boolean acquired, int[] downloadsOfThread) {
+            this.source = source;
+            this.acquired = acquired;
+            this.downloadsOfThread = downloadsOfThread;
+        }
+
+        /**
+         * Records the number of bytes read and releases the permit of this download. Does nothing when the download already finished.
+         */
+        public void finished(long bytes) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            downloadsOfThread[0]--;
+            if (acquired) {
+                permits.release();
+            }
+            if (bytes > 0) {
+                statisticsFor(source).record(bytes, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    static class RepositoryStatistics {
+        private final AtomicLong downloads = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        private void record(long bytes, long nanos) {
+            this.downloads.incrementAndGet();
+            this.bytes.addAndGet(bytes);
+            this.nanos.addAndGet(nanos);
+        }
+
+        long getDownloads() {
+            return downloads.get();
+        }
+
+        long getBytes() {
+            return bytes.get();
+        }
+
+        long getKilobytesPerSecond() {
+            long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos.get()));
+            return bytes.get() * 1000 / 1024 / millis;
+        }
+    }
+}
@@ -30,9 +30,15 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpResourceAccessor.class);
     private final HttpClientHelper http;
+    private final HttpDownloads downloads;
 
     public HttpResourceAccessor(HttpClientHelper http) {
+        this(http, new HttpDownloads());
+    }
+
+    public HttpResourceAccessor(HttpClientHelper http, HttpDownloads downloads) {
         this.http = http;
+        this.downloads = downloads;
     }
 
     @Nullable
@@ -40,11 +46,19 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         String location = uri.toString();
         LOGGER.debug("Constructing external resource: {}", location);
 
-        CloseableHttpResponse response = http.performGet(location, revalidate);
+        HttpDownloads.Download download = downloads.start(uri);
+        CloseableHttpResponse response;
+        try {
+            response = http.performGet(location, revalidate);
+        } catch (RuntimeException e) {
+            download.finished(0);
+            throw e;
+        }
         if (response != null) {
-            return wrapResponse(uri, response);
+            return new HttpResponseResource("GET", uri, response, http, download);
         }
 
+        download.finished(0);
         return null;
     }
 
@@ -16,11 +16,14 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
 import org.gradle.internal.authentication.DefaultDigestAuthentication;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -32,6 +35,7 @@ public class HttpResourcesPluginServiceRegistry extends AbstractPluginServiceReg
 
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new AuthenticationSchemeAction());
+        registration.addProvider(new DownloadStatisticsAction());
     }
 
     private static class GlobalScopeServices {
@@ -39,8 +43,23 @@ public class HttpResourcesPluginServiceRegistry extends AbstractPluginServiceReg
             return new DefaultSslContextFactory();
         }
 
-        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
-            return new HttpConnectorFactory(sslContextFactory);
+        HttpDownloads createHttpDownloads() {
+            return new HttpDownloads();
+        }
+
+        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory, HttpDownloads downloads) {
+            return new HttpConnectorFactory(sslContextFactory, downloads);
+        }
+    }
+
+    private static class DownloadStatisticsAction {
+        public void configure(ServiceRegistration registration, ListenerManager listenerManager, final HttpDownloads downloads) {
+            listenerManager.addListener(new BuildAdapter() {
+                @Override
+                public void buildFinished(BuildResult result) {
+                    downloads.logStatistics();
+                }
+            });
         }
     }
 
@@ -15,6 +15,7 @@
  */
 package org.gradle.internal.resource.transport.http;
 
+import com.google.common.io.CountingInputStream;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
@@ -29,6 +30,7 @@ import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -40,12 +42,25 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
     private final URI source;
     private final CloseableHttpResponse response;
     private final ExternalResourceMetaData metaData;
+    private final HttpClientHelper resumeWith;
+    private final HttpDownloads.Download download;
+    private CountingInputStream content;
     private boolean wasOpened;
 
     public HttpResponseResource(String method, URI source, CloseableHttpResponse response) {
+        this(method, source, response, null, null);
+    }
+
+    /**
+     * @param resumeWith the client to use to resume reading the content with a range request when the connection fails, or {@code null} to never resume.
+     * @param download the download to finish with the number of bytes read when this resource is closed, or {@code null}.
+     */
+    public HttpResponseResource(String method, URI source, CloseableHttpResponse response, @Nullable HttpClientHelper resumeWith, @Nullable HttpDownloads.Download download) {
         this.method = method;
         this.source = source;
         this.response = response;
+        this.resumeWith = resumeWith;
+        this.download = download;
 
         String etag = getEtag(response);
         this.metaData = new DefaultExternalResourceMetaData(source, getLastModified(), getContentLength(), getContentType(), etag, getSha1(response, etag));
@@ -122,12 +137,29 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
         if (entity == null) {
             throw new IOException(String.format("Response %d: %s has no content!", getStatusCode(), response.getStatusLine().getReasonPhrase()));
         }
-        return entity.getContent();
+        InputStream inputStream = entity.getContent();
+        if (resumeWith != null) {
+            String validator = ResumingHttpInputStream.resumeValidator(response);
+            if (validator != null) {
+                inputStream = new ResumingHttpInputStream(resumeWith, source, validator, inputStream);
+            }
+        }
+        if (download != null) {
+            content = new CountingInputStream(inputStream);
+            return content;
+        }
+        return inputStream;
     }
 
     @Override
     public void close() throws IOException {
-        HttpClientUtils.closeQuietly(response);
+        try {
+            HttpClientUtils.closeQuietly(response);
+        } finally {
+            if (download != null) {
+                download.finished(content == null ? 0 : content.getCount());
+            }
+        }
     }
 
     private static String getEtag(HttpResponse response) {
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.DecompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.gradle.internal.IoActions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Reads the content of an HTTP response, and continues from the current position with a range request when the connection
+ * fails while reading.
+ *
+ * <p>The content is only resumed when the server advertised support for byte ranges, and the resource has a validator (a strong
+ * ETag or a last modified date) that can be sent as an {@code If-Range} precondition, so that the remaining bytes are guaranteed
+ * to belong to the same version of the resource. Encoded content is never resumed, as HttpClient decodes it transparently, so
+ * the position counts decoded bytes whereas a range addresses bytes of the encoded content.
+ */
+class ResumingHttpInputStream extends InputStream {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumingHttpInputStream.class);
+    static final int MAX_RESUME_ATTEMPTS = Integer.getInteger("org.gradle.internal.http.maxResumeAttempts", 3);
+
+    private final HttpClientHelper http;
+    private final URI source;
+    private final String validator;
+    private InputStream content;
+    private CloseableHttpResponse resumedResponse;
+    private long position;
+    private int resumeAttempts;
+    private boolean closed;
+
+    ResumingHttpInputStream(HttpClientHelper http, URI source, String validator, InputStream content) {
+        this.http = http;
+        this.source = source;
+        this.validator = validator;
+        this.content = content;
+    }
+
+    /**
+     * Returns the validator to use for resuming the given response, or {@code null} when the response cannot be resumed.
+     */
+    static String resumeValidator(CloseableHttpResponse response) {
+        if (isEncoded(response)) {
+            return null;
+        }
+        Header acceptRanges = response.getFirstHeader(HttpHeaders.ACCEPT_RANGES);
+        if (acceptRanges == null || !"bytes".equalsIgnoreCase(acceptRanges.getValue())) {
+            return null;
+        }
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.getValue().startsWith("W/")) {
+            return etag.getValue();
+        }
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        return lastModified == null ? null : lastModified.getValue();
+    }
+
+    private static boolean isEncoded(HttpResponse response) {
+        // HttpClient removes the Content-Encoding header once it has wrapped the entity to decode the content
+        if (response.getEntity() instanceof DecompressingEntity) {
+            return true;
+        }
+        Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        return contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding.getValue());
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        int count = read(buffer, 0, 1);
+        return count == -1 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int count = content.read(buffer, offset, length);
+                if (count > 0) {
+                    position += count;
+                }
+                return count;
+            } catch (IOException e) {
+                if (closed || resumeAttempts >= MAX_RESUME_ATTEMPTS) {
+                    throw e;
+                }
+                resumeAttempts++;
+                resume(e);
+            }
+        }
+    }
+
+    private void resume(IOException failure) throws IOException {
+        LOGGER.info("Failed to read {} after {} bytes, resuming download (attempt {} of {}).", source, position, resumeAttempts, MAX_RESUME_ATTEMPTS);
+        releaseContent();
+
+        HttpGet request = new HttpGet(source);
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + position + "-");
+        request.addHeader(HttpHeaders.IF_RANGE, validator);
+        CloseableHttpResponse response;
+        try {
+            response = http.performHttpRequest(request);
+        } catch (IOException e) {
+            LOGGER.debug("Could not resume download of {}.", source, e);
+            throw failure;
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || !startsAtCurrentPosition(response) || isEncoded(response) || entity == null) {
+            // The server ignored the range, or the resource changed in the meantime
+            LOGGER.debug("Could not resume download of {}, server responded with {}.", source, response.getStatusLine());
+            HttpClientUtils.closeQuietly(response);
+            throw failure;
+        }
+        resumedResponse = response;
+        content = entity.getContent();
+    }
+
+    private boolean startsAtCurrentPosition(CloseableHttpResponse response) {
+        Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        return contentRange != null && contentRange.getValue().startsWith("bytes " + position + "-");
+    }
+
+    private void releaseContent() {
+        IoActions.closeQuietly(content);
+        if (resumedResponse != null) {
+            HttpClientUtils.closeQuietly(resumedResponse);
+            resumedResponse = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            content.close();
+        } finally {
+            if (resumedResponse != null) {
+                HttpClientUtils.closeQuietly(resumedResponse);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class HttpDownloadsTest extends ConcurrentSpec {
+    def downloads = new HttpDownloads(1)
+
+    def "waits until a download finishes when the maximum number of downloads run"() {
+        when:
+        async {
+            start {
+                def download = downloads.start(new URI("https://repo1/a.jar"))
+                instant.firstStarted
+                thread.block()
+                instant.firstFinished
+                download.finished(10)
+            }
+            start {
+                thread.blockUntil.firstStarted
+                downloads.start(new URI("https://repo2/b.jar")).finished(10)
+                instant.secondStarted
+            }
+        }
+
+        then:
+        instant.secondStarted > instant.firstFinished
+    }
+
+    def "thread that runs a download does not wait to start another one"() {
+        when:
+        def outer = downloads.start(new URI("https://repo/a.pom"))
+        def inner = downloads.start(new URI("https://repo/b.pom"))
+        inner.finished(1)
+        outer.finished(1)
+        outer.finished(1)
+
+        then:
+        downloads.permits.availablePermits() == 1
+    }
+
+    def "records statistics per repository"() {
+        when:
+        downloads.start(new URI("https://repo1/a.jar")).finished(100)
+        downloads.start(new URI("https://repo1/b.jar")).finished(50)
+        downloads.start(new URI("http://repo2:8080/c.jar")).finished(20)
+        downloads.start(new URI("http://repo2:8080/missing.jar")).finished(0)
+
+        then:
+        downloads.statistics.keySet() == ["https://repo1", "http://repo2:8080"] as Set
+        downloads.statistics["https://repo1"].downloads == 2
+        downloads.statistics["https://repo1"].bytes == 150
+        downloads.statistics["http://repo2:8080"].downloads == 1
+        downloads.statistics["http://repo2:8080"].bytes == 20
+
+        when:
+        downloads.logStatistics()
+
+        then:
+        downloads.statistics.isEmpty()
+    }
+}
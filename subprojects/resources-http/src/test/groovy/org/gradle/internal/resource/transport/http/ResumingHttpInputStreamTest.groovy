@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpHeaders
+import org.apache.http.client.entity.GzipDecompressingEntity
+import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.message.BasicHeader
+import org.apache.http.ssl.SSLContexts
+import org.junit.Rule
+import org.junit.rules.ExternalResource
+import org.mortbay.jetty.Server
+import org.mortbay.jetty.handler.AbstractHandler
+import spock.lang.Specification
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ResumingHttpInputStreamTest extends Specification {
+
+    @Rule InterruptingHttpServer httpServer = new InterruptingHttpServer()
+    HttpClientHelper client = new HttpClientHelper(httpSettings)
+
+    def cleanup() {
+        client.close()
+    }
+
+    def "resumes download from the current position when the connection drops"() {
+        when:
+        def content = download()
+
+        then:
+        content == httpServer.content
+        httpServer.ranges == [null, "bytes=4000-"]
+    }
+
+    def "resumes download more than once"() {
+        given:
+        httpServer.interruptRangedRequests = true
+
+        when:
+        def content = download()
+
+        then:
+        content == httpServer.content
+        httpServer.ranges == [null, "bytes=4000-", "bytes=6000-", "bytes=8000-"]
+    }
+
+    def "does not resume download when server does not accept byte ranges"() {
+        given:
+        httpServer.acceptRanges = false
+
+        when:
+        download()
+
+        then:
+        thrown(IOException)
+        httpServer.ranges == [null]
+    }
+
+    def "fails when the resource has changed since the download started"() {
+        given:
+        httpServer.etagForRangedRequests = '"changed"'
+
+        when:
+        download()
+
+        then:
+        thrown(IOException)
+        httpServer.ranges == [null, "bytes=4000-"]
+    }
+
+    def "does not resume download when the content is encoded"() {
+        given:
+        httpServer.contentEncoding = "x-custom"
+
+        when:
+        download()
+
+        then:
+        thrown(IOException)
+        httpServer.ranges == [null]
+    }
+
+    def "does not resume decompressed content"() {
+        def response = Stub(CloseableHttpResponse) {
+            getFirstHeader(HttpHeaders.ACCEPT_RANGES) >> new BasicHeader(HttpHeaders.ACCEPT_RANGES, "bytes")
+            getFirstHeader(HttpHeaders.ETAG) >> new BasicHeader(HttpHeaders.ETAG, '"abc"')
+            getEntity() >> new GzipDecompressingEntity(new ByteArrayEntity(new byte[0]))
+        }
+
+        expect:
+        ResumingHttpInputStream.resumeValidator(response) == null
+    }
+
+    private byte[] download() {
+        def resource = new HttpResourceAccessor(client).openResource(httpServer.uri, false)
+        try {
+            return resource.openStream().bytes
+        } finally {
+            resource.close()
+        }
+    }
+
+    static class InterruptingHttpServer extends ExternalResource {
+        private final Server server = new Server(0)
+        final byte[] content = (0..<10000).collect { (byte) it } as byte[]
+        final List<String> ranges = new CopyOnWriteArrayList<String>()
+        boolean acceptRanges = true
+        boolean interruptRangedRequests
+        String etagForRangedRequests = '"abc"'
+        String contentEncoding
+
+        @Override
+        protected void before() {
+            server.addHandler(new AbstractHandler() {
+                void handle(String target, HttpServletRequest request, HttpServletResponse response, int dispatch) {
+                    def range = request.getHeader("Range")
+                    ranges << range
+                    int start = 0
+                    if (range != null && request.getHeader("If-Range") == etagForRangedRequests) {
+                        start = range.substring("bytes=".length(), range.length() - 1) as int
+                        response.status = 206
+                        response.setHeader("Content-Range", "bytes $start-${content.length - 1}/${content.length}")
+                    } else {
+                        response.status = 200
+                    }
+                    response.setHeader("ETag", '"abc"')
+                    if (contentEncoding != null) {
+                        response.setHeader("Content-Encoding", contentEncoding)
+                    }
+                    if (acceptRanges) {
+                        response.setHeader("Accept-Ranges", "bytes")
+                    }
+                    int remaining = content.length - start
+                    response.setContentLength(remaining)
+                    // Drop the connection after sending part of the content
+                    int sent = range == null ? 4000 : interruptRangedRequests ? Math.min(remaining, 2000) : remaining
+                    response.outputStream.write(content, start, sent)
+                    response.outputStream.flush()
+                    ((org.mortbay.jetty.Request) request).handled = true
+                }
+            })
+            server.start()
+        }
+
+        @Override
+        protected void after() {
+            server.stop()
+        }
+
+        URI getUri() {
+            new URI("http://localhost:${server.connectors[0].localPort}/content.bin")
+        }
+    }
+
+    private HttpSettings getHttpSettings() {
+        Stub(HttpSettings) {
+            getProxySettings() >> Mock(HttpProxySettings)
+            getSecureProxySettings() >> Mock(HttpProxySettings)
+            getTimeoutSettings() >> new JavaSystemPropertiesHttpTimeoutSettings()
+            getSslContextFactory() >> Mock(SslContextFactory) {
+                createSslContext() >> SSLContexts.createDefault()
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes the events of a test class, as a test worker sends them to the build process: either one message per event,
+ * or in batches. Each operation is a single event.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@State(Scope.Benchmark)
+public class TestEventBatchBenchmark {
+    private static final int TEST_COUNT = 100;
+    private static final int OUTPUT_LINES_PER_TEST = 3;
+    private static final int EVENTS_PER_CLASS = 2 + TEST_COUNT * (3 + OUTPUT_LINES_PER_TEST);
+
+    private Serializer<Object> eventSerializer;
+    private Serializer<TestEventBatch> batchSerializer;
+    private ByteArrayOutputStream outputStream;
+    private KryoBackedEncoder encoder;
+
+    @Setup
+    public void setup() {
+        eventSerializer = TestEventSerializer.create().build(Object.class);
+        batchSerializer = TestEventSerializer.create().build(TestEventBatch.class);
+        outputStream = new ByteArrayOutputStream();
+        encoder = new KryoBackedEncoder(outputStream);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_CLASS)
+    public int eventPerMessage() throws Exception {
+        outputStream.reset();
+        CompositeIdGenerator.CompositeId classId = new CompositeIdGenerator.CompositeId(1L, 1L);
+        eventSerializer.write(encoder, new DefaultTestClassDescriptor(classId, "org.gradle.SomeTest"));
+        eventSerializer.write(encoder, new TestStartEvent(1000L, null));
+        for (int i = 0; i < TEST_COUNT; i++) {
+            CompositeIdGenerator.CompositeId testId = new CompositeIdGenerator.CompositeId(1L, 2L + i);
+            eventSerializer.write(encoder, new DefaultTestMethodDescriptor(testId, "org.gradle.SomeTest", "test" + i));
+            eventSerializer.write(encoder, new TestStartEvent(1000L + i, classId));
+            for (int j = 0; j < OUTPUT_LINES_PER_TEST; j++) {
+                eventSerializer.write(encoder, testId);
+                eventSerializer.write(encoder, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "some output\n"));
+            }
+            eventSerializer.write(encoder, testId);
+            eventSerializer.write(encoder, new TestCompleteEvent(1001L + i, null));
+        }
+        eventSerializer.write(encoder, classId);
+        eventSerializer.write(encoder, new TestCompleteEvent(2000L, TestResult.ResultType.SUCCESS));
+        encoder.flush();
+        return outputStream.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_CLASS)
+    public int batched() throws Exception {
+        outputStream.reset();
+        BatchingTestResultProcessor processor = new BatchingTestResultProcessor(new RemoteTestResultProcessor() {
+            @Override
+            public void events(TestEventBatch batch) {
+                try {
+                    batchSerializer.write(encoder, batch);
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }, null);
+        CompositeIdGenerator.CompositeId classId = new CompositeIdGenerator.CompositeId(1L, 1L);
+        processor.started(new DefaultTestClassDescriptor(classId, "org.gradle.SomeTest"), new TestStartEvent(1000L, null));
+        for (int i = 0; i < TEST_COUNT; i++) {
+            CompositeIdGenerator.CompositeId testId = new CompositeIdGenerator.CompositeId(1L, 2L + i);
+            processor.started(new DefaultTestMethodDescriptor(testId, "org.gradle.SomeTest", "test" + i), new TestStartEvent(1000L + i, classId));
+            for (int j = 0; j < OUTPUT_LINES_PER_TEST; j++) {
+                processor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "some output\n"));
+            }
+            processor.completed(testId, new TestCompleteEvent(1001L + i, null));
+        }
+        processor.completed(classId, new TestCompleteEvent(2000L, TestResult.ResultType.SUCCESS));
+        encoder.flush();
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing;
+
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.MapSerializer;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+public class DefaultTestClassDurationCache implements TestClassDurationCache, Closeable {
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<String, Map<String, Long>> durations;
+
+    public DefaultTestClassDurationCache(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        cache = cacheRepository
+                .cache(gradle, "testDurations")
+                .withDisplayName("test class duration cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        PersistentIndexedCacheParameters<String, Map<String, Long>> parameters = new PersistentIndexedCacheParameters<String, Map<String, Long>>("testDurations", BaseSerializerFactory.STRING_SERIALIZER, new MapSerializer<String, Long>(BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.LONG_SERIALIZER))
+                .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(200, true));
+        durations = cache.createCache(parameters);
+    }
+
+    @Override
+    public Map<String, Long> get(String taskPath) {
+        Map<String, Long> previous = durations.get(taskPath);
+        return previous == null ? Collections.<String, Long>emptyMap() : previous;
+    }
+
+    @Override
+    public void update(String taskPath, Map<String, Long> newDurations) {
+        if (newDurations.isEmpty()) {
+            return;
+        }
+        Map<String, Long> merged = new HashMap<String, Long>(get(taskPath));
+        merged.putAll(newDurations);
+        durations.put(taskPath, merged);
+    }
+
+    @Override
+    public void retain(String taskPath, Set<String> classNames) {
+        Map<String, Long> previous = get(taskPath);
+        if (classNames.containsAll(previous.keySet())) {
+            return;
+        }
+        Map<String, Long> retained = new HashMap<String, Long>(previous);
+        retained.keySet().retainAll(classNames);
+        durations.put(taskPath, retained);
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers how long each test class took to run, per test task, across builds.
+ */
+public interface TestClassDurationCache {
+    /**
+     * Returns the duration in milliseconds of each test class previously run by the given task. Returns an empty map when there is no history for the task.
+     */
+    Map<String, Long> get(String taskPath);
+
+    /**
+     * Records the durations in milliseconds of the test classes run by the given task. The durations of test classes that did not run are kept.
+     */
+    void update(String taskPath, Map<String, Long> durations);
+
+    /**
+     * Forgets the durations recorded for the given task of test classes that are not among the given class names, such as classes that have been removed or renamed.
+     */
+    void retain(String taskPath, Set<String> classNames);
+}
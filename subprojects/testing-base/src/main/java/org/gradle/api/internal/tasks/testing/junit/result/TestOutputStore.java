@@ -21,18 +21,25 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.io.MemoryMappedFiles;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Stores the output of tests in a single data file, in the order it was produced, plus an index file that holds the position
+ * of each output message per test class, test and destination. Readers use the index to read exactly the messages they need,
+ * without decoding the output of other tests.
+ */
 public class TestOutputStore {
-
     private final File resultsDir;
     private final Charset messageStorageCharset;
 
@@ -49,30 +56,85 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
-    private static class Region {
-        long start;
-        long stop;
+    /**
+     * The positions and lengths of the messages written by a test (or by the test class itself) to one destination, in the order they were written.
+     */
+    private static class Messages {
+        static final Messages EMPTY = new Messages(new int[0], new int[0], 0);
+
+        int[] offsets;
+        int[] lengths;
+        int count;
+
+        private Messages() {
+            this(new int[4], new int[4], 0);
+        }
+
+        private Messages(int[] offsets, int[] lengths, int count) {
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.count = count;
+        }
+
+        void add(int offset, int length) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+        }
 
-        private Region() {
-            start = -1;
-            stop = -1;
+        void write(Output output) {
+            output.writeInt(count, true);
+            int previousOffset = 0;
+            for (int i = 0; i < count; i++) {
+                output.writeInt(offsets[i] - previousOffset, true);
+                output.writeInt(lengths[i], true);
+                previousOffset = offsets[i];
+            }
         }
 
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        static Messages read(Input input) {
+            int count = input.readInt(true);
+            if (count == 0) {
+                return EMPTY;
+            }
+            int[] offsets = new int[count];
+            int[] lengths = new int[count];
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                offset += input.readInt(true);
+                offsets[i] = offset;
+                lengths[i] = input.readInt(true);
+            }
+            return new Messages(offsets, lengths, count);
         }
     }
 
-    private static class TestCaseRegion {
-        Region stdOutRegion = new Region();
-        Region stdErrRegion = new Region();
+    private static class TestCaseMessages {
+        Messages stdOut;
+        Messages stdErr;
+
+        private TestCaseMessages() {
+            this(new Messages(), new Messages());
+        }
+
+        private TestCaseMessages(Messages stdOut, Messages stdErr) {
+            this.stdOut = stdOut;
+            this.stdErr = stdErr;
+        }
+
+        Messages get(TestOutputEvent.Destination destination) {
+            return destination == TestOutputEvent.Destination.StdOut ? stdOut : stdErr;
+        }
     }
 
     public class Writer implements Closeable {
         private final KryoBackedEncoder output;
 
-        private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final Map<Long, Map<Long, TestCaseMessages>> index = new LinkedHashMap<Long, Map<Long, TestCaseMessages>>();
 
         public Writer() {
             try {
@@ -94,7 +156,6 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
 
             output.writeBoolean(stdout);
             output.writeSmallLong(classId);
@@ -107,29 +168,24 @@ public class TestOutputStore {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
             output.writeSmallInt(bytes.length);
+            mark(classId, testId, outputEvent.getDestination(), bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
         }
 
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
+        private void mark(long classId, long testId, TestOutputEvent.Destination destination, int length) {
+            Map<Long, TestCaseMessages> testCaseMessages = index.get(classId);
+            if (testCaseMessages == null) {
+                testCaseMessages = new LinkedHashMap<Long, TestCaseMessages>();
+                index.put(classId, testCaseMessages);
             }
 
-            Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            TestCaseMessages messages = testCaseMessages.get(testId);
+            if (messages == null) {
+                messages = new TestCaseMessages();
+                testCaseMessages.put(testId, messages);
             }
 
-            TestCaseRegion region = testCaseRegions.get(testId);
-
-            Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
-            }
-            streamRegion.stop = total;
+            messages.get(destination).add(output.getWritePosition(), length);
         }
 
         private void writeIndex() {
@@ -140,25 +196,22 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
                 indexOutput.writeInt(index.size(), true);
 
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
+                for (Map.Entry<Long, Map<Long, TestCaseMessages>> classEntry : index.entrySet()) {
                     Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
+                    Map<Long, TestCaseMessages> testCases = classEntry.getValue();
 
                     indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
+                    indexOutput.writeInt(testCases.size(), true);
 
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
+                    for (Map.Entry<Long, TestCaseMessages> testCaseEntry : testCases.entrySet()) {
                         long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
+                        TestCaseMessages messages = testCaseEntry.getValue();
                         indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                        messages.stdOut.write(indexOutput);
+                        messages.stdErr.write(indexOutput);
                     }
                 }
             } finally {
@@ -171,55 +224,13 @@ public class TestOutputStore {
         return new Writer();
     }
 
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
-
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
-    }
-
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
-
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
-            }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
-            children.put(key, index);
-        }
-
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
-        }
-    }
-
+    /**
+     * Reads the output of tests. The data file is memory mapped where supported. Can be used from multiple threads at the same time.
+     */
     public class Reader implements Closeable {
-        private final Index index;
+        private final ImmutableMap<Long, ImmutableMap<Long, TestCaseMessages>> index;
         private final RandomAccessFile dataFile;
+        private final ByteBuffer mappedData;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,41 +241,22 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
-                try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
+                index = readIndex(indexFile);
 
-                IndexBuilder rootBuilder = null;
                 try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
+                    RandomAccessFile file = new RandomAccessFile(outputsFile, "r");
+                    if (MemoryMappedFiles.isSupported()) {
+                        try {
+                            mappedData = MemoryMappedFiles.map(file.getChannel(), 0, file.length());
+                        } finally {
+                            file.close();
                         }
-
-                        rootBuilder.add(classId, classBuilder.build());
+                        dataFile = null;
+                    } else {
+                        mappedData = null;
+                        dataFile = file;
                     }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             } else { // no outputs file
@@ -272,8 +264,38 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
                 }
 
-                index = null;
+                index = ImmutableMap.of();
                 dataFile = null;
+                mappedData = null;
+            }
+        }
+
+        private ImmutableMap<Long, ImmutableMap<Long, TestCaseMessages>> readIndex(File indexFile) {
+            Input input;
+            try {
+                input = new Input(new FileInputStream(indexFile));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            try {
+                ImmutableMap.Builder<Long, ImmutableMap<Long, TestCaseMessages>> classes = ImmutableMap.builder();
+                int numClasses = input.readInt(true);
+                for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
+                    long classId = input.readLong(true);
+                    ImmutableMap.Builder<Long, TestCaseMessages> testCases = ImmutableMap.builder();
+                    int numEntries = input.readInt(true);
+                    for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
+                        long testId = input.readLong(true);
+                        Messages stdOut = Messages.read(input);
+                        Messages stdErr = Messages.read(input);
+                        testCases.put(testId, new TestCaseMessages(stdOut, stdErr));
+                    }
+                    classes.put(classId, testCases.build());
+                }
+                return classes.build();
+            } finally {
+                input.close();
             }
         }
 
@@ -285,101 +307,94 @@ public class TestOutputStore {
         }
 
         public boolean hasOutput(long classId, TestOutputEvent.Destination destination) {
-            if (dataFile == null) {
+            ImmutableMap<Long, TestCaseMessages> testCases = index.get(classId);
+            if (testCases == null) {
                 return false;
             }
-
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
-                return false;
-            } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
+            for (TestCaseMessages messages : testCases.values()) {
+                if (messages.get(destination).count > 0) {
+                    return true;
+                }
             }
+            return false;
         }
 
         public void writeAllOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, 0, true, destination, writer);
+            ImmutableMap<Long, TestCaseMessages> testCases = index.get(classId);
+            if (testCases == null) {
+                return;
+            }
+            if (testCases.size() == 1) {
+                write(testCases.values().iterator().next().get(destination), writer);
+                return;
+            }
+
+            // Interleave the output of the tests of the class in the order it was written
+            int count = 0;
+            for (TestCaseMessages messages : testCases.values()) {
+                count += messages.get(destination).count;
+            }
+            long[] positions = new long[count];
+            int next = 0;
+            for (TestCaseMessages messages : testCases.values()) {
+                Messages destinationMessages = messages.get(destination);
+                for (int i = 0; i < destinationMessages.count; i++) {
+                    positions[next++] = ((long) destinationMessages.offsets[i] << 32) | destinationMessages.lengths[i];
+                }
+            }
+            Arrays.sort(positions);
+            for (long position : positions) {
+                write((int) (position >>> 32), (int) position, writer);
+            }
         }
 
         public void writeNonTestOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, 0, false, destination, writer);
+            writeTestOutput(classId, 0, destination, writer);
         }
 
         public void writeTestOutput(long classId, long testId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, testId, false, destination, writer);
-        }
-
-        private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            if (dataFile == null) {
+            ImmutableMap<Long, TestCaseMessages> testCases = index.get(classId);
+            if (testCases == null) {
                 return;
             }
-
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
-            }
-
-            if (targetIndex == null) {
+            TestCaseMessages messages = testCases.get(testId);
+            if (messages == null) {
                 return;
             }
+            write(messages.get(destination), writer);
+        }
 
-            boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
-
-            if (region.start < 0) {
-                return;
+        private void write(Messages messages, java.io.Writer writer) {
+            for (int i = 0; i < messages.count; i++) {
+                write(messages.offsets[i], messages.lengths[i], writer);
             }
+        }
 
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
-
+        private void write(int offset, int length, java.io.Writer writer) {
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
+                CharBuffer message = messageStorageCharset.decode(read(offset, length));
+                writer.write(message.array(), message.arrayOffset() + message.position(), message.remaining());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
-                    }
+        private ByteBuffer read(int offset, int length) throws IOException {
+            if (mappedData != null) {
+                ByteBuffer message = mappedData.duplicate();
+                message.position(offset);
+                message.limit(offset + length);
+                return message;
+            }
+            ByteBuffer message = ByteBuffer.allocate(length);
+            FileChannel channel = dataFile.getChannel();
+            while (message.hasRemaining()) {
+                if (channel.read(message, offset + message.position()) < 0) {
+                    throw new EOFException();
                 }
-            } catch (IOException e1) {
-                throw new UncheckedIOException(e1);
             }
+            message.flip();
+            return message;
         }
     }
 
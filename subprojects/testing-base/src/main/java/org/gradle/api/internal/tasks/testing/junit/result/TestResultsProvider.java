@@ -24,7 +24,8 @@ import java.io.Writer;
 
 public interface TestResultsProvider extends Closeable {
     /**
-     * Writes the output of the given test to the given writer. This method must be called only after {@link #visitClasses(org.gradle.api.Action)}.
+     * Writes the output of the given test to the given writer. This method must be called only after the test class has been visited by {@link #visitClasses(org.gradle.api.Action)},
+     * and may be called from any thread, including while the remaining classes are still being visited.
      *
      * Writes all output for the test class.
      */
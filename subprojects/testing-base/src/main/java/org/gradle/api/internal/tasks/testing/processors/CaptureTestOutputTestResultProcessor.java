@@ -27,7 +27,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link org.gradle.api.internal.tasks.testing.TestResultProcessor} which redirect stdout and stderr during the
- * execution of a test suite.
+ * execution of a test suite. Output is attributed to the test most recently started or resumed by the thread that
+ * writes it, so tests may execute concurrently as long as the events of each test are reported from the thread that runs it.
  */
 public class CaptureTestOutputTestResultProcessor implements TestResultProcessor {
     private final TestResultProcessor processor;
@@ -27,18 +27,23 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
+ * processors, unless durations from a previous run are available, in which case each test class is assigned to the
+ * processor with the least estimated work. When given test classes longest first, this balances the work between the
  * processors.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassDurations durations;
     private TestResultProcessor resultProcessor;
     private int pos;
+    private List<Long> assignedDurations = new ArrayList<Long>();
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
@@ -46,9 +51,14 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, new TestClassDurations(Collections.<String, Long>emptyMap()));
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, TestClassDurations durations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durations = durations;
     }
 
     @Override
@@ -72,14 +82,32 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
             processors.add(processor);
+            assignedDurations.add(0L);
+            pos = processors.size() - 1;
             processor.startProcessing(resultProcessor);
+        } else if (durations.isEmpty()) {
+            pos = (pos + 1) % processors.size();
+            processor = processors.get(pos);
         } else {
+            pos = leastLoadedProcessor();
             processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+        }
+        if (!durations.isEmpty()) {
+            assignedDurations.set(pos, assignedDurations.get(pos) + durations.estimate(testClass));
         }
         processor.processTestClass(testClass);
     }
 
+    private int leastLoadedProcessor() {
+        int leastLoaded = 0;
+        for (int i = 1; i < assignedDurations.size(); i++) {
+            if (assignedDurations.get(i) < assignedDurations.get(leastLoaded)) {
+                leastLoaded = i;
+            }
+        }
+        return leastLoaded;
+    }
+
     @Override
     public void stop() {
         try {
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.actor.Actor;
+import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.DispatchException;
+import org.gradle.internal.dispatch.StreamCompletion;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Manages a set of parallel TestClassProcessors. Unlike {@link MaxNParallelTestClassProcessor}, test classes are not
+ * assigned up front: each processor is handed a single test class at a time, and is given the next one when the
+ * results it produces show that the previous class has completed. Slow test classes therefore do not hold up a queue
+ * of work that other, idle processors could have picked up.
+ *
+ * <p>Requires a test framework that reports a completed event for each test class as soon as the class has run.</p>
+ */
+public class PullingParallelTestClassProcessor implements TestClassProcessor {
+    private final int maxProcessors;
+    private final Factory<TestClassProcessor> factory;
+    private final ActorFactory actorFactory;
+    private final Object lock = new Object();
+    private final LinkedList<TestClassRunInfo> pending = new LinkedList<TestClassRunInfo>();
+    private final List<Slot> slots = new ArrayList<Slot>();
+    private final List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
+    private final List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
+    private final List<Actor> actors = new ArrayList<Actor>();
+    private TestResultProcessor resultProcessor;
+    private Actor resultProcessorActor;
+    private volatile boolean stoppedNow;
+
+    public PullingParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this.maxProcessors = maxProcessors;
+        this.factory = factory;
+        this.actorFactory = actorFactory;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        // Create a processor that processes events in its own thread
+        resultProcessorActor = actorFactory.createActor(resultProcessor);
+        this.resultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (stoppedNow) {
+            return;
+        }
+
+        synchronized (lock) {
+            Slot slot = findIdleSlot();
+            if (slot == null && slots.size() < maxProcessors) {
+                slot = startSlot();
+            }
+            if (slot == null) {
+                pending.add(testClass);
+            } else {
+                slot.dispatch(testClass);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            while (!pending.isEmpty() && !stoppedNow && hasActiveSlot()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            // Only happens when all processors have gone away, in which case the remaining classes are handed out
+            // so that stopping the processors reports the failure
+            if (!stoppedNow) {
+                int pos = 0;
+                while (!pending.isEmpty()) {
+                    slots.get(pos).dispatch(pending.removeFirst());
+                    pos = (pos + 1) % slots.size();
+                }
+            }
+            pending.clear();
+        }
+
+        try {
+            CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
+        } catch (DispatchException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        stoppedNow = true;
+        synchronized (lock) {
+            pending.clear();
+            lock.notifyAll();
+        }
+        for (TestClassProcessor processor : rawProcessors) {
+            processor.stopNow();
+        }
+    }
+
+    private Slot findIdleSlot() {
+        for (Slot slot : slots) {
+            if (!slot.busy && !slot.disconnected) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasActiveSlot() {
+        for (Slot slot : slots) {
+            if (slot.busy && !slot.disconnected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Slot startSlot() {
+        TestClassProcessor rawProcessor = factory.create();
+        rawProcessors.add(rawProcessor);
+        Actor actor = actorFactory.createActor(rawProcessor);
+        TestClassProcessor processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        Slot slot = new Slot(processor);
+        slots.add(slot);
+        processor.startProcessing(slot);
+        return slot;
+    }
+
+    /**
+     * A single processor, along with the results it produces. Each test class started by the processor is tracked, so
+     * that the processor can be handed another class as soon as it has finished with the current one.
+     */
+    private class Slot implements TestResultProcessor, StreamCompletion {
+        private final TestClassProcessor processor;
+        private final Set<Object> runningTestClasses = new HashSet<Object>();
+        private boolean busy;
+        private boolean disconnected;
+
+        Slot(TestClassProcessor processor) {
+            this.processor = processor;
+        }
+
+        void dispatch(TestClassRunInfo testClass) {
+            busy = true;
+            processor.processTestClass(testClass);
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            resultProcessor.started(test, event);
+            synchronized (lock) {
+                disconnected = false;
+                if (test.isComposite() && test.getClassName() != null) {
+                    // A restarted processor may start a class it was handed before it disconnected
+                    busy = true;
+                    runningTestClasses.add(test.getId());
+                }
+            }
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            resultProcessor.completed(testId, event);
+            synchronized (lock) {
+                if (runningTestClasses.remove(testId) && runningTestClasses.isEmpty()) {
+                    takeNext();
+                }
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            resultProcessor.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            resultProcessor.failure(testId, result);
+        }
+
+        @Override
+        public void endStream() {
+            // The processor has finished with its current worker, either because it was restarted or because it failed.
+            // Stop waiting on it. Should it restart, the next class it completes will hand it more work.
+            synchronized (lock) {
+                runningTestClasses.clear();
+                busy = false;
+                disconnected = true;
+                lock.notifyAll();
+            }
+        }
+
+        private void takeNext() {
+            if (stoppedNow || pending.isEmpty()) {
+                busy = false;
+            } else {
+                dispatch(pending.removeFirst());
+            }
+            lock.notifyAll();
+        }
+    }
+}
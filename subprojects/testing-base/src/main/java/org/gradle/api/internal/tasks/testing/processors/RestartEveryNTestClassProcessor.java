@@ -21,17 +21,33 @@ import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.internal.Factory;
 
+import java.util.Collections;
+
+/**
+ * Restarts its delegate after every N test classes. When durations from a previous run are available, the delegate is
+ * also restarted earlier, once it has been given N average test classes worth of work, so that a batch of slow classes
+ * does not take much longer than the others.
+ */
 public class RestartEveryNTestClassProcessor implements TestClassProcessor {
     private final Factory<TestClassProcessor> factory;
     private final long restartEvery;
+    private final TestClassDurations durations;
+    private final long restartAfterDuration;
     private long testCount;
+    private long batchDuration;
     private TestResultProcessor resultProcessor;
     private volatile boolean stoppedNow;
     private volatile TestClassProcessor processor;
 
     public RestartEveryNTestClassProcessor(Factory<TestClassProcessor> factory, long restartEvery) {
+        this(factory, restartEvery, new TestClassDurations(Collections.<String, Long>emptyMap()));
+    }
+
+    public RestartEveryNTestClassProcessor(Factory<TestClassProcessor> factory, long restartEvery, TestClassDurations durations) {
         this.factory = factory;
         this.restartEvery = restartEvery;
+        this.durations = durations;
+        this.restartAfterDuration = restartEvery * durations.getAverageDuration();
     }
 
     @Override
@@ -53,6 +69,11 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
         testCount++;
         if (testCount == restartEvery) {
             endBatch();
+        } else if (restartAfterDuration > 0) {
+            batchDuration += durations.estimate(testClass);
+            if (batchDuration >= restartAfterDuration) {
+                endBatch();
+            }
         }
     }
 
@@ -77,6 +98,7 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
         } finally {
             processor = null;
             testCount = 0;
+            batchDuration = 0;
         }
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Passes test classes to its delegate ordered by their previous duration, longest first, so that the slowest classes
+ * do not end up running alone at the end of a parallel test run.
+ *
+ * <p>Test classes are passed on while they are still being found: a class is held back only for as long as a class that
+ * has not been found yet could take longer. Classes without a previous duration are assumed to take the average duration.</p>
+ */
+public class RunLongestFirstTestClassProcessor implements TestClassProcessor {
+    private final TestClassDurations durations;
+    private final TestClassProcessor delegate;
+    private final List<Map.Entry<String, Long>> knownDurationsLongestFirst;
+    private final Set<String> seenTestClasses = new HashSet<String>();
+    private final PriorityQueue<PendingTestClass> pendingTestClasses = new PriorityQueue<PendingTestClass>();
+    private int nextUnseenKnownDuration;
+    private long sequence;
+
+    public RunLongestFirstTestClassProcessor(TestClassDurations durations, TestClassProcessor delegate) {
+        this.durations = durations;
+        this.delegate = delegate;
+        this.knownDurationsLongestFirst = new ArrayList<Map.Entry<String, Long>>(durations.getPreviousDurations().entrySet());
+        Collections.sort(knownDurationsLongestFirst, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> left, Map.Entry<String, Long> right) {
+                return right.getValue().compareTo(left.getValue());
+            }
+        });
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (durations.isEmpty()) {
+            delegate.processTestClass(testClass);
+            return;
+        }
+        seenTestClasses.add(testClass.getTestClassName());
+        pendingTestClasses.add(new PendingTestClass(testClass, durations.estimate(testClass), sequence++));
+        long longestUnseenDuration = Math.max(longestUnseenKnownDuration(), durations.getAverageDuration());
+        while (!pendingTestClasses.isEmpty() && pendingTestClasses.peek().duration >= longestUnseenDuration) {
+            delegate.processTestClass(pendingTestClasses.poll().testClass);
+        }
+    }
+
+    private long longestUnseenKnownDuration() {
+        while (nextUnseenKnownDuration < knownDurationsLongestFirst.size()) {
+            Map.Entry<String, Long> entry = knownDurationsLongestFirst.get(nextUnseenKnownDuration);
+            if (!seenTestClasses.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+            nextUnseenKnownDuration++;
+        }
+        return 0;
+    }
+
+    @Override
+    public void stop() {
+        while (!pendingTestClasses.isEmpty()) {
+            delegate.processTestClass(pendingTestClasses.poll().testClass);
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+
+    private static class PendingTestClass implements Comparable<PendingTestClass> {
+        private final TestClassRunInfo testClass;
+        private final long duration;
+        private final long sequence;
+
+        PendingTestClass(TestClassRunInfo testClass, long duration, long sequence) {
+            this.testClass = testClass;
+            this.duration = duration;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PendingTestClass other) {
+            // Longest first, and classes with the same duration keep the order in which they were found
+            if (duration != other.duration) {
+                return duration < other.duration ? 1 : -1;
+            }
+            return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+        }
+    }
+}
@@ -20,22 +20,25 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * In order to speed up the development feedback cycle, this class guarantee previous failed test classes
- * to be passed to its delegate first.
+ * to be passed to its delegate first. Other test classes are held back only until all previous failed test
+ * classes have been found.
  */
 public class RunPreviousFailedFirstTestClassProcessor implements TestClassProcessor {
     private final Set<String> previousFailedTestClasses;
     private final TestClassProcessor delegate;
-    private final LinkedHashSet<TestClassRunInfo> prioritizedTestClasses = new LinkedHashSet<TestClassRunInfo>();
+    private final Set<String> remainingFailedTestClasses;
     private final LinkedHashSet<TestClassRunInfo> otherTestClasses = new LinkedHashSet<TestClassRunInfo>();
 
     public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
         this.previousFailedTestClasses = previousFailedTestClasses;
         this.delegate = delegate;
+        this.remainingFailedTestClasses = new HashSet<String>(previousFailedTestClasses);
     }
 
     @Override
@@ -45,21 +48,29 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
-        if (previousFailedTestClasses.contains(testClass.getTestClassName())) {
-            prioritizedTestClasses.add(testClass);
+        if (remainingFailedTestClasses.isEmpty()) {
+            delegate.processTestClass(testClass);
+        } else if (previousFailedTestClasses.contains(testClass.getTestClassName())) {
+            delegate.processTestClass(testClass);
+            remainingFailedTestClasses.remove(testClass.getTestClassName());
+            if (remainingFailedTestClasses.isEmpty()) {
+                processOtherTestClasses();
+            }
         } else {
             otherTestClasses.add(testClass);
         }
     }
 
-    @Override
-    public void stop() {
-        for (TestClassRunInfo test : prioritizedTestClasses) {
-            delegate.processTestClass(test);
-        }
+    private void processOtherTestClasses() {
         for (TestClassRunInfo test : otherTestClasses) {
             delegate.processTestClass(test);
         }
+        otherTestClasses.clear();
+    }
+
+    @Override
+    public void stop() {
+        processOtherTestClasses();
         delegate.stop();
     }
 
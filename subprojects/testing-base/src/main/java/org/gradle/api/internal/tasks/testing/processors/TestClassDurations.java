@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+
+import java.util.Map;
+
+/**
+ * Estimates how long test classes will take to run, from the durations of a previous run. Classes that have no previous
+ * duration are assumed to take the average time of the known classes.
+ */
+public class TestClassDurations {
+    private final Map<String, Long> previousDurations;
+    private final long averageDuration;
+
+    public TestClassDurations(Map<String, Long> previousDurations) {
+        this.previousDurations = previousDurations;
+        long total = 0;
+        for (Long duration : previousDurations.values()) {
+            total += duration;
+        }
+        this.averageDuration = previousDurations.isEmpty() ? 0 : total / previousDurations.size();
+    }
+
+    /**
+     * Returns true when nothing is known about previous durations, in which case all estimates are 0.
+     */
+    public boolean isEmpty() {
+        return previousDurations.isEmpty();
+    }
+
+    /**
+     * Returns the previous duration of each test class, keyed by class name.
+     */
+    public Map<String, Long> getPreviousDurations() {
+        return previousDurations;
+    }
+
+    public long getAverageDuration() {
+        return averageDuration;
+    }
+
+    public long estimate(TestClassRunInfo testClass) {
+        Long duration = previousDurations.get(testClass.getTestClassName());
+        return duration == null ? averageDuration : duration;
+    }
+}
@@ -53,22 +53,36 @@ class TestOutputRedirector {
         if (System.err != null) {
             System.err.flush();
         }
-        outForwarder.outputOwner = testId;
-        errForwarder.outputOwner = testId;
+        outForwarder.setOutputOwner(testId);
+        errForwarder.setOutputOwner(testId);
     }
 
+    /**
+     * Attributes output to the owner set by the thread that writes it, so that tests executing concurrently each receive their own output.
+     * Output from threads that never set an owner, such as threads started by a test, goes to the owner that was set last.
+     */
     static class Forwarder implements StandardOutputListener {
         final TestResultProcessor processor;
         final TestOutputEvent.Destination dest;
-        Object outputOwner;
+        final ThreadLocal<Object> threadOutputOwner = new ThreadLocal<Object>();
+        volatile Object outputOwner;
 
         public Forwarder(TestResultProcessor processor, TestOutputEvent.Destination dest) {
             this.processor = processor;
             this.dest = dest;
         }
 
+        void setOutputOwner(Object testId) {
+            threadOutputOwner.set(testId);
+            outputOwner = testId;
+        }
+
         @Override
         public void onOutput(CharSequence output) {
+            Object outputOwner = threadOutputOwner.get();
+            if (outputOwner == null) {
+                outputOwner = this.outputOwner;
+            }
             if (outputOwner == null) {
                 throw new RuntimeException("Unable send output event from test executor. Please report this problem. Destination: " + dest + ", event: " + output.toString());
             }
@@ -52,6 +52,15 @@ public class AllTestResults extends CompositeTestResults {
         return addTest(packageResults.addTest(classId, className, classDisplayName, testName, testDisplayName, duration));
     }
 
+    /**
+     * Counts a test towards the results of this model without keeping the test in its class, for reports that only need
+     * the totals and the failed or ignored tests.
+     */
+    public TestResult addTestSummary(long classId, String className, String classDisplayName, String testName, String testDisplayName, long duration) {
+        PackageTestResults packageResults = addPackageForClass(className);
+        return addTest(packageResults.addTestSummary(classId, className, classDisplayName, testName, testDisplayName, duration));
+    }
+
     public ClassTestResults addTestClass(long classId, String className) {
         return addTestClass(classId, className, className);
     }
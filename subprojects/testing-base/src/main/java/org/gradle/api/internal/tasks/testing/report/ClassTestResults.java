@@ -96,4 +96,11 @@ public class ClassTestResults extends CompositeTestResults {
         results.add(test);
         return addTest(test);
     }
+
+    /**
+     * Counts the test towards the results of this class, without adding it to {@link #getTestResults()}.
+     */
+    public TestResult addTestSummary(String testName, String testDisplayName, long duration) {
+        return addTest(new TestResult(testName, testDisplayName, duration, this));
+    }
 }
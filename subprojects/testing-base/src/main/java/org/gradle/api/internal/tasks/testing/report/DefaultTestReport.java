@@ -35,18 +35,31 @@ import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
 import org.gradle.util.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
+/**
+ * Generates the HTML test report.
+ *
+ * <p>Class pages are rendered in parallel while the results are still being read, each from a model of just that class,
+ * which is dropped again once its page is written. At most two class pages per worker wait to be rendered. Beyond that, the
+ * thread reading the results renders the next page itself, so that the results read ahead do not pile up in memory.
+ * The overview and package pages are rendered last, from a summary of all results that keeps only the counts and the
+ * failed and ignored tests, not every test and the details of every failure.</p>
+ */
 public class DefaultTestReport implements TestReporter {
     private final BuildOperationExecutor buildOperationExecutor;
+    private final int maxPendingClassPages;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
-    public DefaultTestReport(BuildOperationExecutor buildOperationExecutor) {
+    public DefaultTestReport(BuildOperationExecutor buildOperationExecutor, int maxWorkerCount) {
         this.buildOperationExecutor = buildOperationExecutor;
+        this.maxPendingClassPages = 2 * Math.max(maxWorkerCount, 1);
     }
 
     @Override
@@ -54,31 +67,38 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Timer clock = Time.startTimer();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        generateFiles(new AllTestResults(), resultsProvider, reportDir);
         LOG.info("Finished generating test html results ({}) into: {}", clock.getElapsed(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
-        final AllTestResults model = new AllTestResults();
-        resultsProvider.visitClasses(new Action<TestClassResult>() {
-            public void execute(TestClassResult classResult) {
-                model.addTestClass(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName());
-                List<TestMethodResult> collectedResults = classResult.getResults();
-                for (TestMethodResult collectedResult : collectedResults) {
-                    final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName(), collectedResult.getName(), collectedResult.getDisplayName(), collectedResult.getDuration());
-                    if (collectedResult.getResultType() == SKIPPED) {
-                        testResult.setIgnored();
-                    } else {
-                        List<TestFailure> failures = collectedResult.getFailures();
-                        for (TestFailure failure : failures) {
-                            testResult.addFailure(failure);
-                        }
-                    }
+    private static void addSummary(AllTestResults model, TestClassResult classResult) {
+        model.addTestClass(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName());
+        for (TestMethodResult collectedResult : classResult.getResults()) {
+            TestResult testResult = model.addTestSummary(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName(), collectedResult.getName(), collectedResult.getDisplayName(), collectedResult.getDuration());
+            if (collectedResult.getResultType() == SKIPPED) {
+                testResult.setIgnored();
+            } else if (!collectedResult.getFailures().isEmpty()) {
+                testResult.setFailed();
+            }
+        }
+    }
+
+    private static ClassTestResults loadClassModel(TestClassResult classResult) {
+        AllTestResults model = new AllTestResults();
+        ClassTestResults classResults = model.addTestClass(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName());
+        List<TestMethodResult> collectedResults = classResult.getResults();
+        for (TestMethodResult collectedResult : collectedResults) {
+            final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName(), collectedResult.getName(), collectedResult.getDisplayName(), collectedResult.getDuration());
+            if (collectedResult.getResultType() == SKIPPED) {
+                testResult.setIgnored();
+            } else {
+                List<TestFailure> failures = collectedResult.getFailures();
+                for (TestFailure failure : failures) {
+                    testResult.addFailure(failure);
                 }
             }
-        });
-        return model;
+        }
+        return classResults;
     }
 
     private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
@@ -101,15 +121,25 @@ public class DefaultTestReport implements TestReporter {
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(final AllTestResults model, final HtmlReportBuilder output) throws IOException {
-                    buildOperationExecutor.runAll(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
+                    buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
                         @Override
-                        public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
+                        public void execute(final BuildOperationQueue<RunnableBuildOperation> queue) {
+                            final Semaphore pendingClassPages = new Semaphore(maxPendingClassPages);
+                            resultsProvider.visitClasses(new Action<TestClassResult>() {
+                                @Override
+                                public void execute(TestClassResult classResult) {
+                                    addSummary(model, classResult);
+                                    if (pendingClassPages.tryAcquire()) {
+                                        queue.add(new ClassPageFileGenerator(classResult, resultsProvider, output, pendingClassPages));
+                                    } else {
+                                        // Waiting for a permit instead could dead lock, as the queued pages may need the worker lease this thread holds
+                                        buildOperationExecutor.run(new ClassPageFileGenerator(classResult, resultsProvider, output, null));
+                                    }
+                                }
+                            });
                             queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
                             for (PackageTestResults packageResults : model.getPackages()) {
                                 queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
-                                for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
-                                }
                             }
                         }
                     });
@@ -147,4 +177,35 @@ public class DefaultTestReport implements TestReporter {
             output.renderHtmlPage(fileUrl, results, renderer);
         }
     }
+
+    private static class ClassPageFileGenerator implements RunnableBuildOperation {
+        private final TestClassResult classResult;
+        private final TestResultsProvider resultsProvider;
+        private final HtmlReportBuilder output;
+        private final Semaphore pendingClassPages;
+
+        ClassPageFileGenerator(TestClassResult classResult, TestResultsProvider resultsProvider, HtmlReportBuilder output, @Nullable Semaphore pendingClassPages) {
+            this.classResult = classResult;
+            this.resultsProvider = resultsProvider;
+            this.output = output;
+            this.pendingClassPages = pendingClassPages;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Generate HTML test report for ".concat(classResult.getClassName()));
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            try {
+                ClassTestResults classResults = loadClassModel(classResult);
+                output.renderHtmlPage(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider));
+            } finally {
+                if (pendingClassPages != null) {
+                    pendingClassPages.release();
+                }
+            }
+        }
+    }
 }
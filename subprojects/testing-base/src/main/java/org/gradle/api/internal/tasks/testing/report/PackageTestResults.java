@@ -59,6 +59,11 @@ public class PackageTestResults extends CompositeTestResults {
         return addTest(classResults.addTest(testName, testDisplayName, duration));
     }
 
+    public TestResult addTestSummary(long classId, String className, String classDisplayName, String testName, String testDisplayName, long duration) {
+        ClassTestResults classResults = addClass(classId, className, classDisplayName);
+        return addTest(classResults.addTestSummary(testName, testDisplayName, duration));
+    }
+
     public ClassTestResults addClass(long classId, String className) {
         return addClass(classId, className, className);
     }
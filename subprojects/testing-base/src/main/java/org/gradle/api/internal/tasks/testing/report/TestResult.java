@@ -29,6 +29,7 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
     final String name;
     final String displayName;
     boolean ignored;
+    boolean failed;
 
     public TestResult(String name, long duration, ClassTestResults classResults) {
         this(name, name, duration, classResults);
@@ -63,7 +64,7 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
         if (ignored) {
             return ResultType.SKIPPED;
         }
-        return failures.isEmpty() ? ResultType.SUCCESS : ResultType.FAILURE;
+        return failures.isEmpty() && !failed ? ResultType.SUCCESS : ResultType.FAILURE;
     }
 
     @Override
@@ -93,6 +94,14 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
         failures.add(failure);
     }
 
+    /**
+     * Marks this test as failed without keeping the details of its failures.
+     */
+    public void setFailed() {
+        classResults.failed(this);
+        failed = true;
+    }
+
     public void setIgnored() {
         classResults.ignored(this);
         ignored = true;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the results of a test worker into batches, which are sent to the build process in a single message each.
+ *
+ * <p>A batch is sent once it holds a certain number of events or amount of output, once its first event is older than the flush
+ * window, when a test class or suite completes, so that the build process can hand out more work without waiting, and on {@link #flush()}.
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor {
+    static final int MAX_EVENTS = 256;
+    static final int MAX_OUTPUT_LENGTH = 32 * 1024;
+    static final long FLUSH_WINDOW_MILLIS = 20;
+
+    private final RemoteTestResultProcessor target;
+    private final ScheduledExecutorService flushExecutor;
+    private final int maxEvents;
+    private final int maxOutputLength;
+    private final long flushWindowMillis;
+    private final Set<Object> runningComposites = new HashSet<Object>();
+    private final Runnable scheduledFlush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private TestEventBatch batch = new TestEventBatch();
+    private ScheduledFuture<?> pendingFlush;
+
+    /**
+     * @param flushExecutor used to send events that are older than the flush window. When null, events are only sent when the batch is full or a composite test completes.
+     */
+    public BatchingTestResultProcessor(RemoteTestResultProcessor target, @Nullable ScheduledExecutorService flushExecutor) {
+        this(target, flushExecutor, MAX_EVENTS, MAX_OUTPUT_LENGTH, FLUSH_WINDOW_MILLIS);
+    }
+
+    BatchingTestResultProcessor(RemoteTestResultProcessor target, @Nullable ScheduledExecutorService flushExecutor, int maxEvents, int maxOutputLength, long flushWindowMillis) {
+        this.target = target;
+        this.flushExecutor = flushExecutor;
+        this.maxEvents = maxEvents;
+        this.maxOutputLength = maxOutputLength;
+        this.flushWindowMillis = flushWindowMillis;
+    }
+
+    @Override
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        if (test.isComposite()) {
+            runningComposites.add(test.getId());
+        }
+        batch.started(test, event);
+        added();
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        batch.completed(testId, event);
+        if (runningComposites.remove(testId)) {
+            flush();
+        } else {
+            added();
+        }
+    }
+
+    @Override
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        batch.output(testId, event);
+        added();
+    }
+
+    @Override
+    public synchronized void failure(Object testId, Throwable result) {
+        batch.failure(testId, result);
+        added();
+    }
+
+    /**
+     * Sends any events that have not been sent yet.
+     */
+    public synchronized void flush() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        TestEventBatch events = batch;
+        batch = new TestEventBatch();
+        target.events(events);
+    }
+
+    private void added() {
+        if (batch.size() >= maxEvents || batch.getOutputLength() >= maxOutputLength) {
+            flush();
+        } else if (pendingFlush == null && flushExecutor != null) {
+            pendingFlush = flushExecutor.schedule(scheduledFlush, flushWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
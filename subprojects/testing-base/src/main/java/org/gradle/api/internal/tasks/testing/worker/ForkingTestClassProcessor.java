@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
@@ -105,7 +106,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(RemoteTestResultProcessor.class, new ResultReceiver(resultProcessor));
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -113,6 +114,10 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     List<URL> getTestWorkerImplementationClasspath() {
+        return getTestWorkerImplementationClasspath(moduleRegistry);
+    }
+
+    static List<URL> getTestWorkerImplementationClasspath(ModuleRegistry moduleRegistry) {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
@@ -175,4 +180,27 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             lock.unlock();
         }
     }
+
+    /**
+     * Replays the batches of results sent by the worker to the result processor.
+     */
+    private static class ResultReceiver implements RemoteTestResultProcessor, StreamCompletion {
+        private final TestResultProcessor resultProcessor;
+
+        ResultReceiver(TestResultProcessor resultProcessor) {
+            this.resultProcessor = resultProcessor;
+        }
+
+        @Override
+        public void events(TestEventBatch batch) {
+            batch.dispatchTo(resultProcessor);
+        }
+
+        @Override
+        public void endStream() {
+            if (resultProcessor instanceof StreamCompletion) {
+                ((StreamCompletion) resultProcessor).endStream();
+            }
+        }
+    }
 }
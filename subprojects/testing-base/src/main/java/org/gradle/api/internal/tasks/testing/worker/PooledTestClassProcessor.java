@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.tasks.testing.JULRedirector;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.worker.WorkerProcess;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs test classes in a worker taken from a {@link TestWorkerPool}, forking a new worker only when the pool has none
+ * to offer. The worker goes back to the pool once the test classes have run.
+ *
+ * <p>The jars of the test runtime classpath become the application classpath of the worker and are shared between
+ * sessions. The class directories, which hold the classes under test and change from one build to the next, are loaded
+ * afresh for each session.</p>
+ */
+public class PooledTestClassProcessor implements TestClassProcessor {
+    private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
+    private final WorkerProcessFactory workerFactory;
+    private final TestWorkerPool pool;
+    private final TestWorkerPool.Statistics statistics;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> classPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final ModuleRegistry moduleRegistry;
+    private final DocumentationRegistry documentationRegistry;
+    private final Lock lock = new ReentrantLock();
+    private PooledTestWorkerProcess worker;
+    private TestResultProcessor resultProcessor;
+    private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
+    private boolean stoppedNow;
+
+    public PooledTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, TestWorkerPool pool, TestWorkerPool.Statistics statistics, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this.currentWorkerLease = parentWorkerLease;
+        this.workerFactory = workerFactory;
+        this.pool = pool;
+        this.statistics = statistics;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.classPath = classPath;
+        this.buildConfigAction = buildConfigAction;
+        this.moduleRegistry = moduleRegistry;
+        this.documentationRegistry = documentationRegistry;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            if (stoppedNow) {
+                return;
+            }
+
+            if (worker == null) {
+                completion = currentWorkerLease.startChild();
+                JULRedirector.checkDeprecatedProperty(options);
+                List<File> libraries = new ArrayList<File>();
+                List<File> classDirectories = new ArrayList<File>();
+                for (File file : classPath) {
+                    if (file.isDirectory()) {
+                        classDirectories.add(file);
+                    } else {
+                        libraries.add(file);
+                    }
+                }
+                worker = acquireWorker(libraries);
+                worker.startSession(resultProcessor, processorFactory, classDirectories);
+            }
+
+            worker.processTestClass(testClass);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledTestWorkerProcess acquireWorker(List<File> libraries) {
+        WorkerProcessBuilder builder = workerFactory.create(new PooledTestWorker());
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(ForkingTestClassProcessor.getTestWorkerImplementationClasspath(moduleRegistry));
+        builder.applicationClasspath(libraries);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+
+        HashCode key = pool.keyFor(builder, processorFactory);
+        PooledTestWorkerProcess pooledWorker = pool.reserve(key);
+        if (pooledWorker != null) {
+            statistics.reused(pooledWorker);
+            return pooledWorker;
+        }
+
+        Timer timer = Time.startTimer();
+        WorkerProcess workerProcess = builder.build();
+        workerProcess.start();
+        long maxHeapSize = MemoryAmount.parseNotation(builder.getJavaCommand().getMaxHeapSize());
+        pooledWorker = new PooledTestWorkerProcess(key, workerProcess, timer.getElapsedMillis(), maxHeapSize);
+        statistics.started();
+        return pooledWorker;
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            try {
+                if (!isStoppedNow()) {
+                    worker.stopSession();
+                    if (!isStoppedNow()) {
+                        pool.release(worker);
+                    }
+                }
+            } catch (ExecException e) {
+                if (!isStoppedNow()) {
+                    throw new ExecException(e.getMessage()
+                        + "\nThis problem might be caused by incorrect test process configuration."
+                        + "\nPlease refer to the test execution section in the user guide at "
+                        + documentationRegistry.getDocumentationFor("java_plugin", "sec:test_execution"), e.getCause());
+                }
+            } finally {
+                completion.leaseFinish();
+            }
+        }
+    }
+
+    private boolean isStoppedNow() {
+        lock.lock();
+        try {
+            return stoppedNow;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        lock.lock();
+        try {
+            stoppedNow = true;
+            if (worker != null) {
+                worker.stopNow();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
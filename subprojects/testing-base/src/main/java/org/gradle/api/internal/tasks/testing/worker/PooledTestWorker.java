@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.AccessControlException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A test worker that stays alive between test tasks. The application classpath of the worker process holds the libraries
+ * the tests use, which are shared by all sessions. Each session loads the classes under test into its own class loader,
+ * which is thrown away when the session stops, along with any system properties or security manager the tests have set.
+ */
+public class PooledTestWorker implements Action<WorkerProcessContext>, RemotePooledTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTestWorker.class);
+    private CountDownLatch stopped;
+    private WorkerProcessContext workerProcessContext;
+    private DefaultServiceRegistry testServices;
+    private RemotePooledTestResultProcessor remoteResultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
+    private TestClassProcessor processor;
+    private ClassLoader sessionClassLoader;
+    private Properties systemProperties;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        stopped = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        // Shared by all sessions, so that the ids of the tests remain unique for the life of the worker
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        remoteResultProcessor = serverConnection.addOutgoing(RemotePooledTestResultProcessor.class);
+        ScheduledExecutorService flushExecutor = testServices.get(ExecutorFactory.class).createScheduled("Test event flush", 1);
+        resultProcessor = new BatchingTestResultProcessor(remoteResultProcessor, flushExecutor);
+        serverConnection.addIncoming(RemotePooledTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                throw new UncheckedException(e);
+            }
+        } finally {
+            LOGGER.info("{} stopped.", workerProcessContext.getDisplayName());
+            System.setSecurityManager(null);
+            testServices.close();
+        }
+    }
+
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath) {
+        Thread.currentThread().setName("Test worker");
+        systemProperties = (Properties) System.getProperties().clone();
+        sessionClassLoader = new URLClassLoader(toUrls(sessionClasspath), workerProcessContext.getApplicationClassLoader());
+
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, sessionClassLoader);
+        processor = proxy.getSource();
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } catch (AccessControlException e) {
+            // The tests have locked the worker down, so it cannot be reused
+            stopped.countDown();
+            throw e;
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void stopSession() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.stop();
+        } finally {
+            processor = null;
+            // Clean out any security manager or system properties the tests might have installed
+            System.setSecurityManager(null);
+            System.setProperties(systemProperties);
+            ClassLoaderUtils.tryClose(sessionClassLoader);
+            sessionClassLoader = null;
+            Thread.interrupted();
+            resultProcessor.flush();
+            remoteResultProcessor.sessionStopped();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped.countDown();
+    }
+
+    private static URL[] toUrls(List<File> files) {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = files.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+}
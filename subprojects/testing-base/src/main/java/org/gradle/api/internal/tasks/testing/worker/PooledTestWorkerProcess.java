@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A running {@link PooledTestWorker}, as seen from the build process.
+ */
+public class PooledTestWorkerProcess implements Stoppable {
+    private final HashCode key;
+    private final WorkerProcess workerProcess;
+    private final long startupTime;
+    private final long maxHeapSize;
+    private final SessionResultProcessor results = new SessionResultProcessor();
+    private final RemotePooledTestWorker remoteWorker;
+
+    public PooledTestWorkerProcess(HashCode key, WorkerProcess workerProcess, long startupTime, long maxHeapSize) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        this.startupTime = startupTime;
+        this.maxHeapSize = maxHeapSize;
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(RemotePooledTestResultProcessor.class, results);
+        remoteWorker = connection.addOutgoing(RemotePooledTestWorker.class);
+        connection.connect();
+    }
+
+    public HashCode getKey() {
+        return key;
+    }
+
+    /**
+     * The time in milliseconds it took to start this worker.
+     */
+    public long getStartupTime() {
+        return startupTime;
+    }
+
+    /**
+     * The maximum heap size in bytes the worker was started with, or -1 when it uses the default of the JVM.
+     */
+    public long getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    public boolean isAlive() {
+        return results.connected;
+    }
+
+    public void startSession(TestResultProcessor resultProcessor, WorkerTestClassProcessorFactory factory, List<File> sessionClasspath) {
+        results.startSession(resultProcessor);
+        remoteWorker.startSession(factory, sessionClasspath);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        remoteWorker.processTestClass(testClass);
+    }
+
+    /**
+     * Waits for the current session to complete. Fails when the worker stops before the session has completed.
+     */
+    public void stopSession() {
+        remoteWorker.stopSession();
+        results.awaitSessionStopped();
+        if (!results.connected) {
+            // Report why the worker went away
+            workerProcess.waitForStop();
+        }
+    }
+
+    public void stopNow() {
+        workerProcess.stopNow();
+    }
+
+    @Override
+    public void stop() {
+        if (results.connected) {
+            remoteWorker.stop();
+        }
+        workerProcess.waitForStop();
+    }
+
+    /**
+     * Forwards the results of the current session to the result processor of that session.
+     */
+    private static class SessionResultProcessor implements RemotePooledTestResultProcessor, StreamCompletion {
+        private volatile boolean connected = true;
+        private volatile TestResultProcessor target;
+        private volatile CountDownLatch sessionStopped;
+
+        void startSession(TestResultProcessor resultProcessor) {
+            sessionStopped = new CountDownLatch(1);
+            target = resultProcessor;
+        }
+
+        void awaitSessionStopped() {
+            try {
+                sessionStopped.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void events(TestEventBatch batch) {
+            batch.dispatchTo(target);
+        }
+
+        @Override
+        public void sessionStopped() {
+            endSession();
+        }
+
+        @Override
+        public void endStream() {
+            connected = false;
+            endSession();
+        }
+
+        private void endSession() {
+            TestResultProcessor resultProcessor = target;
+            target = null;
+            if (resultProcessor instanceof StreamCompletion) {
+                // No further results for this session
+                ((StreamCompletion) resultProcessor).endStream();
+            }
+            if (sessionStopped != null) {
+                sessionStopped.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The messages that a pooled test worker receives. A pooled test worker runs any number of sessions, one after the other, before it is stopped.
+ */
+public interface RemotePooledTestWorker {
+    /**
+     * Starts a session that runs test classes with the given processor, loading them from the given classpath on top of the worker's application classpath.
+     */
+    void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath);
+
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Completes the current session and discards its state. The worker acknowledges with {@link RemotePooledTestResultProcessor#sessionStopped()}.
+     */
+    void stopSession();
+
+    void stop();
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of test events sent from a test worker as a single message. Output that a test writes to the same destination
+ * with no other event in between is merged into a single event.
+ *
+ * <p>A batch is not thread-safe. It must not be changed once it has been handed to a {@link RemoteTestResultProcessor}.
+ */
+public class TestEventBatch {
+    private final List<Event> events = new ArrayList<Event>();
+    private int outputLength;
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        events.add(new Started(test, event));
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        events.add(new Completed(testId, event));
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        output(testId, event.getDestination(), event.getMessage());
+    }
+
+    void output(Object testId, TestOutputEvent.Destination destination, String message) {
+        outputLength += message.length();
+        if (!events.isEmpty()) {
+            Event last = events.get(events.size() - 1);
+            if (last instanceof Output) {
+                Output output = (Output) last;
+                if (output.destination == destination && output.testId.equals(testId)) {
+                    output.message.append(message);
+                    return;
+                }
+            }
+        }
+        events.add(new Output(testId, destination, message));
+    }
+
+    public void failure(Object testId, Throwable failure) {
+        events.add(new Failure(testId, failure));
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Returns the number of events in this batch, after any output has been merged.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * Returns the number of characters of output in this batch.
+     */
+    public int getOutputLength() {
+        return outputLength;
+    }
+
+    List<Event> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Replays the events of this batch, in order, to the given processor.
+     */
+    public void dispatchTo(TestResultProcessor processor) {
+        for (Event event : events) {
+            event.dispatchTo(processor);
+        }
+    }
+
+    abstract static class Event {
+        abstract void dispatchTo(TestResultProcessor processor);
+    }
+
+    static class Started extends Event {
+        final TestDescriptorInternal test;
+        final TestStartEvent event;
+
+        Started(TestDescriptorInternal test, TestStartEvent event) {
+            this.test = test;
+            this.event = event;
+        }
+
+        @Override
+        void dispatchTo(TestResultProcessor processor) {
+            processor.started(test, event);
+        }
+    }
+
+    static class Completed extends Event {
+        final Object testId;
+        final TestCompleteEvent event;
+
+        Completed(Object testId, TestCompleteEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        @Override
+        void dispatchTo(TestResultProcessor processor) {
+            processor.completed(testId, event);
+        }
+    }
+
+    static class Output extends Event {
+        final Object testId;
+        final TestOutputEvent.Destination destination;
+        final StringBuilder message;
+
+        Output(Object testId, TestOutputEvent.Destination destination, String message) {
+            this.testId = testId;
+            this.destination = destination;
+            this.message = new StringBuilder(message);
+        }
+
+        @Override
+        void dispatchTo(TestResultProcessor processor) {
+            processor.output(testId, new DefaultTestOutputEvent(destination, message.toString()));
+        }
+    }
+
+    static class Failure extends Event {
+        final Object testId;
+        final Throwable failure;
+
+        Failure(Object testId, Throwable failure) {
+            this.testId = testId;
+            this.failure = failure;
+        }
+
+        @Override
+        void dispatchTo(TestResultProcessor processor) {
+            processor.failure(testId, failure);
+        }
+    }
+}
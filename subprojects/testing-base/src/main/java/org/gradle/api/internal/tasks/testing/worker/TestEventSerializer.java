@@ -22,6 +22,12 @@ import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class TestEventSerializer {
     public static SerializerRegistry create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
@@ -37,6 +43,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer(registry.build(TestDescriptorInternal.class), factory.getSerializerFor(Throwable.class)));
         return registry;
     }
 
@@ -234,4 +241,150 @@ public class TestEventSerializer {
             encoder.writeString(value.getName());
         }
     }
+
+    /**
+     * Writes a batch of events compactly: each test id is written in full once per batch and referred to by index after that,
+     * times are written as the difference to the previous event, and enums as their ordinal.
+     */
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        private static final byte STARTED = 0;
+        private static final byte COMPLETED = 1;
+        private static final byte OUTPUT = 2;
+        private static final byte FAILURE = 3;
+        private static final int NULL_ID = 0;
+        private static final int NEW_ID = 1;
+        private static final int FIRST_ID_INDEX = 2;
+        private static final TestResult.ResultType[] RESULT_TYPES = TestResult.ResultType.values();
+        private static final TestOutputEvent.Destination[] DESTINATIONS = TestOutputEvent.Destination.values();
+
+        private final Serializer<TestDescriptorInternal> descriptorSerializer;
+        private final Serializer<Throwable> throwableSerializer;
+
+        TestEventBatchSerializer(Serializer<TestDescriptorInternal> descriptorSerializer, Serializer<Throwable> throwableSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.throwableSerializer = throwableSerializer;
+        }
+
+        @Override
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            TestEventBatch batch = new TestEventBatch();
+            List<Object> ids = new ArrayList<Object>();
+            long time = 0;
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                byte type = decoder.readByte();
+                switch (type) {
+                    case STARTED:
+                        TestDescriptorInternal test = descriptorSerializer.read(decoder);
+                        ids.add(test.getId());
+                        time += decoder.readSmallLong();
+                        batch.started(test, new TestStartEvent(time, readId(decoder, ids)));
+                        break;
+                    case COMPLETED:
+                        Object completedId = readId(decoder, ids);
+                        time += decoder.readSmallLong();
+                        int resultType = decoder.readSmallInt();
+                        batch.completed(completedId, new TestCompleteEvent(time, resultType == 0 ? null : RESULT_TYPES[resultType - 1]));
+                        break;
+                    case OUTPUT:
+                        Object outputId = readId(decoder, ids);
+                        TestOutputEvent.Destination destination = DESTINATIONS[decoder.readSmallInt()];
+                        batch.output(outputId, destination, decoder.readString());
+                        break;
+                    case FAILURE:
+                        Object failedId = readId(decoder, ids);
+                        batch.failure(failedId, throwableSerializer.read(decoder));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected test event type " + type + ".");
+                }
+            }
+            return batch;
+        }
+
+        @Override
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            List<TestEventBatch.Event> events = value.getEvents();
+            IdTable ids = new IdTable();
+            long time = 0;
+            encoder.writeSmallInt(events.size());
+            for (TestEventBatch.Event event : events) {
+                if (event instanceof TestEventBatch.Started) {
+                    TestEventBatch.Started started = (TestEventBatch.Started) event;
+                    encoder.writeByte(STARTED);
+                    descriptorSerializer.write(encoder, started.test);
+                    ids.add(started.test.getId());
+                    encoder.writeSmallLong(started.event.getStartTime() - time);
+                    time = started.event.getStartTime();
+                    writeId(encoder, ids, started.event.getParentId());
+                } else if (event instanceof TestEventBatch.Completed) {
+                    TestEventBatch.Completed completed = (TestEventBatch.Completed) event;
+                    encoder.writeByte(COMPLETED);
+                    writeId(encoder, ids, completed.testId);
+                    encoder.writeSmallLong(completed.event.getEndTime() - time);
+                    time = completed.event.getEndTime();
+                    TestResult.ResultType resultType = completed.event.getResultType();
+                    encoder.writeSmallInt(resultType == null ? 0 : resultType.ordinal() + 1);
+                } else if (event instanceof TestEventBatch.Output) {
+                    TestEventBatch.Output output = (TestEventBatch.Output) event;
+                    encoder.writeByte(OUTPUT);
+                    writeId(encoder, ids, output.testId);
+                    encoder.writeSmallInt(output.destination.ordinal());
+                    encoder.writeString(output.message);
+                } else {
+                    TestEventBatch.Failure failure = (TestEventBatch.Failure) event;
+                    encoder.writeByte(FAILURE);
+                    writeId(encoder, ids, failure.testId);
+                    throwableSerializer.write(encoder, failure.failure);
+                }
+            }
+        }
+
+        private static Object readId(Decoder decoder, List<Object> ids) throws Exception {
+            int index = decoder.readSmallInt();
+            if (index == NULL_ID) {
+                return null;
+            }
+            if (index == NEW_ID) {
+                Object id = new CompositeIdGenerator.CompositeId(decoder.readSmallLong(), decoder.readSmallLong());
+                ids.add(id);
+                return id;
+            }
+            return ids.get(index - FIRST_ID_INDEX);
+        }
+
+        private static void writeId(Encoder encoder, IdTable ids, Object id) throws Exception {
+            if (id == null) {
+                encoder.writeSmallInt(NULL_ID);
+                return;
+            }
+            Integer index = ids.indexOf(id);
+            if (index != null) {
+                encoder.writeSmallInt(index + FIRST_ID_INDEX);
+                return;
+            }
+            CompositeIdGenerator.CompositeId compositeId = (CompositeIdGenerator.CompositeId) id;
+            encoder.writeSmallInt(NEW_ID);
+            encoder.writeSmallLong((Long) compositeId.getScope());
+            encoder.writeSmallLong((Long) compositeId.getId());
+            ids.add(id);
+        }
+
+        /**
+         * The ids written so far, numbered in the same order as the reader sees them.
+         */
+        private static class IdTable {
+            private final Map<Object, Integer> indexes = new HashMap<Object, Integer>();
+            private int count;
+
+            void add(Object id) {
+                indexes.put(id, count++);
+            }
+
+            @Nullable
+            Integer indexOf(Object id) {
+                return indexes.get(id);
+            }
+        }
+    }
 }
@@ -19,7 +19,6 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.actor.ActorFactory;
@@ -41,6 +40,7 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.security.AccessControlException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
@@ -48,7 +48,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
@@ -91,7 +91,8 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        ScheduledExecutorService flushExecutor = testServices.get(ExecutorFactory.class).createScheduled("Test event flush", 1);
+        this.resultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(RemoteTestResultProcessor.class), flushExecutor);
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -120,7 +121,11 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
-            processor.stop();
+            try {
+                processor.stop();
+            } finally {
+                resultProcessor.flush();
+            }
         } finally {
             completed.countDown();
             // Clean the interrupted status
@@ -129,7 +134,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
+    static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
 
         public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Ordering;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps test workers alive between test tasks and builds, so that later test tasks can skip the cost of starting a
+ * test JVM. Workers are only reused by tasks that would fork an identical JVM: same JVM options, same test framework
+ * and same libraries on the application classpath.
+ *
+ * <p>This is opt-in, by setting the {@value #ENABLED_PROPERTY_NAME} system property on the daemon. At most
+ * {@value #MAX_IDLE_WORKERS_PROPERTY_NAME} workers are kept idle, by default one per processor. When memory runs low,
+ * the workers that have been idle the longest are stopped first.</p>
+ */
+public class TestWorkerPool implements MemoryHolder, Stoppable {
+    public static final String ENABLED_PROPERTY_NAME = "org.gradle.internal.test.worker.pool";
+    public static final String MAX_IDLE_WORKERS_PROPERTY_NAME = "org.gradle.internal.test.worker.pool.size";
+
+    private final ClasspathHasher classpathHasher;
+    private final MemoryManager memoryManager;
+    private final int maxIdleWorkers;
+    private final Object lock = new Object();
+    // Ordered by the time the workers became idle
+    private final ListMultimap<HashCode, PooledTestWorkerProcess> idleWorkers = LinkedListMultimap.create();
+    private boolean stopped;
+
+    public TestWorkerPool(ClasspathHasher classpathHasher, MemoryManager memoryManager) {
+        this.classpathHasher = classpathHasher;
+        this.memoryManager = memoryManager;
+        this.maxIdleWorkers = Integer.getInteger(MAX_IDLE_WORKERS_PROPERTY_NAME, Runtime.getRuntime().availableProcessors());
+        memoryManager.addMemoryHolder(this);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY_NAME);
+    }
+
+    /**
+     * Calculates the key for a worker started from the given builder. Workers with the same key are interchangeable.
+     */
+    public HashCode keyFor(WorkerProcessBuilder builder, WorkerTestClassProcessorFactory factory) {
+        Hasher hasher = Hashing.md5().newHasher();
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        hasher.putString(String.valueOf(javaCommand.getExecutable()));
+        hasher.putString(String.valueOf(javaCommand.getWorkingDir()));
+        for (String jvmArg : javaCommand.getAllJvmArgs()) {
+            hasher.putString(jvmArg);
+        }
+        Map<String, Object> environment = javaCommand.getEnvironment();
+        for (String name : Ordering.natural().sortedCopy(environment.keySet())) {
+            hasher.putString(name);
+            hasher.putString(String.valueOf(environment.get(name)));
+        }
+        hasher.putString(String.valueOf(builder.getLogLevel()));
+        hasher.putString(factory.getClass().getName());
+        for (String sharedPackage : Ordering.natural().sortedCopy(builder.getSharedPackages())) {
+            hasher.putString(sharedPackage);
+        }
+        hasher.putHash(classpathHasher.hash(DefaultClassPath.of(builder.getApplicationClasspath())));
+        return hasher.hash();
+    }
+
+    /**
+     * Takes an idle worker with the given key out of the pool, if there is one.
+     */
+    @Nullable
+    public PooledTestWorkerProcess reserve(HashCode key) {
+        synchronized (lock) {
+            List<PooledTestWorkerProcess> candidates = idleWorkers.get(key);
+            while (!candidates.isEmpty()) {
+                PooledTestWorkerProcess worker = candidates.remove(candidates.size() - 1);
+                if (worker.isAlive()) {
+                    return worker;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns a worker whose session has completed to the pool, or stops it when the pool is full.
+     */
+    public void release(PooledTestWorkerProcess worker) {
+        synchronized (lock) {
+            if (!stopped && worker.isAlive() && idleWorkers.size() < maxIdleWorkers) {
+                idleWorkers.put(worker.getKey(), worker);
+                return;
+            }
+        }
+        worker.stop();
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<PooledTestWorkerProcess> released = new ArrayList<PooledTestWorkerProcess>();
+        long releasedBytes = 0;
+        synchronized (lock) {
+            Iterator<PooledTestWorkerProcess> iterator = idleWorkers.values().iterator();
+            while (releasedBytes < memoryAmountBytes && iterator.hasNext()) {
+                PooledTestWorkerProcess worker = iterator.next();
+                iterator.remove();
+                releasedBytes += getMemoryUsage(worker);
+                released.add(worker);
+            }
+        }
+        CompositeStoppable.stoppable(released).stop();
+        return releasedBytes;
+    }
+
+    private static long getMemoryUsage(PooledTestWorkerProcess worker) {
+        if (worker.getMaxHeapSize() != -1) {
+            return worker.getMaxHeapSize();
+        }
+        // Approximate the default maximum heap of the worker JVM
+        try {
+            return new MaximumHeapHelper().getDefaultMaximumHeapSize(TotalPhysicalMemoryProvider.getTotalPhysicalMemory());
+        } catch (UnsupportedOperationException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        List<PooledTestWorkerProcess> workers;
+        synchronized (lock) {
+            stopped = true;
+            workers = ImmutableList.copyOf(idleWorkers.values());
+            idleWorkers.clear();
+        }
+        CompositeStoppable.stoppable(workers).stop();
+    }
+
+    /**
+     * Counts how often a test task could reuse a worker from the pool.
+     */
+    public static class Statistics {
+        private int reused;
+        private int started;
+        private long startupTimeSaved;
+
+        public synchronized void reused(PooledTestWorkerProcess worker) {
+            reused++;
+            startupTimeSaved += worker.getStartupTime();
+        }
+
+        public synchronized void started() {
+            started++;
+        }
+
+        public synchronized int getReused() {
+            return reused;
+        }
+
+        public synchronized int getStarted() {
+            return started;
+        }
+
+        /**
+         * The time in milliseconds the reused workers originally took to start.
+         */
+        public synchronized long getStartupTimeSaved() {
+            return startupTimeSaved;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.FailFastTestListenerInternal;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
+import org.gradle.api.internal.tasks.testing.TestClassDurationCache;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
@@ -74,11 +75,13 @@ import org.gradle.internal.logging.text.StyledTextOutputFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.util.ConfigureUtil;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -154,6 +157,17 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the durations of the test classes run by previous executions of test tasks. For internal use only.
+     *
+     * @since 4.8
+     */
+    @Incubating
+    @Inject
+    protected TestClassDurationCache getTestClassDurationCache() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Creates test executer. For internal use only.
      *
@@ -477,6 +491,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        recordTestClassDurations(results.values());
 
         createReporting(results, testOutputStore);
 
@@ -485,6 +500,14 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         }
     }
 
+    private void recordTestClassDurations(Collection<TestClassResult> results) {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        for (TestClassResult result : results) {
+            durations.put(result.getClassName(), result.getDuration());
+        }
+        getTestClassDurationCache().update(getPath(), durations);
+    }
+
     private String createNoMatchingTestErrorMessage() {
         return "No tests found for given includes: "
             + Joiner.on(' ').join(getNoMatchingTestErrorReasons());
@@ -513,7 +536,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
 
         try {
             if (testReporter == null) {
-                testReporter = new DefaultTestReport(getBuildOperationExecutor());
+                testReporter = new DefaultTestReport(getBuildOperationExecutor(), getServices().get(WorkerLeaseService.class).getMaxWorkerCount());
             }
 
             JUnitXmlReport junitXml = reports.getJunitXml();
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing
+
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
+import org.gradle.api.invocation.Gradle
+import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultTestClassDurationCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def scopeMapping = Stub(CacheScopeMapping) {
+        getBaseDirectory(_, _, _) >> tmpDir.testDirectory
+    }
+    def cache = new DefaultTestClassDurationCache(new DefaultCacheRepository(scopeMapping, new InMemoryCacheFactory()), Stub(Gradle), Stub(InMemoryCacheDecoratorFactory))
+
+    def "has no durations for a task that did not run"() {
+        expect:
+        cache.get(":test").isEmpty()
+    }
+
+    def "keeps the durations of test classes that did not run in a later execution"() {
+        when:
+        cache.update(":test", [A: 10L, B: 20L, C: 30L])
+        cache.update(":test", [B: 25L])
+
+        then:
+        cache.get(":test") == [A: 10L, B: 25L, C: 30L]
+    }
+
+    def "keeps the durations of each task separately"() {
+        when:
+        cache.update(":test", [A: 10L])
+        cache.update(":integTest", [B: 20L])
+
+        then:
+        cache.get(":test") == [A: 10L]
+        cache.get(":integTest") == [B: 20L]
+    }
+
+    def "forgets the durations of test classes that are no longer candidates"() {
+        given:
+        cache.update(":test", [A: 10L, B: 20L, C: 30L])
+
+        when:
+        cache.retain(":test", ["A", "C", "D"] as Set)
+
+        then:
+        cache.get(":test") == [A: 10L, C: 30L]
+    }
+}
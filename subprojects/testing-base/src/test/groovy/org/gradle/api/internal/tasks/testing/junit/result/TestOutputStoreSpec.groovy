@@ -145,6 +145,51 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads output containing multi-byte characters"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, output(StdOut, "\u0107\u0256"))
+        writer.onOutput(1, 1, output(StdOut, "\u20ac"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "\u0107\u0256\u20ac"
+        collectOutput(reader, 1, 1, StdOut) == "\u20ac"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "can read output from multiple threads at the same time"() {
+        when:
+        def writer = output.writer()
+        100.times { message ->
+            10.times { classId ->
+                writer.onOutput(classId, message % 3, output(StdOut, "[${classId}-${message}]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+        def results = Collections.synchronizedMap([:])
+        def threads = (0..<10).collect { classId ->
+            Thread.start {
+                20.times {
+                    results[classId] = collectAllOutput(reader, classId, StdOut)
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        (0..<10).every { classId ->
+            results[classId] == (0..<100).collect { "[${classId}-${it}]" }.join("")
+        }
+
+        cleanup:
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -202,4 +203,29 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * processor1.stopNow()
         1 * processor2.stopNow()
     }
+
+    def assignsTestClassesToLeastLoadedProcessorWhenPreviousDurationsAreKnown() {
+        def durations = new TestClassDurations([A: 100L, B: 60L, C: 50L, D: 10L])
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, durations)
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock() { getProxy(TestClassProcessor) >> asyncProcessor1 }
+        Actor actor2 = Mock() { getProxy(TestClassProcessor) >> asyncProcessor2 }
+        factory.create() >>> [processor1, processor2]
+        actorFactory.createActor(processor1) >> actor1
+        actorFactory.createActor(processor2) >> actor2
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ['A', 'B', 'C', 'D'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        1 * asyncProcessor1.processTestClass(new DefaultTestClassRunInfo('A'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('B'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('C'))
+        1 * asyncProcessor1.processTestClass(new DefaultTestClassRunInfo('D'))
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.internal.Factory
+import org.gradle.internal.actor.Actor
+import org.gradle.internal.actor.ActorFactory
+import org.gradle.internal.dispatch.StreamCompletion
+import spock.lang.Specification
+
+class PullingParallelTestClassProcessorTest extends Specification {
+    private final Factory<TestClassProcessor> factory = Mock()
+    private final TestResultProcessor resultProcessor = Mock()
+    private final TestResultProcessor asyncResultProcessor = Mock()
+    private final Actor resultProcessorActor = Mock()
+    private final ActorFactory actorFactory = Mock()
+    private final TestClassProcessor asyncProcessor1 = Mock()
+    private final TestClassProcessor asyncProcessor2 = Mock()
+    private final PullingParallelTestClassProcessor processor = new PullingParallelTestClassProcessor(2, factory, actorFactory)
+    private TestResultProcessor results1
+    private TestResultProcessor results2
+
+    def setup() {
+        def actor1 = Stub(Actor) { getProxy(TestClassProcessor) >> asyncProcessor1 }
+        def actor2 = Stub(Actor) { getProxy(TestClassProcessor) >> asyncProcessor2 }
+        def processor1 = Stub(TestClassProcessor)
+        def processor2 = Stub(TestClassProcessor)
+        factory.create() >>> [processor1, processor2]
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        actorFactory.createActor(processor1) >> actor1
+        actorFactory.createActor(processor2) >> actor2
+        asyncProcessor1.startProcessing(_) >> { results1 = it[0] }
+        asyncProcessor2.startProcessing(_) >> { results2 = it[0] }
+        processor.startProcessing(resultProcessor)
+    }
+
+    def "hands out one test class per processor and queues the rest"() {
+        when:
+        processor.processTestClass(test('A'))
+        processor.processTestClass(test('B'))
+        processor.processTestClass(test('C'))
+
+        then:
+        1 * asyncProcessor1.processTestClass(test('A'))
+        1 * asyncProcessor2.processTestClass(test('B'))
+        0 * asyncProcessor1.processTestClass(_)
+        0 * asyncProcessor2.processTestClass(_)
+    }
+
+    def "hands the next test class to the first processor to finish its current one"() {
+        given:
+        processor.processTestClass(test('A'))
+        processor.processTestClass(test('B'))
+        processor.processTestClass(test('C'))
+        processor.processTestClass(test('D'))
+
+        when:
+        runClass(results2, 'B')
+
+        then:
+        1 * asyncProcessor2.processTestClass(test('C'))
+        0 * asyncProcessor1.processTestClass(_)
+
+        when:
+        runClass(results2, 'C')
+
+        then:
+        1 * asyncProcessor2.processTestClass(test('D'))
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
+    def "forwards results to result processor"() {
+        given:
+        processor.processTestClass(test('A'))
+        def suite = new DefaultTestSuiteDescriptor('worker', 'Worker 1')
+        def method = new DefaultTestMethodDescriptor('method', 'A', 'ok')
+
+        when:
+        results1.started(suite, new TestStartEvent(0))
+        results1.started(method, new TestStartEvent(0))
+        results1.completed('method', new TestCompleteEvent(0))
+
+        then:
+        1 * asyncResultProcessor.started(suite, _)
+        1 * asyncResultProcessor.started(method, _)
+        1 * asyncResultProcessor.completed('method', _)
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
+    def "waits for queued test classes to be handed out before stopping processors"() {
+        given:
+        processor.processTestClass(test('A'))
+        processor.processTestClass(test('B'))
+        processor.processTestClass(test('C'))
+
+        when:
+        def stopper = Thread.start { processor.stop() }
+        Thread.sleep(100)
+
+        then:
+        stopper.alive
+        0 * asyncProcessor1.stop()
+
+        when:
+        runClass(results1, 'A')
+        stopper.join()
+
+        then:
+        1 * asyncProcessor1.processTestClass(test('C'))
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+        1 * resultProcessorActor.stop()
+    }
+
+    def "hands out queued test classes when processors go away"() {
+        given:
+        processor.processTestClass(test('A'))
+        processor.processTestClass(test('B'))
+        processor.processTestClass(test('C'))
+        processor.processTestClass(test('D'))
+
+        when:
+        (results1 as StreamCompletion).endStream()
+        (results2 as StreamCompletion).endStream()
+        processor.stop()
+
+        then:
+        1 * asyncProcessor1.processTestClass(test('C'))
+        1 * asyncProcessor2.processTestClass(test('D'))
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def "does not hand test classes to a reconnected processor that is running a class"() {
+        given:
+        processor.processTestClass(test('A'))
+        processor.processTestClass(test('B'))
+        (results1 as StreamCompletion).endStream()
+
+        when:
+        results1.started(new DefaultTestClassDescriptor('A', 'A'), new TestStartEvent(0))
+        processor.processTestClass(test('C'))
+
+        then:
+        0 * asyncProcessor1.processTestClass(_)
+        0 * asyncProcessor2.processTestClass(_)
+
+        when:
+        results1.completed('A', new TestCompleteEvent(0))
+
+        then:
+        1 * asyncProcessor1.processTestClass(test('C'))
+    }
+
+    def runClass(TestResultProcessor results, String className) {
+        results.started(new DefaultTestClassDescriptor(className, className), new TestStartEvent(0))
+        results.completed(className, new TestCompleteEvent(0))
+    }
+
+    def test(String className) {
+        return new DefaultTestClassRunInfo(className)
+    }
+}
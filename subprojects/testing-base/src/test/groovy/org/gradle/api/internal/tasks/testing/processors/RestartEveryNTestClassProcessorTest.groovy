@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -211,4 +212,75 @@ class RestartEveryNTestClassProcessorTest extends Specification {
         then:
         0 * _._
     }
+
+    def 'ends processing on delegate processor once the previous durations of its tests reach n average tests'() {
+        given:
+        def durations = new TestClassDurations([Slow: 400L, Fast1: 100L, Fast2: 100L, Fast3: 200L])
+        processor = new RestartEveryNTestClassProcessor(factory, 2, durations)
+        TestClassProcessor delegate2 = Mock()
+        TestClassProcessor delegate3 = Mock()
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo('Slow'))
+
+        then:
+        1 * factory.create() >> delegate
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Slow'))
+        then:
+        1 * delegate.stop()
+        0 * _._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+
+        then:
+        1 * factory.create() >> delegate2
+        1 * delegate2.startProcessing(resultProcessor)
+        1 * delegate2.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        1 * delegate2.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+        then:
+        1 * delegate2.stop()
+        0 * _._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Fast3'))
+        processor.stop()
+
+        then:
+        1 * factory.create() >> delegate3
+        1 * delegate3.startProcessing(resultProcessor)
+        1 * delegate3.processTestClass(new DefaultTestClassRunInfo('Fast3'))
+        then:
+        1 * delegate3.stop()
+        0 * _._
+    }
+
+    def 'ends processing on delegate processor after every test when n is one, regardless of previous durations'() {
+        given:
+        def durations = new TestClassDurations([Slow: 400L, Fast1: 10L, Fast2: 10L])
+        processor = new RestartEveryNTestClassProcessor(factory, 1, durations)
+        TestClassProcessor delegate2 = Mock()
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+
+        then:
+        1 * factory.create() >> delegate
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        then:
+        1 * delegate.stop()
+        then:
+        1 * factory.create() >> delegate2
+        1 * delegate2.startProcessing(resultProcessor)
+        1 * delegate2.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+        then:
+        1 * delegate2.stop()
+        0 * _._
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class RunLongestFirstTestClassProcessorTest extends Specification {
+    TestClassProcessor delegate = Mock()
+    TestResultProcessor testResultProcessor = Mock()
+    RunLongestFirstTestClassProcessor processor
+
+    def 'test classes are passed to delegate longest first'() {
+        given:
+        processor = new RunLongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Class2: 300L, Class3: 20L]), delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class3', 'Class4'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(testResultProcessor)
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
+
+    def 'test classes are passed on once no class still to be found can take longer'() {
+        given:
+        processor = new RunLongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Class2: 300L, Class3: 20L]), delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class2'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class4'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        0 * delegate._
+    }
+
+    def 'test classes are passed straight through when there are no previous durations'() {
+        given:
+        processor = new RunLongestFirstTestClassProcessor(new TestClassDurations([:]), delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+}
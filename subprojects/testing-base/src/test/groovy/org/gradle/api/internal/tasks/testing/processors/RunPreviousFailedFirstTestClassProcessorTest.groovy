@@ -46,4 +46,31 @@ class RunPreviousFailedFirstTestClassProcessorTest extends Specification {
         then:
         1 * delegate.stop()
     }
+
+    def 'other test classes are passed on once all previous failed test classes have been found'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class2'] as Set, delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class2'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        0 * delegate._
+    }
 }
@@ -78,4 +78,39 @@ class TestOutputRedirectorTest extends Specification {
         })
         0 * _
     }
+
+    def "passes output events to the owner set by the writing thread"() {
+        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdOut)
+        f.setOutputOwner("1")
+
+        when:
+        def thread = new Thread({
+            f.setOutputOwner("2")
+            f.onOutput("from other")
+        })
+        thread.start()
+        thread.join()
+        f.onOutput("from this")
+
+        then:
+        1 * processor.output("2", { it.message == "from other" })
+        1 * processor.output("1", { it.message == "from this" })
+        0 * _
+    }
+
+    def "passes output events from threads without an owner to the owner set last"() {
+        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdOut)
+        f.setOutputOwner("1")
+
+        when:
+        def thread = new Thread({
+            f.onOutput("from other")
+        })
+        thread.start()
+        thread.join()
+
+        then:
+        1 * processor.output("1", { it.message == "from other" })
+        0 * _
+    }
 }
@@ -53,7 +53,7 @@ class DefaultTestReportTest extends Specification {
         buildOperationExecutor = new DefaultBuildOperationExecutor(
             Mock(BuildOperationListener), Mock(Clock), new NoOpProgressLoggerFactory(),
             new DefaultBuildOperationQueueFactory(workerLeaseService), new DefaultExecutorFactory(), Mock(ResourceLockCoordinationService), parallelExecutionManager, new DefaultBuildOperationIdFactory())
-        return new DefaultTestReport(buildOperationExecutor)
+        return new DefaultTestReport(buildOperationExecutor, numThreads)
     }
 
     def generatesReportWhenThereAreNoTestResults() {
@@ -535,6 +535,50 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    @Unroll
+    def "generates report for a synthetic result set of 100k tests - #numThreads parallel thread(s)"() {
+        given:
+        report = reportWithMaxThreads(numThreads)
+        def testTestResults = new BuildableTestResultsProvider()
+        1000.times { classIndex ->
+            def testClass = testTestResults.testClassResult("org.gradle.package${classIndex % 20}.Test${classIndex}")
+            100.times { methodIndex ->
+                def testMethod = testClass.testcase("test${methodIndex}")
+                testMethod.duration = 10
+                if (methodIndex == 0 && classIndex % 100 == 0) {
+                    testMethod.failure("failed ${classIndex}", "at Test${classIndex}")
+                }
+                if (methodIndex == 1) {
+                    testMethod.ignore()
+                }
+            }
+            testClass.stdout("output of Test${classIndex}\n" * 10)
+        }
+
+        when:
+        report.generateReport(testTestResults, reportDir)
+
+        then:
+        def index = results(indexFile)
+        index.assertHasTests(100000)
+        index.assertHasFailures(10)
+        index.assertHasIgnored(1000)
+        index.assertHasFailedTest('classes/org.gradle.package0.Test0', 'test0')
+
+        def packageFile = results(reportDir.file('packages/org.gradle.package0.html'))
+        packageFile.assertHasTests(5000)
+        packageFile.assertHasFailures(10)
+
+        def classFile = results(reportDir.file('classes/org.gradle.package0.Test900.html'))
+        classFile.assertHasTests(100)
+        classFile.assertHasFailure('test0', 'failed 900\n\nat Test900\n')
+        classFile.assertHasStandardOutput("output of Test900\n" * 10)
+        reportDir.file('classes').list().length == 1000
+
+        where:
+        numThreads << [1, 4]
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import spock.lang.Specification
+
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+class BatchingTestResultProcessorTest extends Specification {
+    def target = Mock(RemoteTestResultProcessor)
+    def flushExecutor = Mock(ScheduledExecutorService)
+    def processor = new BatchingTestResultProcessor(target, flushExecutor, 3, 10, 20)
+
+    def "sends events once the batch is full"() {
+        when:
+        processor.started(new DefaultTestMethodDescriptor(1, "SomeTest", "a"), new TestStartEvent(0))
+        processor.completed(1, new TestCompleteEvent(1))
+
+        then:
+        0 * target._
+
+        when:
+        processor.started(new DefaultTestMethodDescriptor(2, "SomeTest", "b"), new TestStartEvent(2))
+
+        then:
+        1 * target.events({ it.size() == 3 })
+    }
+
+    def "sends events once the batch holds enough output"() {
+        when:
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "12345"))
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "6789"))
+
+        then:
+        0 * target._
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "0"))
+
+        then:
+        1 * target.events({ it.size() == 1 && it.outputLength == 10 })
+    }
+
+    def "sends events as soon as a composite test completes"() {
+        def results = Mock(TestResultProcessor)
+        processor.started(new DefaultTestClassDescriptor(1, "SomeTest"), new TestStartEvent(0))
+
+        when:
+        processor.completed(1, new TestCompleteEvent(1))
+
+        then:
+        1 * target.events(_) >> { TestEventBatch batch -> batch.dispatchTo(results) }
+        1 * results.started({ it.id == 1 }, _)
+        1 * results.completed(1, _)
+    }
+
+    def "sends pending events once the flush window has passed"() {
+        Runnable flush = null
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        processor.output(2, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "2"))
+
+        then:
+        1 * flushExecutor.schedule(_, 20, TimeUnit.MILLISECONDS) >> { Runnable action, long delay, TimeUnit unit ->
+            flush = action
+            Mock(ScheduledFuture)
+        }
+        0 * target._
+
+        when:
+        flush.run()
+
+        then:
+        1 * target.events({ it.size() == 2 })
+    }
+
+    def "flush sends pending events"() {
+        when:
+        processor.flush()
+
+        then:
+        0 * target._
+
+        when:
+        processor.failure(1, new RuntimeException())
+        processor.flush()
+
+        then:
+        1 * target.events({ it.size() == 1 })
+
+        when:
+        processor.flush()
+
+        then:
+        0 * target._
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.time.Clock
+import org.gradle.internal.time.Time
+import org.gradle.process.internal.worker.WorkerProcessContext
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+class PooledTestWorkerTest extends ConcurrentSpec {
+    @Rule SetSystemProperties properties = new SetSystemProperties()
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def workerContext = Mock(WorkerProcessContext)
+    def connection = Mock(ObjectConnection)
+    def factory = Mock(WorkerTestClassProcessorFactory)
+    def processor = Mock(TestClassProcessor)
+    def test = Mock(TestClassRunInfo)
+    def resultProcessor = Mock(RemotePooledTestResultProcessor)
+    def worker = new PooledTestWorker()
+    def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
+
+    def setup() {
+        workerContext.workerId >> "<worker-id>"
+        workerContext.displayName >> "<worker>"
+        workerContext.serverConnection >> connection
+        workerContext.serviceRegistry >> serviceRegistry
+        workerContext.applicationClassLoader >> getClass().classLoader
+        connection.addOutgoing(RemotePooledTestResultProcessor) >> resultProcessor
+    }
+
+    def "resets system properties and session class loader between sessions"() {
+        def classesDir = tmpDir.createDir("classes")
+        def sessionLoaders = []
+        def propertiesSeen = []
+
+        when:
+        async {
+            worker.execute(workerContext)
+        }
+
+        then:
+        1 * connection.connect() >> {
+            start {
+                worker.startSession(factory, [classesDir])
+                worker.processTestClass(test)
+                worker.stopSession()
+                worker.startSession(factory, [classesDir])
+                worker.processTestClass(test)
+                worker.stopSession()
+                worker.stop()
+            }
+        }
+        2 * factory.create(_) >> processor
+        2 * processor.processTestClass(test) >> {
+            sessionLoaders << Thread.currentThread().contextClassLoader
+            propertiesSeen << System.getProperty("pooled.test.property")
+            System.setProperty("pooled.test.property", "set by session")
+        }
+        2 * resultProcessor.sessionStopped()
+
+        and:
+        propertiesSeen == [null, null]
+        System.getProperty("pooled.test.property") == null
+        sessionLoaders.size() == 2
+        sessionLoaders.every { it instanceof URLClassLoader && it.URLs as List == [classesDir.toURI().toURL()] }
+        !sessionLoaders[0].is(sessionLoaders[1])
+    }
+}
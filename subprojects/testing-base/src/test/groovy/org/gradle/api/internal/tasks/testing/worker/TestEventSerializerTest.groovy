@@ -175,6 +175,72 @@ class TestEventSerializerTest extends SerializerSpec {
         result.cause.message == "cause"
     }
 
+    def "serializes TestEventBatch"() {
+        def suiteId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def testId = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def otherId = new CompositeIdGenerator.CompositeId(4L, 5L)
+        def batch = new TestEventBatch()
+        batch.started(new DefaultTestClassDescriptor(suiteId, "SomeTest"), new TestStartEvent(100L, null))
+        batch.started(new DefaultTestMethodDescriptor(testId, "SomeTest", "method"), new TestStartEvent(120L, suiteId))
+        batch.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "one "))
+        batch.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "two\n"))
+        batch.output(otherId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "\u00e9l\u00e8ve"))
+        batch.failure(testId, new GradleException("broken"))
+        batch.completed(testId, new TestCompleteEvent(110L, null))
+        batch.completed(suiteId, new TestCompleteEvent(200L, TestResult.ResultType.FAILURE))
+        def processor = Mock(TestResultProcessor)
+
+        when:
+        def result = serialize(batch)
+
+        then:
+        result instanceof TestEventBatch
+        result.size() == 7
+        result.outputLength == batch.outputLength
+
+        when:
+        result.dispatchTo(processor)
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestClassDescriptor && it.id == suiteId && it.name == "SomeTest" }, { it.startTime == 100L && it.parentId == null })
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestMethodDescriptor && it.id == testId && it.name == "method" }, { it.startTime == 120L && it.parentId == suiteId })
+
+        then:
+        1 * processor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "one two\n"))
+
+        then:
+        1 * processor.output(otherId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "\u00e9l\u00e8ve"))
+
+        then:
+        1 * processor.failure(testId, { it instanceof GradleException && it.message == "broken" })
+
+        then:
+        1 * processor.completed(testId, { it.endTime == 110L && it.resultType == null })
+
+        then:
+        1 * processor.completed(suiteId, { it.endTime == 200L && it.resultType == TestResult.ResultType.FAILURE })
+        0 * processor._
+    }
+
+    def "writes each test id in full once per batch"() {
+        def id = new CompositeIdGenerator.CompositeId(Long.MAX_VALUE, Long.MAX_VALUE)
+        def single = new TestEventBatch()
+        single.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x"))
+        def repeated = new TestEventBatch()
+        10.times {
+            repeated.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x"))
+            repeated.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "x"))
+        }
+
+        expect:
+        def singleLength = toBytes(single, serializer.build(TestEventBatch)).length
+        def repeatedLength = toBytes(repeated, serializer.build(TestEventBatch)).length
+        // Each further event takes a few bytes, rather than the 16 or more that the id alone would take
+        (repeatedLength - singleLength) / 19 < 8
+    }
+
     def Object serialize(Object source, Class type = source.getClass()) {
         return super.serialize(source, serializer.build(type))
     }
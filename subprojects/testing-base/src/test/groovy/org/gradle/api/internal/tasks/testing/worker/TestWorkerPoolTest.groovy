@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((TestWorkerPool.MAX_IDLE_WORKERS_PROPERTY_NAME): "2")
+    def classpathHasher = Stub(ClasspathHasher) {
+        hash(_) >> HashCode.fromInt(123)
+    }
+    def memoryManager = Mock(MemoryManager)
+    TestWorkerPool pool
+    def key1 = HashCode.fromInt(1)
+    def key2 = HashCode.fromInt(2)
+
+    def setup() {
+        pool = new TestWorkerPool(classpathHasher, memoryManager)
+    }
+
+    def "registers with memory manager while running"() {
+        when:
+        def pool = new TestWorkerPool(classpathHasher, memoryManager)
+
+        then:
+        1 * memoryManager.addMemoryHolder(_ as TestWorkerPool)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder(pool)
+    }
+
+    def "reserves nothing when pool is empty"() {
+        expect:
+        pool.reserve(key1) == null
+    }
+
+    def "reserves released worker with same key"() {
+        def worker = worker(key1)
+
+        when:
+        pool.release(worker)
+
+        then:
+        0 * worker.stop()
+
+        expect:
+        pool.reserve(key2) == null
+        pool.reserve(key1) == worker
+        pool.reserve(key1) == null
+    }
+
+    def "does not reserve workers that have gone away"() {
+        def worker = worker(key1)
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserve(key1)
+
+        then:
+        worker.isAlive() >> false
+        reserved == null
+    }
+
+    def "stops released worker when pool is full"() {
+        def worker1 = worker(key1)
+        def worker2 = worker(key1)
+        def worker3 = worker(key2)
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+        pool.release(worker3)
+
+        then:
+        0 * worker1.stop()
+        0 * worker2.stop()
+        1 * worker3.stop()
+    }
+
+    def "stops idle workers on stop"() {
+        def worker1 = worker(key1)
+        def worker2 = worker(key2)
+        pool.release(worker1)
+        pool.release(worker2)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * worker1.stop()
+        1 * worker2.stop()
+
+        when:
+        pool.release(worker1)
+
+        then:
+        1 * worker1.stop()
+        pool.reserve(key1) == null
+    }
+
+    def "stops the workers that have been idle longest to release memory"() {
+        def worker1 = worker(key1, 100)
+        def worker2 = worker(key2, 100)
+        def worker3 = worker(key1, 100)
+        pool.release(worker1)
+        pool.release(worker2)
+
+        when:
+        def released = pool.attemptToRelease(150)
+
+        then:
+        released == 200
+        1 * worker1.stop()
+        1 * worker2.stop()
+
+        when:
+        pool.release(worker3)
+        released = pool.attemptToRelease(50)
+
+        then:
+        released == 100
+        1 * worker3.stop()
+        pool.reserve(key1) == null
+        pool.reserve(key2) == null
+    }
+
+    def "releases no memory when there are no idle workers"() {
+        expect:
+        pool.attemptToRelease(100) == 0
+    }
+
+    def "workers with different jvm arguments have different keys"() {
+        def factory = Stub(WorkerTestClassProcessorFactory)
+
+        expect:
+        pool.keyFor(builder(["-Xmx64m"]), factory) == pool.keyFor(builder(["-Xmx64m"]), factory)
+        pool.keyFor(builder(["-Xmx64m"]), factory) != pool.keyFor(builder(["-Xmx128m"]), factory)
+    }
+
+    def "workers with different log levels have different keys"() {
+        def factory = Stub(WorkerTestClassProcessorFactory)
+
+        expect:
+        pool.keyFor(builder(["-Xmx64m"], LogLevel.DEBUG), factory) == pool.keyFor(builder(["-Xmx64m"], LogLevel.DEBUG), factory)
+        pool.keyFor(builder(["-Xmx64m"], LogLevel.DEBUG), factory) != pool.keyFor(builder(["-Xmx64m"], LogLevel.LIFECYCLE), factory)
+    }
+
+    def worker(HashCode key, long maxHeapSize = -1) {
+        return Mock(PooledTestWorkerProcess) {
+            _ * getKey() >> key
+            _ * isAlive() >> true
+            _ * getMaxHeapSize() >> maxHeapSize
+        }
+    }
+
+    def builder(List<String> jvmArgs, LogLevel logLevel = LogLevel.LIFECYCLE) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> jvmArgs
+            getEnvironment() >> [:]
+        }
+        return Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> javaCommand
+            getLogLevel() >> logLevel
+            getSharedPackages() >> (["org.junit"] as Set)
+            getApplicationClasspath() >> ([new File("lib.jar")] as Set)
+        }
+    }
+}
@@ -20,9 +20,14 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.filter.TestSelectionMatcher;
 import org.gradle.api.internal.tasks.testing.junit.AbstractJUnitTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.junit.TestClassExecutionEventGenerator;
 import org.gradle.api.internal.tasks.testing.junit.TestClassExecutionListener;
+import org.gradle.api.internal.tasks.testing.results.AttachParentTestResultProcessor;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.actor.Actor;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.time.Clock;
 import org.junit.platform.engine.DiscoverySelector;
@@ -40,6 +45,7 @@ import org.junit.platform.launcher.core.LauncherFactory;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -52,47 +58,124 @@ import static org.junit.platform.launcher.TagFilter.excludeTags;
 import static org.junit.platform.launcher.TagFilter.includeTags;
 
 public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProcessor<JUnitPlatformSpec> {
+    private final ExecutorFactory executorFactory;
     private TestResultProcessor resultProcessor;
     private TestClassExecutionListener executionListener;
-    private CollectAllTestClassesExecutor testClassExecutor;
+    private Actor suiteResultProcessorActor;
+    private TestResultProcessor suiteResultProcessor;
+    private TestClassExecutor testClassExecutor;
 
-    public JUnitPlatformTestClassProcessor(JUnitPlatformSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, Clock clock) {
+    public JUnitPlatformTestClassProcessor(JUnitPlatformSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, Clock clock, ExecutorFactory executorFactory) {
         super(spec, idGenerator, actorFactory, clock);
+        this.executorFactory = executorFactory;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        if (spec.getMaxParallelTestClasses() > 1) {
+            // Each concurrently executing test class reports through its own chain, and all of them share the suite's chain
+            suiteResultProcessorActor = actorFactory.createBlockingActor(resultProcessor);
+            suiteResultProcessor = suiteResultProcessorActor.getProxy(TestResultProcessor.class);
+            super.startProcessing(suiteResultProcessor);
+        } else {
+            super.startProcessing(resultProcessor);
+        }
     }
 
     @Override
     protected Action<String> createTestExecutor(TestResultProcessor threadSafeResultProcessor, TestClassExecutionListener threadSafeTestClassListener) {
         resultProcessor = threadSafeResultProcessor;
         executionListener = threadSafeTestClassListener;
-        testClassExecutor = new CollectAllTestClassesExecutor();
+        if (suiteResultProcessor != null) {
+            testClassExecutor = new ParallelTestClassExecutor(suiteResultProcessor, spec.getMaxParallelTestClasses());
+        } else {
+            testClassExecutor = new CollectAllTestClassesExecutor();
+        }
         return testClassExecutor;
     }
 
     @Override
     public void stop() {
-        testClassExecutor.processAllTestClasses();
-        super.stop();
+        try {
+            testClassExecutor.processAllTestClasses();
+            super.stop();
+        } finally {
+            if (suiteResultProcessorActor != null) {
+                suiteResultProcessorActor.stop();
+            }
+        }
     }
 
-    private class CollectAllTestClassesExecutor implements Action<String> {
-        private final List<Class<?>> testClasses = new ArrayList<>();
-
+    private abstract class TestClassExecutor implements Action<String> {
         @Override
         public void execute(String testClassName) {
             Class<?> klass = loadClass(testClassName);
             if (isInnerClass(klass) || isNestedClassInsideEnclosedRunner(klass)) {
                 return;
             }
-            testClasses.add(klass);
+            execute(klass);
+        }
+
+        protected abstract void execute(Class<?> testClass);
+
+        protected abstract void processAllTestClasses();
+    }
+
+    private class CollectAllTestClassesExecutor extends TestClassExecutor {
+        private final List<Class<?>> testClasses = new ArrayList<>();
+
+        @Override
+        protected void execute(Class<?> testClass) {
+            testClasses.add(testClass);
         }
 
-        private void processAllTestClasses() {
+        @Override
+        protected void processAllTestClasses() {
             Launcher launcher = LauncherFactory.create();
             launcher.registerTestExecutionListeners(new JUnitPlatformTestExecutionListener(resultProcessor, clock, idGenerator, executionListener));
             launcher.execute(createLauncherDiscoveryRequest(testClasses));
         }
     }
 
+    /**
+     * Executes each test class as soon as it is received, on a pool of threads. Each test class gets its own test plan and its own
+     * {@link TestClassExecutionEventGenerator}, as the generator and the listener track a single current test class.
+     */
+    private class ParallelTestClassExecutor extends TestClassExecutor {
+        private final TestResultProcessor suiteResultProcessor;
+        private final ManagedExecutor executor;
+        private final ClassLoader applicationClassLoader;
+        private final ThreadLocal<Launcher> launchers = ThreadLocal.withInitial(LauncherFactory::create);
+
+        private ParallelTestClassExecutor(TestResultProcessor suiteResultProcessor, int maxParallelTestClasses) {
+            this.suiteResultProcessor = suiteResultProcessor;
+            this.executor = executorFactory.create("JUnit Platform test class execution", maxParallelTestClasses);
+            this.applicationClassLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        @Override
+        protected void execute(Class<?> testClass) {
+            executor.execute(() -> {
+                Thread.currentThread().setContextClassLoader(applicationClassLoader);
+                TestClassExecutionEventGenerator eventGenerator = new TestClassExecutionEventGenerator(new AttachParentTestResultProcessor(suiteResultProcessor), idGenerator, clock);
+                Actor classResultProcessorActor = actorFactory.createBlockingActor(eventGenerator);
+                try {
+                    TestResultProcessor classResultProcessor = classResultProcessorActor.getProxy(TestResultProcessor.class);
+                    TestClassExecutionListener classExecutionListener = classResultProcessorActor.getProxy(TestClassExecutionListener.class);
+                    launchers.get().execute(createLauncherDiscoveryRequest(Collections.singletonList(testClass)), new JUnitPlatformTestExecutionListener(classResultProcessor, clock, idGenerator, classExecutionListener));
+                } finally {
+                    classResultProcessorActor.stop();
+                }
+            });
+        }
+
+        @Override
+        protected void processAllTestClasses() {
+            // Waits for the test classes still executing, and rethrows any failure
+            executor.stop();
+        }
+    }
+
     private boolean isInnerClass(Class<?> klass) {
         return klass.getEnclosingClass() != null && !Modifier.isStatic(klass.getModifiers());
     }
@@ -23,7 +23,9 @@ import spock.lang.Issue
 import spock.lang.Unroll
 
 import static org.gradle.testing.fixture.JUnitCoverage.LATEST_JUPITER_VERSION
+import static org.hamcrest.Matchers.allOf
 import static org.hamcrest.Matchers.containsString
+import static org.hamcrest.Matchers.not
 
 @Requires(TestPrecondition.JDK8_OR_LATER)
 class JUnitPlatformIntegrationTest extends JUnitPlatformIntegrationSpec {
@@ -362,4 +364,59 @@ public class StaticInnerTest {
         'includeEngines' | '"junit-jupiter"'
         'excludeEngines' | '"junit-jupiter"'
     }
+
+    def 'can execute test classes concurrently in a single test process'() {
+        given:
+        buildScriptWithJupiterDependencies("""
+            test {
+                useJUnitPlatform {
+                    maxParallelTestClasses 2
+                }
+            }
+        """)
+        file('src/test/java/org/gradle/Rendezvous.java') << '''
+            package org.gradle;
+
+            import java.util.concurrent.CountDownLatch;
+            import java.util.concurrent.TimeUnit;
+
+            public class Rendezvous {
+                private static final CountDownLatch LATCH = new CountDownLatch(2);
+
+                public static void arrive() throws InterruptedException {
+                    LATCH.countDown();
+                    if (!LATCH.await(30, TimeUnit.SECONDS)) {
+                        throw new AssertionError("test classes did not execute concurrently");
+                    }
+                }
+            }
+        '''
+        ['First', 'Second'].each { name ->
+            file("src/test/java/org/gradle/${name}Test.java") << """
+                package org.gradle;
+
+                import org.junit.jupiter.api.Test;
+
+                public class ${name}Test {
+                    @Test
+                    public void ok() throws InterruptedException {
+                        System.out.println("${name} before");
+                        Rendezvous.arrive();
+                        System.out.println("${name} after");
+                    }
+                }
+            """
+        }
+
+        when:
+        succeeds('test')
+
+        then:
+        def result = new DefaultTestExecutionResult(testDirectory)
+        result.assertTestClassesExecuted('org.gradle.FirstTest', 'org.gradle.SecondTest')
+        result.testClass('org.gradle.FirstTest').assertTestPassed('ok()')
+            .assertStdout(allOf(containsString('First before'), containsString('First after'), not(containsString('Second'))))
+        result.testClass('org.gradle.SecondTest').assertTestPassed('ok()')
+            .assertStdout(allOf(containsString('Second before'), containsString('Second after'), not(containsString('First'))))
+    }
 }
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.objectweb.asm.ClassReader;
@@ -26,6 +27,7 @@ import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -35,6 +37,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
@@ -45,7 +49,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
     private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<File, TestClassHeader> preparedTestClasses = new ConcurrentHashMap<File, TestClassHeader>();
     private TestClassProcessor testClassProcessor;
+    private TestClassHeaderCache testClassHeaderCache;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
@@ -114,6 +120,33 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    @Override
+    public void setTestClassHeaderCache(@Nullable TestClassHeaderCache testClassHeaderCache) {
+        this.testClassHeaderCache = testClassHeaderCache;
+    }
+
+    @Override
+    public void prepareTestClass(File testClassFile) {
+        preparedTestClasses.put(testClassFile, readTestClassHeader(testClassFile));
+    }
+
+    private TestClassHeader getTestClassHeader(File testClassFile) {
+        TestClassHeader testClassHeader = preparedTestClasses.get(testClassFile);
+        return testClassHeader != null ? testClassHeader : readTestClassHeader(testClassFile);
+    }
+
+    private TestClassHeader readTestClassHeader(File testClassFile) {
+        if (testClassHeaderCache == null) {
+            return TestClassHeader.of(classVisitor(testClassFile));
+        }
+        return testClassHeaderCache.get(testClassFile, getClass().getName(), new Transformer<TestClassHeader, File>() {
+            @Override
+            public TestClassHeader transform(File file) {
+                return TestClassHeader.of(classVisitor(file));
+            }
+        });
+    }
+
     protected TestClassVisitor classVisitor(final File testClassFile) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
@@ -142,12 +175,12 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * parent class is a test class all the extending classes are marked as test classes.
      */
     private boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
+        final TestClassHeader classHeader = getTestClassHeader(testClassFile);
 
-        boolean isTest = classVisitor.isTest();
+        boolean isTest = classHeader.isTest();
 
         if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = classHeader.getSuperClassName();
 
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
@@ -163,7 +196,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, classHeader, superClass);
 
         return isTest;
     }
@@ -190,9 +223,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    private void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    private void publishTestClass(boolean isTest, TestClassHeader classHeader, boolean superClass) {
+        if (isTest && !classHeader.isAbstract() && !superClass) {
+            String className = Type.getObjectType(classHeader.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
@@ -200,5 +233,6 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     @Override
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
+        this.preparedTestClasses.clear();
     }
 }
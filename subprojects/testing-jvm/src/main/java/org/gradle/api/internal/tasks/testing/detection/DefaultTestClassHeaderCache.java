@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.io.Closeable;
+import java.io.File;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+public class DefaultTestClassHeaderCache implements TestClassHeaderCache, Closeable {
+    private final FileHasher fileHasher;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, TestClassHeader> headers;
+
+    public DefaultTestClassHeaderCache(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, FileHasher fileHasher) {
+        this.fileHasher = fileHasher;
+        cache = cacheRepository
+                .cache(gradle, "testClassHeaders")
+                .withDisplayName("test class header cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        PersistentIndexedCacheParameters<HashCode, TestClassHeader> parameters = new PersistentIndexedCacheParameters<HashCode, TestClassHeader>("testClassHeaders", new HashCodeSerializer(), new TestClassHeader.Serializer())
+                .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(20000, true));
+        headers = cache.createCache(parameters);
+    }
+
+    @Override
+    public TestClassHeader get(File classFile, String detectorName, Transformer<TestClassHeader, File> reader) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(detectorName);
+        hasher.putHash(fileHasher.hash(classFile));
+        HashCode key = hasher.hash();
+        TestClassHeader header = headers.get(key);
+        if (header == null) {
+            header = reader.transform(classFile);
+            headers.put(key, header);
+        }
+        return header;
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+}
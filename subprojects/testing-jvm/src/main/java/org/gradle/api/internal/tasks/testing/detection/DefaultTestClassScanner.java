@@ -22,24 +22,44 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.UncheckedException;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When given an executor, class files are read by the test framework detector in parallel, ahead of the detection itself.
+ * Detection still happens in the order the class files are found, and passes each test class on as soon as it is detected.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private static final Pattern ANONYMOUS_CLASS_NAME = Pattern.compile(".*\\$\\d+");
+    private static final int MAX_PREPARED_CLASS_FILES = 1000;
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final Executor executor;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, @Nullable Executor executor) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executor = executor;
     }
 
     @Override
@@ -53,11 +73,50 @@ public class DefaultTestClassScanner implements Runnable {
 
     private void detectionScan() {
         testFrameworkDetector.startDetection(testClassProcessor);
+        if (executor == null) {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    testFrameworkDetector.processTestClass(fileDetails.getFile());
+                }
+            });
+        } else {
+            parallelDetectionScan();
+        }
+    }
+
+    private void parallelDetectionScan() {
+        final Queue<FutureTask<File>> preparedClassFiles = new ArrayDeque<FutureTask<File>>();
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+                final File classFile = fileDetails.getFile();
+                FutureTask<File> preparation = new FutureTask<File>(new Callable<File>() {
+                    @Override
+                    public File call() {
+                        testFrameworkDetector.prepareTestClass(classFile);
+                        return classFile;
+                    }
+                });
+                executor.execute(preparation);
+                preparedClassFiles.add(preparation);
+                // Detect the classes that are ready, keeping the order in which they were found
+                while (!preparedClassFiles.isEmpty() && (preparedClassFiles.peek().isDone() || preparedClassFiles.size() > MAX_PREPARED_CLASS_FILES)) {
+                    testFrameworkDetector.processTestClass(waitFor(preparedClassFiles.remove()));
+                }
             }
         });
+        while (!preparedClassFiles.isEmpty()) {
+            testFrameworkDetector.processTestClass(waitFor(preparedClassFiles.remove()));
+        }
+    }
+
+    private static File waitFor(FutureTask<File> preparation) {
+        try {
+            return preparation.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
     }
 
     private void filenameScan() {
@@ -27,21 +27,33 @@ import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalysis;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
+import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.PullingParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.RunLongestFirstTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.TestClassDurations;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.PooledTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Set;
 
@@ -50,6 +62,11 @@ import java.util.Set;
  */
 public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
 
+    /**
+     * Set to "false" to assign test classes to forked test workers round-robin rather than handing them out as workers become idle.
+     */
+    public static final String PULL_DISTRIBUTION_PROPERTY_NAME = "org.gradle.internal.test.pull.distribution";
+
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
 
     private final WorkerProcessFactory workerFactory;
@@ -61,11 +78,16 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
     private final Clock clock;
     private final DocumentationRegistry documentationRegistry;
     private final DefaultTestFilter testFilter;
+    private final TestWorkerPool testWorkerPool;
+    private final ExecutorFactory executorFactory;
+    private final TestClassHeaderCache testClassHeaderCache;
+    private final TestImpactAnalyzer testImpactAnalyzer;
     private TestClassProcessor processor;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
                                WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount,
-                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter) {
+                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter, @Nullable TestWorkerPool testWorkerPool,
+                               ExecutorFactory executorFactory, @Nullable TestClassHeaderCache testClassHeaderCache, @Nullable TestImpactAnalyzer testImpactAnalyzer) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
@@ -75,45 +97,93 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         this.clock = clock;
         this.documentationRegistry = documentationRegistry;
         this.testFilter = testFilter;
+        this.testWorkerPool = testWorkerPool;
+        this.executorFactory = executorFactory;
+        this.testClassHeaderCache = testClassHeaderCache;
+        this.testImpactAnalyzer = testImpactAnalyzer;
     }
 
     @Override
     public void execute(final JvmTestExecutionSpec testExecutionSpec, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testExecutionSpec.getTestFramework();
-        final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        final TestImpactAnalysis impactAnalysis = testImpactAnalyzer != null ? testImpactAnalyzer.analyze(testExecutionSpec) : null;
+        final WorkerTestClassProcessorFactory testInstanceFactory = impactAnalysis != null ? impactAnalysis.recordClassUsage(testFramework.getProcessorFactory()) : testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testExecutionSpec.getClasspath());
+        final TestClassDurations durations = new TestClassDurations(testExecutionSpec.getPreviousTestClassDurations());
+        final TestWorkerPool.Statistics poolStatistics = canUseTestWorkerPool(testExecutionSpec.getJavaForkOptions()) ? new TestWorkerPool.Statistics() : null;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (poolStatistics != null) {
+                    return new PooledTestClassProcessor(currentWorkerLease, workerFactory, testWorkerPool, poolStatistics, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
+                        classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry);
+                }
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
                     classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry);
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
-                return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery());
+                return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery(), durations);
             }
         };
-        processor =
-            new PatternMatchTestClassProcessor(testFilter,
+        TestClassProcessor orderingProcessor =
+            new RunLongestFirstTestClassProcessor(durations,
                 new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+                    createParallelProcessor(testExecutionSpec, reforkingProcessorFactory, durations)));
+        if (impactAnalysis != null) {
+            orderingProcessor = impactAnalysis.runAffectedTestClasses(orderingProcessor);
+        }
+        processor = new PatternMatchTestClassProcessor(testFilter, orderingProcessor);
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
         Runnable detector;
+        ManagedExecutor scanExecutor = null;
         if (testExecutionSpec.isScanForTestClasses() && testFramework.getDetector() != null) {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testExecutionSpec.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setTestClassHeaderCache(testClassHeaderCache);
+            scanExecutor = executorFactory.create("Test class scanner for " + testExecutionSpec.getPath(), Math.max(1, maxWorkerCount));
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, scanExecutor);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
 
         final Object testTaskOperationId = buildOperationExecutor.getCurrentOperation().getParentId();
 
-        new TestMainAction(detector, processor, testResultProcessor, clock, testTaskOperationId, testExecutionSpec.getPath(), "Gradle Test Run " + testExecutionSpec.getIdentityPath()).run();
+        try {
+            new TestMainAction(detector, processor, testResultProcessor, clock, testTaskOperationId, testExecutionSpec.getPath(), "Gradle Test Run " + testExecutionSpec.getIdentityPath()).run();
+            if (impactAnalysis != null) {
+                impactAnalysis.completed();
+            }
+        } finally {
+            if (scanExecutor != null) {
+                scanExecutor.stop();
+            }
+            if (impactAnalysis != null) {
+                impactAnalysis.close();
+            }
+        }
+
+        if (poolStatistics != null) {
+            LOGGER.info("{} reused {} of {} test workers from the test worker pool, saving {}ms of worker startup.", testExecutionSpec.getPath(),
+                poolStatistics.getReused(), poolStatistics.getReused() + poolStatistics.getStarted(), poolStatistics.getStartupTimeSaved());
+        }
+    }
+
+    private boolean canUseTestWorkerPool(JavaForkOptions javaForkOptions) {
+        if (testWorkerPool == null || javaForkOptions.getDebug()) {
+            return false;
+        }
+        for (String jvmArg : javaForkOptions.getAllJvmArgs()) {
+            // Agents, such as code coverage, usually only write out their results when the JVM exits
+            if (jvmArg.startsWith("-javaagent:") || jvmArg.startsWith("-agentlib:") || jvmArg.startsWith("-agentpath:")) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -123,6 +193,15 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         }
     }
 
+    private TestClassProcessor createParallelProcessor(JvmTestExecutionSpec testExecutionSpec, Factory<TestClassProcessor> processorFactory, TestClassDurations durations) {
+        int maxParallelForks = getMaxParallelForks(testExecutionSpec);
+        // Only JUnit reports each test class as complete as soon as it has run, which is what the pulling processor needs to hand out the next one
+        if (maxParallelForks > 1 && testExecutionSpec.getTestFramework() instanceof JUnitTestFramework && !"false".equals(System.getProperty(PULL_DISTRIBUTION_PROPERTY_NAME))) {
+            return new PullingParallelTestClassProcessor(maxParallelForks, processorFactory, actorFactory);
+        }
+        return new MaxNParallelTestClassProcessor(maxParallelForks, processorFactory, actorFactory, durations);
+    }
+
     private int getMaxParallelForks(JvmTestExecutionSpec testExecutionSpec) {
         int maxParallelForks = testExecutionSpec.getMaxParallelForks();
         if (maxParallelForks > maxWorkerCount) {
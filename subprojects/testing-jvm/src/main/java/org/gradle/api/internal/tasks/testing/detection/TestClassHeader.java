@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import javax.annotation.Nullable;
+
+/**
+ * What a test framework detector learned from a single class file: its name, its super class and whether the class itself
+ * looks like a test.
+ */
+public class TestClassHeader {
+    private final String className;
+    private final String superClassName;
+    private final boolean test;
+    private final boolean isAbstract;
+
+    public TestClassHeader(String className, @Nullable String superClassName, boolean test, boolean isAbstract) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.test = test;
+        this.isAbstract = isAbstract;
+    }
+
+    public static TestClassHeader of(TestClassVisitor classVisitor) {
+        return new TestClassHeader(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isTest(), classVisitor.isAbstract());
+    }
+
+    /**
+     * The internal name of the class, e.g. {@code org/gradle/SomeTest}.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    @Nullable
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public boolean isTest() {
+        return test;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public static class Serializer extends AbstractSerializer<TestClassHeader> {
+        @Override
+        public TestClassHeader read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            String superClassName = decoder.readNullableString();
+            boolean test = decoder.readBoolean();
+            boolean isAbstract = decoder.readBoolean();
+            return new TestClassHeader(className, superClassName, test, isAbstract);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestClassHeader value) throws Exception {
+            encoder.writeString(value.className);
+            encoder.writeNullableString(value.superClassName);
+            encoder.writeBoolean(value.test);
+            encoder.writeBoolean(value.isAbstract);
+        }
+    }
+}
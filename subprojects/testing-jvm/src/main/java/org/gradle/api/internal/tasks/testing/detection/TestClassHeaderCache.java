@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Transformer;
+
+import java.io.File;
+
+/**
+ * Remembers the {@link TestClassHeader} of class files across builds, keyed by the content of the class file, so that unchanged
+ * classes do not need to be parsed again to detect tests. Implementations must be thread-safe.
+ */
+public interface TestClassHeaderCache {
+    /**
+     * Returns the header of the given class file, using the given reader when the file has not been seen before.
+     *
+     * @param detectorName identifies what the reader looks for, as different test frameworks detect tests differently.
+     */
+    TestClassHeader get(File classFile, String detectorName, Transformer<TestClassHeader, File> reader);
+}
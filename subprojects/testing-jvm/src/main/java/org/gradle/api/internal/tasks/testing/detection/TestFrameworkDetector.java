@@ -17,15 +17,24 @@ package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Set;
 
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Reads the given class file ahead of {@link #processTestClass(File)}, so that class files can be read in parallel while
+     * test classes are still processed one at a time, in order. May be called concurrently from multiple threads.
+     */
+    void prepareTestClass(File testClassFile);
+
     boolean processTestClass(File testClassFile);
 
     void setTestClasses(Set<File> testClasses);
 
     void setTestClasspath(Set<File> classpath);
+
+    void setTestClassHeaderCache(@Nullable TestClassHeaderCache testClassHeaderCache);
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The files in which test workers record the classes used by each test class they have run. Each worker appends to its own file, one record per test class.
+ */
+public class ClassUsageLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassUsageLog.class);
+    static final String FILE_EXTENSION = ".bin";
+
+    private ClassUsageLog() {
+    }
+
+    public static void write(Encoder encoder, String testClassName, Collection<String> usedClasses) throws IOException {
+        encoder.writeString(testClassName);
+        encoder.writeSmallInt(usedClasses.size());
+        for (String usedClass : usedClasses) {
+            encoder.writeString(usedClass);
+        }
+    }
+
+    /**
+     * Reads the records of all the log files in the given directory. Records that were not completely written, for example because a worker crashed, are ignored.
+     */
+    public static void readAll(File directory, Map<String, Set<String>> usages) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_EXTENSION)) {
+                read(file, usages);
+            }
+        }
+    }
+
+    private static void read(File file, Map<String, Set<String>> usages) throws IOException {
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            Decoder decoder = new KryoBackedDecoder(inputStream);
+            while (true) {
+                String testClassName;
+                try {
+                    testClassName = decoder.readString();
+                } catch (EOFException e) {
+                    return;
+                }
+                int count = decoder.readSmallInt();
+                Set<String> usedClasses = new HashSet<String>(count);
+                for (int i = 0; i < count; i++) {
+                    usedClasses.add(decoder.readString());
+                }
+                usages.put(testClassName, usedClasses);
+            }
+        } catch (EOFException e) {
+            LOGGER.debug("Ignoring incomplete class usage record at the end of {}.", file);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
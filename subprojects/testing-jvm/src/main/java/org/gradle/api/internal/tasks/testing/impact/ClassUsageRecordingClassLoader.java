@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Loads the classes found in a set of class directories itself, rather than asking its parent first, and remembers which ones it has loaded.
+ * Classes from anywhere else are loaded by the parent as usual.
+ *
+ * <p>Using a fresh instance for each test class means every class from the directories that the test class uses is loaded again,
+ * so the loaded classes are exactly the classes of the directories that the test class depends on at runtime.
+ */
+public class ClassUsageRecordingClassLoader extends URLClassLoader {
+    private final Set<String> loadedClasses = Collections.synchronizedSet(new HashSet<String>());
+
+    public ClassUsageRecordingClassLoader(URL[] classDirectories, ClassLoader parent) {
+        super(classDirectories, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (this) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                if (findResource(name.replace('.', '/') + ".class") == null) {
+                    return super.loadClass(name, resolve);
+                }
+                loadedClass = findClass(name);
+                loadedClasses.add(name);
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    /**
+     * Returns the names of the classes this loader has loaded from the class directories.
+     */
+    public Set<String> getLoadedClasses() {
+        synchronized (loadedClasses) {
+            return new HashSet<String>(loadedClasses);
+        }
+    }
+}
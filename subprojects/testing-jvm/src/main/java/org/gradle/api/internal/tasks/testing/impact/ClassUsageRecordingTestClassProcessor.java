@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.service.ServiceRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs each test class in a test worker with a processor of its own, whose classes are loaded by a fresh {@link ClassUsageRecordingClassLoader},
+ * and records the classes each test class has used.
+ *
+ * <p>The test framework creates its processor with the context class loader, so it picks up the recording class loader for the test class.
+ * Frameworks that run their tests when they are stopped, such as TestNG, therefore run one test class at a time.
+ */
+public class ClassUsageRecordingTestClassProcessor implements TestClassProcessor {
+    private final WorkerTestClassProcessorFactory factory;
+    private final ServiceRegistry serviceRegistry;
+    private final URL[] classDirectories;
+    private final File usageDirectory;
+    private TestResultProcessor resultProcessor;
+    private KryoBackedEncoder usageLog;
+
+    public ClassUsageRecordingTestClassProcessor(WorkerTestClassProcessorFactory factory, ServiceRegistry serviceRegistry, List<File> classDirectories, File usageDirectory) {
+        this.factory = factory;
+        this.serviceRegistry = serviceRegistry;
+        this.classDirectories = toUrls(classDirectories);
+        this.usageDirectory = usageDirectory;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        ClassUsageRecordingClassLoader classLoader = new ClassUsageRecordingClassLoader(classDirectories, parent);
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            TestClassProcessor processor = factory.create(serviceRegistry);
+            processor.startProcessing(resultProcessor);
+            try {
+                processor.processTestClass(testClass);
+            } finally {
+                processor.stop();
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(parent);
+            ClassLoaderUtils.tryClose(classLoader);
+        }
+        record(testClass.getTestClassName(), classLoader);
+    }
+
+    private void record(String testClassName, ClassUsageRecordingClassLoader classLoader) {
+        try {
+            if (usageLog == null) {
+                File file = new File(usageDirectory, UUID.randomUUID().toString() + ClassUsageLog.FILE_EXTENSION);
+                usageLog = new KryoBackedEncoder(new FileOutputStream(file));
+            }
+            ClassUsageLog.write(usageLog, testClassName, classLoader.getLoadedClasses());
+            // Keep the records of the test classes that have completed, should the worker not stop cleanly
+            usageLog.flush();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (usageLog != null) {
+            usageLog.close();
+            usageLog = null;
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        throw new UnsupportedOperationException("stopNow() should not be invoked on remote worker TestClassProcessor");
+    }
+
+    private static URL[] toUrls(List<File> files) {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = files.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+}
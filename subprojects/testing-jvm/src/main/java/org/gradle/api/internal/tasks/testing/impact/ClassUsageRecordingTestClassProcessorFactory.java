@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.service.ServiceRegistry;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+
+public class ClassUsageRecordingTestClassProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+    private final WorkerTestClassProcessorFactory factory;
+    private final List<File> classDirectories;
+    private final File usageDirectory;
+
+    public ClassUsageRecordingTestClassProcessorFactory(WorkerTestClassProcessorFactory factory, List<File> classDirectories, File usageDirectory) {
+        this.factory = factory;
+        this.classDirectories = classDirectories;
+        this.usageDirectory = usageDirectory;
+    }
+
+    @Override
+    public TestClassProcessor create(ServiceRegistry serviceRegistry) {
+        return new ClassUsageRecordingTestClassProcessor(factory, serviceRegistry, classDirectories, usageDirectory);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The test impact analysis of a single execution of a test task.
+ *
+ * @see TestImpactAnalyzer
+ */
+public class TestImpactAnalysis {
+    private static final Logger LOGGER = Logging.getLogger(TestImpactAnalysis.class);
+
+    private final TestImpactAnalyzer analyzer;
+    private final String taskPath;
+    private final HashCode fingerprint;
+    private final JarSnapshot classes;
+    private final Map<String, Set<String>> previousUsages;
+    private final Set<String> changedClasses;
+    private final Set<String> previousFailedTestClasses;
+    private final List<File> classDirectories;
+    private final File usageDirectory;
+    private final AtomicInteger selected = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    /**
+     * @param previousUsages the usages recorded by previous executions, or null when all test classes have to run
+     * @param changedClasses the classes that have changed since the previous execution, or null when all test classes have to run
+     */
+    TestImpactAnalysis(TestImpactAnalyzer analyzer, String taskPath, HashCode fingerprint, JarSnapshot classes, @Nullable Map<String, Set<String>> previousUsages,
+                       @Nullable Set<String> changedClasses, Set<String> previousFailedTestClasses, List<File> classDirectories, File usageDirectory) {
+        this.analyzer = analyzer;
+        this.taskPath = taskPath;
+        this.fingerprint = fingerprint;
+        this.classes = classes;
+        this.previousUsages = previousUsages;
+        this.changedClasses = changedClasses;
+        this.previousFailedTestClasses = previousFailedTestClasses;
+        this.classDirectories = classDirectories;
+        this.usageDirectory = usageDirectory;
+    }
+
+    /**
+     * Returns true when the given test class has to run.
+     */
+    public boolean isAffected(String testClassName) {
+        if (changedClasses == null || previousFailedTestClasses.contains(testClassName)) {
+            return true;
+        }
+        Set<String> usedClasses = previousUsages.get(testClassName);
+        return usedClasses == null || usesChangedClass(usedClasses);
+    }
+
+    private boolean usesChangedClass(Set<String> usedClasses) {
+        for (String changedClass : changedClasses) {
+            if (usedClasses.contains(changedClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wraps the test framework of the execution, so that its test workers record the classes used by each test class.
+     */
+    public WorkerTestClassProcessorFactory recordClassUsage(WorkerTestClassProcessorFactory factory) {
+        return new ClassUsageRecordingTestClassProcessorFactory(factory, classDirectories, usageDirectory);
+    }
+
+    /**
+     * Wraps the given processor, so that it only receives the test classes that have to run.
+     */
+    public TestClassProcessor runAffectedTestClasses(TestClassProcessor processor) {
+        return new AffectedTestClassProcessor(this, processor);
+    }
+
+    void testClassSelected(boolean affected) {
+        if (affected) {
+            selected.incrementAndGet();
+        } else {
+            skipped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the class usage of the test classes that have run, along with the classes they were run against. Called once all test classes have run.
+     */
+    public void completed() {
+        Map<String, Set<String>> usages = new HashMap<String, Set<String>>();
+        if (changedClasses != null) {
+            // The usage of the test classes that did not have to run is still valid for the current classes
+            for (Map.Entry<String, Set<String>> entry : previousUsages.entrySet()) {
+                if (!usesChangedClass(entry.getValue())) {
+                    usages.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        try {
+            ClassUsageLog.readAll(usageDirectory, usages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        analyzer.store(taskPath, new TestImpactState(fingerprint, classes.getData(), usages));
+        LOGGER.info("{} ran {} test classes affected by changes and skipped {} test classes.", taskPath, selected.get(), skipped.get());
+    }
+
+    /**
+     * Removes the class usage recorded by the test workers.
+     */
+    public void close() {
+        FileUtils.deleteQuietly(usageDirectory);
+    }
+}
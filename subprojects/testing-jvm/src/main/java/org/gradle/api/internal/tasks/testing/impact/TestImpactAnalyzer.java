@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.file.UnionFileTree;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.file.collections.FileTreeAdapter;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.deps.AffectedClasses;
+import org.gradle.api.internal.tasks.compile.incremental.jar.DefaultJarSnapshotter;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestFrameworkOptions;
+import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
+import org.gradle.api.tasks.testing.testng.TestNGOptions;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.process.JavaForkOptions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Test impact analysis: a test task runs only the test classes that use classes that have changed since its previous execution.
+ *
+ * <p>Each test class is run with a class loader that records which classes from the class directories of the test runtime classpath
+ * it has loaded. On the next execution, the classes in these directories are compared with those of the previous execution, using
+ * the same class analysis as incremental Java compilation, so that changes to inlined constants are also seen. A test class is run
+ * when it uses a class that has changed, when it has no recorded usage yet or when it failed in the previous execution.</p>
+ *
+ * <p>All test classes run when there is no previous execution or when anything else about the execution has changed:
+ * the libraries on the classpath, the resources in the class directories, the test framework options, the JVM options or the environment.</p>
+ *
+ * <p>This is opt-in, by setting the {@value #ENABLED_PROPERTY_NAME} system property on the daemon.</p>
+ */
+public class TestImpactAnalyzer implements Closeable {
+    public static final String ENABLED_PROPERTY_NAME = "org.gradle.internal.test.impact.analysis";
+
+    private static final Logger LOGGER = Logging.getLogger(TestImpactAnalyzer.class);
+
+    private final FileHasher fileHasher;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final DefaultJarSnapshotter snapshotter;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<String, TestImpactState> states;
+
+    public TestImpactAnalyzer(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, FileHasher fileHasher, StreamHasher streamHasher,
+                              GeneralCompileCaches compileCaches, DirectoryFileTreeFactory directoryFileTreeFactory, TemporaryFileProvider temporaryFileProvider) {
+        this.fileHasher = fileHasher;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.temporaryFileProvider = temporaryFileProvider;
+        this.snapshotter = new DefaultJarSnapshotter(streamHasher, new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), compileCaches.getClassAnalysisCache()));
+        cache = cacheRepository
+                .cache(gradle, "testImpact")
+                .withDisplayName("test impact analysis cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        PersistentIndexedCacheParameters<String, TestImpactState> parameters = new PersistentIndexedCacheParameters<String, TestImpactState>("testImpact", BaseSerializerFactory.STRING_SERIALIZER, new TestImpactState.Serializer())
+                .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(20, true));
+        states = cache.createCache(parameters);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY_NAME);
+    }
+
+    /**
+     * Works out which test classes the given execution has to run. The returned analysis has to be {@link TestImpactAnalysis#close() closed} once the execution has finished.
+     */
+    public TestImpactAnalysis analyze(JvmTestExecutionSpec spec) {
+        List<File> classDirectories = new ArrayList<File>();
+        for (File file : spec.getClasspath()) {
+            if (file.isDirectory()) {
+                classDirectories.add(file);
+            }
+        }
+        HashCode fingerprint = fingerprint(spec, classDirectories);
+        JarSnapshot classes = snapshot(classDirectories);
+
+        TestImpactState previous = states.get(spec.getPath());
+        Map<String, Set<String>> previousUsages = null;
+        Set<String> changedClasses = null;
+        if (previous == null) {
+            LOGGER.info("{} runs all test classes, as there is no record of the classes they use.", spec.getPath());
+        } else if (!previous.getFingerprint().equals(fingerprint)) {
+            LOGGER.info("{} runs all test classes, as its libraries, resources, test framework options, JVM options or environment have changed.", spec.getPath());
+        } else {
+            AffectedClasses affectedClasses = classes.getAffectedClassesSince(new JarSnapshot(previous.getClasses()));
+            if (affectedClasses.getAltered().isDependencyToAll()) {
+                String reason = affectedClasses.getAltered().getDescription();
+                LOGGER.info("{} runs all test classes, as {}.", spec.getPath(), reason != null ? reason : "a changed class may affect any class");
+            } else {
+                previousUsages = previous.getUsages();
+                changedClasses = new HashSet<String>(affectedClasses.getAltered().getDependentClasses());
+                changedClasses.addAll(affectedClasses.getAdded());
+            }
+        }
+
+        File usageDirectory = temporaryFileProvider.createTemporaryDirectory("test-impact", null);
+        return new TestImpactAnalysis(this, spec.getPath(), fingerprint, classes, previousUsages, changedClasses, spec.getPreviousFailedTestClasses(), classDirectories, usageDirectory);
+    }
+
+    void store(String taskPath, TestImpactState state) {
+        states.put(taskPath, state);
+    }
+
+    private HashCode fingerprint(JvmTestExecutionSpec spec, List<File> classDirectories) {
+        final Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(spec.getTestFramework().getClass().getName());
+        hashFrameworkOptions(hasher, spec.getTestFramework().getOptions(), fileHasher);
+        for (File file : spec.getClasspath()) {
+            hasher.putString(file.getAbsolutePath());
+            if (file.isFile()) {
+                hasher.putHash(fileHasher.hash(file));
+            }
+        }
+        for (File classDirectory : classDirectories) {
+            directoryFileTreeFactory.create(classDirectory).visit(new FileVisitor() {
+                @Override
+                public void visitDir(FileVisitDetails dirDetails) {
+                }
+
+                @Override
+                public void visitFile(FileVisitDetails fileDetails) {
+                    if (!fileDetails.getName().endsWith(".class")) {
+                        hasher.putString(fileDetails.getPath());
+                        hasher.putHash(fileHasher.hash(fileDetails.getFile()));
+                    }
+                }
+            });
+        }
+        JavaForkOptions forkOptions = spec.getJavaForkOptions();
+        hasher.putString(String.valueOf(forkOptions.getExecutable()));
+        for (String jvmArg : forkOptions.getAllJvmArgs()) {
+            hasher.putString(jvmArg);
+        }
+        for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(forkOptions.getEnvironment()).entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Hashes the options that select which tests run and how they run, such as JUnit categories, JUnit Platform tags and engines or TestNG groups.
+     */
+    static void hashFrameworkOptions(Hasher hasher, TestFrameworkOptions options, FileHasher fileHasher) {
+        if (options instanceof JUnitOptions) {
+            JUnitOptions junitOptions = (JUnitOptions) options;
+            putStrings(hasher, junitOptions.getIncludeCategories());
+            putStrings(hasher, junitOptions.getExcludeCategories());
+        } else if (options instanceof JUnitPlatformOptions) {
+            JUnitPlatformOptions junitPlatformOptions = (JUnitPlatformOptions) options;
+            putStrings(hasher, junitPlatformOptions.getIncludeEngines());
+            putStrings(hasher, junitPlatformOptions.getExcludeEngines());
+            putStrings(hasher, junitPlatformOptions.getIncludeTags());
+            putStrings(hasher, junitPlatformOptions.getExcludeTags());
+        } else if (options instanceof TestNGOptions) {
+            TestNGOptions testNGOptions = (TestNGOptions) options;
+            putStrings(hasher, testNGOptions.getIncludeGroups());
+            putStrings(hasher, testNGOptions.getExcludeGroups());
+            putStrings(hasher, testNGOptions.getListeners());
+            hasher.putBoolean(testNGOptions.getUseDefaultListeners());
+            hasher.putString(String.valueOf(testNGOptions.getConfigFailurePolicy()));
+            hasher.putString(String.valueOf(testNGOptions.getParallel()));
+            hasher.putInt(testNGOptions.getThreadCount());
+            hasher.putBoolean(testNGOptions.getPreserveOrder());
+            hasher.putBoolean(testNGOptions.getGroupByInstances());
+            hasher.putString(String.valueOf(testNGOptions.getSuiteName()));
+            hasher.putString(String.valueOf(testNGOptions.getTestName()));
+            hasher.putString(String.valueOf(testNGOptions.getSuiteXmlWriter()));
+            for (File suiteXmlFile : testNGOptions.getSuiteXmlFiles()) {
+                hasher.putString(suiteXmlFile.getAbsolutePath());
+                if (suiteXmlFile.isFile()) {
+                    hasher.putHash(fileHasher.hash(suiteXmlFile));
+                }
+            }
+        }
+    }
+
+    private static void putStrings(Hasher hasher, Collection<String> values) {
+        hasher.putInt(values.size());
+        for (String value : new TreeSet<String>(values)) {
+            hasher.putString(value);
+        }
+    }
+
+    private JarSnapshot snapshot(List<File> classDirectories) {
+        Hasher hasher = Hashing.md5().newHasher();
+        List<FileTreeAdapter> trees = new ArrayList<FileTreeAdapter>(classDirectories.size());
+        for (File classDirectory : classDirectories) {
+            hasher.putString(classDirectory.getAbsolutePath());
+            trees.add(new FileTreeAdapter(directoryFileTreeFactory.create(classDirectory)));
+        }
+        return snapshotter.createSnapshot(hasher.hash(), new UnionFileTree("class directories", trees));
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotDataSerializer;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a test task knows about the classes its test classes use, as of its last execution.
+ */
+class TestImpactState {
+    private final HashCode fingerprint;
+    private final JarSnapshotData classes;
+    private final Map<String, Set<String>> usages;
+
+    /**
+     * @param fingerprint of everything about the test execution other than the classes in the class directories
+     * @param classes snapshot of the classes in the class directories of the test runtime classpath
+     * @param usages the classes from the class directories used by each test class, valid for the classes of the snapshot
+     */
+    TestImpactState(HashCode fingerprint, JarSnapshotData classes, Map<String, Set<String>> usages) {
+        this.fingerprint = fingerprint;
+        this.classes = classes;
+        this.usages = usages;
+    }
+
+    HashCode getFingerprint() {
+        return fingerprint;
+    }
+
+    JarSnapshotData getClasses() {
+        return classes;
+    }
+
+    Map<String, Set<String>> getUsages() {
+        return usages;
+    }
+
+    /**
+     * Writes each used class name once, as most classes are used by many test classes.
+     */
+    static class Serializer extends AbstractSerializer<TestImpactState> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+        private final JarSnapshotDataSerializer classesSerializer = new JarSnapshotDataSerializer();
+
+        @Override
+        public TestImpactState read(Decoder decoder) throws Exception {
+            HashCode fingerprint = hashCodeSerializer.read(decoder);
+            JarSnapshotData classes = classesSerializer.read(decoder);
+            int classCount = decoder.readSmallInt();
+            List<String> classNames = new ArrayList<String>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                classNames.add(decoder.readString());
+            }
+            int testClassCount = decoder.readSmallInt();
+            Map<String, Set<String>> usages = new HashMap<String, Set<String>>(testClassCount);
+            for (int i = 0; i < testClassCount; i++) {
+                String testClassName = decoder.readString();
+                int usedCount = decoder.readSmallInt();
+                Set<String> usedClasses = new HashSet<String>(usedCount);
+                for (int j = 0; j < usedCount; j++) {
+                    usedClasses.add(classNames.get(decoder.readSmallInt()));
+                }
+                usages.put(testClassName, usedClasses);
+            }
+            return new TestImpactState(fingerprint, classes, usages);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestImpactState value) throws Exception {
+            hashCodeSerializer.write(encoder, value.fingerprint);
+            classesSerializer.write(encoder, value.classes);
+            Map<String, Integer> classIndexes = new HashMap<String, Integer>();
+            List<String> classNames = new ArrayList<String>();
+            for (Set<String> usedClasses : value.usages.values()) {
+                for (String usedClass : usedClasses) {
+                    if (!classIndexes.containsKey(usedClass)) {
+                        classIndexes.put(usedClass, classNames.size());
+                        classNames.add(usedClass);
+                    }
+                }
+            }
+            encoder.writeSmallInt(classNames.size());
+            for (String className : classNames) {
+                encoder.writeString(className);
+            }
+            encoder.writeSmallInt(value.usages.size());
+            for (Map.Entry<String, Set<String>> entry : value.usages.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeSmallInt(entry.getValue().size());
+                for (String usedClass : entry.getValue()) {
+                    encoder.writeSmallInt(classIndexes.get(usedClass));
+                }
+            }
+        }
+    }
+}
@@ -33,7 +33,7 @@ public abstract class AbstractJUnitTestClassProcessor<T extends JUnitSpec> imple
     protected final T spec;
     protected final IdGenerator<?> idGenerator;
     protected final Clock clock;
-    private final ActorFactory actorFactory;
+    protected final ActorFactory actorFactory;
     private Action<String> executor;
     private Actor resultProcessorActor;
 
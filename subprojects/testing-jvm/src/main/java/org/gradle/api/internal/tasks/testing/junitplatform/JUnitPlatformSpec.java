@@ -28,6 +28,7 @@ public class JUnitPlatformSpec extends JUnitSpec {
     private final Set<String> excludeEngines;
     private final Set<String> includeTags;
     private final Set<String> excludeTags;
+    private final int maxParallelTestClasses;
 
     public JUnitPlatformSpec(JUnitPlatformOptions options, Set<String> includedTests, Set<String> includedTestsCommandLine) {
         super(Collections.<String>emptySet(), Collections.<String>emptySet(), includedTests, includedTestsCommandLine);
@@ -35,6 +36,7 @@ public class JUnitPlatformSpec extends JUnitSpec {
         this.excludeEngines = options.getExcludeEngines();
         this.includeTags = options.getIncludeTags();
         this.excludeTags = options.getExcludeTags();
+        this.maxParallelTestClasses = options.getMaxParallelTestClasses();
     }
 
     public List<String> getIncludeEngines() {
@@ -52,4 +54,8 @@ public class JUnitPlatformSpec extends JUnitSpec {
     public List<String> getExcludeTags() {
         return new ArrayList<String>(excludeTags);
     }
+
+    public int getMaxParallelTestClasses() {
+        return maxParallelTestClasses;
+    }
 }
@@ -26,6 +26,7 @@ import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
 import org.gradle.internal.service.ServiceRegistry;
@@ -84,9 +85,10 @@ public class JUnitPlatformTestFramework implements TestFramework {
                 IdGenerator idGenerator = serviceRegistry.get(IdGenerator.class);
                 Clock clock = serviceRegistry.get(Clock.class);
                 ActorFactory actorFactory = serviceRegistry.get(ActorFactory.class);
+                ExecutorFactory executorFactory = serviceRegistry.get(ExecutorFactory.class);
                 Class clazz = getClass().getClassLoader().loadClass("org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestClassProcessor");
-                Constructor constructor = clazz.getConstructor(JUnitPlatformSpec.class, IdGenerator.class, ActorFactory.class, Clock.class);
-                return (TestClassProcessor) constructor.newInstance(spec, idGenerator, actorFactory, clock);
+                Constructor constructor = clazz.getConstructor(JUnitPlatformSpec.class, IdGenerator.class, ActorFactory.class, Clock.class, ExecutorFactory.class);
+                return (TestClassProcessor) constructor.newInstance(spec, idGenerator, actorFactory, clock, executorFactory);
             } catch (Exception e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
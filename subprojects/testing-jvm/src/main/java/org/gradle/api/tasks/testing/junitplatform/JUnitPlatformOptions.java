@@ -18,6 +18,7 @@ package org.gradle.api.tasks.testing.junitplatform;
 
 import org.gradle.api.Incubating;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.testing.TestFrameworkOptions;
 
 import java.util.Arrays;
@@ -40,6 +41,8 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
 
     private Set<String> excludeTags = new LinkedHashSet<String>();
 
+    private int maxParallelTestClasses = 1;
+
     /**
      * The set of engines to run with. Equivalent to invoking <a href="https://junit.org/junit5/docs/current/api/org/junit/platform/launcher/EngineFilter.html#includeEngines-java.lang.String...-">EngineFilter.includeEngines</a>.
      *
@@ -80,6 +83,19 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
         return this;
     }
 
+    /**
+     * Sets the maximum number of test classes to execute concurrently inside each test process. Defaults to 1.
+     *
+     * <p>Test classes executing concurrently share the heap of the test process, which makes this cheaper than using more forks.
+     * Only use this when the test classes do not interfere with each other, for example through static state.</p>
+     *
+     * @since 4.8
+     */
+    public JUnitPlatformOptions maxParallelTestClasses(int maxParallelTestClasses) {
+        setMaxParallelTestClasses(maxParallelTestClasses);
+        return this;
+    }
+
     @Input
     public Set<String> getIncludeEngines() {
         return includeEngines;
@@ -115,4 +131,26 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
     public void setExcludeTags(Set<String> excludeTags) {
         this.excludeTags = excludeTags;
     }
+
+    /**
+     * Returns the maximum number of test classes to execute concurrently inside each test process.
+     *
+     * @since 4.8
+     */
+    @Internal
+    public int getMaxParallelTestClasses() {
+        return maxParallelTestClasses;
+    }
+
+    /**
+     * Sets the maximum number of test classes to execute concurrently inside each test process.
+     *
+     * @since 4.8
+     */
+    public void setMaxParallelTestClasses(int maxParallelTestClasses) {
+        if (maxParallelTestClasses < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelTestClasses to a value less than 1.");
+        }
+        this.maxParallelTestClasses = maxParallelTestClasses;
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.tasks.testing.detection.DefaultTestClassHeaderCache;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
@@ -25,4 +27,10 @@ public class JvmTestingServices extends AbstractPluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
     }
+
+    @Override
+    public void registerGradleServices(ServiceRegistration registration) {
+        registration.add(DefaultTestClassHeaderCache.class);
+        registration.add(TestImpactAnalyzer.class);
+    }
 }
@@ -26,6 +26,8 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.junit.Test
 import spock.lang.Specification
 
+import java.util.concurrent.Executor
+
 class DefaultTestClassScannerTest extends Specification {
     private final TestFrameworkDetector detector = Mock()
     private final TestClassProcessor processor = Mock()
@@ -75,6 +77,62 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    @Test
+    void readsClassFilesAheadOfDetectionWhenGivenAnExecutor() {
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, new Executor() {
+            void execute(Runnable command) {
+                command.run()
+            }
+        })
+
+        given:
+        files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile(mockFileVisitDetails('class1'))
+            visitor.visitFile(mockFileVisitDetails('class2'))
+        }
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(processor)
+        then:
+        1 * detector.prepareTestClass(new File("class1.class"))
+        then:
+        1 * detector.processTestClass(new File("class1.class"))
+        then:
+        1 * detector.prepareTestClass(new File("class2.class"))
+        then:
+        1 * detector.processTestClass(new File("class2.class"))
+        0 * _._
+    }
+
+    @Test
+    void rethrowsFailureToReadClassFile() {
+        def failure = new RuntimeException("broken")
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, new Executor() {
+            void execute(Runnable command) {
+                command.run()
+            }
+        })
+
+        given:
+        files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile(mockFileVisitDetails('class1'))
+        }
+        detector.prepareTestClass(_) >> { throw failure }
+
+        when:
+        scanner.run()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        0 * detector.processTestClass(_)
+    }
+
     FileVisitDetails mockFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.classloader.ClasspathUtil
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassUsageRecordingTestClassProcessorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def classDirectory = ClasspathUtil.getClasspathForClass(ClassUsageRecordingTestClassProcessorTest)
+    def usageDirectory = tmpDir.createDir("usage")
+    def factory = Mock(WorkerTestClassProcessorFactory)
+    def resultProcessor = Mock(TestResultProcessor)
+    def processor = new ClassUsageRecordingTestClassProcessor(factory, Stub(ServiceRegistry), [classDirectory], usageDirectory)
+
+    def "class loader loads classes from the class directories itself and records them"() {
+        def loader = new ClassUsageRecordingClassLoader([classDirectory.toURI().toURL()] as URL[], getClass().classLoader)
+
+        when:
+        def usedClass = loader.loadClass(UsedClass.name)
+
+        then:
+        usedClass.classLoader.is(loader)
+        usedClass != UsedClass
+
+        when:
+        def stringClass = loader.loadClass(String.name)
+
+        then:
+        stringClass.is(String)
+        loader.loadClass(UsedClass.name).is(usedClass)
+        loader.loadedClasses == [UsedClass.name] as Set
+    }
+
+    def "runs each test class with a processor of its own and a fresh class loader"() {
+        def first = Mock(TestClassProcessor)
+        def second = Mock(TestClassProcessor)
+        def contextClassLoader = Thread.currentThread().contextClassLoader
+        def classLoaders = []
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo("FirstTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("SecondTest"))
+
+        then:
+        1 * factory.create(_) >> { classLoaders << Thread.currentThread().contextClassLoader; first }
+        1 * first.startProcessing(resultProcessor)
+        1 * first.processTestClass({ it.testClassName == "FirstTest" })
+        1 * first.stop()
+
+        then:
+        1 * factory.create(_) >> { classLoaders << Thread.currentThread().contextClassLoader; second }
+        1 * second.startProcessing(resultProcessor)
+        1 * second.processTestClass({ it.testClassName == "SecondTest" })
+        1 * second.stop()
+        0 * _
+
+        and:
+        classLoaders.every { it instanceof ClassUsageRecordingClassLoader && it.parent.is(contextClassLoader) }
+        !classLoaders[0].is(classLoaders[1])
+        Thread.currentThread().contextClassLoader.is(contextClassLoader)
+    }
+
+    def "records the classes used by each test class"() {
+        def delegate = Mock(TestClassProcessor)
+        factory.create(_) >> delegate
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo("FirstTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("SecondTest"))
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass({ it.testClassName == "FirstTest" }) >> {
+            Thread.currentThread().contextClassLoader.loadClass(UsedClass.name)
+            Thread.currentThread().contextClassLoader.loadClass(OtherUsedClass.name)
+        }
+        1 * delegate.processTestClass({ it.testClassName == "SecondTest" }) >> {
+            Thread.currentThread().contextClassLoader.loadClass(UsedClass.name)
+        }
+
+        when:
+        def usages = [:]
+        ClassUsageLog.readAll(usageDirectory, usages)
+
+        then:
+        usages == [FirstTest: [UsedClass.name, OtherUsedClass.name] as Set, SecondTest: [UsedClass.name] as Set]
+    }
+}
+
+class UsedClass {
+}
+
+class OtherUsedClass {
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import it.unimi.dsi.fastutil.ints.IntSet
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class TestImpactAnalysisTest extends SerializerSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def analyzer = Mock(TestImpactAnalyzer)
+    def classesData = new JarSnapshotData(HashCode.fromInt(1), [A: HashCode.fromInt(2)], new ClassSetAnalysisData([:], [:], [:] as Map<String, IntSet>, [:], DependentsSet.empty(), DependentsSet.empty(), null))
+    def usageDirectory = tmpDir.createDir("usage")
+    def previousUsages = [
+        ATest: ["ATest", "A", "Shared"] as Set,
+        BTest: ["BTest", "B", "Shared"] as Set,
+        CTest: ["CTest", "C"] as Set
+    ]
+
+    def "runs test classes that use a changed class"() {
+        def analysis = analysis(previousUsages, ["B"] as Set)
+
+        expect:
+        !analysis.isAffected("ATest")
+        analysis.isAffected("BTest")
+        !analysis.isAffected("CTest")
+    }
+
+    def "runs test classes that use a class changed in a way that affects all of them"() {
+        def analysis = analysis(previousUsages, ["Shared"] as Set)
+
+        expect:
+        analysis.isAffected("ATest")
+        analysis.isAffected("BTest")
+        !analysis.isAffected("CTest")
+    }
+
+    def "runs test classes without recorded usage and test classes that failed before"() {
+        def analysis = analysis(previousUsages, [] as Set, ["CTest"] as Set)
+
+        expect:
+        !analysis.isAffected("ATest")
+        analysis.isAffected("CTest")
+        analysis.isAffected("NewTest")
+    }
+
+    def "runs all test classes when there is no usable previous analysis"() {
+        def analysis = analysis(null, null)
+
+        expect:
+        analysis.isAffected("ATest")
+        analysis.isAffected("NewTest")
+    }
+
+    def "passes on only the affected test classes"() {
+        def delegate = Mock(TestClassProcessor)
+        def processor = analysis(previousUsages, ["A"] as Set).runAffectedTestClasses(delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo("ATest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("BTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("NewTest"))
+
+        then:
+        1 * delegate.processTestClass({ it.testClassName == "ATest" })
+        1 * delegate.processTestClass({ it.testClassName == "NewTest" })
+        0 * delegate._
+    }
+
+    def "keeps the usage of test classes that did not use changed classes and records the usage of the test classes that ran"() {
+        def analysis = analysis(previousUsages, ["B", "C"] as Set)
+        writeUsage(BTest: ["BTest", "B2"] as Set, NewTest: ["NewTest", "A"] as Set)
+
+        when:
+        analysis.completed()
+
+        then:
+        1 * analyzer.store(":test", { TestImpactState state ->
+            state.usages == [ATest: ["ATest", "A", "Shared"] as Set, BTest: ["BTest", "B2"] as Set, NewTest: ["NewTest", "A"] as Set] && state.classes.is(classesData)
+        })
+    }
+
+    def "records only the usage of the test classes that ran when all test classes had to run"() {
+        def analysis = analysis(null, null)
+        writeUsage(BTest: ["BTest", "B"] as Set)
+
+        when:
+        analysis.completed()
+
+        then:
+        1 * analyzer.store(":test", { TestImpactState state -> state.usages == [BTest: ["BTest", "B"] as Set] })
+    }
+
+    def "serializes state"() {
+        def state = new TestImpactState(HashCode.fromInt(123), classesData, previousUsages)
+
+        when:
+        def result = serialize(state, new TestImpactState.Serializer())
+
+        then:
+        result.fingerprint == HashCode.fromInt(123)
+        new JarSnapshot(result.classes).hashes == [A: HashCode.fromInt(2)]
+        result.usages == previousUsages
+    }
+
+    private TestImpactAnalysis analysis(Map<String, Set<String>> usages, Set<String> changedClasses, Set<String> previousFailed = [] as Set) {
+        def classes = Stub(JarSnapshot) {
+            getData() >> classesData
+        }
+        return new TestImpactAnalysis(analyzer, ":test", HashCode.fromInt(1), classes, usages, changedClasses, previousFailed, [], usageDirectory)
+    }
+
+    private void writeUsage(Map<String, Set<String>> usages) {
+        def encoder = new KryoBackedEncoder(new FileOutputStream(new File(usageDirectory, "worker.bin")))
+        usages.each { testClass, usedClasses ->
+            ClassUsageLog.write(encoder, testClass, usedClasses)
+        }
+        encoder.close()
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.tasks.testing.TestFrameworkOptions
+import org.gradle.api.tasks.testing.junit.JUnitOptions
+import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions
+import org.gradle.api.tasks.testing.testng.TestNGOptions
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestImpactAnalyzerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileHasher = Stub(FileHasher)
+
+    def "framework options hash is the same for the same options"() {
+        expect:
+        hash(new JUnitOptions().includeCategories("Fast", "Slow")) == hash(new JUnitOptions().includeCategories("Slow", "Fast"))
+        hash(new JUnitPlatformOptions().includeTags("fast")) == hash(new JUnitPlatformOptions().includeTags("fast"))
+        hash(new TestNGOptions(tmpDir.testDirectory).includeGroups("fast")) == hash(new TestNGOptions(tmpDir.testDirectory).includeGroups("fast"))
+    }
+
+    def "framework options hash changes when the JUnit categories change"() {
+        expect:
+        hash(new JUnitOptions()) != hash(new JUnitOptions().includeCategories("Fast"))
+        hash(new JUnitOptions().includeCategories("Fast")) != hash(new JUnitOptions().excludeCategories("Fast"))
+    }
+
+    def "framework options hash changes when the JUnit Platform tags or engines change"() {
+        expect:
+        hash(new JUnitPlatformOptions()) != hash(new JUnitPlatformOptions().includeTags("fast"))
+        hash(new JUnitPlatformOptions().includeTags("fast")) != hash(new JUnitPlatformOptions().excludeTags("fast"))
+        hash(new JUnitPlatformOptions().includeEngines("junit-jupiter")) != hash(new JUnitPlatformOptions().excludeEngines("junit-jupiter"))
+    }
+
+    def "framework options hash changes when the TestNG groups or suite files change"() {
+        def suiteFile = tmpDir.file("suite.xml").createFile()
+        fileHasher.hash(suiteFile) >>> [HashCode.fromInt(1), HashCode.fromInt(2)]
+
+        expect:
+        hash(new TestNGOptions(tmpDir.testDirectory)) != hash(new TestNGOptions(tmpDir.testDirectory).includeGroups("fast"))
+        hash(new TestNGOptions(tmpDir.testDirectory).includeGroups("fast")) != hash(new TestNGOptions(tmpDir.testDirectory).excludeGroups("fast"))
+        hash(suites(suiteFile)) != hash(suites(suiteFile))
+    }
+
+    private TestNGOptions suites(File suiteFile) {
+        def options = new TestNGOptions(tmpDir.testDirectory)
+        options.suites(suiteFile)
+        return options
+    }
+
+    private HashCode hash(TestFrameworkOptions options) {
+        def hasher = Hashing.md5().newHasher()
+        TestImpactAnalyzer.hashFrameworkOptions(hasher, options, fileHasher)
+        return hasher.hash()
+    }
+}
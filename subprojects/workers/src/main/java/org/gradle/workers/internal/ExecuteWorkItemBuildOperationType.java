@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.operations.BuildOperationType;
+import org.gradle.workers.IsolationMode;
+
+import javax.annotation.Nullable;
+
+/**
+ * Executes a unit of work submitted to the worker API in isolation from the build.
+ *
+ * @since 4.8
+ */
+public final class ExecuteWorkItemBuildOperationType implements BuildOperationType<ExecuteWorkItemBuildOperationType.Details, ExecuteWorkItemBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The fully qualified name of the class implementing the work.
+         */
+        String getClassName();
+
+        /**
+         * The isolation mode the work is executed with, one of "CLASSLOADER" or "PROCESS".
+         */
+        String getIsolationMode();
+    }
+
+    public interface Result {
+
+        /**
+         * Whether the class loader for the classpath of the work was reused from a previous work item.
+         * Always false unless the work is executed with classloader isolation.
+         */
+        boolean isClassLoaderCacheHit();
+
+        /**
+         * The number of worker daemons busy with work, including the one executing this work, at the time it started.
+         * Null unless the work is executed with process isolation.
+         */
+        @Nullable
+        Integer getBusyWorkerDaemons();
+
+        /**
+         * The number of worker daemons running at the time the work started.
+         * Null unless the work is executed with process isolation.
+         */
+        @Nullable
+        Integer getWorkerDaemons();
+    }
+
+    static class DetailsImpl implements Details {
+        private final String className;
+        private final String isolationMode;
+
+        DetailsImpl(ActionExecutionSpec spec, IsolationMode isolationMode) {
+            this.className = spec.getImplementationClass().getName();
+            this.isolationMode = isolationMode.name();
+        }
+
+        @Override
+        public String getClassName() {
+            return className;
+        }
+
+        @Override
+        public String getIsolationMode() {
+            return isolationMode;
+        }
+    }
+
+    static class ResultImpl implements Result {
+        private final boolean classLoaderCacheHit;
+        private final Integer busyWorkerDaemons;
+        private final Integer workerDaemons;
+
+        private ResultImpl(boolean classLoaderCacheHit, @Nullable Integer busyWorkerDaemons, @Nullable Integer workerDaemons) {
+            this.classLoaderCacheHit = classLoaderCacheHit;
+            this.busyWorkerDaemons = busyWorkerDaemons;
+            this.workerDaemons = workerDaemons;
+        }
+
+        static ResultImpl inClassLoader(boolean classLoaderCacheHit) {
+            return new ResultImpl(classLoaderCacheHit, null, null);
+        }
+
+        static ResultImpl inWorkerDaemon(int busyWorkerDaemons, int workerDaemons) {
+            return new ResultImpl(false, busyWorkerDaemons, workerDaemons);
+        }
+
+        @Override
+        public boolean isClassLoaderCacheHit() {
+            return classLoaderCacheHit;
+        }
+
+        @Nullable
+        @Override
+        public Integer getBusyWorkerDaemons() {
+            return busyWorkerDaemons;
+        }
+
+        @Nullable
+        @Override
+        public Integer getWorkerDaemons() {
+            return workerDaemons;
+        }
+    }
+
+    private ExecuteWorkItemBuildOperationType() {
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Sets;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.internal.classloading.GroovySystemLoader;
+import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderFactory;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Keeps the class loaders for the classpath of work items executed with classloader isolation, so that
+ * work items with the same classpath reuse classes that have already been loaded and JIT compiled.
+ *
+ * <p>Class loaders are keyed by the hash of the contents of the classpath and the shared packages, and are evicted
+ * least recently used first once the size of their classpaths exceeds the budget set by the {@value #CACHE_SIZE_PROPERTY_NAME}
+ * system property on the daemon. An evicted class loader is only discarded once the last work item using it has finished.
+ * A classpath larger than the whole budget gets a class loader of its own that is discarded after use.</p>
+ *
+ * <p>This is opt-in, as work items with the same classpath then share the static state of their classes, and the class
+ * loaders keep the jars of their classpath open for as long as they are cached, which prevents these jars from being
+ * changed or deleted on Windows.</p>
+ */
+@ThreadSafe
+public class IsolatedClassLoaderCache implements Stoppable {
+    /**
+     * The total size of classpaths to keep class loaders for, e.g. "256m". Defaults to "0", which creates new class loaders for every work item.
+     */
+    public static final String CACHE_SIZE_PROPERTY_NAME = "org.gradle.internal.workers.classloader.cache.size";
+
+    private final ClassLoaderFactory classLoaderFactory;
+    private final ClasspathHasher classpathHasher;
+    private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
+    private final Cache<HashCode, CachedClassLoader> cache;
+    private final long maxWeightInKiloBytes;
+
+    public IsolatedClassLoaderCache(ClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
+        this.classLoaderFactory = classLoaderFactory;
+        this.classpathHasher = classpathHasher;
+        this.maxWeightInKiloBytes = getCacheSize() / 1024;
+        // A single segment, so that the whole budget is available to each entry rather than a share of it
+        this.cache = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(Math.max(maxWeightInKiloBytes, 1))
+            .weigher(new Weigher<HashCode, CachedClassLoader>() {
+                @Override
+                public int weigh(HashCode key, CachedClassLoader value) {
+                    return value.weightInKiloBytes;
+                }
+            })
+            .removalListener(new RemovalListener<HashCode, CachedClassLoader>() {
+                @Override
+                public void onRemoval(RemovalNotification<HashCode, CachedClassLoader> notification) {
+                    notification.getValue().evict();
+                }
+            })
+            .build();
+    }
+
+    private static long getCacheSize() {
+        return Math.max(MemoryAmount.parseNotation(System.getProperty(CACHE_SIZE_PROPERTY_NAME)), 0);
+    }
+
+    /**
+     * Returns a class loader for the given classpath that exposes only the given shared packages. The caller must release the lease when done.
+     */
+    public Lease acquire(Iterable<File> classpath, Iterable<String> sharedPackages) {
+        final ClassPath classPath = DefaultClassPath.of(classpath);
+        final Iterable<String> packages = Sets.newTreeSet(sharedPackages);
+        final int weightInKiloBytes = weightInKiloBytes(classPath);
+        if (weightInKiloBytes > maxWeightInKiloBytes) {
+            // The cache is disabled or the class loader would be evicted as soon as it is added
+            CachedClassLoader classLoader = createClassLoader(classPath, packages, weightInKiloBytes);
+            classLoader.use();
+            // Discard as soon as the work item is done with it
+            classLoader.evict();
+            return new Lease(classLoader, false);
+        }
+        HashCode key = hash(classPath, packages);
+        while (true) {
+            final boolean[] created = new boolean[1];
+            CachedClassLoader cachedClassLoader;
+            try {
+                cachedClassLoader = cache.get(key, new Callable<CachedClassLoader>() {
+                    @Override
+                    public CachedClassLoader call() {
+                        // Hold a use from the start, so an eviction before this thread gets hold of the class loader does not discard it
+                        CachedClassLoader classLoader = createClassLoader(classPath, packages, weightInKiloBytes);
+                        classLoader.use();
+                        created[0] = true;
+                        return classLoader;
+                    }
+                });
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+            if (created[0]) {
+                return new Lease(cachedClassLoader, false);
+            }
+            if (cachedClassLoader.use()) {
+                return new Lease(cachedClassLoader, true);
+            }
+            // Evicted concurrently, try again
+        }
+    }
+
+    @Override
+    public void stop() {
+        cache.invalidateAll();
+    }
+
+    private HashCode hash(ClassPath classPath, Iterable<String> sharedPackages) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putHash(classpathHasher.hash(classPath));
+        for (String sharedPackage : sharedPackages) {
+            hasher.putString(sharedPackage);
+        }
+        return hasher.hash();
+    }
+
+    private CachedClassLoader createClassLoader(ClassPath classPath, Iterable<String> sharedPackages, int weightInKiloBytes) {
+        ClassLoader actionClasspathLoader = classLoaderFactory.createIsolatedClassLoader(classPath);
+        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+
+        FilteringClassLoader.Spec actionFilterSpec = new FilteringClassLoader.Spec();
+        for (String packageName : sharedPackages) {
+            actionFilterSpec.allowPackage(packageName);
+        }
+        ClassLoader actionFilteredClasspathLoader = classLoaderFactory.createFilteringClassLoader(actionClasspathLoader, actionFilterSpec);
+        return new CachedClassLoader(actionClasspathLoader, actionFilteredClasspathLoader, actionClasspathGroovy, weightInKiloBytes);
+    }
+
+    private static int weightInKiloBytes(ClassPath classPath) {
+        long size = 0;
+        for (File file : classPath.getAsFiles()) {
+            size += file.length();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(size / 1024, 1));
+    }
+
+    public static class Lease {
+        private final CachedClassLoader classLoader;
+        private final boolean cacheHit;
+        private boolean released;
+
+        private Lease(CachedClassLoader classLoader, boolean cacheHit) {
+            this.classLoader = classLoader;
+            this.cacheHit = cacheHit;
+        }
+
+        /**
+         * The class loader for the classpath, filtered to the shared packages.
+         */
+        public ClassLoader getClassLoader() {
+            return classLoader.filteredLoader;
+        }
+
+        public boolean isCacheHit() {
+            return cacheHit;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                classLoader.release();
+            }
+        }
+    }
+
+    private static class CachedClassLoader {
+        private final ClassLoader loader;
+        private final ClassLoader filteredLoader;
+        private final GroovySystemLoader groovySystemLoader;
+        private final int weightInKiloBytes;
+        private int uses;
+        private boolean evicted;
+
+        CachedClassLoader(ClassLoader loader, ClassLoader filteredLoader, GroovySystemLoader groovySystemLoader, int weightInKiloBytes) {
+            this.loader = loader;
+            this.filteredLoader = filteredLoader;
+            this.groovySystemLoader = groovySystemLoader;
+            this.weightInKiloBytes = weightInKiloBytes;
+        }
+
+        synchronized boolean use() {
+            if (evicted) {
+                return false;
+            }
+            uses++;
+            return true;
+        }
+
+        void release() {
+            synchronized (this) {
+                uses--;
+                if (uses > 0 || !evicted) {
+                    return;
+                }
+            }
+            discard();
+        }
+
+        void evict() {
+            synchronized (this) {
+                evicted = true;
+                if (uses > 0) {
+                    return;
+                }
+            }
+            discard();
+        }
+
+        private void discard() {
+            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
+            groovySystemLoader.shutdown();
+            ClassLoaderUtils.tryClose(loader);
+        }
+    }
+}
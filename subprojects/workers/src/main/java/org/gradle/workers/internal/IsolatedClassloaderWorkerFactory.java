@@ -18,8 +18,6 @@ package org.gradle.workers.internal;
 
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
-import org.gradle.api.internal.classloading.GroovySystemLoader;
-import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
@@ -30,7 +28,6 @@ import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MultiParentClassLoader;
 import org.gradle.internal.classloader.VisitableURLClassLoader;
-import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.event.DefaultListenerManager;
 import org.gradle.internal.io.ClassLoaderObjectInputStream;
 import org.gradle.internal.operations.BuildOperationContext;
@@ -58,12 +55,13 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
     private final ClassLoaderFactory classLoaderFactory;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
-    private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
+    private final IsolatedClassLoaderCache classLoaderCache;
 
-    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, IsolatedClassLoaderCache classLoaderCache) {
         this.classLoaderFactory = classLoaderFactory;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.classLoaderCache = classLoaderCache;
     }
 
     @Override
@@ -81,12 +79,14 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
                     return buildOperationExecutor.call(new CallableBuildOperation<DefaultWorkResult>() {
                         @Override
                         public DefaultWorkResult call(BuildOperationContext context) {
-                            return executeInWorkerClassLoader(spec, forkOptions);
+                            return executeInWorkerClassLoader(spec, forkOptions, context);
                         }
 
                         @Override
                         public BuildOperationDescriptor.Builder description() {
-                            return BuildOperationDescriptor.displayName(spec.getDisplayName()).parent(parentBuildOperation);
+                            return BuildOperationDescriptor.displayName(spec.getDisplayName())
+                                .details(new ExecuteWorkItemBuildOperationType.DetailsImpl(spec, IsolationMode.CLASSLOADER))
+                                .parent(parentBuildOperation);
                         }
                     });
                 } finally {
@@ -101,38 +101,26 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         return IsolationMode.CLASSLOADER;
     }
 
-    private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
-        ClassLoader actionClasspathLoader = createActionClasspathLoader(forkOptions);
-        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
-
-        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
-
+    private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions, BuildOperationContext context) {
+        IsolatedClassLoaderCache.Lease actionClasspathLoader = classLoaderCache.acquire(forkOptions.getClasspath(), forkOptions.getSharedPackages());
         ClassLoader previousContextLoader = Thread.currentThread().getContextClassLoader();
         try {
+            ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader.getClassLoader(), spec.getClass());
             Thread.currentThread().setContextClassLoader(workerClassLoader);
             Callable<?> worker = transferWorkerIntoWorkerClassloader(spec, workerClassLoader);
             Object result = worker.call();
-            return transferResultFromWorkerClassLoader(result);
+            DefaultWorkResult workResult = transferResultFromWorkerClassLoader(result);
+            context.setResult(ExecuteWorkItemBuildOperationType.ResultImpl.inClassLoader(actionClasspathLoader.isCacheHit()));
+            return workResult;
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         } finally {
-            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
-            actionClasspathGroovy.shutdown();
             Thread.currentThread().setContextClassLoader(previousContextLoader);
+            actionClasspathLoader.release();
         }
     }
 
-    private ClassLoader createActionClasspathLoader(DaemonForkOptions forkOptions) {
-        return classLoaderFactory.createIsolatedClassLoader(DefaultClassPath.of(forkOptions.getClasspath()));
-    }
-
-    private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
-        FilteringClassLoader.Spec actionFilterSpec = new FilteringClassLoader.Spec();
-        for (String packageName : sharedPackages) {
-            actionFilterSpec.allowPackage(packageName);
-        }
-        ClassLoader actionFilteredClasspathLoader = classLoaderFactory.createFilteringClassLoader(actionClasspathLoader, actionFilterSpec);
-
+    private ClassLoader createWorkerClassLoader(ClassLoader actionFilteredClasspathLoader, Class<?> actionClass) {
         FilteringClassLoader.Spec gradleApiFilterSpec = new FilteringClassLoader.Spec();
         // Logging
         gradleApiFilterSpec.allowPackage("org.slf4j");
@@ -67,23 +67,31 @@ public class WorkerDaemonClientsManager implements Stoppable {
         return reserveIdleClient(forkOptions, idleClients);
     }
 
+    /**
+     * Prefers the compatible client that has been used the most, so that work is packed into as few daemons as possible.
+     * These daemons stay warm, while the rarely used ones are the first to be expired when memory runs low.
+     */
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
+            WorkerDaemonClient selected = null;
             Iterator<WorkerDaemonClient> it = clients.iterator();
             while (it.hasNext()) {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
                     if (candidate.getLogLevel() != currentLogLevel) {
+                        it.remove();
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
                         candidate.stop();
-                    } else {
-                        return candidate;
+                    } else if (selected == null || candidate.getUses() > selected.getUses()) {
+                        selected = candidate;
                     }
                 }
             }
-            return null;
+            if (selected != null) {
+                clients.remove(selected);
+            }
+            return selected;
         }
     }
 
@@ -96,6 +104,18 @@ public class WorkerDaemonClientsManager implements Stoppable {
         return client;
     }
 
+    public int getClientCount() {
+        synchronized (lock) {
+            return allClients.size();
+        }
+    }
+
+    public int getBusyClientCount() {
+        synchronized (lock) {
+            return allClients.size() - idleClients.size();
+        }
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
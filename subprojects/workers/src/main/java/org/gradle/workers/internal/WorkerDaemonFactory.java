@@ -79,12 +79,18 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
                 return buildOperationExecutor.call(new CallableBuildOperation<DefaultWorkResult>() {
                     @Override
                     public DefaultWorkResult call(BuildOperationContext context) {
-                        return client.execute(spec);
+                        int busyWorkerDaemons = clientsManager.getBusyClientCount();
+                        int workerDaemons = clientsManager.getClientCount();
+                        DefaultWorkResult result = client.execute(spec);
+                        context.setResult(ExecuteWorkItemBuildOperationType.ResultImpl.inWorkerDaemon(busyWorkerDaemons, workerDaemons));
+                        return result;
                     }
 
                     @Override
                     public BuildOperationDescriptor.Builder description() {
-                        return BuildOperationDescriptor.displayName(spec.getDisplayName()).parent(parentBuildOperation);
+                        return BuildOperationDescriptor.displayName(spec.getDisplayName())
+                            .details(new ExecuteWorkItemBuildOperationType.DetailsImpl(spec, IsolationMode.PROCESS))
+                            .parent(parentBuildOperation);
                     }
                 });
             }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import org.gradle.internal.classloader.ClassLoaderFactory
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class IsolatedClassLoaderCacheTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def classLoaderFactory = Mock(ClassLoaderFactory)
+    def classpathHasher = Stub(ClasspathHasher)
+    def classpath = [new File("a.jar"), new File("b.jar")]
+
+    def setup() {
+        System.setProperty(IsolatedClassLoaderCache.CACHE_SIZE_PROPERTY_NAME, "64m")
+        classpathHasher.hash(DefaultClassPath.of(classpath)) >> HashCode.fromInt(1)
+        classpathHasher.hash(DefaultClassPath.of([new File("c.jar")])) >> HashCode.fromInt(2)
+    }
+
+    def "reuses class loader for the same classpath and shared packages"() {
+        def cache = new IsolatedClassLoaderCache(classLoaderFactory, classpathHasher)
+
+        when:
+        def first = cache.acquire(classpath, ["org.foo"])
+        first.release()
+        def second = cache.acquire(classpath, ["org.foo"])
+
+        then:
+        1 * classLoaderFactory.createIsolatedClassLoader(_) >> newClassLoader()
+        1 * classLoaderFactory.createFilteringClassLoader(_, _) >> newClassLoader()
+        !first.cacheHit
+        second.cacheHit
+        second.classLoader.is(first.classLoader)
+    }
+
+    def "creates separate class loaders for different classpaths or shared packages"() {
+        def cache = new IsolatedClassLoaderCache(classLoaderFactory, classpathHasher)
+
+        when:
+        def first = cache.acquire(classpath, ["org.foo"])
+        def second = cache.acquire(classpath, ["org.bar"])
+        def third = cache.acquire([new File("c.jar")], ["org.foo"])
+
+        then:
+        3 * classLoaderFactory.createIsolatedClassLoader(_) >> { newClassLoader() }
+        3 * classLoaderFactory.createFilteringClassLoader(_, _) >> { newClassLoader() }
+        !first.cacheHit
+        !second.cacheHit
+        !third.cacheHit
+    }
+
+    @Unroll
+    def "creates a new class loader for every work item when the cache size is #cacheSize"() {
+        if (cacheSize == null) {
+            System.clearProperty(IsolatedClassLoaderCache.CACHE_SIZE_PROPERTY_NAME)
+        } else {
+            System.setProperty(IsolatedClassLoaderCache.CACHE_SIZE_PROPERTY_NAME, cacheSize)
+        }
+        def cache = new IsolatedClassLoaderCache(classLoaderFactory, classpathHasher)
+
+        when:
+        cache.acquire(classpath, ["org.foo"]).release()
+        def second = cache.acquire(classpath, ["org.foo"])
+
+        then:
+        2 * classLoaderFactory.createIsolatedClassLoader(_) >> { newClassLoader() }
+        2 * classLoaderFactory.createFilteringClassLoader(_, _) >> { newClassLoader() }
+        !second.cacheHit
+
+        where:
+        cacheSize << [null, "0"]
+    }
+
+    def "creates a new class loader for every work item when the classpath is larger than the cache"() {
+        System.setProperty(IsolatedClassLoaderCache.CACHE_SIZE_PROPERTY_NAME, "4k")
+        def largeJar = tmpDir.file("large.jar")
+        largeJar.bytes = new byte[8 * 1024]
+        classpathHasher.hash(DefaultClassPath.of([largeJar])) >> HashCode.fromInt(3)
+        def cache = new IsolatedClassLoaderCache(classLoaderFactory, classpathHasher)
+
+        when:
+        def first = cache.acquire([largeJar], ["org.foo"])
+        def second = cache.acquire([largeJar], ["org.foo"])
+        def third = cache.acquire(classpath, ["org.foo"])
+        first.release()
+        def fourth = cache.acquire(classpath, ["org.foo"])
+
+        then:
+        3 * classLoaderFactory.createIsolatedClassLoader(_) >> { newClassLoader() }
+        3 * classLoaderFactory.createFilteringClassLoader(_, _) >> { newClassLoader() }
+        !first.cacheHit
+        !second.cacheHit
+        !second.classLoader.is(first.classLoader)
+        !third.cacheHit
+        fourth.cacheHit
+    }
+
+    private static ClassLoader newClassLoader() {
+        return new URLClassLoader(new URL[0], (ClassLoader) null)
+    }
+}
@@ -63,6 +63,32 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "reserves the most used compatible idle client"() {
+        def noMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> false; getUses() >> 10 }
+        def rarelyUsed = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true; getUses() >> 1 }
+        def oftenUsed = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true; getUses() >> 5 }
+        def input = [noMatch, rarelyUsed, oftenUsed]
+
+        expect:
+        manager.reserveIdleClient(options, input) == oftenUsed
+        input == [noMatch, rarelyUsed]
+    }
+
+    def "counts busy clients"() {
+        def client1 = Stub(WorkerDaemonClient)
+        def client2 = Stub(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.release(client1)
+
+        then:
+        manager.clientCount == 2
+        manager.busyClientCount == 1
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >> newClient
@@ -16,6 +16,7 @@
 
 package org.gradle.workers.internal
 
+import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.BuildOperationRef
 import org.gradle.internal.work.WorkerLeaseRegistry
@@ -68,7 +69,7 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * clientsManager.reserveNewClient(WorkerDaemonServer.class, options) >> client
 
         then:
-        1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
+        1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec)
 
         then:
@@ -84,7 +85,7 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * clientsManager.reserveIdleClient(options) >> client
 
         then:
-        1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
+        1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec)
 
         then:
@@ -100,7 +101,7 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * clientsManager.reserveIdleClient(options) >> client
 
         then:
-        1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
+        1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 
         then:
@@ -142,7 +143,7 @@ class WorkerDaemonFactoryTest extends Specification {
         then:
         1 * workerOperation.startChild() >> completion
         1 * clientsManager.reserveIdleClient(options) >> client
-        1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
+        1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 
         then: